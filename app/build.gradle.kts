@@ -35,9 +35,21 @@ android {
         targetCompatibility = JavaVersion.VERSION_17
     }
 
-    // Enables view binding.
+    // Enables view binding, and BuildConfig for debug-only logging.
     buildFeatures {
         viewBinding = true
+        buildConfig = true
+    }
+
+    // Lets local unit tests call android.util.Log and other framework stubs without crashing,
+    // and gives Robolectric tests the merged resources. Benchmarks next to the unit tests are
+    // skipped unless the build runs with -Pbenchmarks.
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+        unitTests.isIncludeAndroidResources = true
+        unitTests.all {
+            it.systemProperty("benchmarks", project.hasProperty("benchmarks"))
+        }
     }
 }
 // Declares dependencies for the app module.
@@ -47,6 +59,7 @@ dependencies {
     implementation("com.google.android.material:material:1.12.0")
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
     implementation("androidx.fragment:fragment:1.6.2")
+    implementation("androidx.customview:customview:1.1.0")
 
     // MVVM architecture components.
     implementation("androidx.lifecycle:lifecycle-livedata:2.7.0")
@@ -66,6 +79,10 @@ dependencies {
 
     // Testing libraries.
     testImplementation("junit:junit:4.13.2")
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.11.0")
+    testImplementation("androidx.arch.core:core-testing:2.2.0")
+    testImplementation("org.robolectric:robolectric:4.11.1")
+    testImplementation("androidx.test:core:1.5.0")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.usth.githubclient;
+
+import android.app.Application;
+
+import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.di.ServiceLocator;
+
+import java.io.File;
+
+/**
+ * Application entry point that prepares process-wide resources before any screen is shown.
+ */
+public class GitHubClientApplication extends Application {
+
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    private static final long HTTP_CACHE_SIZE_BYTES = 10L * 1024 * 1024;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Install the HTTP cache before the shared client handles its first request.
+        ApiClient.installCache(new File(getCacheDir(), HTTP_CACHE_DIR), HTTP_CACHE_SIZE_BYTES);
+        ServiceLocator.init(this);
+    }
+}
@@ -3,7 +3,10 @@ package com.usth.githubclient.activities;
 import android.annotation.SuppressLint;
 import android.content.Intent;
 import android.content.res.ColorStateList;
+import android.database.Cursor;
+import android.database.MatrixCursor;
 import android.os.Bundle;
+import android.provider.BaseColumns;
 import android.util.TypedValue;
 import android.view.View;
 import android.widget.ImageView;
@@ -11,6 +14,7 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.SearchView;
 import androidx.core.widget.ImageViewCompat;
+import androidx.cursoradapter.widget.SimpleCursorAdapter;
 import androidx.fragment.app.Fragment;
 import androidx.viewpager2.widget.ViewPager2;
 
@@ -18,8 +22,13 @@ import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.color.MaterialColors;
 import com.usth.githubclient.R;
 import com.usth.githubclient.adapters.ViewPagerAdapter;
+import com.usth.githubclient.data.local.SuggestionIndex;
+import com.usth.githubclient.di.ServiceLocator;
 import com.usth.githubclient.fragments.SearchReposFragment;
 import com.usth.githubclient.fragments.SearchUsersFragment;
+import com.usth.githubclient.util.QueryDebouncer;
+
+import java.util.List;
 
 /**
  * The main screen of the app, hosting the ViewPager for different fragments
@@ -27,9 +36,18 @@ import com.usth.githubclient.fragments.SearchUsersFragment;
  */
 public class MainActivity extends AppCompatActivity {
 
+    // Search once typing pauses, and only for queries long enough to be selective.
+    private static final long SEARCH_DEBOUNCE_MILLIS = 350L;
+    private static final int MIN_SEARCH_LENGTH = 3;
+    private static final String COLUMN_SUGGESTION = "suggestion";
+    private static final String[] SUGGESTION_COLUMNS = {BaseColumns._ID, COLUMN_SUGGESTION};
+
     private ViewPager2 viewPager;
     private BottomNavigationView navView;
     private ViewPagerAdapter viewPagerAdapter;
+    private QueryDebouncer searchDebouncer;
+    private SuggestionIndex suggestionIndex;
+    private SimpleCursorAdapter suggestionAdapter;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -85,6 +103,14 @@ public class MainActivity extends AppCompatActivity {
                     navView.getMenu().findItem(R.id.nav_home).setChecked(true);
                 }
                 updateSearchHint();
+                // The new tab has not searched for the text in the box yet, so search it there now.
+                if (searchDebouncer != null) {
+                    searchDebouncer.reset();
+                    CharSequence query = ((SearchView) findViewById(R.id.search_view)).getQuery();
+                    if (query != null && query.toString().trim().length() > 0) {
+                        searchDebouncer.submit(query.toString());
+                    }
+                }
             }
         });
     }
@@ -96,30 +122,63 @@ public class MainActivity extends AppCompatActivity {
         SearchView searchView = findViewById(R.id.search_view);
         updateSearchHint();
 
-        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+        searchDebouncer = new QueryDebouncer(SEARCH_DEBOUNCE_MILLIS, MIN_SEARCH_LENGTH, new QueryDebouncer.Target() {
             @Override
-            public boolean onQueryTextSubmit(String query) {
+            public void onQuery(String query) {
                 // Submit the search query to the current fragment.
-                Fragment currentFragment = getSupportFragmentManager().findFragmentByTag("f" + viewPager.getCurrentItem());
+                Fragment currentFragment = currentFragment();
+                if (currentFragment instanceof SearchUsersFragment) {
+                    ((SearchUsersFragment) currentFragment).submitQuery(query);
+                } else if (currentFragment instanceof SearchReposFragment) {
+                    ((SearchReposFragment) currentFragment).submitQuery(query);
+                }
+            }
+
+            @Override
+            public void onCleared() {
+                Fragment currentFragment = currentFragment();
                 if (currentFragment instanceof SearchUsersFragment) {
-                    ((SearchUsersFragment) currentFragment).submitQuery(query.trim());
+                    ((SearchUsersFragment) currentFragment).showFollowers();
                 } else if (currentFragment instanceof SearchReposFragment) {
-                    ((SearchReposFragment) currentFragment).submitQuery(query.trim());
+                    ((SearchReposFragment) currentFragment).showMyRepos();
+                }
+            }
+        });
+
+        // Instant suggestions from the users and repositories already seen, before any request is made.
+        suggestionIndex = ServiceLocator.getInstance().suggestionIndex();
+        suggestionAdapter = new SimpleCursorAdapter(this, android.R.layout.simple_list_item_1, null,
+                new String[]{COLUMN_SUGGESTION}, new int[]{android.R.id.text1}, 0);
+        searchView.setSuggestionsAdapter(suggestionAdapter);
+        searchView.setOnSuggestionListener(new SearchView.OnSuggestionListener() {
+            @Override
+            public boolean onSuggestionSelect(int position) {
+                return false;
+            }
+
+            @Override
+            public boolean onSuggestionClick(int position) {
+                Cursor cursor = suggestionAdapter.getCursor();
+                if (cursor != null && cursor.moveToPosition(position)) {
+                    searchView.setQuery(cursor.getString(1), true);
                 }
                 return true;
             }
+        });
+
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                // Search right away, whatever the length of the query.
+                searchDebouncer.submit(query);
+                return true;
+            }
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                // Handle text changes in the search view (e.g., clear search).
-                Fragment currentFragment = getSupportFragmentManager().findFragmentByTag("f" + viewPager.getCurrentItem());
-                if (newText == null || newText.trim().isEmpty()) {
-                    if (currentFragment instanceof SearchUsersFragment) {
-                        ((SearchUsersFragment) currentFragment).showFollowers();
-                    } else if (currentFragment instanceof SearchReposFragment) {
-                        ((SearchReposFragment) currentFragment).showMyRepos();
-                    }
-                }
+                // Search as the user types; clearing the box goes back to the default list at once.
+                searchDebouncer.onTextChanged(newText);
+                showSuggestions(newText);
                 return false;
             }
         });
@@ -137,6 +196,7 @@ public class MainActivity extends AppCompatActivity {
             searchText.setTextColor(onSurface);
             searchText.setHintTextColor(onSurfaceVariant);
             searchText.setTextSize(TypedValue.COMPLEX_UNIT_SP, 16f);
+            searchText.setThreshold(1);
         }
         int iconTint = MaterialColors.getColor(searchView, com.google.android.material.R.attr.colorOnSurfaceVariant);
         ImageView searchIcon = searchView.findViewById(androidx.appcompat.R.id.search_mag_icon);
@@ -151,6 +211,41 @@ public class MainActivity extends AppCompatActivity {
         searchView.clearFocus();
     }
 
+    @Override
+    protected void onDestroy() {
+        if (searchDebouncer != null) {
+            searchDebouncer.reset();
+        }
+        if (suggestionAdapter != null) {
+            suggestionAdapter.changeCursor(null);
+        }
+        super.onDestroy();
+    }
+
+    /**
+     * Shows the indexed users or repositories, depending on the tab, whose names start with the text.
+     */
+    private void showSuggestions(@Nullable String text) {
+        SuggestionIndex.Kind kind = viewPager.getCurrentItem() == 0
+                ? SuggestionIndex.Kind.USER : SuggestionIndex.Kind.REPO;
+        List<SuggestionIndex.Suggestion> suggestions =
+                suggestionIndex.suggest(text, kind, SuggestionIndex.DEFAULT_LIMIT);
+        MatrixCursor cursor = new MatrixCursor(SUGGESTION_COLUMNS, suggestions.size());
+        String typed = text == null ? "" : text.trim();
+        for (int i = 0; i < suggestions.size(); i++) {
+            String suggestion = suggestions.get(i).getText();
+            if (!suggestion.equalsIgnoreCase(typed)) {
+                cursor.addRow(new Object[]{i, suggestion});
+            }
+        }
+        suggestionAdapter.changeCursor(cursor);
+    }
+
+    @Nullable
+    private Fragment currentFragment() {
+        return getSupportFragmentManager().findFragmentByTag("f" + viewPager.getCurrentItem());
+    }
+
     /**
      * Updates the hint text of the SearchView based on the current fragment.
      */
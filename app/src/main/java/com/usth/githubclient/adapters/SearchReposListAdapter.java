@@ -11,28 +11,71 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.usth.githubclient.R;
-import com.usth.githubclient.data.remote.GithubApiService;
 import com.usth.githubclient.data.remote.dto.RepoDto;
+import com.usth.githubclient.data.repository.StarredRepoStore;
+import com.usth.githubclient.di.AppScheduler;
+import com.usth.githubclient.di.ServiceLocator;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.StringJoiner;
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
 
 /**
  * RecyclerView adapter for displaying a list of repositories.
+ * New lists are diffed against the current one on a background thread, so only the rows that
+ * actually changed are rebound. Star state comes from the {@link StarredRepoStore}, so binding a
+ * row never touches the network.
  */
-public class SearchReposListAdapter extends RecyclerView.Adapter<SearchReposListAdapter.VH> {
+public class SearchReposListAdapter extends ListAdapter<RepoDto, SearchReposListAdapter.VH> {
 
-    private final List<RepoDto> items = new ArrayList<>();
-    private final GithubApiService apiService;
+    @VisibleForTesting
+    static final DiffUtil.ItemCallback<RepoDto> DIFF_CALLBACK = new DiffUtil.ItemCallback<RepoDto>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull RepoDto oldItem, @NonNull RepoDto newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        // Every field of the DTO, so a field added to the row later is never missed.
+        @Override
+        public boolean areContentsTheSame(@NonNull RepoDto oldItem, @NonNull RepoDto newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    // Rebinds only the star button when the starred set changes.
+    private static final Object PAYLOAD_STAR = new Object();
+
+    private final StarredRepoStore starredRepoStore;
+    private final StarredRepoStore.Listener starredListener =
+            () -> notifyItemRangeChanged(0, getItemCount(), PAYLOAD_STAR);
+
+    public SearchReposListAdapter(StarredRepoStore starredRepoStore) {
+        // Diff on the shared CPU pool rather than a private thread of the differ.
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(ServiceLocator.getInstance().scheduler()
+                        .executor(AppScheduler.Pool.CPU, AppScheduler.Priority.NORMAL))
+                .build());
+        this.starredRepoStore = starredRepoStore;
+        setHasStableIds(true);
+    }
 
-    public SearchReposListAdapter(GithubApiService apiService) {
-        this.apiService = apiService;
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        starredRepoStore.addListener(starredListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        starredRepoStore.removeListener(starredListener);
+        super.onDetachedFromRecyclerView(recyclerView);
     }
 
     /**
@@ -40,11 +83,13 @@ public class SearchReposListAdapter extends RecyclerView.Adapter<SearchReposList
      * @param newItems The new list of repositories.
      */
     public void submit(List<RepoDto> newItems) {
-        items.clear();
-        if (newItems != null) {
-            items.addAll(newItems);
-        }
-        notifyDataSetChanged();
+        // The differ ignores the list it already holds, so always hand it a copy.
+        submitList(newItems == null ? Collections.emptyList() : new ArrayList<>(newItems));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
     @NonNull
@@ -55,9 +100,18 @@ public class SearchReposListAdapter extends RecyclerView.Adapter<SearchReposList
         return new VH(v);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull VH h, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && payloads.stream().allMatch(p -> p == PAYLOAD_STAR)) {
+            updateStarButtonUI(starredRepoStore.isStarred(getItem(position).getFullName()), h.btnStarRepo);
+            return;
+        }
+        super.onBindViewHolder(h, position, payloads);
+    }
+
     @Override
     public void onBindViewHolder(@NonNull VH h, int position) {
-        final RepoDto repo = items.get(position);
+        final RepoDto repo = getItem(position);
         final Context context = h.itemView.getContext();
 
         // Bind repository data to the views.
@@ -99,80 +153,23 @@ public class SearchReposListAdapter extends RecyclerView.Adapter<SearchReposList
             final String owner = parts[0];
             final String name = parts[1];
 
-            // Check if the repository is starred and update the star button.
-            checkIfRepoIsStarred(owner, name, h.btnStarRepo);
+            // A memory lookup; a repository missing from a truncated set is checked in the background.
+            updateStarButtonUI(starredRepoStore.isStarred(repo.getFullName()), h.btnStarRepo);
 
             // Handle star button click to star or unstar the repository.
             h.btnStarRepo.setOnClickListener(v -> {
-                boolean isStarred = (boolean) v.getTag();
-                if (isStarred) {
-                    unstarRepo(owner, name, h.btnStarRepo);
+                Context buttonContext = v.getContext();
+                if (starredRepoStore.isStarred(repo.getFullName())) {
+                    starredRepoStore.unstar(owner, name, success -> Toast.makeText(buttonContext,
+                            success ? "Unstarred!" : "Failed to unstar", Toast.LENGTH_SHORT).show());
                 } else {
-                    starRepo(owner, name, h.btnStarRepo);
+                    starredRepoStore.star(owner, name, success -> Toast.makeText(buttonContext,
+                            success ? "Starred!" : "Failed to star", Toast.LENGTH_SHORT).show());
                 }
             });
         }
     }
 
-    /**
-     * Checks if a repository is starred by the authenticated user.
-     * @param owner The repository owner.
-     * @param repo The repository name.
-     * @param button The star button to update.
-     */
-    private void checkIfRepoIsStarred(String owner, String repo, ImageButton button) {
-        apiService.isRepoStarred(owner, repo).enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(Call<Void> call, Response<Void> response) {
-                boolean isStarred = response.code() == 204;
-                updateStarButtonUI(isStarred, button);
-            }
-
-            @Override
-            public void onFailure(Call<Void> call, Throwable t) {
-                updateStarButtonUI(false, button);
-            }
-        });
-    }
-
-    /**
-     * Stars a repository.
-     */
-    private void starRepo(String owner, String repo, ImageButton button) {
-        apiService.starRepo(owner, repo).enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(Call<Void> call, Response<Void> response) {
-                if (response.isSuccessful()) {
-                    updateStarButtonUI(true, button);
-                    Toast.makeText(button.getContext(), "Starred!", Toast.LENGTH_SHORT).show();
-                }
-            }
-            @Override
-            public void onFailure(Call<Void> call, Throwable t) {
-                Toast.makeText(button.getContext(), "Failed to star", Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-
-    /**
-     * Unstars a repository.
-     */
-    private void unstarRepo(String owner, String repo, ImageButton button) {
-        apiService.unstarRepo(owner, repo).enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(Call<Void> call, Response<Void> response) {
-                if (response.isSuccessful()) {
-                    updateStarButtonUI(false, button);
-                    Toast.makeText(button.getContext(), "Unstarred!", Toast.LENGTH_SHORT).show();
-                }
-            }
-            @Override
-            public void onFailure(Call<Void> call, Throwable t) {
-                Toast.makeText(button.getContext(), "Failed to unstar", Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-
     /**
      * Updates the UI of the star button.
      * @param isStarred True if the repository is starred, false otherwise.
@@ -188,11 +185,6 @@ public class SearchReposListAdapter extends RecyclerView.Adapter<SearchReposList
         button.setTag(isStarred);
     }
 
-    @Override
-    public int getItemCount() {
-        return items.size();
-    }
-
     /**
      * ViewHolder for repository items.
      */
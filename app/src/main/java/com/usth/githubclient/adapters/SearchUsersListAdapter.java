@@ -2,57 +2,181 @@ package com.usth.githubclient.adapters;
 
 import android.content.Context;
 import android.content.Intent;
+import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
 import com.usth.githubclient.R;
 import com.usth.githubclient.activities.UserProfileActivity;
+import com.usth.githubclient.data.repository.RequestHandle;
+import com.usth.githubclient.di.AppScheduler;
+import com.usth.githubclient.di.ServiceLocator;
+import com.usth.githubclient.domain.model.GitHubUserProfileDataEntry;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 
 /**
  * RecyclerView adapter for displaying a list of users.
  * It manages how user data is bound to the views in the list.
+ * New lists are diffed on a background thread, and details loaded for a login are kept across
+ * submits, so a refresh only rebinds the rows that actually changed.
  */
-public class SearchUsersListAdapter extends RecyclerView.Adapter<SearchUsersListAdapter.VH> {
+public class SearchUsersListAdapter extends ListAdapter<SearchUsersListAdapter.UserRow, SearchUsersListAdapter.VH> {
+
+    // Enough for several pages of followers and search results.
+    private static final int MAX_CACHED_DETAILS = 500;
 
     /**
      * Inner class 'UserRow' defines the data structure for a single row.
      * It only contains the necessary information for display, helping to separate
      * the UI from the full Data Transfer Object (DTO) from the API.
+     * Rows are immutable; the details loaded later are held by the adapter.
      */
     public static class UserRow {
+        public final long id;
         public final String login;
         public final String avatarUrl;
-        public String displayName; // Real name (can be null)
-        public String bio;
-        public Integer publicRepos;
-        public Integer followers;
 
-        public UserRow(String login, String avatarUrl) {
+        public UserRow(long id, String login, String avatarUrl) {
+            this.id = id;
             this.login = login;
             this.avatarUrl = avatarUrl;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof UserRow)) return false;
+            UserRow other = (UserRow) o;
+            return id == other.id
+                    && Objects.equals(login, other.login)
+                    && Objects.equals(avatarUrl, other.avatarUrl);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, login, avatarUrl);
+        }
+    }
+
+    /**
+     * Details loaded after the row was submitted: real name, bio and counts.
+     */
+    private static final class Details {
+        final String displayName;
+        final String bio;
+        final Integer publicRepos;
+        final Integer followers;
+
+        Details(String displayName, String bio, Integer publicRepos, Integer followers) {
+            this.displayName = displayName;
+            this.bio = bio;
+            this.publicRepos = publicRepos;
+            this.followers = followers;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Details)) return false;
+            Details other = (Details) o;
+            return Objects.equals(displayName, other.displayName)
+                    && Objects.equals(bio, other.bio)
+                    && Objects.equals(publicRepos, other.publicRepos)
+                    && Objects.equals(followers, other.followers);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(displayName, bio, publicRepos, followers);
+        }
+    }
+
+    @VisibleForTesting
+    static final DiffUtil.ItemCallback<UserRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<UserRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull UserRow oldItem, @NonNull UserRow newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        // Details are not part of the row; they are redrawn through updateDetails.
+        @Override
+        public boolean areContentsTheSame(@NonNull UserRow oldItem, @NonNull UserRow newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    // Loaded details by lower-case login, least recently used first.
+    private final Map<String, Details> details = new LinkedHashMap<String, Details>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Details> eldest) {
+            return size() > MAX_CACHED_DETAILS;
+        }
+    };
+
+    // Position of each lower-case login in the current list, rebuilt whenever the differ commits a list.
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    public SearchUsersListAdapter() {
+        // Diff on the shared CPU pool rather than a private thread of the differ.
+        this(ServiceLocator.getInstance().scheduler().executor(AppScheduler.Pool.CPU, AppScheduler.Priority.NORMAL));
     }
 
-    // The list that holds the data to be displayed.
-    private final List<UserRow> items = new ArrayList<>();
+    /**
+     * @param diffExecutor Runs the list diffs; the result is still committed on the main thread.
+     */
+    @VisibleForTesting
+    SearchUsersListAdapter(@NonNull Executor diffExecutor) {
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(diffExecutor)
+                .build());
+        setHasStableIds(true);
+    }
 
     /**
      * Method to update the adapter's data list.
      * @param newItems The new list of users.
      */
     public void submit(List<UserRow> newItems) {
-        items.clear(); // Clear the old data.
-        if (newItems != null) items.addAll(newItems); // Add the new data.
-        notifyDataSetChanged(); // Notifies the RecyclerView that the entire dataset has changed
-        // and all items need to be redrawn.
+        // The differ ignores the list it already holds, so always hand it a copy.
+        submitList(newItems == null ? Collections.emptyList() : new ArrayList<>(newItems));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
+    }
+
+    @Override
+    public void onCurrentListChanged(@NonNull List<UserRow> previousList, @NonNull List<UserRow> currentList) {
+        positions.clear();
+        for (int i = 0; i < currentList.size(); i++) {
+            positions.put(key(currentList.get(i).login), i);
+        }
     }
 
     /**
@@ -65,41 +189,59 @@ public class SearchUsersListAdapter extends RecyclerView.Adapter<SearchUsersList
      * @param followers The new follower count.
      */
     public void updateDetails(String login, String displayName, String bio, Integer publicRepos, Integer followers) {
-        // Iterate through the list to find the user with the corresponding 'login'.
-        for (int i = 0; i < items.size(); i++) {
-            UserRow r = items.get(i);
-            if (r.login.equalsIgnoreCase(login)) {
-                boolean changed = false;
-                // Check if each information field has changed.
-                if ((displayName != null && !displayName.equals(r.displayName)) ||
-                        (displayName == null && r.displayName != null)) {
-                    r.displayName = displayName;
-                    changed = true;
-                }
-                if ((bio != null && !bio.equals(r.bio)) || (bio == null && r.bio != null)) {
-                    r.bio = bio;
-                    changed = true;
-                }
-                if ((publicRepos != null && !publicRepos.equals(r.publicRepos)) ||
-                        (publicRepos == null && r.publicRepos != null)) {
-                    r.publicRepos = publicRepos;
-                    changed = true;
-                }
-                if ((followers != null && !followers.equals(r.followers)) ||
-                        (followers == null && r.followers != null)) {
-                    r.followers = followers;
-                    changed = true;
-                }
-
-                if (changed) {
-                    // If there are any changes, notify the RecyclerView to update
-                    // only the single item at position 'i'.
-                    // This is much more efficient than notifyDataSetChanged().
-                    notifyItemChanged(i);
-                }
-                break; // Stop the loop after finding and updating.
+        int position = applyDetails(login, displayName, bio, publicRepos, followers);
+        if (position >= 0) {
+            // Only the single item at this position is redrawn.
+            notifyItemChanged(position);
+        }
+    }
+
+    /**
+     * Applies a batch of enrichment results, then redraws every changed row in one pass,
+     * one {@code notifyItemRangeChanged} per run of adjacent rows.
+     * @param users The users whose details were loaded.
+     */
+    public void updateDetails(Collection<GitHubUserProfileDataEntry> users) {
+        BitSet changed = new BitSet(getItemCount());
+        for (GitHubUserProfileDataEntry user : users) {
+            int position = applyDetails(
+                    user.getUsername(),
+                    user.getDisplayName().orElse(null),
+                    user.getBio().orElse(null),
+                    user.getPublicReposCount(),
+                    user.getFollowersCount());
+            if (position >= 0) {
+                changed.set(position);
             }
         }
+        int start = changed.nextSetBit(0);
+        while (start >= 0) {
+            int end = changed.nextClearBit(start);
+            notifyItemRangeChanged(start, end - start);
+            start = changed.nextSetBit(end);
+        }
+    }
+
+    /**
+     * Stores the details of a login.
+     * @return The position of the row to redraw, or -1 when nothing changed or the login is not shown.
+     */
+    private int applyDetails(String login, String displayName, String bio, Integer publicRepos, Integer followers) {
+        if (login == null) {
+            return -1;
+        }
+        String key = key(login);
+        Details updated = new Details(displayName, bio, publicRepos, followers);
+        Details previous = details.put(key, updated);
+        if (updated.equals(previous)) {
+            return -1;
+        }
+        Integer position = positions.get(key);
+        return position == null ? -1 : position;
+    }
+
+    private static String key(String login) {
+        return login.toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -120,12 +262,13 @@ public class SearchUsersListAdapter extends RecyclerView.Adapter<SearchUsersList
     @Override
     public void onBindViewHolder(@NonNull VH h, int position) {
         // Get the data for the row at the 'position'.
-        final UserRow row = items.get(position);
+        final UserRow row = getItem(position);
+        final Details loaded = details.get(key(row.login));
         final Context context = h.itemView.getContext();
 
         // Determine the name to display: prioritize displayName, otherwise use login.
-        String displayName = (row.displayName != null && !row.displayName.trim().isEmpty())
-                ? row.displayName
+        String displayName = (loaded != null && loaded.displayName != null && !loaded.displayName.trim().isEmpty())
+                ? loaded.displayName
                 : row.login;
         h.displayName.setText(displayName);
         h.displayName.setVisibility(View.VISIBLE);
@@ -133,16 +276,16 @@ public class SearchUsersListAdapter extends RecyclerView.Adapter<SearchUsersList
         h.username.setText("@" + row.login);
 
         // Show the bio if it exists.
-        if (row.bio != null && !row.bio.trim().isEmpty()) {
+        if (loaded != null && loaded.bio != null && !loaded.bio.trim().isEmpty()) {
             h.bio.setVisibility(View.VISIBLE);
-            h.bio.setText(row.bio);
+            h.bio.setText(loaded.bio);
         } else {
             h.bio.setVisibility(View.GONE);
         }
 
         // Show stats if they exist.
-        if (row.publicRepos != null && row.followers != null) {
-            String stats = row.publicRepos + " repositories · " + row.followers + " followers";
+        if (loaded != null && loaded.publicRepos != null && loaded.followers != null) {
+            String stats = loaded.publicRepos + " repositories · " + loaded.followers + " followers";
             h.stats.setVisibility(View.VISIBLE);
             h.stats.setText(stats);
         } else {
@@ -152,9 +295,13 @@ public class SearchUsersListAdapter extends RecyclerView.Adapter<SearchUsersList
         // Use the Glide library to load and display the avatar.
         // Glide is very efficient as it automatically handles loading images from a URL,
         // caching them, and displaying a placeholder while loading.
+        // The load belongs to this bind and is cancelled if the row is rebound or recycled first.
+        int generation = h.requests.begin();
+        h.avatarLoad = h.requests.track(generation, () -> Glide.with(h.avatar).clear(h.avatar));
         Glide.with(h.avatar.getContext())
                 .load(row.avatarUrl)
                 .placeholder(R.drawable.ic_person_placeholder)
+                .listener(h.avatarListener)
                 .into(h.avatar);
 
         // --- START OF CHANGE ---
@@ -168,10 +315,14 @@ public class SearchUsersListAdapter extends RecyclerView.Adapter<SearchUsersList
     }
 
     /**
-     * Returns the total number of items in the list.
+     * Cancels the avatar load of a row that scrolled away, so it neither uses bandwidth nor lands
+     * in the row once it shows another user.
      */
     @Override
-    public int getItemCount() { return items.size(); }
+    public void onViewRecycled(@NonNull VH h) {
+        h.requests.cancel();
+        super.onViewRecycled(h);
+    }
 
     /**
      * ViewHolder class: Holds references to the views within a single row.
@@ -183,6 +334,26 @@ public class SearchUsersListAdapter extends RecyclerView.Adapter<SearchUsersList
         TextView username;
         TextView bio;
         TextView stats;
+        // Requests started by the current bind.
+        final RequestHandle requests = new RequestHandle();
+        RequestHandle.Cancellable avatarLoad;
+        // One listener per row, so binding does not allocate one.
+        final RequestListener<Drawable> avatarListener = new RequestListener<Drawable>() {
+            @Override
+            public boolean onLoadFailed(@Nullable GlideException e, @Nullable Object model,
+                                        @NonNull Target<Drawable> target, boolean isFirstResource) {
+                finishAvatarLoad();
+                return false;
+            }
+
+            @Override
+            public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model, Target<Drawable> target,
+                                           @NonNull DataSource dataSource, boolean isFirstResource) {
+                finishAvatarLoad();
+                return false;
+            }
+        };
+
         VH(@NonNull View itemView) {
             super(itemView);
             // Map the views once in the constructor.
@@ -192,5 +363,11 @@ public class SearchUsersListAdapter extends RecyclerView.Adapter<SearchUsersList
             bio         = itemView.findViewById(R.id.bio);
             stats       = itemView.findViewById(R.id.stats);
         }
+
+        void finishAvatarLoad() {
+            if (avatarLoad != null) {
+                requests.finish(avatarLoad);
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.usth.githubclient.data.local;
+
+/**
+ * A value read from the local cache together with its age.
+ * @param <T> The type of the cached value.
+ */
+public final class CachedEntry<T> {
+
+    private final T value;
+    private final long fetchedAtMillis;
+    private final boolean stale;
+
+    CachedEntry(T value, long fetchedAtMillis, boolean stale) {
+        this.value = value;
+        this.fetchedAtMillis = fetchedAtMillis;
+        this.stale = stale;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public long getFetchedAtMillis() {
+        return fetchedAtMillis;
+    }
+
+    /**
+     * @return True if the entry is older than the TTL of its kind and should be revalidated.
+     */
+    public boolean isStale() {
+        return stale;
+    }
+}
@@ -0,0 +1,114 @@
+package com.usth.githubclient.data.local;
+
+import androidx.annotation.NonNull;
+
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Per-user contribution counts by local day, plus the newest event already counted.
+ * The high-water mark lets a refresh fetch only events newer than the last sync.
+ */
+public final class ContributionIndex {
+
+    private final String login;
+    private final ZoneId zone;
+    // Epoch day in {@link #zone} -> number of events.
+    private final TreeMap<Long, Integer> dayCounts;
+    private long watermarkEventId;
+    private long watermarkCreatedAt;
+    private long syncedAt;
+
+    public ContributionIndex(@NonNull String login, @NonNull ZoneId zone) {
+        this(login, zone, new TreeMap<>(), 0L, 0L, 0L);
+    }
+
+    ContributionIndex(String login, ZoneId zone, TreeMap<Long, Integer> dayCounts,
+                      long watermarkEventId, long watermarkCreatedAt, long syncedAt) {
+        this.login = login.toLowerCase(Locale.ROOT);
+        this.zone = zone;
+        this.dayCounts = dayCounts;
+        this.watermarkEventId = watermarkEventId;
+        this.watermarkCreatedAt = watermarkCreatedAt;
+        this.syncedAt = syncedAt;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * @return The id of the newest event counted, or 0 if none has been.
+     */
+    public long getWatermarkEventId() {
+        return watermarkEventId;
+    }
+
+    public long getWatermarkCreatedAt() {
+        return watermarkCreatedAt;
+    }
+
+    public long getSyncedAt() {
+        return syncedAt;
+    }
+
+    public void setSyncedAt(long syncedAt) {
+        this.syncedAt = syncedAt;
+    }
+
+    /**
+     * Adds day counts aggregated elsewhere, for example by a ContributionAggregator.
+     * @param firstEpochDay The day of {@code counts[0]}.
+     * @param counts The number of new events per day.
+     */
+    public void addCounts(long firstEpochDay, int[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                dayCounts.merge(firstEpochDay + i, counts[i], Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Moves the high-water mark forward if the event is the newest seen.
+     * @param eventId The GitHub event id.
+     * @param createdAtMillis When the event was created, in epoch milliseconds.
+     */
+    public void advanceWatermark(long eventId, long createdAtMillis) {
+        if (eventId > watermarkEventId) {
+            watermarkEventId = eventId;
+            watermarkCreatedAt = createdAtMillis;
+        }
+    }
+
+    /**
+     * Drops the counts of every day before the given one.
+     * @param epochDay The first day to keep.
+     */
+    public void pruneBefore(long epochDay) {
+        dayCounts.headMap(epochDay).clear();
+    }
+
+    /**
+     * @param epochDay A day in {@link #getZone()}.
+     * @return The number of events on that day.
+     */
+    public int getCount(long epochDay) {
+        Integer count = dayCounts.get(epochDay);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return The non-zero day counts, ordered by day.
+     */
+    public SortedMap<Long, Integer> getDayCounts() {
+        return Collections.unmodifiableSortedMap(dayCounts);
+    }
+}
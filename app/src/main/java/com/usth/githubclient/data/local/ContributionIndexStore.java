@@ -0,0 +1,90 @@
+package com.usth.githubclient.data.local;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Persists {@link ContributionIndex} rows in {@link GithubDatabase}.
+ * Day counts are stored compactly as {@code epochDay:count} pairs separated by commas.
+ */
+public final class ContributionIndexStore {
+
+    private final GithubDatabase database;
+
+    public ContributionIndexStore(@NonNull GithubDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Loads the index of a user.
+     * @param login The login of the user.
+     * @return The index, or null if none was saved or it cannot be read.
+     */
+    @WorkerThread
+    @Nullable
+    public ContributionIndex load(@NonNull String login) {
+        try (Cursor cursor = database.getReadableDatabase().query(GithubDatabase.TABLE_CONTRIBUTION_INDEX,
+                new String[]{GithubDatabase.COLUMN_ZONE, GithubDatabase.COLUMN_DAYS,
+                        GithubDatabase.COLUMN_WATERMARK_ID, GithubDatabase.COLUMN_WATERMARK_AT,
+                        GithubDatabase.COLUMN_SYNCED_AT},
+                GithubDatabase.COLUMN_LOGIN + " = ?", new String[]{login.toLowerCase(Locale.ROOT)},
+                null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return new ContributionIndex(login, ZoneId.of(cursor.getString(0)), decodeDays(cursor.getString(1)),
+                    cursor.getLong(2), cursor.getLong(3), cursor.getLong(4));
+        } catch (DateTimeException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Queues the saving of the index of a user, replacing any previous one.
+     */
+    public void save(@NonNull ContributionIndex index) {
+        ContentValues values = new ContentValues();
+        values.put(GithubDatabase.COLUMN_LOGIN, index.getLogin());
+        values.put(GithubDatabase.COLUMN_ZONE, index.getZone().getId());
+        values.put(GithubDatabase.COLUMN_DAYS, encodeDays(index.getDayCounts()));
+        values.put(GithubDatabase.COLUMN_WATERMARK_ID, index.getWatermarkEventId());
+        values.put(GithubDatabase.COLUMN_WATERMARK_AT, index.getWatermarkCreatedAt());
+        values.put(GithubDatabase.COLUMN_SYNCED_AT, index.getSyncedAt());
+        database.writeExecutor().execute(() -> database.getWritableDatabase().insertWithOnConflict(
+                GithubDatabase.TABLE_CONTRIBUTION_INDEX, null, values, SQLiteDatabase.CONFLICT_REPLACE));
+    }
+
+    private static String encodeDays(Map<Long, Integer> days) {
+        StringBuilder out = new StringBuilder(days.size() * 10);
+        for (Map.Entry<Long, Integer> day : days.entrySet()) {
+            if (out.length() > 0) {
+                out.append(',');
+            }
+            out.append(day.getKey()).append(':').append(day.getValue());
+        }
+        return out.toString();
+    }
+
+    private static TreeMap<Long, Integer> decodeDays(String encoded) {
+        TreeMap<Long, Integer> days = new TreeMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return days;
+        }
+        for (String pair : encoded.split(",")) {
+            int colon = pair.indexOf(':');
+            days.put(Long.parseLong(pair.substring(0, colon)), Integer.parseInt(pair.substring(colon + 1)));
+        }
+        return days;
+    }
+}
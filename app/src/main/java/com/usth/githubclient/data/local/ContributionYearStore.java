@@ -0,0 +1,122 @@
+package com.usth.githubclient.data.local;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.usth.githubclient.domain.model.ContributionYear;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stores {@link ContributionYear} arrays per user and year in {@link GithubDatabase}, with a small
+ * in-memory copy of the most recently used years so switching between them is instant.
+ */
+public final class ContributionYearStore {
+
+    private static final int MAX_YEARS_IN_MEMORY = 16;
+
+    private final GithubDatabase database;
+    private final LinkedHashMap<String, CachedEntry<ContributionYear>> memory =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    public ContributionYearStore(@NonNull GithubDatabase database) {
+        this.database = database;
+    }
+
+    private static String key(String login, int year) {
+        return login.toLowerCase(Locale.ROOT) + "/" + year;
+    }
+
+    /**
+     * Gets a year from memory without touching the disk.
+     * @return The year, or null if it is not in memory.
+     */
+    @Nullable
+    public synchronized ContributionYear peek(@NonNull String login, int year) {
+        CachedEntry<ContributionYear> entry = memory.get(key(login, year));
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Loads a year from memory or disk.
+     * @param login The login of the user.
+     * @param year The calendar year.
+     * @param ttlMillis How long a saved year stays fresh.
+     * @return The saved year, flagged as stale when older than the TTL, or null if none is saved.
+     */
+    @WorkerThread
+    @Nullable
+    public CachedEntry<ContributionYear> load(@NonNull String login, int year, long ttlMillis) {
+        String key = key(login, year);
+        CachedEntry<ContributionYear> entry;
+        synchronized (this) {
+            entry = memory.get(key);
+        }
+        if (entry == null) {
+            entry = read(login, year);
+            if (entry == null) {
+                return null;
+            }
+            remember(key, entry);
+        }
+        boolean stale = System.currentTimeMillis() - entry.getFetchedAtMillis() > ttlMillis;
+        return new CachedEntry<>(entry.getValue(), entry.getFetchedAtMillis(), stale);
+    }
+
+    /**
+     * Saves a year to memory, and queues saving it to disk.
+     */
+    public void save(@NonNull String login, @NonNull ContributionYear contributions) {
+        long now = System.currentTimeMillis();
+        remember(key(login, contributions.getYear()), new CachedEntry<>(contributions, now, false));
+
+        ContentValues values = new ContentValues();
+        values.put(GithubDatabase.COLUMN_LOGIN, login.toLowerCase(Locale.ROOT));
+        values.put(GithubDatabase.COLUMN_YEAR, contributions.getYear());
+        values.put(GithubDatabase.COLUMN_COUNTS, contributions.toBytes());
+        values.put(GithubDatabase.COLUMN_SYNCED_AT, now);
+        database.writeExecutor().execute(() -> database.getWritableDatabase().insertWithOnConflict(
+                GithubDatabase.TABLE_CONTRIBUTION_YEARS, null, values, SQLiteDatabase.CONFLICT_REPLACE));
+    }
+
+    /**
+     * Drops the in-memory copies, for example when the user signs out.
+     * The rows on disk are removed together with the rest of the database.
+     */
+    public synchronized void clearMemory() {
+        memory.clear();
+    }
+
+    private synchronized void remember(String key, CachedEntry<ContributionYear> entry) {
+        memory.put(key, entry);
+        Iterator<Map.Entry<String, CachedEntry<ContributionYear>>> eldest = memory.entrySet().iterator();
+        while (memory.size() > MAX_YEARS_IN_MEMORY && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    @Nullable
+    private CachedEntry<ContributionYear> read(String login, int year) {
+        try (Cursor cursor = database.getReadableDatabase().query(GithubDatabase.TABLE_CONTRIBUTION_YEARS,
+                new String[]{GithubDatabase.COLUMN_COUNTS, GithubDatabase.COLUMN_SYNCED_AT},
+                GithubDatabase.COLUMN_LOGIN + " = ? AND " + GithubDatabase.COLUMN_YEAR + " = ?",
+                new String[]{login.toLowerCase(Locale.ROOT), String.valueOf(year)}, null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return new CachedEntry<>(ContributionYear.fromBytes(year, cursor.getBlob(0)), cursor.getLong(1), false);
+        } catch (IllegalArgumentException e) {
+            // Written for a different calendar length; refetch it.
+            return null;
+        }
+    }
+}
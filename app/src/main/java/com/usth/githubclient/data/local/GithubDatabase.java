@@ -0,0 +1,159 @@
+package com.usth.githubclient.data.local;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * SQLite database holding the offline copies of GitHub entities.
+ * Everything in it can be refetched, so upgrades simply drop and recreate the tables.
+ * Every write goes through {@link #writeExecutor()}, one at a time and in submission order, and so
+ * does {@link #clearAll()}: whatever was queued before a sign-out lands before the clear, never
+ * after it. Reads may run on any worker thread.
+ */
+public final class GithubDatabase extends SQLiteOpenHelper {
+
+    private static final String NAME = "github_cache.db";
+    private static final int VERSION = 5;
+
+    static final String TABLE_ENTITIES = "entities";
+    static final String COLUMN_KIND = "kind";
+    static final String COLUMN_KEY = "cache_key";
+    static final String COLUMN_JSON = "json";
+    static final String COLUMN_FETCHED_AT = "fetched_at";
+    static final String COLUMN_ACCESSED_AT = "accessed_at";
+    static final String COLUMN_SIZE = "size";
+
+    static final String TABLE_CONTRIBUTION_INDEX = "contribution_index";
+    static final String COLUMN_LOGIN = "login";
+    static final String COLUMN_ZONE = "zone";
+    static final String COLUMN_DAYS = "days";
+    static final String COLUMN_WATERMARK_ID = "watermark_id";
+    static final String COLUMN_WATERMARK_AT = "watermark_at";
+    static final String COLUMN_SYNCED_AT = "synced_at";
+
+    static final String TABLE_CONTRIBUTION_YEARS = "contribution_years";
+    static final String COLUMN_YEAR = "year";
+    static final String COLUMN_COUNTS = "counts";
+
+    static final String TABLE_SEARCH_TERMS = "search_terms";
+    static final String COLUMN_TERM = "term";
+    static final String COLUMN_VALUE = "value";
+    static final String COLUMN_HITS = "hits";
+    static final String COLUMN_SEEN_AT = "seen_at";
+
+    static final String TABLE_SEARCH_DOCUMENTS = "search_documents";
+    static final String COLUMN_DOC_ID = "doc_id";
+    static final String COLUMN_POPULARITY = "popularity";
+
+    // FTS4 rather than FTS5, which the platform SQLite does not always include; docid is the doc_id above.
+    static final String TABLE_SEARCH_FTS = "search_fts";
+    static final String COLUMN_TITLE = "title";
+    static final String COLUMN_BODY = "body";
+    static final String COLUMN_LANGUAGE = "language";
+
+    private final Executor writeExecutor;
+
+    /**
+     * @param writeExecutor Runs the writes of every table, one at a time and in order.
+     */
+    public GithubDatabase(@NonNull Context context, @NonNull Executor writeExecutor) {
+        super(context.getApplicationContext(), NAME, null, VERSION);
+        this.writeExecutor = writeExecutor;
+    }
+
+    /**
+     * @return The executor every writer of this database queues its writes on.
+     */
+    @NonNull
+    public Executor writeExecutor() {
+        return writeExecutor;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_ENTITIES + " ("
+                + COLUMN_KIND + " TEXT NOT NULL, "
+                + COLUMN_KEY + " TEXT NOT NULL, "
+                + COLUMN_JSON + " TEXT NOT NULL, "
+                + COLUMN_FETCHED_AT + " INTEGER NOT NULL, "
+                + COLUMN_ACCESSED_AT + " INTEGER NOT NULL, "
+                + COLUMN_SIZE + " INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + COLUMN_KIND + ", " + COLUMN_KEY + "))");
+        db.execSQL("CREATE INDEX entities_accessed_at ON " + TABLE_ENTITIES + " (" + COLUMN_ACCESSED_AT + ")");
+        db.execSQL("CREATE TABLE " + TABLE_CONTRIBUTION_INDEX + " ("
+                + COLUMN_LOGIN + " TEXT PRIMARY KEY, "
+                + COLUMN_ZONE + " TEXT NOT NULL, "
+                + COLUMN_DAYS + " TEXT NOT NULL, "
+                + COLUMN_WATERMARK_ID + " INTEGER NOT NULL, "
+                + COLUMN_WATERMARK_AT + " INTEGER NOT NULL, "
+                + COLUMN_SYNCED_AT + " INTEGER NOT NULL)");
+        db.execSQL("CREATE TABLE " + TABLE_CONTRIBUTION_YEARS + " ("
+                + COLUMN_LOGIN + " TEXT NOT NULL, "
+                + COLUMN_YEAR + " INTEGER NOT NULL, "
+                + COLUMN_COUNTS + " BLOB NOT NULL, "
+                + COLUMN_SYNCED_AT + " INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + COLUMN_LOGIN + ", " + COLUMN_YEAR + "))");
+        db.execSQL("CREATE TABLE " + TABLE_SEARCH_TERMS + " ("
+                + COLUMN_TERM + " TEXT NOT NULL, "
+                + COLUMN_KIND + " TEXT NOT NULL, "
+                + COLUMN_VALUE + " TEXT NOT NULL, "
+                + COLUMN_HITS + " INTEGER NOT NULL, "
+                + COLUMN_SEEN_AT + " INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + COLUMN_TERM + ", " + COLUMN_KIND + ", " + COLUMN_VALUE + "))");
+        db.execSQL("CREATE INDEX search_terms_seen_at ON " + TABLE_SEARCH_TERMS + " (" + COLUMN_SEEN_AT + ")");
+        db.execSQL("CREATE TABLE " + TABLE_SEARCH_DOCUMENTS + " ("
+                + COLUMN_DOC_ID + " INTEGER PRIMARY KEY, "
+                + COLUMN_KIND + " TEXT NOT NULL, "
+                + COLUMN_KEY + " TEXT NOT NULL, "
+                + COLUMN_JSON + " TEXT NOT NULL, "
+                + COLUMN_POPULARITY + " INTEGER NOT NULL, "
+                + COLUMN_FETCHED_AT + " INTEGER NOT NULL, "
+                + "UNIQUE (" + COLUMN_KIND + ", " + COLUMN_KEY + "))");
+        db.execSQL("CREATE INDEX search_documents_fetched_at ON " + TABLE_SEARCH_DOCUMENTS
+                + " (" + COLUMN_KIND + ", " + COLUMN_FETCHED_AT + ")");
+        db.execSQL("CREATE VIRTUAL TABLE " + TABLE_SEARCH_FTS + " USING fts4("
+                + COLUMN_TITLE + ", " + COLUMN_BODY + ", " + COLUMN_LANGUAGE + ")");
+    }
+
+    /**
+     * Queues the deletion of every row of every table, for example when the user signs out.
+     */
+    void clearAll() {
+        writeExecutor.execute(() -> {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                db.delete(TABLE_ENTITIES, null, null);
+                db.delete(TABLE_CONTRIBUTION_INDEX, null, null);
+                db.delete(TABLE_CONTRIBUTION_YEARS, null, null);
+                db.delete(TABLE_SEARCH_TERMS, null, null);
+                db.delete(TABLE_SEARCH_DOCUMENTS, null, null);
+                db.delete(TABLE_SEARCH_FTS, null, null);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_ENTITIES);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CONTRIBUTION_INDEX);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CONTRIBUTION_YEARS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SEARCH_TERMS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SEARCH_DOCUMENTS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SEARCH_FTS);
+        onCreate(db);
+    }
+
+    @Override
+    public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        onUpgrade(db, oldVersion, newVersion);
+    }
+}
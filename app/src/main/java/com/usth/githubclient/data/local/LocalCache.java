@@ -0,0 +1,202 @@
+package com.usth.githubclient.data.local;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Disk cache of GitHub entities stored as JSON in {@link GithubDatabase}.
+ * Entries older than the TTL of their kind are still returned but flagged as stale, so callers can
+ * render them immediately and revalidate from the network. The total size is capped and the least
+ * recently used entries are evicted first. Reads refresh the last access time at most once per
+ * {@link #ACCESS_RESOLUTION_MILLIS}, so a read does not cost a disk write.
+ */
+public final class LocalCache {
+
+    private static final String TAG = "LocalCache";
+
+    /**
+     * Kinds of cached entities and how long each stays fresh.
+     */
+    public enum Kind {
+        USER(TimeUnit.HOURS.toMillis(1)),
+        REPOS(TimeUnit.MINUTES.toMillis(15)),
+        EVENTS(TimeUnit.MINUTES.toMillis(10));
+
+        final long ttlMillis;
+
+        Kind(long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+        }
+    }
+
+    public static final long DEFAULT_MAX_SIZE_BYTES = 4L * 1024 * 1024;
+
+    /**
+     * How stale the last access time of an entry may get before a read refreshes it.
+     */
+    public static final long ACCESS_RESOLUTION_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final GithubDatabase database;
+    private final Gson gson;
+    private final long maxSizeBytes;
+    // The database's write lane, so callers on the main thread never block on disk.
+    private final Executor writeExecutor;
+    private final LongSupplier clock;
+
+    public LocalCache(@NonNull GithubDatabase database, @NonNull Gson gson, long maxSizeBytes) {
+        this(database, gson, maxSizeBytes, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock Wall clock time in milliseconds, for entry ages and access times.
+     */
+    public LocalCache(@NonNull GithubDatabase database, @NonNull Gson gson, long maxSizeBytes,
+                      @NonNull LongSupplier clock) {
+        this.database = database;
+        this.gson = gson;
+        this.maxSizeBytes = maxSizeBytes;
+        this.writeExecutor = database.writeExecutor();
+        this.clock = clock;
+    }
+
+    /**
+     * Reads an entry and, unless it was read within the last {@link #ACCESS_RESOLUTION_MILLIS},
+     * marks it as recently used in the background.
+     * @param kind The kind of entity.
+     * @param key The key of the entity.
+     * @param type The type to decode the stored JSON into.
+     * @param <T> The type of the value.
+     * @return The entry, or null if nothing is cached under this key.
+     */
+    @WorkerThread
+    @Nullable
+    public <T> CachedEntry<T> get(@NonNull Kind kind, @NonNull String key, @NonNull Type type) {
+        SQLiteDatabase db = database.getReadableDatabase();
+        String json;
+        long fetchedAt;
+        long accessedAt;
+        try (Cursor cursor = db.query(GithubDatabase.TABLE_ENTITIES,
+                new String[]{GithubDatabase.COLUMN_JSON, GithubDatabase.COLUMN_FETCHED_AT,
+                        GithubDatabase.COLUMN_ACCESSED_AT},
+                GithubDatabase.COLUMN_KIND + " = ? AND " + GithubDatabase.COLUMN_KEY + " = ?",
+                new String[]{kind.name(), key}, null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            json = cursor.getString(0);
+            fetchedAt = cursor.getLong(1);
+            accessedAt = cursor.getLong(2);
+        }
+
+        long now = clock.getAsLong();
+        if (now - accessedAt >= ACCESS_RESOLUTION_MILLIS) {
+            touch(kind, key, now);
+        }
+
+        try {
+            T value = gson.fromJson(json, type);
+            return value == null ? null : new CachedEntry<>(value, fetchedAt, now - fetchedAt > kind.ttlMillis);
+        } catch (JsonParseException e) {
+            Log.w(TAG, "Dropping unreadable cache entry " + kind + "/" + key, e);
+            remove(kind, key);
+            return null;
+        }
+    }
+
+    /**
+     * Stores an entry in the background, evicting least recently used entries when over the size cap.
+     * @param kind The kind of entity.
+     * @param key The key of the entity.
+     * @param value The value to store.
+     */
+    public void put(@NonNull Kind kind, @NonNull String key, @NonNull Object value) {
+        writeExecutor.execute(() -> {
+            String json = gson.toJson(value);
+            long now = clock.getAsLong();
+            ContentValues values = new ContentValues();
+            values.put(GithubDatabase.COLUMN_KIND, kind.name());
+            values.put(GithubDatabase.COLUMN_KEY, key);
+            values.put(GithubDatabase.COLUMN_JSON, json);
+            values.put(GithubDatabase.COLUMN_FETCHED_AT, now);
+            values.put(GithubDatabase.COLUMN_ACCESSED_AT, now);
+            values.put(GithubDatabase.COLUMN_SIZE, json.getBytes(StandardCharsets.UTF_8).length);
+            SQLiteDatabase db = database.getWritableDatabase();
+            db.insertWithOnConflict(GithubDatabase.TABLE_ENTITIES, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            evictIfNeeded(db);
+        });
+    }
+
+    private void touch(Kind kind, String key, long now) {
+        writeExecutor.execute(() -> {
+            ContentValues values = new ContentValues();
+            values.put(GithubDatabase.COLUMN_ACCESSED_AT, now);
+            // A put queued in between already stored a later access time.
+            database.getWritableDatabase().update(GithubDatabase.TABLE_ENTITIES, values,
+                    GithubDatabase.COLUMN_KIND + " = ? AND " + GithubDatabase.COLUMN_KEY + " = ? AND "
+                            + GithubDatabase.COLUMN_ACCESSED_AT + " < ?",
+                    new String[]{kind.name(), key, String.valueOf(now)});
+        });
+    }
+
+    /**
+     * Removes a single entry.
+     */
+    public void remove(@NonNull Kind kind, @NonNull String key) {
+        writeExecutor.execute(() -> database.getWritableDatabase().delete(GithubDatabase.TABLE_ENTITIES,
+                GithubDatabase.COLUMN_KIND + " = ? AND " + GithubDatabase.COLUMN_KEY + " = ?",
+                new String[]{kind.name(), key}));
+    }
+
+    /**
+     * Removes every entry, along with the other per-user tables of the database,
+     * for example when the user signs out. Writes queued before this call land before the clear.
+     */
+    public void clear() {
+        database.clearAll();
+    }
+
+    private void evictIfNeeded(SQLiteDatabase db) {
+        long total = totalSize(db);
+        while (total > maxSizeBytes) {
+            long oldestSize;
+            String kind;
+            String key;
+            try (Cursor cursor = db.query(GithubDatabase.TABLE_ENTITIES,
+                    new String[]{GithubDatabase.COLUMN_KIND, GithubDatabase.COLUMN_KEY, GithubDatabase.COLUMN_SIZE},
+                    null, null, null, null, GithubDatabase.COLUMN_ACCESSED_AT + " ASC", "1")) {
+                if (!cursor.moveToFirst()) {
+                    return;
+                }
+                kind = cursor.getString(0);
+                key = cursor.getString(1);
+                oldestSize = cursor.getLong(2);
+            }
+            db.delete(GithubDatabase.TABLE_ENTITIES,
+                    GithubDatabase.COLUMN_KIND + " = ? AND " + GithubDatabase.COLUMN_KEY + " = ?",
+                    new String[]{kind, key});
+            total -= oldestSize;
+        }
+    }
+
+    private static long totalSize(SQLiteDatabase db) {
+        try (Cursor cursor = db.rawQuery("SELECT TOTAL(" + GithubDatabase.COLUMN_SIZE + ") FROM "
+                + GithubDatabase.TABLE_ENTITIES, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0L;
+        }
+    }
+}
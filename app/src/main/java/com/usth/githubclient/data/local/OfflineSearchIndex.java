@@ -0,0 +1,362 @@
+package com.usth.githubclient.data.local;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.usth.githubclient.data.remote.dto.RepoDto;
+import com.usth.githubclient.data.remote.dto.UserDto;
+import com.usth.githubclient.domain.mapper.RepoMapper;
+import com.usth.githubclient.domain.mapper.UserMapper;
+import com.usth.githubclient.domain.model.GitHubUserProfileDataEntry;
+import com.usth.githubclient.domain.model.ReposDataEntry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Full-text index over the repositories and users the app has already fetched, so they can still be
+ * searched by name, description, bio or language when the network or the rate limit is out.
+ * Text comes from the {@link RepoMapper} and {@link UserMapper} models; the list DTO is stored next
+ * to it as JSON, so results render in the same adapters as online ones.
+ * Results are ranked by weighted term matches, with title hits counting most, then by popularity.
+ */
+public final class OfflineSearchIndex {
+
+    private static final String TAG = "OfflineSearchIndex";
+
+    private enum Kind { REPO, USER }
+
+    // The oldest documents of each kind beyond this are dropped.
+    public static final int DEFAULT_MAX_DOCUMENTS = 5_000;
+    // Weights of the title, body and language columns, in table order.
+    private static final double[] COLUMN_WEIGHTS = {5.0, 1.0, 2.0};
+
+    private final GithubDatabase database;
+    private final Gson gson;
+    private final UserMapper userMapper;
+    private final RepoMapper repoMapper;
+    private final int maxDocuments;
+    // The database's write lane, so callers on the main thread never block on disk.
+    private final Executor writeExecutor;
+
+    public OfflineSearchIndex(@NonNull GithubDatabase database, @NonNull Gson gson, @NonNull UserMapper userMapper,
+                              @NonNull RepoMapper repoMapper, int maxDocuments) {
+        this.database = database;
+        this.gson = gson;
+        this.userMapper = userMapper;
+        this.repoMapper = repoMapper;
+        this.maxDocuments = maxDocuments;
+        this.writeExecutor = database.writeExecutor();
+    }
+
+    /**
+     * Tells whether a failed request should fall back to the offline index.
+     * @param code The HTTP status code, or 0 if no response arrived.
+     * @param error The failure, or null for an HTTP error.
+     * @return True for network failures and rate limits.
+     */
+    public static boolean isUnreachable(int code, @Nullable Throwable error) {
+        // RateLimitExceededException is an IOException thrown before the request is sent.
+        return error instanceof IOException || code == 403 || code == 429;
+    }
+
+    /**
+     * Indexes repositories in the background, replacing their previous copies.
+     */
+    public void addRepos(@NonNull List<RepoDto> repos) {
+        List<RepoDto> copy = new ArrayList<>(repos);
+        writeExecutor.execute(() -> write(Kind.REPO, () -> {
+            SQLiteDatabase db = database.getWritableDatabase();
+            for (RepoDto dto : copy) {
+                ReposDataEntry repo;
+                try {
+                    repo = repoMapper.map(dto);
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                String title = repo.getFullName().orElse(repo.getName()).replace('/', ' ') + " " + repo.getName();
+                put(db, Kind.REPO, String.valueOf(repo.getId()), gson.toJson(dto), repo.getStargazersCount(),
+                        title, repo.getDescription().orElse(null), repo.getLanguage().orElse(null));
+            }
+        }));
+    }
+
+    /**
+     * Indexes users from a list page in the background, replacing their previous copies.
+     * List pages only carry logins and avatars; see {@link #addUserDetails(List)} for the rest.
+     */
+    public void addUsers(@NonNull List<UserDto> users) {
+        List<UserDto> copy = new ArrayList<>(users);
+        writeExecutor.execute(() -> write(Kind.USER, () -> {
+            SQLiteDatabase db = database.getWritableDatabase();
+            for (UserDto dto : copy) {
+                GitHubUserProfileDataEntry user;
+                try {
+                    user = userMapper.map(dto);
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                String key = user.getUsername().toLowerCase(Locale.ROOT);
+                // Keep the text of details indexed earlier; a list page knows less about the user.
+                if (findDocId(db, Kind.USER, key) < 0) {
+                    putUser(db, key, gson.toJson(dto), user);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Adds the name, bio, company and location of users already indexed from a list page.
+     */
+    public void addUserDetails(@NonNull List<GitHubUserProfileDataEntry> users) {
+        List<GitHubUserProfileDataEntry> copy = new ArrayList<>(users);
+        writeExecutor.execute(() -> write(Kind.USER, () -> {
+            SQLiteDatabase db = database.getWritableDatabase();
+            for (GitHubUserProfileDataEntry user : copy) {
+                String key = user.getUsername().toLowerCase(Locale.ROOT);
+                String json = findJson(db, Kind.USER, key);
+                if (json != null) {
+                    putUser(db, key, json, user);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Searches the indexed repositories.
+     * @param query Words to look for; each matches any indexed word it starts.
+     * @param limit The maximum number of results.
+     * @return The best matches first.
+     */
+    @WorkerThread
+    @NonNull
+    public List<RepoDto> searchRepos(@NonNull String query, int limit) {
+        return search(Kind.REPO, query, limit, RepoDto.class);
+    }
+
+    /**
+     * Searches the indexed users.
+     * @param query Words to look for; each matches any indexed word it starts.
+     * @param limit The maximum number of results.
+     * @return The best matches first.
+     */
+    @WorkerThread
+    @NonNull
+    public List<UserDto> searchUsers(@NonNull String query, int limit) {
+        return search(Kind.USER, query, limit, UserDto.class);
+    }
+
+    private void write(Kind kind, Runnable writes) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            writes.run();
+            trim(db, kind);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void putUser(SQLiteDatabase db, String key, String json, GitHubUserProfileDataEntry user) {
+        StringBuilder body = new StringBuilder();
+        user.getBio().ifPresent(bio -> body.append(bio).append(' '));
+        user.getCompany().ifPresent(company -> body.append(company).append(' '));
+        user.getLocation().ifPresent(body::append);
+        put(db, Kind.USER, key, json, user.getFollowersCount(),
+                user.getUsername() + " " + user.getDisplayName().orElse(""), body.toString(), null);
+    }
+
+    private void put(SQLiteDatabase db, Kind kind, String key, String json, int popularity,
+                     String title, @Nullable String body, @Nullable String language) {
+        ContentValues document = new ContentValues();
+        document.put(GithubDatabase.COLUMN_KIND, kind.name());
+        document.put(GithubDatabase.COLUMN_KEY, key);
+        document.put(GithubDatabase.COLUMN_JSON, json);
+        document.put(GithubDatabase.COLUMN_POPULARITY, popularity);
+        document.put(GithubDatabase.COLUMN_FETCHED_AT, System.currentTimeMillis());
+        long docId = findDocId(db, kind, key);
+        if (docId < 0) {
+            docId = db.insert(GithubDatabase.TABLE_SEARCH_DOCUMENTS, null, document);
+        } else {
+            db.update(GithubDatabase.TABLE_SEARCH_DOCUMENTS, document,
+                    GithubDatabase.COLUMN_DOC_ID + " = ?", new String[]{String.valueOf(docId)});
+            db.delete(GithubDatabase.TABLE_SEARCH_FTS, "docid = ?", new String[]{String.valueOf(docId)});
+        }
+        ContentValues text = new ContentValues();
+        text.put("docid", docId);
+        text.put(GithubDatabase.COLUMN_TITLE, title);
+        text.put(GithubDatabase.COLUMN_BODY, body == null ? "" : body);
+        text.put(GithubDatabase.COLUMN_LANGUAGE, language == null ? "" : language);
+        db.insert(GithubDatabase.TABLE_SEARCH_FTS, null, text);
+    }
+
+    private void trim(SQLiteDatabase db, Kind kind) {
+        String stale = "SELECT " + GithubDatabase.COLUMN_DOC_ID + " FROM " + GithubDatabase.TABLE_SEARCH_DOCUMENTS
+                + " WHERE " + GithubDatabase.COLUMN_KIND + " = ? ORDER BY " + GithubDatabase.COLUMN_FETCHED_AT
+                + " DESC LIMIT -1 OFFSET " + maxDocuments;
+        String[] args = {kind.name()};
+        db.execSQL("DELETE FROM " + GithubDatabase.TABLE_SEARCH_FTS + " WHERE docid IN (" + stale + ")", args);
+        db.execSQL("DELETE FROM " + GithubDatabase.TABLE_SEARCH_DOCUMENTS
+                + " WHERE " + GithubDatabase.COLUMN_DOC_ID + " IN (" + stale + ")", args);
+    }
+
+    private static long findDocId(SQLiteDatabase db, Kind kind, String key) {
+        try (Cursor cursor = db.query(GithubDatabase.TABLE_SEARCH_DOCUMENTS, new String[]{GithubDatabase.COLUMN_DOC_ID},
+                GithubDatabase.COLUMN_KIND + " = ? AND " + GithubDatabase.COLUMN_KEY + " = ?",
+                new String[]{kind.name(), key}, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : -1L;
+        }
+    }
+
+    @Nullable
+    private static String findJson(SQLiteDatabase db, Kind kind, String key) {
+        try (Cursor cursor = db.query(GithubDatabase.TABLE_SEARCH_DOCUMENTS, new String[]{GithubDatabase.COLUMN_JSON},
+                GithubDatabase.COLUMN_KIND + " = ? AND " + GithubDatabase.COLUMN_KEY + " = ?",
+                new String[]{kind.name(), key}, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+
+    private <T> List<T> search(Kind kind, String query, int limit, Class<T> type) {
+        String match = toMatchExpression(query);
+        if (match == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        SQLiteDatabase db = database.getReadableDatabase();
+        // Every match is scored, since FTS4 returns them in no particular order; the document cap of
+        // each kind bounds how many there can be. Only the JSON of the best ones is read afterwards.
+        List<Hit> hits = new ArrayList<>();
+        // CROSS JOIN keeps the full-text match as the outer loop; otherwise SQLite may walk every
+        // document of the kind and run the match once per row.
+        try (Cursor cursor = db.rawQuery("SELECT d." + GithubDatabase.COLUMN_DOC_ID
+                        + ", d." + GithubDatabase.COLUMN_POPULARITY
+                        + ", matchinfo(" + GithubDatabase.TABLE_SEARCH_FTS + ", 'pcnx')"
+                        + " FROM " + GithubDatabase.TABLE_SEARCH_FTS
+                        + " CROSS JOIN " + GithubDatabase.TABLE_SEARCH_DOCUMENTS + " d ON d." + GithubDatabase.COLUMN_DOC_ID
+                        + " = " + GithubDatabase.TABLE_SEARCH_FTS + ".docid"
+                        + " WHERE " + GithubDatabase.TABLE_SEARCH_FTS + " MATCH ? AND d." + GithubDatabase.COLUMN_KIND
+                        + " = ?",
+                new String[]{match, kind.name()})) {
+            while (cursor.moveToNext()) {
+                hits.add(new Hit(cursor.getLong(0), score(cursor.getBlob(2), cursor.getInt(1))));
+            }
+        }
+        Collections.sort(hits, (a, b) -> Double.compare(b.score, a.score));
+        List<T> results = new ArrayList<>(Math.min(limit, hits.size()));
+        // Unreadable documents are skipped, so read further down the ranking until the limit is reached.
+        for (int from = 0; from < hits.size() && results.size() < limit; from += limit) {
+            List<Hit> best = hits.subList(from, Math.min(hits.size(), from + limit));
+            Map<Long, String> documents = findJson(db, best);
+            for (Hit hit : best) {
+                if (results.size() == limit) {
+                    break;
+                }
+                String json = documents.get(hit.docId);
+                if (json == null) {
+                    // Trimmed or replaced since the match.
+                    continue;
+                }
+                try {
+                    T value = gson.fromJson(json, type);
+                    if (value != null) {
+                        results.add(value);
+                    }
+                } catch (JsonParseException e) {
+                    Log.w(TAG, "Skipping unreadable " + kind + " document", e);
+                }
+            }
+        }
+        return results;
+    }
+
+    // The JSON of the given documents, by document id.
+    private static Map<Long, String> findJson(SQLiteDatabase db, List<Hit> hits) {
+        StringBuilder ids = new StringBuilder();
+        for (Hit hit : hits) {
+            if (ids.length() > 0) {
+                ids.append(',');
+            }
+            ids.append(hit.docId);
+        }
+        Map<Long, String> documents = new HashMap<>(hits.size() * 2);
+        try (Cursor cursor = db.query(GithubDatabase.TABLE_SEARCH_DOCUMENTS,
+                new String[]{GithubDatabase.COLUMN_DOC_ID, GithubDatabase.COLUMN_JSON},
+                GithubDatabase.COLUMN_DOC_ID + " IN (" + ids + ")", null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                documents.put(cursor.getLong(0), cursor.getString(1));
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Scores a match from its matchinfo('pcnx') blob: for every word and column, the hits in this row
+     * weighted by the column and by how rare the word is across the index, plus a little for popularity.
+     */
+    private static double score(byte[] matchInfo, int popularity) {
+        IntBuffer info = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phrases = info.get(0);
+        int columns = info.get(1);
+        int documents = info.get(2);
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns && column < COLUMN_WEIGHTS.length; column++) {
+                int base = 3 + 3 * (phrase * columns + column);
+                int rowHits = info.get(base);
+                int documentsWithHits = info.get(base + 2);
+                if (rowHits > 0) {
+                    double idf = Math.log(1.0 + (double) documents / Math.max(1, documentsWithHits));
+                    score += COLUMN_WEIGHTS[column] * idf * (1.0 + Math.log(rowHits));
+                }
+            }
+        }
+        return score + 0.1 * Math.log10(1.0 + Math.max(0, popularity));
+    }
+
+    /**
+     * Turns typed text into an FTS4 query where every word must start an indexed word.
+     * @return The expression, or null if the text has no words.
+     */
+    @Nullable
+    static String toMatchExpression(@NonNull String query) {
+        StringBuilder match = new StringBuilder();
+        // The default tokenizer splits on ASCII punctuation and spaces, so do the same here.
+        for (String word : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                if (match.length() > 0) {
+                    match.append(' ');
+                }
+                match.append(word).append('*');
+            }
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
+    private static final class Hit {
+        final long docId;
+        final double score;
+
+        Hit(long docId, double score) {
+            this.docId = docId;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.usth.githubclient.data.local;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.usth.githubclient.domain.model.GitHubUserProfileDataEntry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache of mapped user profiles, keyed by login (case-insensitive).
+ * Profiles are immutable, so the same instance can be handed to every screen. Entries expire
+ * after a TTL and the least recently used entry is evicted once the cache is full.
+ */
+public final class ProfileMemoryCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final class Entry {
+        final GitHubUserProfileDataEntry profile;
+        final long storedAt;
+
+        Entry(GitHubUserProfileDataEntry profile, long storedAt) {
+            this.profile = profile;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    // Access-ordered, so iteration starts at the least recently used entry.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private String authenticatedLogin;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ProfileMemoryCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, SystemClock::elapsedRealtime);
+    }
+
+    /**
+     * @param clock Monotonic time in milliseconds, used to expire entries.
+     */
+    public ProfileMemoryCache(int maxEntries, long ttlMillis, @NonNull LongSupplier clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries <= 0");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    private static String key(String login) {
+        return login.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the cached profile of a user.
+     * @param login The login of the user.
+     * @return The profile, or null if it is not cached or has expired.
+     */
+    @Nullable
+    public synchronized GitHubUserProfileDataEntry get(@NonNull String login) {
+        String key = key(login);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (clock.getAsLong() - entry.storedAt > ttlMillis) {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.profile;
+    }
+
+    /**
+     * Gets the cached profile of the signed-in user.
+     * @return The profile, or null if it is not cached or has expired.
+     */
+    @Nullable
+    public synchronized GitHubUserProfileDataEntry getAuthenticated() {
+        if (authenticatedLogin == null) {
+            misses++;
+            return null;
+        }
+        return get(authenticatedLogin);
+    }
+
+    /**
+     * Stores a profile, evicting the least recently used entries when the cache is full.
+     * @param profile The profile to store.
+     */
+    public synchronized void put(@NonNull GitHubUserProfileDataEntry profile) {
+        entries.put(key(profile.getUsername()), new Entry(profile, clock.getAsLong()));
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Stores the profile of the signed-in user, which is also reachable through its login.
+     * @param profile The profile to store.
+     */
+    public synchronized void putAuthenticated(@NonNull GitHubUserProfileDataEntry profile) {
+        authenticatedLogin = key(profile.getUsername());
+        put(profile);
+    }
+
+    /**
+     * Removes every profile, for example when the user signs out.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        authenticatedLogin = null;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return The number of entries dropped because they expired or the cache was full.
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * @return The share of lookups answered from the cache, between 0 and 1.
+     */
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0d : (double) hits / lookups;
+    }
+}
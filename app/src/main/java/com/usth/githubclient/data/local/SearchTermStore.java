@@ -0,0 +1,100 @@
+package com.usth.githubclient.data.local;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Persists the terms of {@link SuggestionIndex} in {@link GithubDatabase}, one row per term, kind
+ * and value, with the number of times the value was seen.
+ */
+public final class SearchTermStore {
+
+    private final GithubDatabase database;
+
+    public SearchTermStore(@NonNull GithubDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * @return The database's write lane, which the index also runs its loads and merges on.
+     */
+    @NonNull
+    Executor writeExecutor() {
+        return database.writeExecutor();
+    }
+
+    /**
+     * Loads every stored term, in no particular order.
+     */
+    @WorkerThread
+    @NonNull
+    List<SuggestionIndex.Entry> loadAll() {
+        List<SuggestionIndex.Entry> entries = new ArrayList<>();
+        try (Cursor cursor = database.getReadableDatabase().query(GithubDatabase.TABLE_SEARCH_TERMS,
+                new String[]{GithubDatabase.COLUMN_TERM, GithubDatabase.COLUMN_KIND,
+                        GithubDatabase.COLUMN_VALUE, GithubDatabase.COLUMN_HITS, GithubDatabase.COLUMN_SEEN_AT},
+                null, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                SuggestionIndex.Kind kind = SuggestionIndex.Kind.fromName(cursor.getString(1));
+                if (kind != null) {
+                    entries.add(new SuggestionIndex.Entry(cursor.getString(0), kind, cursor.getString(2),
+                            cursor.getInt(3), cursor.getLong(4)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Adds terms, or adds their hits to the stored ones, then drops the least recently seen terms
+     * beyond the limit.
+     * @param now When the terms were seen, in epoch milliseconds.
+     */
+    @WorkerThread
+    void addAll(@NonNull List<SuggestionIndex.Entry> entries, int maxTerms, long now) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (SuggestionIndex.Entry entry : entries) {
+                String[] key = {entry.term, entry.kind.name(), entry.value};
+                db.execSQL("UPDATE " + GithubDatabase.TABLE_SEARCH_TERMS + " SET "
+                                + GithubDatabase.COLUMN_HITS + " = " + GithubDatabase.COLUMN_HITS + " + ?, "
+                                + GithubDatabase.COLUMN_SEEN_AT + " = ? WHERE "
+                                + GithubDatabase.COLUMN_TERM + " = ? AND " + GithubDatabase.COLUMN_KIND + " = ? AND "
+                                + GithubDatabase.COLUMN_VALUE + " = ?",
+                        new Object[]{entry.hits, now, key[0], key[1], key[2]});
+                ContentValues values = new ContentValues();
+                values.put(GithubDatabase.COLUMN_TERM, entry.term);
+                values.put(GithubDatabase.COLUMN_KIND, entry.kind.name());
+                values.put(GithubDatabase.COLUMN_VALUE, entry.value);
+                values.put(GithubDatabase.COLUMN_HITS, entry.hits);
+                values.put(GithubDatabase.COLUMN_SEEN_AT, now);
+                // Only inserts if the update found no row.
+                db.insertWithOnConflict(GithubDatabase.TABLE_SEARCH_TERMS, null, values,
+                        SQLiteDatabase.CONFLICT_IGNORE);
+            }
+            db.execSQL("DELETE FROM " + GithubDatabase.TABLE_SEARCH_TERMS + " WHERE rowid IN (SELECT rowid FROM "
+                    + GithubDatabase.TABLE_SEARCH_TERMS + " ORDER BY " + GithubDatabase.COLUMN_SEEN_AT
+                    + " DESC LIMIT -1 OFFSET " + maxTerms + ")");
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Deletes every stored term.
+     */
+    @WorkerThread
+    void clear() {
+        database.getWritableDatabase().delete(GithubDatabase.TABLE_SEARCH_TERMS, null, null);
+    }
+}
@@ -0,0 +1,492 @@
+package com.usth.githubclient.data.local;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * On-device prefix index over the logins, user names and repository names the app has already
+ * fetched, for search suggestions that cost no request.
+ * Terms live in sorted parallel arrays searched by binary search; a lookup finds the first term
+ * with the prefix and scans forward, so it stays well under a millisecond at 100,000 terms.
+ * New terms are buffered and merged into a fresh copy of the arrays in the background, and
+ * persisted through a {@link SearchTermStore} so the index survives restarts. Both copies keep at
+ * most {@code maxTerms} terms, dropping the least recently seen ones first.
+ */
+public final class SuggestionIndex {
+
+    /**
+     * What a suggestion searches for.
+     */
+    public enum Kind {
+        USER, REPO;
+
+        @Nullable
+        static Kind fromName(String name) {
+            for (Kind kind : values()) {
+                if (kind.name().equals(name)) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A suggested search query.
+     */
+    public static final class Suggestion {
+        private final String text;
+        private final Kind kind;
+
+        Suggestion(String text, Kind kind) {
+            this.text = text;
+            this.kind = kind;
+        }
+
+        /**
+         * @return The query to search for: a login or a repository full name.
+         */
+        @NonNull
+        public String getText() {
+            return text;
+        }
+
+        @NonNull
+        public Kind getKind() {
+            return kind;
+        }
+    }
+
+    /**
+     * One term leading to a value; a value is reachable from several terms, such as a login and
+     * the words of the user's name.
+     */
+    static final class Entry {
+        final String term;
+        final Kind kind;
+        final String value;
+        final int hits;
+        // When the term was last seen, in epoch milliseconds; 0 until it is merged.
+        final long seenAt;
+
+        Entry(String term, Kind kind, String value, int hits) {
+            this(term, kind, value, hits, 0L);
+        }
+
+        Entry(String term, Kind kind, String value, int hits, long seenAt) {
+            this.term = term;
+            this.kind = kind;
+            this.value = value;
+            this.hits = hits;
+            this.seenAt = seenAt;
+        }
+    }
+
+    public static final int DEFAULT_LIMIT = 8;
+    // Least recently seen terms beyond this are dropped, from memory and from disk.
+    public static final int DEFAULT_MAX_TERMS = 100_000;
+    // Bounds the scan of very short prefixes that match a large part of the index.
+    private static final int MAX_SCANNED = 500;
+
+    private static final Comparator<Entry> ORDER = (a, b) -> {
+        int result = a.term.compareTo(b.term);
+        if (result == 0) {
+            result = a.kind.compareTo(b.kind);
+        }
+        return result != 0 ? result : a.value.compareTo(b.value);
+    };
+
+    /**
+     * Sorted terms, replaced as a whole on every merge and never changed once published.
+     * The arrays may be longer than {@link #size()}; the slots past it are unused.
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0);
+
+        final String[] terms;
+        final Kind[] kinds;
+        final String[] values;
+        final int[] hits;
+        final long[] seenAt;
+        int size;
+
+        Snapshot(int capacity) {
+            terms = new String[capacity];
+            kinds = new Kind[capacity];
+            values = new String[capacity];
+            hits = new int[capacity];
+            seenAt = new long[capacity];
+        }
+
+        static Snapshot of(List<Entry> sorted) {
+            Snapshot snapshot = new Snapshot(sorted.size());
+            for (Entry entry : sorted) {
+                snapshot.append(entry.term, entry.kind, entry.value, entry.hits, entry.seenAt);
+            }
+            return snapshot;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void append(String term, Kind kind, String value, int hitCount, long seen) {
+            terms[size] = term;
+            kinds[size] = kind;
+            values[size] = value;
+            hits[size] = hitCount;
+            seenAt[size] = seen;
+            size++;
+        }
+
+        // Same order as ORDER, between a term held here and an entry.
+        int compare(int i, Entry entry) {
+            int result = terms[i].compareTo(entry.term);
+            if (result == 0) {
+                result = kinds[i].compareTo(entry.kind);
+            }
+            return result != 0 ? result : values[i].compareTo(entry.value);
+        }
+
+        /**
+         * Drops the least recently seen terms beyond a limit, in place and keeping the order.
+         */
+        void trimTo(int maxTerms) {
+            int excess = size - maxTerms;
+            if (excess <= 0) {
+                return;
+            }
+            long[] oldestFirst = Arrays.copyOf(seenAt, size);
+            Arrays.sort(oldestFirst);
+            long cutoff = oldestFirst[excess - 1];
+            // Everything seen before the cutoff goes, and as many as needed of the terms seen at it.
+            int dropAtCutoff = excess;
+            for (int i = 0; i < excess && oldestFirst[i] < cutoff; i++) {
+                dropAtCutoff--;
+            }
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (seenAt[i] < cutoff || (seenAt[i] == cutoff && dropAtCutoff-- > 0)) {
+                    continue;
+                }
+                terms[kept] = terms[i];
+                kinds[kept] = kinds[i];
+                values[kept] = values[i];
+                hits[kept] = hits[i];
+                seenAt[kept] = seenAt[i];
+                kept++;
+            }
+            Arrays.fill(terms, kept, size, null);
+            Arrays.fill(values, kept, size, null);
+            size = kept;
+        }
+
+        // The first position whose term is not before the prefix.
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (terms[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private final SearchTermStore store;
+    private final int maxTerms;
+    // The database's write lane: runs loads, merges and disk writes one at a time, in order.
+    private final Executor executor;
+    private final LongSupplier clock;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    // Terms added since the last merge, keyed by term, kind and value; guarded by this.
+    private Map<String, Entry> pending = new HashMap<>();
+    private boolean mergeScheduled;
+    // Bumped on clear(), so a merge started before it does not bring old terms back.
+    private int generation;
+
+    public SuggestionIndex(@NonNull SearchTermStore store, int maxTerms) {
+        this(store, maxTerms, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock Wall clock time in milliseconds, recorded as when terms were last seen.
+     */
+    public SuggestionIndex(@NonNull SearchTermStore store, int maxTerms, @NonNull LongSupplier clock) {
+        this.store = store;
+        this.maxTerms = maxTerms;
+        this.executor = store.writeExecutor();
+        this.clock = clock;
+        executor.execute(this::load);
+    }
+
+    /**
+     * Indexes a user under its login and the words of its name.
+     * @param login The login, which is also what the suggestion searches for.
+     * @param name The display name, or null.
+     */
+    @AnyThread
+    public void addUser(@Nullable String login, @Nullable String name) {
+        if (login == null || login.isEmpty()) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>(4);
+        entries.add(new Entry(normalize(login), Kind.USER, login, 1));
+        addWords(entries, name, Kind.USER, login);
+        add(entries);
+    }
+
+    /**
+     * Indexes a repository under its full name and its name.
+     * @param fullName The {@code owner/name}, which is also what the suggestion searches for.
+     */
+    @AnyThread
+    public void addRepo(@Nullable String fullName) {
+        if (fullName == null || fullName.isEmpty()) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>(2);
+        entries.add(new Entry(normalize(fullName), Kind.REPO, fullName, 1));
+        int slash = fullName.indexOf('/');
+        if (slash >= 0 && slash < fullName.length() - 1) {
+            entries.add(new Entry(normalize(fullName.substring(slash + 1)), Kind.REPO, fullName, 1));
+        }
+        add(entries);
+    }
+
+    /**
+     * Finds the values with a term starting with the prefix, best first: exact matches, then values
+     * that themselves start with the prefix, then the most often seen, then the shortest.
+     * Never touches the disk or the network.
+     * @param prefix The text typed so far.
+     * @param kind The kind of suggestions wanted, or null for both.
+     * @param limit The maximum number of suggestions.
+     */
+    @AnyThread
+    @NonNull
+    public List<Suggestion> suggest(@Nullable String prefix, @Nullable Kind kind, int limit) {
+        String p = prefix == null ? "" : normalize(prefix);
+        if (p.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Map<String, Candidate> candidates = new HashMap<>();
+        Snapshot current = snapshot;
+        int start = current.lowerBound(p);
+        int end = Math.min(current.size(), start + MAX_SCANNED);
+        for (int i = start; i < end && current.terms[i].startsWith(p); i++) {
+            if (kind == null || current.kinds[i] == kind) {
+                offer(candidates, p, current.terms[i], current.kinds[i], current.values[i], current.hits[i]);
+            }
+        }
+        synchronized (this) {
+            for (Entry entry : pending.values()) {
+                if (entry.term.startsWith(p) && (kind == null || entry.kind == kind)) {
+                    offer(candidates, p, entry.term, entry.kind, entry.value, entry.hits);
+                }
+            }
+        }
+        List<Candidate> ranked = new ArrayList<>(candidates.values());
+        Collections.sort(ranked);
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            suggestions.add(new Suggestion(ranked.get(i).value, ranked.get(i).kind));
+        }
+        return suggestions;
+    }
+
+    /**
+     * @return The number of terms merged into the sorted arrays.
+     */
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Forgets every term, in memory and on disk, for example on sign-out.
+     */
+    @AnyThread
+    public void clear() {
+        synchronized (this) {
+            generation++;
+            pending = new HashMap<>();
+            snapshot = Snapshot.EMPTY;
+        }
+        executor.execute(store::clear);
+    }
+
+    private void add(List<Entry> entries) {
+        boolean schedule;
+        synchronized (this) {
+            for (Entry entry : entries) {
+                pending.merge(key(entry), entry,
+                        (a, b) -> new Entry(a.term, a.kind, a.value, a.hits + b.hits));
+            }
+            schedule = !mergeScheduled;
+            mergeScheduled = true;
+        }
+        if (schedule) {
+            executor.execute(this::merge);
+        }
+    }
+
+    private void load() {
+        int loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        List<Entry> loaded = store.loadAll();
+        Collections.sort(loaded, ORDER);
+        Snapshot restored = Snapshot.of(loaded);
+        restored.trimTo(maxTerms);
+        synchronized (this) {
+            // Terms added meanwhile are still pending and are merged on top.
+            if (loadGeneration == generation) {
+                snapshot = restored;
+            }
+        }
+    }
+
+    private void merge() {
+        List<Entry> added;
+        int mergeGeneration;
+        synchronized (this) {
+            added = new ArrayList<>(pending.values());
+            mergeGeneration = generation;
+            mergeScheduled = false;
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        long seenAt = clock.getAsLong();
+        store.addAll(added, maxTerms, seenAt);
+        Collections.sort(added, ORDER);
+        // Only this executor replaces the snapshot, apart from clear(), which the generation catches.
+        Snapshot merged = mergeSorted(snapshot, added, seenAt, maxTerms);
+        synchronized (this) {
+            if (mergeGeneration != generation) {
+                return;
+            }
+            snapshot = merged;
+            // Drop what was merged; terms added during the merge stay pending for the next one.
+            for (Entry entry : added) {
+                String key = key(entry);
+                Entry now = pending.get(key);
+                if (now != null && now.hits == entry.hits) {
+                    pending.remove(key);
+                } else if (now != null) {
+                    pending.put(key, new Entry(now.term, now.kind, now.value, now.hits - entry.hits));
+                }
+            }
+        }
+    }
+
+    // Linear merge of two sorted runs straight into new arrays, adding the hits of terms present in both.
+    private static Snapshot mergeSorted(Snapshot current, List<Entry> added, long seenAt, int maxTerms) {
+        Snapshot merged = new Snapshot(current.size() + added.size());
+        int i = 0;
+        int j = 0;
+        while (i < current.size() || j < added.size()) {
+            int order = j == added.size() ? -1 : i == current.size() ? 1 : current.compare(i, added.get(j));
+            if (order < 0) {
+                merged.append(current.terms[i], current.kinds[i], current.values[i], current.hits[i],
+                        current.seenAt[i]);
+                i++;
+            } else {
+                Entry entry = added.get(j++);
+                int hits = entry.hits;
+                if (order == 0) {
+                    hits += current.hits[i++];
+                }
+                merged.append(entry.term, entry.kind, entry.value, hits, seenAt);
+            }
+        }
+        merged.trimTo(maxTerms);
+        return merged;
+    }
+
+    private static void offer(Map<String, Candidate> candidates, String prefix, String term, Kind kind,
+                              String value, int hits) {
+        String key = kind.name() + '\u0000' + value;
+        Candidate candidate = candidates.get(key);
+        if (candidate == null) {
+            candidate = new Candidate(value, kind);
+            candidate.valuePrefix = value.regionMatches(true, 0, prefix, 0, prefix.length());
+            candidates.put(key, candidate);
+        }
+        candidate.exact |= term.equals(prefix);
+        candidate.hits = Math.max(candidate.hits, hits);
+    }
+
+    private static void addWords(List<Entry> entries, @Nullable String text, Kind kind, String value) {
+        if (text == null) {
+            return;
+        }
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        entries.add(new Entry(normalized, kind, value, 1));
+        // Later words too, so "torv" finds "Linus Torvalds".
+        for (int space = normalized.indexOf(' '); space >= 0; space = normalized.indexOf(' ', space + 1)) {
+            String rest = normalized.substring(space + 1).trim();
+            if (!rest.isEmpty()) {
+                entries.add(new Entry(rest, kind, value, 1));
+            }
+        }
+    }
+
+    private static String key(Entry entry) {
+        return entry.term + '\u0000' + entry.kind + '\u0000' + entry.value;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        final String value;
+        final Kind kind;
+        boolean exact;
+        boolean valuePrefix;
+        int hits;
+
+        Candidate(String value, Kind kind) {
+            this.value = value;
+            this.kind = kind;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (exact != other.exact) {
+                return exact ? -1 : 1;
+            }
+            if (valuePrefix != other.valuePrefix) {
+                return valuePrefix ? -1 : 1;
+            }
+            if (hits != other.hits) {
+                return Integer.compare(other.hits, hits);
+            }
+            if (value.length() != other.value.length()) {
+                return Integer.compare(value.length(), other.value.length());
+            }
+            return value.compareTo(other.value);
+        }
+    }
+}
@@ -1,6 +1,28 @@
 package com.usth.githubclient.data.remote;
 
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.usth.githubclient.data.remote.dto.EventDto;
+import com.usth.githubclient.data.remote.dto.RepoDto;
+import com.usth.githubclient.data.remote.dto.SearchRepoResponseDto;
+import com.usth.githubclient.data.remote.dto.SearchUsersResponseDto;
+import com.usth.githubclient.data.remote.dto.UserDto;
+import com.usth.githubclient.data.remote.dto.UserEmailDto;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
@@ -8,103 +30,270 @@ import retrofit2.converter.gson.GsonConverterFactory;
 
 /**
  * Configures and provides a Retrofit client for making API requests to the GitHub API.
+ * All clients share one process-wide {@link OkHttpClient}, so connections, TLS sessions and
+ * dispatcher threads are reused across repositories and auth tokens.
  */
 public class ApiClient {
 
     private static final String BASE_URL = "https://api.github.com/";
+    private static final String LOW_PRIORITY_IDENTITY = "low-priority:";
+
+    // Defaults for the shared connection pool and dispatcher.
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    public static final long DEFAULT_KEEP_ALIVE_MINUTES = 5;
+    public static final int DEFAULT_MAX_REQUESTS = 64;
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 16;
+
+    private static int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+    private static long keepAliveMinutes = DEFAULT_KEEP_ALIVE_MINUTES;
+    private static int maxRequests = DEFAULT_MAX_REQUESTS;
+    private static int maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
+
+    // One Gson for the whole app, with streaming adapters instead of reflection for the REST DTOs.
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(UserDto.class, new UserDto.GsonAdapter())
+            .registerTypeAdapter(UserEmailDto.class, new UserEmailDto.GsonAdapter())
+            .registerTypeAdapter(RepoDto.class, new RepoDto.GsonAdapter())
+            .registerTypeAdapter(EventDto.class, new EventDto.GsonAdapter())
+            .registerTypeAdapter(SearchUsersResponseDto.class, new SearchUsersResponseDto.GsonAdapter())
+            .registerTypeAdapter(SearchRepoResponseDto.class, new SearchRepoResponseDto.GsonAdapter())
+            .create();
+    private static final GsonConverterFactory converterFactory = GsonConverterFactory.create(gson);
+
+    private static Cache cache = null;
+    private static final CacheStatsInterceptor cacheStats = new CacheStatsInterceptor();
+    private static final RequestScheduler requestScheduler = new RequestScheduler();
+    private static String baseUrl = BASE_URL;
+    private static OkHttpClient baseClient = null;
     private static Retrofit retrofit = null;
-    private static String authToken = null;
+    private static volatile String authToken = null;
+    // Fingerprint of the session token, computed once per token change.
+    private static volatile String authIdentity = ApiServiceRegistry.fingerprint(null);
+    private static final ApiServiceRegistry services = new ApiServiceRegistry();
 
     /**
-     * Gets the Retrofit client instance.
-     * @return The Retrofit client.
+     * Configures the shared connection pool and dispatcher.
+     * Should be called before the first request; calling it later rebuilds the shared client.
+     * @param idleConnections The maximum number of idle connections kept in the pool.
+     * @param keepAlive The time in minutes an idle connection is kept alive.
+     * @param requests The maximum number of concurrent requests.
+     * @param requestsPerHost The maximum number of concurrent requests per host.
      */
-    public static Retrofit getClient() {
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
+    public static synchronized void configure(int idleConnections, long keepAlive, int requests, int requestsPerHost) {
+        maxIdleConnections = idleConnections;
+        keepAliveMinutes = keepAlive;
+        maxRequests = requests;
+        maxRequestsPerHost = requestsPerHost;
+        baseClient = null;
+        retrofit = null;
+        services.invalidate();
+    }
 
-        OkHttpClient.Builder httpClient = new OkHttpClient.Builder();
-        httpClient.addInterceptor(logging);
-        // Add an interceptor to include the Authorization header in requests.
-        httpClient.addInterceptor(chain -> {
-            Request original = chain.request();
-            Request.Builder requestBuilder = original.newBuilder()
-                    .header("Accept", "application/vnd.github+json")
-                    .header("User-Agent", "usth-github-client");
-            if (authToken != null && !authToken.isEmpty()) {
-                requestBuilder.header("Authorization", "Bearer " + authToken);
+    /**
+     * Installs a bounded on-disk HTTP cache shared by every client.
+     * GET responses are stored with their ETag / Last-Modified validators; once stale they are
+     * revalidated with If-None-Match / If-Modified-Since, and a 304 is answered from the cache.
+     * GitHub does not count 304 responses against the rate limit.
+     * @param directory The cache directory, or null to remove the cache.
+     * @param maxSizeBytes The maximum size of the cache.
+     */
+    public static synchronized void installCache(@Nullable File directory, long maxSizeBytes) {
+        cache = directory == null ? null : new Cache(directory, maxSizeBytes);
+        baseClient = null;
+        retrofit = null;
+        services.invalidate();
+    }
+
+    /**
+     * Points every client at another server, such as a local test server.
+     * @param url The base URL ending with a slash, or null for the GitHub API.
+     */
+    @VisibleForTesting
+    public static synchronized void setBaseUrl(@Nullable String url) {
+        baseUrl = url == null ? BASE_URL : url;
+        retrofit = null;
+        services.invalidate();
+    }
+
+    /**
+     * Gets the hit, miss and revalidation counters of the HTTP cache.
+     * @return The cache statistics.
+     */
+    public static CacheStatsInterceptor getCacheStats() {
+        return cacheStats;
+    }
+
+    /**
+     * Gets the Gson instance shared by every Retrofit client.
+     * @return The shared Gson.
+     */
+    public static Gson getGson() {
+        return gson;
+    }
+
+    /**
+     * Gets the scheduler that tracks the GitHub rate limit budget of every client.
+     * @return The request scheduler.
+     */
+    public static RequestScheduler getRequestScheduler() {
+        return requestScheduler;
+    }
+
+    /**
+     * Gets the process-wide OkHttpClient that owns the connection pool and dispatcher.
+     * Every other client is derived from it with {@link OkHttpClient#newBuilder()}.
+     * @return The shared OkHttpClient.
+     */
+    public static synchronized OkHttpClient getBaseClient() {
+        if (baseClient == null) {
+            HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
+            logging.setLevel(HttpLoggingInterceptor.Level.BODY);
+
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(maxRequests);
+            dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+            OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMinutes, TimeUnit.MINUTES))
+                    .dispatcher(dispatcher)
+                    // HTTP/2 lets concurrent calls to api.github.com multiplex over one connection.
+                    .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                    .addInterceptor(cacheStats)
+                    .addInterceptor(logging)
+                    // After the cache, so only requests that reach the network need a token.
+                    .addNetworkInterceptor(requestScheduler);
+            if (cache != null) {
+                builder.cache(cache);
             }
-            Request request = requestBuilder.build();
-            return chain.proceed(request);
-        });
+            baseClient = builder.build();
+        }
+        return baseClient;
+    }
 
+    /**
+     * Gets the Retrofit client instance.
+     * @return The Retrofit client.
+     */
+    public static synchronized Retrofit getClient() {
         if (retrofit == null) {
-            retrofit = new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .client(httpClient.build())
+            // The session token is read on every request, so the client survives token changes.
+            OkHttpClient client = getBaseClient().newBuilder()
+                    .addInterceptor(githubHeaders(() -> authToken))
                     .build();
+            retrofit = buildRetrofit(client);
         }
         return retrofit;
     }
 
     /**
-     * Sets the authentication token and rebuilds the Retrofit client.
+     * Sets the authentication token used by the shared client.
      * @param token The authentication token.
      */
     public void setAuthToken(String token) {
-        authToken = token;
-        retrofit = null;
-        getClient();
+        updateAuthToken(token);
     }
 
     /**
      * Clears the authentication token.
      */
     public void clearAuthToken() {
-        authToken = null;
-        retrofit = null;
+        updateAuthToken(null);
+    }
+
+    /**
+     * @return True if the shared client currently sends an Authorization header.
+     */
+    public static boolean hasAuthToken() {
+        String token = authToken;
+        return token != null && !token.isEmpty();
+    }
+
+    /**
+     * Identifies the session token without exposing it, so per-token state such as a refused
+     * GraphQL scope can be dropped when the user signs in again or signs out.
+     * @return The fingerprint of the current token; the same value for every anonymous session.
+     */
+    public static String getAuthIdentity() {
+        return authIdentity;
+    }
+
+    // Swaps the token and drops the cached services in one step.
+    private static synchronized void updateAuthToken(String token) {
+        authToken = token;
+        authIdentity = ApiServiceRegistry.fingerprint(token);
+        services.invalidate();
     }
 
     /**
      * Creates a service with a specific token, useful for one-time calls like authentication.
+     * The underlying client shares the connection pool and dispatcher of the base client.
      * @param token The token to use for the service.
      * @param serviceClass The service class.
      * @param <T> The type of the service.
-     * @return The created service.
+     * @return The cached service for this token.
      */
     public <T> T createService(String token, Class<T> serviceClass) {
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-
-        OkHttpClient.Builder httpClient = new OkHttpClient.Builder();
-        httpClient.addInterceptor(logging);
-        httpClient.addInterceptor(chain -> {
-            Request original = chain.request();
-            Request.Builder requestBuilder = original.newBuilder()
-                    .header("Accept", "application/vnd.github+json")
-                    .header("User-Agent", "usth-github-client")
-                    .header("Authorization", "Bearer " + token);
-            Request request = requestBuilder.build();
-            return chain.proceed(request);
-        });
-
-        Retrofit tempRetrofit = new Retrofit.Builder()
-                .baseUrl(BASE_URL)
-                .addConverterFactory(GsonConverterFactory.create())
-                .client(httpClient.build())
-                .build();
-
-        return tempRetrofit.create(serviceClass);
+        return services.get(ApiServiceRegistry.fingerprint(token), serviceClass, () -> buildRetrofit(getBaseClient().newBuilder()
+                .addInterceptor(githubHeaders(() -> token))
+                .build()));
     }
 
     /**
      * Creates a service using the default client.
      * @param serviceClass The service class.
      * @param <T> The type of the service.
-     * @return The created service.
+     * @return The cached service for the current session.
      */
     public <T> T createService(Class<T> serviceClass) {
-        return getClient().create(serviceClass);
+        return services.get(authIdentity, serviceClass, ApiClient::getClient);
+    }
+
+    /**
+     * Creates a session service whose calls are low priority for the {@link RequestScheduler},
+     * so they are shed first when the rate limit budget runs low.
+     * @param serviceClass The service class.
+     * @param <T> The type of the service.
+     * @return The cached low-priority service for the current session.
+     */
+    public <T> T createLowPriorityService(Class<T> serviceClass) {
+        return services.get(LOW_PRIORITY_IDENTITY + authIdentity, serviceClass, () -> {
+            OkHttpClient.Builder builder = getBaseClient().newBuilder();
+            // Tag before the scheduler sees the request.
+            builder.interceptors().add(0, chain -> chain.proceed(chain.request().newBuilder()
+                    .tag(RequestScheduler.Priority.class, RequestScheduler.Priority.LOW)
+                    .build()));
+            return buildRetrofit(builder
+                    .addInterceptor(githubHeaders(() -> authToken))
+                    .build());
+        });
+    }
+
+    private static synchronized Retrofit buildRetrofit(OkHttpClient client) {
+        return new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                // Services are cached, so parse every method annotation once up front.
+                .validateEagerly(true)
+                .addConverterFactory(converterFactory)
+                .client(client)
+                .build();
+    }
+
+    /**
+     * Builds an interceptor that adds the GitHub headers, including the Authorization header when a token is present.
+     * @param token Supplies the token at request time.
+     * @return The interceptor.
+     */
+    private static Interceptor githubHeaders(Supplier<String> token) {
+        return chain -> {
+            Request original = chain.request();
+            Request.Builder requestBuilder = original.newBuilder()
+                    .header("Accept", "application/vnd.github+json")
+                    .header("User-Agent", "usth-github-client");
+            String value = token.get();
+            if (value != null && !value.isEmpty()) {
+                requestBuilder.header("Authorization", "Bearer " + value);
+            }
+            return chain.proceed(requestBuilder.build());
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.usth.githubclient.data.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import retrofit2.Retrofit;
+
+/**
+ * Caches one Retrofit service proxy per auth identity and service class.
+ * Creating a proxy parses every method annotation, so doing it once per identity keeps that
+ * work off the repositories' hot path.
+ * Identities are token fingerprints, so raw tokens are never kept as keys.
+ */
+public final class ApiServiceRegistry {
+
+    private static final String ANONYMOUS = "anonymous";
+    // Bytes of the SHA-256 digest kept in a fingerprint.
+    private static final int FINGERPRINT_BYTES = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // Replaced as a whole on invalidation, so readers never see a half-cleared generation.
+    private volatile Map<String, Map<Class<?>, Object>> services = new ConcurrentHashMap<>();
+
+    /**
+     * Derives the identity of an auth token.
+     * @param token The token, or null for anonymous calls.
+     * @return A fingerprint of the token, the same for equal tokens.
+     */
+    @NonNull
+    public static String fingerprint(@Nullable String token) {
+        if (token == null || token.isEmpty()) {
+            return ANONYMOUS;
+        }
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256.
+            throw new IllegalStateException(e);
+        }
+        char[] hex = new char[FINGERPRINT_BYTES * 2];
+        for (int i = 0; i < FINGERPRINT_BYTES; i++) {
+            hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Gets the cached service for an identity, creating it on first use.
+     * A service created while {@link #invalidate()} ran is dropped and created again, so callers
+     * never receive a service of a generation that was already invalidated.
+     * @param identity The {@link #fingerprint(String)} of the caller's token, or another key identifying the caller.
+     * @param serviceClass The service class.
+     * @param retrofit Supplies the Retrofit instance used when the service is not cached yet.
+     * @param <T> The type of the service.
+     * @return The cached service.
+     */
+    @NonNull
+    public <T> T get(@NonNull String identity, @NonNull Class<T> serviceClass, @NonNull Supplier<Retrofit> retrofit) {
+        while (true) {
+            Map<String, Map<Class<?>, Object>> generation = services;
+            Map<Class<?>, Object> byClass = generation.computeIfAbsent(identity, ignored -> new ConcurrentHashMap<>());
+            Object service = byClass.computeIfAbsent(serviceClass, ignored -> retrofit.get().create(serviceClass));
+            if (generation == services) {
+                return serviceClass.cast(service);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached service, for example after the auth token changed.
+     */
+    public void invalidate() {
+        services = new ConcurrentHashMap<>();
+    }
+}
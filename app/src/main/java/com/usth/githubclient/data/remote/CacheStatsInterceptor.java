@@ -0,0 +1,53 @@
+package com.usth.githubclient.data.remote;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Counts how GET responses were served by the HTTP cache.
+ * A hit never touched the network, a revalidation was answered with 304 Not Modified,
+ * and a miss downloaded a full body.
+ */
+public final class CacheStatsInterceptor implements Interceptor {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if (!"GET".equals(chain.request().method())) {
+            return response;
+        }
+        Response network = response.networkResponse();
+        if (network == null) {
+            if (response.cacheResponse() != null) {
+                hits.incrementAndGet();
+            }
+        } else if (network.code() == 304) {
+            revalidations.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return response;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getRevalidationCount() {
+        return revalidations.get();
+    }
+}
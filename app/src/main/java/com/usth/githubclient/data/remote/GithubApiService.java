@@ -1,6 +1,9 @@
 package com.usth.githubclient.data.remote;
 
 import com.usth.githubclient.data.remote.dto.EventDto;
+import com.usth.githubclient.data.remote.dto.GraphQlContributionsResponseDto;
+import com.usth.githubclient.data.remote.dto.GraphQlRequestDto;
+import com.usth.githubclient.data.remote.dto.GraphQlUsersResponseDto;
 import com.usth.githubclient.data.remote.dto.RepoDto;
 import com.usth.githubclient.data.remote.dto.SearchRepoResponseDto;
 import com.usth.githubclient.data.remote.dto.SearchUsersResponseDto;
@@ -10,7 +13,9 @@ import com.usth.githubclient.data.remote.dto.UserEmailDto;
 import java.util.List;
 
 import retrofit2.Call;
+import retrofit2.http.Body;
 import retrofit2.http.GET;
+import retrofit2.http.POST;
 import retrofit2.http.DELETE;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
@@ -49,6 +54,15 @@ public interface GithubApiService {
             @Query("sort") String sort
     );
 
+    // Get a user's public repositories.
+    @GET("users/{username}/repos")
+    Call<List<RepoDto>> getUserRepositories(
+            @Path("username") String username,
+            @Query("per_page") int perPage,
+            @Query("page") int page,
+            @Query("sort") String sort
+    );
+
     // Search for users.
     @GET("search/users")
     Call<SearchUsersResponseDto> searchUsers(
@@ -64,6 +78,12 @@ public interface GithubApiService {
             @Query("page") int page,
             @Query("per_page") int perPage);
 
+    // Get the repositories starred by the authenticated user.
+    @GET("user/starred")
+    Call<List<RepoDto>> getStarredRepositories(
+            @Query("per_page") int perPage,
+            @Query("page") int page);
+
     // Check if a repository is starred.
     @GET("user/starred/{owner}/{repo}")
     Call<Void> isRepoStarred(
@@ -89,4 +109,12 @@ public interface GithubApiService {
             @Query("page") int page,
             @Query("per_page") int perPage
     );
+
+    // Look up a batch of users in one GraphQL query.
+    @POST("graphql")
+    Call<GraphQlUsersResponseDto> queryUsers(@Body GraphQlRequestDto body);
+
+    // Get a user's contribution calendar for a date range in one GraphQL query.
+    @POST("graphql")
+    Call<GraphQlContributionsResponseDto> queryContributions(@Body GraphQlRequestDto body);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.usth.githubclient.data.remote;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link RequestScheduler} when a call is not sent because the GitHub rate limit
+ * budget of its resource is exhausted or reserved for more important calls.
+ */
+public class RateLimitExceededException extends IOException {
+
+    private final RequestScheduler.Resource resource;
+    private final long resetAtMillis;
+
+    public RateLimitExceededException(RequestScheduler.Resource resource, long resetAtMillis, String message) {
+        super(message);
+        this.resource = resource;
+        this.resetAtMillis = resetAtMillis;
+    }
+
+    public RequestScheduler.Resource getResource() {
+        return resource;
+    }
+
+    /**
+     * @return The wall-clock time in milliseconds when the budget is refilled.
+     */
+    public long getResetAtMillis() {
+        return resetAtMillis;
+    }
+}
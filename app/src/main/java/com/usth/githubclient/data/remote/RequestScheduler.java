@@ -0,0 +1,251 @@
+package com.usth.githubclient.data.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Admits requests against a token bucket per GitHub rate limit resource.
+ * Each bucket is kept in sync with the X-RateLimit-* headers of real network responses.
+ * Low-priority calls (such as list enrichment) are shed while a bucket is inside its reserve,
+ * and normal calls fail fast with {@link RateLimitExceededException} once it is empty, instead of
+ * collecting 403s. Calls are never parked, so an empty bucket cannot tie up dispatcher or pool threads.
+ * Must be installed as a network interceptor, after the HTTP cache: responses the cache serves on
+ * its own neither need nor spend a token, and neither do revalidations answered with 304, which
+ * GitHub does not count.
+ */
+public final class RequestScheduler implements Interceptor {
+
+    /**
+     * GitHub rate limit resources with the limits of an authenticated user. They only apply until
+     * the first response of a resource reports the real limit, which is 60 an hour for core
+     * requests without a token.
+     */
+    public enum Resource {
+        CORE(5000, TimeUnit.HOURS.toMillis(1)),
+        SEARCH(30, TimeUnit.MINUTES.toMillis(1)),
+        GRAPHQL(5000, TimeUnit.HOURS.toMillis(1));
+
+        final int defaultLimit;
+        final long windowMillis;
+
+        Resource(int defaultLimit, long windowMillis) {
+            this.defaultLimit = defaultLimit;
+            this.windowMillis = windowMillis;
+        }
+
+        static Resource of(HttpUrl url) {
+            String path = url.encodedPath();
+            if (path.startsWith("/search/")) {
+                return SEARCH;
+            }
+            if (path.startsWith("/graphql")) {
+                return GRAPHQL;
+            }
+            return CORE;
+        }
+
+        @Nullable
+        static Resource fromHeader(@Nullable String value) {
+            if (value == null) {
+                return null;
+            }
+            switch (value.toLowerCase(Locale.ROOT)) {
+                case "core":
+                    return CORE;
+                case "search":
+                    return SEARCH;
+                case "graphql":
+                    return GRAPHQL;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Request priority, attached as an OkHttp request tag.
+     */
+    public enum Priority { NORMAL, LOW }
+
+    /**
+     * Immutable snapshot of the remaining budget of one resource.
+     */
+    public static final class Budget {
+        public final Resource resource;
+        public final int limit;
+        public final int remaining;
+        public final long resetAtMillis;
+
+        Budget(Resource resource, int limit, int remaining, long resetAtMillis) {
+            this.resource = resource;
+            this.limit = limit;
+            this.remaining = remaining;
+            this.resetAtMillis = resetAtMillis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Budget{" + resource + " " + remaining + "/" + limit + ", resetAt=" + resetAtMillis + '}';
+        }
+    }
+
+    // Share of each bucket that low-priority calls may not use.
+    private static final int LOW_PRIORITY_RESERVE_PERCENT = 20;
+
+    private final Map<Resource, Bucket> buckets = new EnumMap<>(Resource.class);
+    private final Map<Resource, MutableLiveData<Budget>> budgets = new EnumMap<>(Resource.class);
+
+    public RequestScheduler() {
+        for (Resource resource : Resource.values()) {
+            Bucket bucket = new Bucket(resource);
+            buckets.put(resource, bucket);
+            budgets.put(resource, new MutableLiveData<>(bucket.snapshot()));
+        }
+    }
+
+    /**
+     * Gets the current budget of a resource.
+     * @param resource The rate limit resource.
+     * @return LiveData updated whenever the budget changes.
+     */
+    public LiveData<Budget> getBudget(@NonNull Resource resource) {
+        return budgets.get(resource);
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Priority priority = request.tag(Priority.class);
+        Bucket bucket = buckets.get(Resource.of(request.url()));
+
+        bucket.acquire(priority == null ? Priority.NORMAL : priority);
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            bucket.release();
+            throw e;
+        }
+
+        Resource reported = Resource.fromHeader(response.header("X-RateLimit-Resource"));
+        if (response.code() == 304 || (reported != null && reported != bucket.resource)) {
+            bucket.release();
+        }
+        if (reported != null) {
+            bucket = buckets.get(reported);
+        }
+        bucket.update(response.headers(), response.code());
+        publish(bucket);
+        return response;
+    }
+
+    private void publish(Bucket bucket) {
+        budgets.get(bucket.resource).postValue(bucket.snapshot());
+    }
+
+    /**
+     * Token bucket of one resource. Tokens are refilled to the limit when the window resets.
+     */
+    private static final class Bucket {
+        final Resource resource;
+        private int limit;
+        private int tokens;
+        private long resetAtMillis;
+
+        Bucket(Resource resource) {
+            this.resource = resource;
+            this.limit = resource.defaultLimit;
+            this.tokens = resource.defaultLimit;
+            this.resetAtMillis = System.currentTimeMillis() + resource.windowMillis;
+        }
+
+        synchronized void acquire(Priority priority) throws IOException {
+            refillIfDue();
+            if (priority == Priority.LOW && tokens <= reserve()) {
+                throw new RateLimitExceededException(resource, resetAtMillis,
+                        "Skipped low-priority " + resource + " call, rate limit budget reserved");
+            }
+            if (tokens <= 0) {
+                // Callers retry after getResetAtMillis(); waiting here would hold the calling threads.
+                throw new RateLimitExceededException(resource, resetAtMillis,
+                        "GitHub " + resource + " rate limit exhausted");
+            }
+            tokens--;
+        }
+
+        synchronized void release() {
+            if (tokens < limit) {
+                tokens++;
+            }
+        }
+
+        synchronized void update(Headers headers, int code) {
+            int headerLimit = parseInt(headers.get("X-RateLimit-Limit"), -1);
+            int headerRemaining = parseInt(headers.get("X-RateLimit-Remaining"), -1);
+            long headerReset = parseLong(headers.get("X-RateLimit-Reset"), -1);
+            long headerResetMillis = TimeUnit.SECONDS.toMillis(headerReset);
+            boolean newWindow = headerReset > 0 && headerResetMillis != resetAtMillis;
+            if (headerLimit > 0) {
+                limit = headerLimit;
+            }
+            if (headerRemaining >= 0) {
+                // Within a known window keep whatever is lower, so calls still in flight
+                // stay accounted for; a new window replaces the local estimate.
+                tokens = newWindow ? headerRemaining : Math.min(tokens, headerRemaining);
+            } else if ((code == 403 || code == 429) && headers.get("Retry-After") != null) {
+                tokens = 0;
+            }
+            if (headerReset > 0) {
+                resetAtMillis = headerResetMillis;
+            }
+        }
+
+        private void refillIfDue() {
+            long now = System.currentTimeMillis();
+            if (now >= resetAtMillis) {
+                tokens = limit;
+                resetAtMillis = now + resource.windowMillis;
+            }
+        }
+
+        private int reserve() {
+            return Math.max(1, limit * LOW_PRIORITY_RESERVE_PERCENT / 100);
+        }
+
+        synchronized Budget snapshot() {
+            return new Budget(resource, limit, Math.max(tokens, 0), resetAtMillis);
+        }
+
+        private static int parseInt(@Nullable String value, int fallback) {
+            try {
+                return value == null ? fallback : Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+
+        private static long parseLong(@Nullable String value, long fallback) {
+            try {
+                return value == null ? fallback : Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+    }
+}
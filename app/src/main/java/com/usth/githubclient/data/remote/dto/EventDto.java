@@ -1,8 +1,16 @@
 package com.usth.githubclient.data.remote.dto;
 
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 
 public class EventDto {
+    @SerializedName("id")
+    private String id;
+
     @SerializedName("type")
     private String type;
 
@@ -10,6 +18,10 @@ public class EventDto {
     private String createdAt;
 
     // Getters
+    public String getId() {
+        return id;
+    }
+
     public String getType() {
         return type;
     }
@@ -17,4 +29,50 @@ public class EventDto {
     public String getCreatedAt() {
         return createdAt;
     }
-}
\ No newline at end of file
+
+    /**
+     * Streaming adapter that reads only the fields declared above and skips the event payload.
+     */
+    public static final class GsonAdapter extends TypeAdapter<EventDto> {
+
+        @Override
+        public void write(JsonWriter out, EventDto value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.id);
+            out.name("type").value(value.type);
+            out.name("created_at").value(value.createdAt);
+            out.endObject();
+        }
+
+        @Override
+        public EventDto read(JsonReader in) throws IOException {
+            if (JsonReaders.skipNull(in)) {
+                return null;
+            }
+            EventDto dto = new EventDto();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        dto.id = JsonReaders.nextString(in);
+                        break;
+                    case "type":
+                        dto.type = JsonReaders.nextString(in);
+                        break;
+                    case "created_at":
+                        dto.createdAt = JsonReaders.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.usth.githubclient.data.remote.dto;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * Response of the GraphQL {@code contributionsCollection} query: the contribution calendar of one
+ * user, as shown on their GitHub profile, grouped in weeks.
+ */
+public final class GraphQlContributionsResponseDto {
+
+    @SerializedName("data")
+    private Data data;
+
+    @SerializedName("errors")
+    private List<GraphQlUsersResponseDto.Error> errors;
+
+    public Data getData() {
+        return data;
+    }
+
+    public List<GraphQlUsersResponseDto.Error> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return The weeks of the calendar, or null if the user was not found.
+     */
+    public List<Week> getWeeks() {
+        if (data == null || data.user == null || data.user.contributionsCollection == null
+                || data.user.contributionsCollection.contributionCalendar == null) {
+            return null;
+        }
+        return data.user.contributionsCollection.contributionCalendar.weeks;
+    }
+
+    /** The {@code data} object of the response. */
+    public static final class Data {
+        @SerializedName("user")
+        private User user;
+    }
+
+    static final class User {
+        @SerializedName("contributionsCollection")
+        private ContributionsCollection contributionsCollection;
+    }
+
+    static final class ContributionsCollection {
+        @SerializedName("contributionCalendar")
+        private ContributionCalendar contributionCalendar;
+    }
+
+    static final class ContributionCalendar {
+        @SerializedName("weeks")
+        private List<Week> weeks;
+    }
+
+    /** One week of the calendar. */
+    public static final class Week {
+        @SerializedName("contributionDays")
+        private List<Day> contributionDays;
+
+        public List<Day> getContributionDays() {
+            return contributionDays;
+        }
+    }
+
+    /** One day of the calendar. */
+    public static final class Day {
+        @SerializedName("date")
+        private String date;
+
+        @SerializedName("contributionCount")
+        private int contributionCount;
+
+        /**
+         * @return The day as {@code yyyy-MM-dd}.
+         */
+        public String getDate() {
+            return date;
+        }
+
+        public int getContributionCount() {
+            return contributionCount;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.usth.githubclient.data.remote.dto;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Map;
+
+/**
+ * Body of a request to the GitHub GraphQL endpoint.
+ */
+public final class GraphQlRequestDto {
+
+    @SerializedName("query")
+    private final String query;
+
+    @SerializedName("variables")
+    private final Map<String, Object> variables;
+
+    public GraphQlRequestDto(String query, Map<String, Object> variables) {
+        this.query = query;
+        this.variables = variables;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public Map<String, Object> getVariables() {
+        return variables;
+    }
+}
@@ -0,0 +1,68 @@
+package com.usth.githubclient.data.remote.dto;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * The user fields requested by the batched GraphQL user lookup.
+ */
+public final class GraphQlUserDto {
+
+    @SerializedName("databaseId")
+    private Long databaseId;
+
+    @SerializedName("login")
+    private String login;
+
+    @SerializedName("name")
+    private String name;
+
+    @SerializedName("bio")
+    private String bio;
+
+    @SerializedName("avatarUrl")
+    private String avatarUrl;
+
+    @SerializedName("repositories")
+    private TotalCount repositories;
+
+    @SerializedName("followers")
+    private TotalCount followers;
+
+    /** Required by Gson. */
+    public GraphQlUserDto() {
+    }
+
+    public Long getDatabaseId() {
+        return databaseId;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getBio() {
+        return bio;
+    }
+
+    public String getAvatarUrl() {
+        return avatarUrl;
+    }
+
+    public int getRepositoryCount() {
+        return repositories != null ? repositories.totalCount : 0;
+    }
+
+    public int getFollowerCount() {
+        return followers != null ? followers.totalCount : 0;
+    }
+
+    /** A GraphQL connection of which only the total count is requested. */
+    public static final class TotalCount {
+        @SerializedName("totalCount")
+        private int totalCount;
+    }
+}
@@ -0,0 +1,44 @@
+package com.usth.githubclient.data.remote.dto;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response of the batched GraphQL user lookup. Every requested login is returned under its alias;
+ * logins that could not be resolved map to null and are described in {@code errors}.
+ */
+public final class GraphQlUsersResponseDto {
+
+    @SerializedName("data")
+    private Map<String, GraphQlUserDto> data;
+
+    @SerializedName("errors")
+    private List<Error> errors;
+
+    public Map<String, GraphQlUserDto> getData() {
+        return data;
+    }
+
+    public List<Error> getErrors() {
+        return errors;
+    }
+
+    /** A single GraphQL error entry. */
+    public static final class Error {
+        @SerializedName("type")
+        private String type;
+
+        @SerializedName("message")
+        private String message;
+
+        public String getType() {
+            return type;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -1,6 +1,15 @@
 package com.usth.githubclient.data.remote.dto;
 
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Raw representation of a GitHub repository as returned by the REST API.
@@ -129,4 +138,193 @@ public final class RepoDto {
     public UserDto getOwner() {
         return owner;
     }
-}
\ No newline at end of file
+
+    /**
+     * Compares every field, so a list diff notices any change without naming the fields itself.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RepoDto)) {
+            return false;
+        }
+        RepoDto that = (RepoDto) o;
+        return id == that.id
+                && stargazersCount == that.stargazersCount
+                && forksCount == that.forksCount
+                && watchersCount == that.watchersCount
+                && openIssuesCount == that.openIssuesCount
+                && isPrivate == that.isPrivate
+                && isFork == that.isFork
+                && Objects.equals(name, that.name)
+                && Objects.equals(fullName, that.fullName)
+                && Objects.equals(description, that.description)
+                && Objects.equals(language, that.language)
+                && Objects.equals(htmlUrl, that.htmlUrl)
+                && Objects.equals(defaultBranch, that.defaultBranch)
+                && Objects.equals(createdAt, that.createdAt)
+                && Objects.equals(updatedAt, that.updatedAt)
+                && Objects.equals(pushedAt, that.pushedAt)
+                && Objects.equals(owner, that.owner);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                id,
+                name,
+                fullName,
+                description,
+                language,
+                stargazersCount,
+                forksCount,
+                watchersCount,
+                openIssuesCount,
+                htmlUrl,
+                defaultBranch,
+                isPrivate,
+                isFork,
+                createdAt,
+                updatedAt,
+                pushedAt,
+                owner
+        );
+    }
+
+    /**
+     * Which fields of the repository payload are decoded.
+     */
+    public enum Projection {
+        /** Every field declared on {@link RepoDto}, including the owner. */
+        FULL,
+        /** Only the fields shown in repository lists; owner and timestamps are skipped unparsed. */
+        LIST
+    }
+
+    private static final Set<String> LIST_FIELDS = new HashSet<>(Arrays.asList(
+            "id", "name", "full_name", "description", "language", "stargazers_count", "forks_count",
+            "watchers_count", "open_issues_count", "html_url", "default_branch"));
+
+    /**
+     * Streaming adapter that reads only the fields declared above and skips the rest of the payload.
+     * With {@link Projection#LIST} the fields not needed by lists are skipped at the token level too.
+     */
+    public static final class GsonAdapter extends TypeAdapter<RepoDto> {
+
+        private static final UserDto.GsonAdapter OWNER_ADAPTER = new UserDto.GsonAdapter();
+
+        private final Projection projection;
+
+        public GsonAdapter() {
+            this(Projection.FULL);
+        }
+
+        public GsonAdapter(Projection projection) {
+            this.projection = projection;
+        }
+
+        @Override
+        public void write(JsonWriter out, RepoDto value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.id);
+            out.name("name").value(value.name);
+            out.name("full_name").value(value.fullName);
+            out.name("description").value(value.description);
+            out.name("language").value(value.language);
+            out.name("stargazers_count").value(value.stargazersCount);
+            out.name("forks_count").value(value.forksCount);
+            out.name("watchers_count").value(value.watchersCount);
+            out.name("open_issues_count").value(value.openIssuesCount);
+            out.name("html_url").value(value.htmlUrl);
+            out.name("default_branch").value(value.defaultBranch);
+            out.name("private").value(value.isPrivate);
+            out.name("fork").value(value.isFork);
+            out.name("created_at").value(value.createdAt);
+            out.name("updated_at").value(value.updatedAt);
+            out.name("pushed_at").value(value.pushedAt);
+            out.name("owner");
+            OWNER_ADAPTER.write(out, value.owner);
+            out.endObject();
+        }
+
+        @Override
+        public RepoDto read(JsonReader in) throws IOException {
+            if (JsonReaders.skipNull(in)) {
+                return null;
+            }
+            RepoDto dto = new RepoDto();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (projection == Projection.LIST && !LIST_FIELDS.contains(name)) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (name) {
+                    case "id":
+                        dto.id = JsonReaders.nextLong(in);
+                        break;
+                    case "name":
+                        dto.name = JsonReaders.nextString(in);
+                        break;
+                    case "full_name":
+                        dto.fullName = JsonReaders.nextString(in);
+                        break;
+                    case "description":
+                        dto.description = JsonReaders.nextString(in);
+                        break;
+                    case "language":
+                        dto.language = JsonReaders.nextString(in);
+                        break;
+                    case "stargazers_count":
+                        dto.stargazersCount = JsonReaders.nextInt(in);
+                        break;
+                    case "forks_count":
+                        dto.forksCount = JsonReaders.nextInt(in);
+                        break;
+                    case "watchers_count":
+                        dto.watchersCount = JsonReaders.nextInt(in);
+                        break;
+                    case "open_issues_count":
+                        dto.openIssuesCount = JsonReaders.nextInt(in);
+                        break;
+                    case "html_url":
+                        dto.htmlUrl = JsonReaders.nextString(in);
+                        break;
+                    case "default_branch":
+                        dto.defaultBranch = JsonReaders.nextString(in);
+                        break;
+                    case "private":
+                        dto.isPrivate = JsonReaders.nextBoolean(in);
+                        break;
+                    case "fork":
+                        dto.isFork = JsonReaders.nextBoolean(in);
+                        break;
+                    case "created_at":
+                        dto.createdAt = JsonReaders.nextString(in);
+                        break;
+                    case "updated_at":
+                        dto.updatedAt = JsonReaders.nextString(in);
+                        break;
+                    case "pushed_at":
+                        dto.pushedAt = JsonReaders.nextString(in);
+                        break;
+                    case "owner":
+                        dto.owner = OWNER_ADAPTER.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return dto;
+        }
+    }
+}
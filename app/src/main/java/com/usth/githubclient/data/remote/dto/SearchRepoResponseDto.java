@@ -1,18 +1,94 @@
 package com.usth.githubclient.data.remote.dto;
 
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Lightweight DTO mirroring the GitHub search repositories response payload.
  */
 public final class SearchRepoResponseDto {
+    @SerializedName("total_count")
+    private int totalCount;
+
     // This annotation is necessary for Gson to map correctly.
     @SerializedName("items")
     private List<RepoDto> items;
 
     // --- Getters ---
+    /**
+     * @return The number of matches, of which GitHub returns at most the first 1,000.
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
     public List<RepoDto> getItems() {
         return items;
     }
-}
\ No newline at end of file
+
+    /**
+     * Streaming adapter that decodes the repository items and skips the remaining top-level fields.
+     * Search results are only shown in lists, so items use {@link RepoDto.Projection#LIST}.
+     */
+    public static final class GsonAdapter extends TypeAdapter<SearchRepoResponseDto> {
+
+        private static final RepoDto.GsonAdapter ITEM_ADAPTER = new RepoDto.GsonAdapter(RepoDto.Projection.LIST);
+
+        @Override
+        public void write(JsonWriter out, SearchRepoResponseDto value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("total_count").value(value.totalCount);
+            out.name("items");
+            if (value.items == null) {
+                out.nullValue();
+            } else {
+                out.beginArray();
+                for (RepoDto item : value.items) {
+                    ITEM_ADAPTER.write(out, item);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public SearchRepoResponseDto read(JsonReader in) throws IOException {
+            if (JsonReaders.skipNull(in)) {
+                return null;
+            }
+            SearchRepoResponseDto dto = new SearchRepoResponseDto();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("total_count".equals(name)) {
+                    dto.totalCount = JsonReaders.nextInt(in);
+                } else if ("items".equals(name)) {
+                    // A null array is consumed here; skipping it again would overrun the object.
+                    if (!JsonReaders.skipNull(in)) {
+                        List<RepoDto> items = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            items.add(ITEM_ADAPTER.read(in));
+                        }
+                        in.endArray();
+                        dto.items = items;
+                    }
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return dto;
+        }
+    }
+}
@@ -1,16 +1,90 @@
 package com.usth.githubclient.data.remote.dto;
 
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * DTO representing the payload returned by the GitHub search users endpoint.
  */
 public final class SearchUsersResponseDto {
+    @SerializedName("total_count")
+    private int totalCount;
+
     private List<UserDto> items;
 
+    /**
+     * @return The number of matches, of which GitHub returns at most the first 1,000.
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
     public List<UserDto> getItems() {
         return items;
     }
-}
\ No newline at end of file
+
+    /**
+     * Streaming adapter that decodes the user items and skips the remaining top-level fields.
+     */
+    public static final class GsonAdapter extends TypeAdapter<SearchUsersResponseDto> {
+
+        private static final UserDto.GsonAdapter ITEM_ADAPTER = new UserDto.GsonAdapter();
+
+        @Override
+        public void write(JsonWriter out, SearchUsersResponseDto value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("total_count").value(value.totalCount);
+            out.name("items");
+            if (value.items == null) {
+                out.nullValue();
+            } else {
+                out.beginArray();
+                for (UserDto item : value.items) {
+                    ITEM_ADAPTER.write(out, item);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public SearchUsersResponseDto read(JsonReader in) throws IOException {
+            if (JsonReaders.skipNull(in)) {
+                return null;
+            }
+            SearchUsersResponseDto dto = new SearchUsersResponseDto();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("total_count".equals(name)) {
+                    dto.totalCount = JsonReaders.nextInt(in);
+                } else if ("items".equals(name)) {
+                    // A null array is consumed here; skipping it again would overrun the object.
+                    if (!JsonReaders.skipNull(in)) {
+                        List<UserDto> items = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            items.add(ITEM_ADAPTER.read(in));
+                        }
+                        in.endArray();
+                        dto.items = items;
+                    }
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return dto;
+        }
+    }
+}
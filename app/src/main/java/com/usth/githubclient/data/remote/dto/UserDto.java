@@ -1,6 +1,12 @@
 package com.usth.githubclient.data.remote.dto;
 
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Objects;
 
 /**
  * Raw representation of a GitHub user as returned by the public REST API.
@@ -115,4 +121,145 @@ public final class UserDto {
     public String getUpdatedAt() {
         return updatedAt;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserDto)) {
+            return false;
+        }
+        UserDto that = (UserDto) o;
+        return id == that.id
+                && publicRepos == that.publicRepos
+                && followers == that.followers
+                && following == that.following
+                && Objects.equals(login, that.login)
+                && Objects.equals(name, that.name)
+                && Objects.equals(avatarUrl, that.avatarUrl)
+                && Objects.equals(bio, that.bio)
+                && Objects.equals(company, that.company)
+                && Objects.equals(blog, that.blog)
+                && Objects.equals(email, that.email)
+                && Objects.equals(location, that.location)
+                && Objects.equals(htmlUrl, that.htmlUrl)
+                && Objects.equals(createdAt, that.createdAt)
+                && Objects.equals(updatedAt, that.updatedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                id,
+                login,
+                name,
+                avatarUrl,
+                bio,
+                company,
+                blog,
+                email,
+                location,
+                publicRepos,
+                followers,
+                following,
+                htmlUrl,
+                createdAt,
+                updatedAt
+        );
+    }
+
+    /**
+     * Streaming adapter that reads only the fields declared above and skips the rest of the payload.
+     */
+    public static final class GsonAdapter extends TypeAdapter<UserDto> {
+
+        @Override
+        public void write(JsonWriter out, UserDto value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.id);
+            out.name("login").value(value.login);
+            out.name("name").value(value.name);
+            out.name("avatar_url").value(value.avatarUrl);
+            out.name("bio").value(value.bio);
+            out.name("company").value(value.company);
+            out.name("blog").value(value.blog);
+            out.name("email").value(value.email);
+            out.name("location").value(value.location);
+            out.name("public_repos").value(value.publicRepos);
+            out.name("followers").value(value.followers);
+            out.name("following").value(value.following);
+            out.name("html_url").value(value.htmlUrl);
+            out.name("created_at").value(value.createdAt);
+            out.name("updated_at").value(value.updatedAt);
+            out.endObject();
+        }
+
+        @Override
+        public UserDto read(JsonReader in) throws IOException {
+            if (JsonReaders.skipNull(in)) {
+                return null;
+            }
+            UserDto dto = new UserDto();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        dto.id = JsonReaders.nextLong(in);
+                        break;
+                    case "login":
+                        dto.login = JsonReaders.nextString(in);
+                        break;
+                    case "name":
+                        dto.name = JsonReaders.nextString(in);
+                        break;
+                    case "avatar_url":
+                        dto.avatarUrl = JsonReaders.nextString(in);
+                        break;
+                    case "bio":
+                        dto.bio = JsonReaders.nextString(in);
+                        break;
+                    case "company":
+                        dto.company = JsonReaders.nextString(in);
+                        break;
+                    case "blog":
+                        dto.blog = JsonReaders.nextString(in);
+                        break;
+                    case "email":
+                        dto.email = JsonReaders.nextString(in);
+                        break;
+                    case "location":
+                        dto.location = JsonReaders.nextString(in);
+                        break;
+                    case "public_repos":
+                        dto.publicRepos = JsonReaders.nextInt(in);
+                        break;
+                    case "followers":
+                        dto.followers = JsonReaders.nextInt(in);
+                        break;
+                    case "following":
+                        dto.following = JsonReaders.nextInt(in);
+                        break;
+                    case "html_url":
+                        dto.htmlUrl = JsonReaders.nextString(in);
+                        break;
+                    case "created_at":
+                        dto.createdAt = JsonReaders.nextString(in);
+                        break;
+                    case "updated_at":
+                        dto.updatedAt = JsonReaders.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return dto;
+        }
+    }
+}
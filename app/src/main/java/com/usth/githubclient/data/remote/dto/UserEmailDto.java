@@ -1,6 +1,11 @@
 package com.usth.githubclient.data.remote.dto;
 
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 
 /**
  * Representation of a single email entry returned by the GitHub REST API.
@@ -38,4 +43,54 @@ public final class UserEmailDto {
     public String getVisibility() {
         return visibility;
     }
-}
\ No newline at end of file
+
+    /**
+     * Streaming adapter that reads only the fields declared above and skips the rest of the payload.
+     */
+    public static final class GsonAdapter extends TypeAdapter<UserEmailDto> {
+
+        @Override
+        public void write(JsonWriter out, UserEmailDto value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("email").value(value.email);
+            out.name("primary").value(value.primary);
+            out.name("verified").value(value.verified);
+            out.name("visibility").value(value.visibility);
+            out.endObject();
+        }
+
+        @Override
+        public UserEmailDto read(JsonReader in) throws IOException {
+            if (JsonReaders.skipNull(in)) {
+                return null;
+            }
+            UserEmailDto dto = new UserEmailDto();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "email":
+                        dto.email = JsonReaders.nextString(in);
+                        break;
+                    case "primary":
+                        dto.primary = JsonReaders.nextBoolean(in);
+                        break;
+                    case "verified":
+                        dto.verified = JsonReaders.nextBoolean(in);
+                        break;
+                    case "visibility":
+                        dto.visibility = JsonReaders.nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return dto;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.usth.githubclient.data.repository;
 
 import android.annotation.SuppressLint;
 
+import com.usth.githubclient.data.local.LocalCache;
+import com.usth.githubclient.data.local.ProfileMemoryCache;
+import com.usth.githubclient.data.local.SuggestionIndex;
 import com.usth.githubclient.data.remote.ApiClient;
 import com.usth.githubclient.data.remote.dto.RepoDto;
 import com.usth.githubclient.data.remote.dto.UserDto;
@@ -33,6 +36,11 @@ public final class AuthRepository {
     private final RepoRepository repoRepository;
     private final UserMapper userMapper;
     private final RepoMapper repoMapper;
+    private final LocalCache localCache;
+    private final ProfileMemoryCache profileCache;
+    private final ContributionRepository contributionRepository;
+    private final StarredRepoStore starredRepoStore;
+    private final SuggestionIndex suggestionIndex;
 
     private UserSessionData cachedSession;
 
@@ -41,21 +49,36 @@ public final class AuthRepository {
             UserRepository userRepository,
             RepoRepository repoRepository,
             UserMapper userMapper,
-            RepoMapper repoMapper
+            RepoMapper repoMapper,
+            LocalCache localCache,
+            ProfileMemoryCache profileCache,
+            ContributionRepository contributionRepository,
+            StarredRepoStore starredRepoStore,
+            SuggestionIndex suggestionIndex
     ) {
         this.apiClient = Objects.requireNonNull(apiClient, "apiClient == null");
         this.userRepository = Objects.requireNonNull(userRepository, "userRepository == null");
         this.repoRepository = Objects.requireNonNull(repoRepository, "repoRepository == null");
         this.userMapper = Objects.requireNonNull(userMapper, "userMapper == null");
         this.repoMapper = Objects.requireNonNull(repoMapper, "repoMapper == null");
+        this.localCache = Objects.requireNonNull(localCache, "localCache == null");
+        this.profileCache = Objects.requireNonNull(profileCache, "profileCache == null");
+        this.contributionRepository = Objects.requireNonNull(contributionRepository, "contributionRepository == null");
+        this.starredRepoStore = Objects.requireNonNull(starredRepoStore, "starredRepoStore == null");
+        this.suggestionIndex = Objects.requireNonNull(suggestionIndex, "suggestionIndex == null");
     }
 
     /**
-     * Signs out the user and clears the session data.
+     * Signs out the user and clears the session data, including the offline copies of their data.
      */
     public void signOut() {
         cachedSession = null;
         apiClient.clearAuthToken();
+        localCache.clear();
+        profileCache.clear();
+        contributionRepository.clearMemory();
+        starredRepoStore.clear();
+        suggestionIndex.clear();
     }
 
     /**
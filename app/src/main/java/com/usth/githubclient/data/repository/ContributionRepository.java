@@ -0,0 +1,249 @@
+package com.usth.githubclient.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import androidx.annotation.Nullable;
+
+import com.usth.githubclient.data.local.CachedEntry;
+import com.usth.githubclient.data.local.ContributionIndex;
+import com.usth.githubclient.data.local.ContributionIndexStore;
+import com.usth.githubclient.data.local.ContributionYearStore;
+import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.data.remote.GithubApiService;
+import com.usth.githubclient.data.remote.dto.EventDto;
+import com.usth.githubclient.data.remote.dto.GraphQlContributionsResponseDto;
+import com.usth.githubclient.data.remote.dto.GraphQlRequestDto;
+import com.usth.githubclient.domain.contribution.ContributionAggregator;
+import com.usth.githubclient.domain.model.ContributionYear;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Response;
+
+/**
+ * Keeps a persisted {@link ContributionIndex} per user up to date.
+ * The first sync loads every event since the cutoff; later syncs only load events newer than the
+ * index's high-water mark, which is usually one small page, and merge them into the counts.
+ * Also provides whole {@link ContributionYear}s, from the GraphQL contribution calendar when a
+ * token is available and from the event index otherwise.
+ */
+public final class ContributionRepository {
+
+    private static final int FULL_SYNC_PER_PAGE = 100;
+    private static final int INCREMENTAL_PER_PAGE = 30;
+    private static final int MAX_PAGES = 10;
+
+    // The current year keeps changing; past years only need an occasional check.
+    private static final long CURRENT_YEAR_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long PAST_YEAR_TTL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final String CALENDAR_QUERY = "query($login: String!, $from: DateTime!, $to: DateTime!) { "
+            + "user(login: $login) { contributionsCollection(from: $from, to: $to) { "
+            + "contributionCalendar { weeks { contributionDays { date contributionCount } } } } } }";
+
+    private final ApiClient apiClient;
+    private final EventPageFetcher eventPageFetcher;
+    private final ContributionIndexStore store;
+    private final ContributionYearStore yearStore;
+    // Identity of the token GraphQL was refused for; another token or a sign-out tries GraphQL again.
+    @Nullable
+    private volatile String graphQlDeniedFor;
+
+    public ContributionRepository(@NonNull ApiClient apiClient,
+                                  @NonNull EventPageFetcher eventPageFetcher,
+                                  @NonNull ContributionIndexStore store,
+                                  @NonNull ContributionYearStore yearStore) {
+        this.apiClient = Objects.requireNonNull(apiClient, "apiClient == null");
+        this.eventPageFetcher = Objects.requireNonNull(eventPageFetcher, "eventPageFetcher == null");
+        this.store = Objects.requireNonNull(store, "store == null");
+        this.yearStore = Objects.requireNonNull(yearStore, "yearStore == null");
+    }
+
+    /**
+     * Gets a year that is already in memory, for rendering without waiting.
+     * @return The year, or null if it has to be loaded.
+     */
+    @Nullable
+    public ContributionYear peekYear(@NonNull String username, int year) {
+        return yearStore.peek(username, year);
+    }
+
+    /**
+     * Loads the contributions of a user for one calendar year, refreshing them when the saved copy is stale.
+     * @param username The user.
+     * @param year The calendar year.
+     * @param zone The time zone that defines the days when counting events.
+     * @return The year; empty when nothing is known about it.
+     * @throws IOException If nothing is saved yet and the contributions cannot be loaded.
+     */
+    @WorkerThread
+    @NonNull
+    public ContributionYear loadYear(@NonNull String username, int year, @NonNull ZoneId zone) throws IOException {
+        int currentYear = LocalDate.now(zone).getYear();
+        long ttl = year >= currentYear ? CURRENT_YEAR_TTL_MILLIS : PAST_YEAR_TTL_MILLIS;
+        CachedEntry<ContributionYear> saved = yearStore.load(username, year, ttl);
+        if (saved != null && !saved.isStale()) {
+            return saved.getValue();
+        }
+
+        ContributionYear loaded;
+        try {
+            String identity = ApiClient.getAuthIdentity();
+            loaded = identity.equals(graphQlDeniedFor) || !ApiClient.hasAuthToken()
+                    ? null : queryCalendar(username, year, identity);
+            if (loaded == null) {
+                if (year == currentYear) {
+                    long yearStart = LocalDate.of(year, 1, 1).atStartOfDay(zone).toInstant().toEpochMilli();
+                    loaded = fromIndex(sync(username, yearStart, zone), year);
+                } else {
+                    // Events only reach back 90 days, so older years need GraphQL.
+                    loaded = saved != null ? saved.getValue() : ContributionYear.empty(year);
+                }
+            }
+        } catch (IOException e) {
+            if (saved != null) {
+                return saved.getValue();
+            }
+            throw e;
+        }
+        yearStore.save(username, loaded);
+        return loaded;
+    }
+
+    /**
+     * Drops the years kept in memory, for example when the user signs out.
+     */
+    public void clearMemory() {
+        yearStore.clearMemory();
+    }
+
+    @Nullable
+    private ContributionYear queryCalendar(String username, int year, String identity) throws IOException {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("login", username);
+        variables.put("from", year + "-01-01T00:00:00Z");
+        variables.put("to", year + "-12-31T23:59:59Z");
+        Response<GraphQlContributionsResponseDto> response = apiClient.createService(GithubApiService.class)
+                .queryContributions(new GraphQlRequestDto(CALENDAR_QUERY, variables))
+                .execute();
+        boolean rateLimited = "0".equals(response.headers().get("X-RateLimit-Remaining"));
+        if (response.code() == 401 || (response.code() == 403 && !rateLimited)) {
+            graphQlDeniedFor = identity;
+        }
+        GraphQlContributionsResponseDto body = response.body();
+        List<GraphQlContributionsResponseDto.Week> weeks = body != null ? body.getWeeks() : null;
+        if (!response.isSuccessful() || weeks == null) {
+            return null;
+        }
+
+        short[] counts = new short[Year.of(year).length()];
+        long firstDay = LocalDate.of(year, 1, 1).toEpochDay();
+        for (GraphQlContributionsResponseDto.Week week : weeks) {
+            if (week.getContributionDays() == null) {
+                continue;
+            }
+            for (GraphQlContributionsResponseDto.Day day : week.getContributionDays()) {
+                if (day.getDate() == null) {
+                    continue;
+                }
+                try {
+                    long index = LocalDate.parse(day.getDate()).toEpochDay() - firstDay;
+                    if (index >= 0 && index < counts.length) {
+                        counts[(int) index] = saturate(day.getContributionCount());
+                    }
+                } catch (DateTimeParseException ignored) {
+                    // Skip malformed days.
+                }
+            }
+        }
+        return new ContributionYear(year, counts);
+    }
+
+    private static ContributionYear fromIndex(ContributionIndex index, int year) {
+        short[] counts = new short[Year.of(year).length()];
+        long firstDay = LocalDate.of(year, 1, 1).toEpochDay();
+        for (Entry<Long, Integer> day : index.getDayCounts().entrySet()) {
+            long offset = day.getKey() - firstDay;
+            if (offset >= 0 && offset < counts.length) {
+                counts[(int) offset] = saturate(day.getValue());
+            }
+        }
+        return new ContributionYear(year, counts);
+    }
+
+    private static short saturate(int count) {
+        return (short) Math.min(Math.max(count, 0), Short.MAX_VALUE);
+    }
+
+    /**
+     * Brings the index of a user up to date and saves it.
+     * When the network is unavailable the saved index is returned as it is. An index is only saved,
+     * and its watermark only moves, after a walk that reached the watermark or the cutoff, so events
+     * that could not be loaded are fetched again by the next sync rather than skipped for good.
+     * @param username The user whose contributions to count.
+     * @param sinceMillis The oldest moment the index has to cover, in epoch milliseconds.
+     * @param zone The time zone that defines the days.
+     * @return The updated index.
+     * @throws IOException If nothing is saved yet and the events cannot be loaded.
+     */
+    @WorkerThread
+    @NonNull
+    public ContributionIndex sync(@NonNull String username, long sinceMillis, @NonNull ZoneId zone) throws IOException {
+        ContributionIndex saved = store.load(username);
+        // Counts are bucketed by local day, so a new time zone needs a full rebuild.
+        boolean incremental = saved != null && saved.getZone().equals(zone);
+
+        EventPageFetcher.Result result = null;
+        try {
+            if (incremental) {
+                result = eventPageFetcher.fetchNewerThan(username, sinceMillis, saved.getWatermarkEventId(),
+                        INCREMENTAL_PER_PAGE, MAX_PAGES, 1);
+            }
+            if (result == null || !result.isComplete()) {
+                // Counting only part of the new events would leave a hole behind the watermark.
+                incremental = false;
+                result = eventPageFetcher.fetchSince(username, sinceMillis,
+                        FULL_SYNC_PER_PAGE, MAX_PAGES, EventPageFetcher.DEFAULT_WINDOW);
+            }
+        } catch (IOException e) {
+            if (saved != null) {
+                return saved;
+            }
+            throw e;
+        }
+        if (!result.isComplete() && saved != null) {
+            return saved;
+        }
+
+        ContributionIndex index = incremental ? saved : new ContributionIndex(username, zone);
+        long firstDay = Instant.ofEpochMilli(sinceMillis).atZone(zone).toLocalDate().toEpochDay();
+        long today = LocalDate.now(zone).toEpochDay();
+        ContributionAggregator aggregator = new ContributionAggregator(zone, firstDay, (int) Math.max(1, today - firstDay + 1));
+        for (EventDto event : result.getEvents()) {
+            long createdAt = ContributionAggregator.parseEpochSecond(event.getCreatedAt());
+            if (aggregator.addEpochSecond(createdAt)) {
+                index.advanceWatermark(EventPageFetcher.eventId(event), createdAt * 1000L);
+            }
+        }
+        index.addCounts(firstDay, aggregator.getCounts());
+        index.pruneBefore(firstDay);
+        if (result.isComplete()) {
+            index.setSyncedAt(System.currentTimeMillis());
+            store.save(index);
+        }
+        // Otherwise nothing was saved before: show what was found and try a full walk next time.
+        return index;
+    }
+}
@@ -0,0 +1,314 @@
+package com.usth.githubclient.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.usth.githubclient.data.local.CachedEntry;
+import com.usth.githubclient.data.remote.dto.EventDto;
+import com.usth.githubclient.domain.contribution.ContributionAggregator;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import okhttp3.HttpUrl;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Fetches a user's event pages concurrently within a bounded window and stops as soon as the
+ * events, which GitHub returns newest first, get older than a cutoff.
+ * The {@code Link} header of the first response tells how many pages exist, so no request is made
+ * past the last page, and pages still in flight are cancelled once the cutoff is crossed.
+ * A walk that ends early, because a page failed or {@code maxPages} ran out, is reported as
+ * incomplete so callers do not mistake the missing events for an absence of activity.
+ */
+public final class EventPageFetcher {
+
+    public static final int DEFAULT_WINDOW = 3;
+
+    private final UserRepository userRepository;
+
+    public EventPageFetcher(@NonNull UserRepository userRepository) {
+        this.userRepository = Objects.requireNonNull(userRepository, "userRepository == null");
+    }
+
+    /**
+     * The events loaded by a walk, and whether the walk reached the cutoff or the end of the events.
+     */
+    public static final class Result {
+        private final List<EventDto> events;
+        private final boolean complete;
+
+        Result(@NonNull List<EventDto> events, boolean complete) {
+            this.events = events;
+            this.complete = complete;
+        }
+
+        /**
+         * @return The events, newest first.
+         */
+        @NonNull
+        public List<EventDto> getEvents() {
+            return events;
+        }
+
+        /**
+         * @return False if some events between the newest one and the cutoff may be missing.
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+
+    /**
+     * One page of events, or null events if the page could not be loaded, and, when known,
+     * the number of the last page (0 otherwise).
+     */
+    private static final class Page {
+        final List<EventDto> events;
+        final int lastPage;
+
+        Page(@Nullable List<EventDto> events, int lastPage) {
+            this.events = events;
+            this.lastPage = lastPage;
+        }
+    }
+
+    /**
+     * A page that is loading, with the call to cancel if it is no longer needed.
+     */
+    private static final class PendingPage {
+        final CompletableFuture<Page> result = new CompletableFuture<>();
+        volatile Call<List<EventDto>> call;
+
+        void cancel() {
+            Call<List<EventDto>> c = call;
+            if (c != null) {
+                c.cancel();
+            }
+            result.cancel(false);
+        }
+    }
+
+    /**
+     * Loads every event created at or after a cutoff.
+     * @param username The user whose events to load.
+     * @param sinceMillis The cutoff, in epoch milliseconds.
+     * @param perPage The page size.
+     * @param maxPages The highest page to request.
+     * @param window The number of pages requested ahead of the page being read.
+     * @return The events newer than the cutoff, newest first.
+     * @throws IOException If the first page cannot be loaded.
+     */
+    @WorkerThread
+    @NonNull
+    public Result fetchSince(@NonNull String username, long sinceMillis, int perPage, int maxPages, int window)
+            throws IOException {
+        return fetch(username, perPage, maxPages, window, true, (id, createdAt) -> createdAt < sinceMillis);
+    }
+
+    /**
+     * Loads the events created at or after a cutoff that are newer than an already seen event.
+     * Event ids increase over time, so reading stops at the first id at or below the watermark.
+     * @param username The user whose events to load.
+     * @param sinceMillis The cutoff, in epoch milliseconds.
+     * @param watermarkEventId The id of the newest event already seen, or 0 to load everything.
+     * @param perPage The page size.
+     * @param maxPages The highest page to request.
+     * @param window The number of pages requested ahead of the page being read.
+     * @return The new events, newest first.
+     * @throws IOException If the first page cannot be loaded.
+     */
+    @WorkerThread
+    @NonNull
+    public Result fetchNewerThan(@NonNull String username, long sinceMillis, long watermarkEventId,
+                                         int perPage, int maxPages, int window) throws IOException {
+        // Always asks the network: a conditional request is cheap and a fresh local page could hide new events.
+        return fetch(username, perPage, maxPages, window, false,
+                (id, createdAt) -> createdAt < sinceMillis || (id != 0 && id <= watermarkEventId));
+    }
+
+    /**
+     * Decides whether an event is past the end of what the caller wants.
+     */
+    private interface Cutoff {
+        boolean reached(long eventId, long createdAtMillis);
+    }
+
+    private Result fetch(String username, int perPage, int maxPages, int window, boolean useLocalCache,
+                         Cutoff cutoff)
+            throws IOException {
+        List<EventDto> collected = new ArrayList<>();
+        Map<Integer, PendingPage> pending = new HashMap<>();
+        int lastPage = maxPages;
+        int reportedLastPage = 0;
+        int nextToRequest = 1;
+        boolean complete = false;
+        try {
+            for (int page = 1; page <= lastPage; page++) {
+                while (nextToRequest <= lastPage && nextToRequest < page + window) {
+                    pending.put(nextToRequest, request(username, nextToRequest, perPage, useLocalCache));
+                    nextToRequest++;
+                }
+
+                Page result;
+                try {
+                    result = await(pending.remove(page));
+                } catch (IOException e) {
+                    if (page == 1) {
+                        throw e;
+                    }
+                    // Keep what was loaded, but the walk has a gap.
+                    break;
+                }
+                if (result.lastPage > 0) {
+                    reportedLastPage = result.lastPage;
+                    lastPage = Math.min(lastPage, result.lastPage);
+                }
+                if (result.events == null) {
+                    break;
+                }
+                if (result.events.isEmpty()) {
+                    complete = true;
+                    break;
+                }
+
+                boolean crossedCutoff = false;
+                for (EventDto event : result.events) {
+                    long createdAt = createdAtMillis(event);
+                    if (createdAt == Long.MIN_VALUE) {
+                        continue;
+                    }
+                    if (cutoff.reached(eventId(event), createdAt)) {
+                        crossedCutoff = true;
+                        break;
+                    }
+                    collected.add(event);
+                }
+                if (crossedCutoff || page == reportedLastPage) {
+                    complete = true;
+                    break;
+                }
+            }
+        } finally {
+            for (PendingPage outstanding : pending.values()) {
+                outstanding.cancel();
+            }
+        }
+        return new Result(collected, complete);
+    }
+
+    private PendingPage request(String username, int page, int perPage, boolean useLocalCache) {
+        PendingPage pendingPage = new PendingPage();
+        CachedEntry<List<EventDto>> cached = userRepository.getCachedUserEvents(username, page, perPage);
+        if (useLocalCache && cached != null && !cached.isStale()) {
+            pendingPage.result.complete(new Page(cached.getValue(), 0));
+            return pendingPage;
+        }
+
+        Call<List<EventDto>> call = userRepository.getUserEvents(username, page, perPage);
+        pendingPage.call = call;
+        call.enqueue(new Callback<List<EventDto>>() {
+            @Override
+            public void onResponse(@NonNull Call<List<EventDto>> c, @NonNull Response<List<EventDto>> response) {
+                int last = parseLastPage(response.headers().get("Link"));
+                if (response.isSuccessful()) {
+                    // GitHub leaves out rel="last" on the last page and on single-page results.
+                    if (last == 0) {
+                        last = page;
+                    }
+                    pendingPage.result.complete(new Page(response.body(), last));
+                } else {
+                    // Fall back to the stale copy, if any, rather than ending the month early.
+                    pendingPage.result.complete(new Page(cached != null ? cached.getValue() : null, last));
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<List<EventDto>> c, @NonNull Throwable t) {
+                if (cached != null) {
+                    pendingPage.result.complete(new Page(cached.getValue(), 0));
+                } else {
+                    pendingPage.result.completeExceptionally(t);
+                }
+            }
+        });
+        return pendingPage;
+    }
+
+    private static Page await(PendingPage pendingPage) throws IOException {
+        try {
+            return pendingPage.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading events");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * @return The numeric id of the event, or 0 if it has none.
+     */
+    static long eventId(EventDto event) {
+        if (event == null || event.getId() == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(event.getId());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * @return When the event was created in epoch milliseconds, or {@link Long#MIN_VALUE} if unknown.
+     */
+    static long createdAtMillis(EventDto event) {
+        long epochSecond = event == null ? Long.MIN_VALUE : ContributionAggregator.parseEpochSecond(event.getCreatedAt());
+        return epochSecond == Long.MIN_VALUE ? Long.MIN_VALUE : epochSecond * 1000L;
+    }
+
+    /**
+     * Reads the page number of the {@code rel="last"} link.
+     * @param link The value of the Link header, for example
+     *             {@code <https://api.github.com/user/1/events?page=3>; rel="last"}.
+     * @return The last page, or 0 if the header does not name one.
+     */
+    static int parseLastPage(@Nullable String link) {
+        if (link == null) {
+            return 0;
+        }
+        for (String part : link.split(",")) {
+            int open = part.indexOf('<');
+            int close = part.indexOf('>');
+            if (open < 0 || close < open || !part.substring(close).contains("rel=\"last\"")) {
+                continue;
+            }
+            HttpUrl url = HttpUrl.parse(part.substring(open + 1, close).trim());
+            String page = url != null ? url.queryParameter("page") : null;
+            if (page == null) {
+                return 0;
+            }
+            try {
+                return Integer.parseInt(page);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
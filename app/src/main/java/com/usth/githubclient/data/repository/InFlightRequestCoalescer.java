@@ -0,0 +1,269 @@
+package com.usth.githubclient.data.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Lets concurrent callers of the same endpoint and arguments share one network call and one parse.
+ * Each caller still gets its own {@link Call}; the first one to run starts the shared request and
+ * later ones join it while it is in flight.
+ */
+public final class InFlightRequestCoalescer {
+
+    private static final Handler MAIN_THREAD = new Handler(Looper.getMainLooper());
+
+    private final Map<String, Shared<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    /**
+     * Wraps a call so that it joins any identical call already in flight.
+     * @param key Identifies the endpoint and its arguments.
+     * @param factory Creates the real call when no identical call is in flight.
+     * @param <T> The response body type.
+     * @return A call sharing its network round trip with concurrent identical calls.
+     */
+    public <T> Call<T> coalesce(@NonNull String key, @NonNull Supplier<Call<T>> factory) {
+        return new CoalescedCall<>(key, factory);
+    }
+
+    /**
+     * @return The number of calls started through this coalescer.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return The number of calls that joined an identical call instead of hitting the network.
+     */
+    public long getDeduplicatedCount() {
+        return deduplicated.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Shared<T> join(String key, Supplier<Call<T>> factory) {
+        requests.incrementAndGet();
+        while (true) {
+            Shared<T> created = new Shared<>();
+            Shared<T> existing = (Shared<T>) inFlight.putIfAbsent(key, created);
+            if (existing == null) {
+                created.start(key, factory.get());
+                return created;
+            }
+            if (existing.tryJoin()) {
+                deduplicated.incrementAndGet();
+                return existing;
+            }
+            // The existing call was cancelled by all of its callers; replace it.
+            inFlight.remove(key, existing);
+        }
+    }
+
+    /**
+     * A network call shared by every caller that joined it.
+     */
+    private final class Shared<T> {
+        final CompletableFuture<Response<T>> result = new CompletableFuture<>();
+        // Counts its creator from the start, so callers arriving before the call is started join it.
+        final AtomicInteger subscribers = new AtomicInteger(1);
+        volatile Call<T> call;
+        // Error bodies can only be read once, so they are buffered for every caller.
+        volatile byte[] errorBytes;
+        volatile MediaType errorType;
+
+        boolean tryJoin() {
+            while (true) {
+                int count = subscribers.get();
+                if (count <= 0) {
+                    return false;
+                }
+                if (subscribers.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void start(String key, Call<T> delegate) {
+            call = delegate;
+            delegate.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(@NonNull Call<T> c, @NonNull Response<T> response) {
+                    inFlight.remove(key, Shared.this);
+                    if (!response.isSuccessful() && response.errorBody() != null) {
+                        errorType = response.errorBody().contentType();
+                        try {
+                            errorBytes = response.errorBody().bytes();
+                        } catch (IOException ignored) {
+                            errorBytes = new byte[0];
+                        }
+                    }
+                    result.complete(response);
+                }
+
+                @Override
+                public void onFailure(@NonNull Call<T> c, @NonNull Throwable t) {
+                    inFlight.remove(key, Shared.this);
+                    result.completeExceptionally(t);
+                }
+            });
+        }
+
+        void leave() {
+            if (subscribers.decrementAndGet() == 0 && !result.isDone()) {
+                call.cancel();
+            }
+        }
+
+        Response<T> copyFor(Response<T> response) {
+            if (response.isSuccessful() || errorBytes == null) {
+                return response;
+            }
+            ResponseBody body = ResponseBody.create(errorBytes, errorType);
+            return Response.error(body, response.raw());
+        }
+    }
+
+    /**
+     * The call handed to each caller. Cancelling it only detaches this caller; the shared request
+     * is cancelled once every caller has left.
+     */
+    private final class CoalescedCall<T> implements Call<T> {
+        private final String key;
+        private final Supplier<Call<T>> factory;
+        private volatile Shared<T> shared;
+        private volatile boolean executed;
+        private volatile boolean canceled;
+
+        CoalescedCall(String key, Supplier<Call<T>> factory) {
+            this.key = key;
+            this.factory = factory;
+        }
+
+        /**
+         * @return The shared request this call joined, or null if it was cancelled before it ran.
+         */
+        @Nullable
+        private synchronized Shared<T> begin() {
+            if (executed) {
+                throw new IllegalStateException("Already executed.");
+            }
+            executed = true;
+            // Joining now would add a subscriber that never leaves, so the shared call could not be cancelled.
+            if (canceled) {
+                return null;
+            }
+            shared = join(key, factory);
+            return shared;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            Shared<T> s = begin();
+            if (s == null) {
+                throw new IOException("Canceled");
+            }
+            try {
+                Response<T> response = s.result.get();
+                if (canceled) {
+                    throw new IOException("Canceled");
+                }
+                return s.copyFor(response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new InterruptedIOException("Interrupted while waiting for " + key);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            Shared<T> s = begin();
+            if (s == null) {
+                MAIN_THREAD.post(() -> callback.onFailure(this, new IOException("Canceled")));
+                return;
+            }
+            s.result.whenComplete((response, error) -> MAIN_THREAD.post(() -> {
+                if (canceled) {
+                    callback.onFailure(this, new IOException("Canceled"));
+                } else if (error != null) {
+                    callback.onFailure(this, error);
+                } else {
+                    callback.onResponse(this, s.copyFor(response));
+                }
+            }));
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            Shared<T> s;
+            synchronized (this) {
+                if (canceled) {
+                    return;
+                }
+                canceled = true;
+                s = shared;
+            }
+            if (s != null) {
+                s.leave();
+            }
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @NonNull
+        @Override
+        public Call<T> clone() {
+            return new CoalescedCall<>(key, factory);
+        }
+
+        @NonNull
+        @Override
+        public Request request() {
+            Shared<T> s = shared;
+            return s != null && s.call != null ? s.call.request() : factory.get().request();
+        }
+
+        @NonNull
+        @Override
+        public Timeout timeout() {
+            Shared<T> s = shared;
+            return s != null && s.call != null ? s.call.timeout() : Timeout.NONE;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.usth.githubclient.data.repository;
 
+import androidx.annotation.Nullable;
+
+import com.usth.githubclient.data.local.CachedEntry;
 import com.usth.githubclient.data.remote.dto.RepoDto;
 import com.usth.githubclient.data.remote.dto.SearchRepoResponseDto;
 import java.util.List;
@@ -12,4 +15,17 @@ public interface RepoRepository {
 
     // Get the authenticated user's repositories with a sort option.
     Call<List<RepoDto>> getAuthenticatedRepositories(int page, int perPage, String sort);
-}
\ No newline at end of file
+
+    // Get the last stored page of the authenticated user's repositories, or null if none is cached.
+    // Reads the disk, so call it off the main thread.
+    @Nullable
+    CachedEntry<List<RepoDto>> getCachedAuthenticatedRepositories(int page, int perPage, String sort);
+
+    // Get a user's public repositories with a sort option.
+    Call<List<RepoDto>> getUserRepositories(String username, int page, int perPage, String sort);
+
+    // Get the last stored page of a user's public repositories, or null if none is cached.
+    // Reads the disk, so call it off the main thread.
+    @Nullable
+    CachedEntry<List<RepoDto>> getCachedUserRepositories(String username, int page, int perPage, String sort);
+}
@@ -1,36 +1,77 @@
 package com.usth.githubclient.data.repository;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import com.google.gson.reflect.TypeToken;
+import com.usth.githubclient.data.local.CachedEntry;
+import com.usth.githubclient.data.local.LocalCache;
 import com.usth.githubclient.data.remote.ApiClient;
 import com.usth.githubclient.data.remote.GithubApiService;
 import com.usth.githubclient.data.remote.dto.RepoDto;
 import com.usth.githubclient.data.remote.dto.SearchRepoResponseDto;
 
+import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Locale;
 import retrofit2.Call;
 
 /**
  * Implementation of RepoRepository that fetches data from the remote GitHub API.
+ * Successful responses are written through to the local cache.
  */
 public class RepoRepositoryImpl implements RepoRepository {
 
+    private static final Type REPO_LIST = new TypeToken<List<RepoDto>>() {}.getType();
+
     private final ApiClient apiClient;
+    private final LocalCache localCache;
 
-    public RepoRepositoryImpl(@NonNull ApiClient apiClient) {
+    public RepoRepositoryImpl(@NonNull ApiClient apiClient, @NonNull LocalCache localCache) {
         this.apiClient = apiClient;
+        this.localCache = localCache;
     }
     // Dependency Injection
     private GithubApiService apiService() {
         return apiClient.createService(GithubApiService.class);
     }
 
+    private static String authenticatedReposKey(int page, int perPage, String sort) {
+        return "user/repos?page=" + page + "&per_page=" + perPage + "&sort=" + sort;
+    }
+
+    // Logins are case-insensitive on GitHub.
+    private static String userReposKey(String username, int page, int perPage, String sort) {
+        return "users/" + username.toLowerCase(Locale.ROOT) + "/repos?page=" + page
+                + "&per_page=" + perPage + "&sort=" + sort;
+    }
+
     @Override
     public Call<List<RepoDto>> getAuthenticatedRepositories(int page, int perPage, String sort) {
         GithubApiService service = apiService();
-        if (sort == null) {
-            return service.getAuthenticatedRepositories(perPage, page, null);
-        }
-        return service.getAuthenticatedRepositories(perPage, page, sort);
+        String key = authenticatedReposKey(page, perPage, sort);
+        Call<List<RepoDto>> call = sort == null
+                ? service.getAuthenticatedRepositories(perPage, page, null)
+                : service.getAuthenticatedRepositories(perPage, page, sort);
+        return new WriteThroughCall<>(call, repos -> localCache.put(LocalCache.Kind.REPOS, key, repos));
+    }
+
+    @Nullable
+    @Override
+    public CachedEntry<List<RepoDto>> getCachedAuthenticatedRepositories(int page, int perPage, String sort) {
+        return localCache.get(LocalCache.Kind.REPOS, authenticatedReposKey(page, perPage, sort), REPO_LIST);
+    }
+
+    @Override
+    public Call<List<RepoDto>> getUserRepositories(String username, int page, int perPage, String sort) {
+        String key = userReposKey(username, page, perPage, sort);
+        Call<List<RepoDto>> call = apiService().getUserRepositories(username, perPage, page, sort);
+        return new WriteThroughCall<>(call, repos -> localCache.put(LocalCache.Kind.REPOS, key, repos));
+    }
+
+    @Nullable
+    @Override
+    public CachedEntry<List<RepoDto>> getCachedUserRepositories(String username, int page, int perPage, String sort) {
+        return localCache.get(LocalCache.Kind.REPOS, userReposKey(username, page, perPage, sort), REPO_LIST);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package com.usth.githubclient.data.repository;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import retrofit2.Call;
+
+/**
+ * Tracks the requests started on behalf of one owner, such as a list row or a batch load, so
+ * they can be cancelled together once their results are no longer wanted.
+ * Every {@link #begin()} starts a new generation and cancels the requests of the previous one;
+ * a response tagged with an older generation is dropped instead of being applied.
+ */
+public final class RequestHandle {
+
+    /**
+     * Something in flight that can be stopped, such as a network call or an image load.
+     */
+    public interface Cancellable {
+        void cancel();
+    }
+
+    private static final AtomicLong cancelledCount = new AtomicLong();
+    private static final AtomicLong droppedCount = new AtomicLong();
+
+    // Guarded by this.
+    private final List<Cancellable> pending = new ArrayList<>();
+    private int generation;
+
+    /**
+     * Cancels whatever the previous generation still has in flight and starts a new one.
+     * @return The new generation, to tag the requests and responses that belong to it.
+     */
+    public int begin() {
+        List<Cancellable> cancelled;
+        int started;
+        synchronized (this) {
+            cancelled = drainPending();
+            started = ++generation;
+        }
+        cancelAll(cancelled);
+        return started;
+    }
+
+    /**
+     * Cancels everything in flight; responses still on their way are dropped.
+     */
+    public void cancel() {
+        List<Cancellable> cancelled;
+        synchronized (this) {
+            cancelled = drainPending();
+            generation++;
+        }
+        cancelAll(cancelled);
+    }
+
+    /**
+     * Registers a request of a generation. It is cancelled right away if that generation is already over.
+     * @return The request, to pass to {@link #finish(Cancellable)} once it completes.
+     */
+    @NonNull
+    public Cancellable track(int requestGeneration, @NonNull Cancellable request) {
+        synchronized (this) {
+            if (requestGeneration == generation) {
+                pending.add(request);
+                return request;
+            }
+        }
+        cancelledCount.incrementAndGet();
+        request.cancel();
+        return request;
+    }
+
+    /**
+     * Registers a network call of a generation.
+     * @return The call's canceller, to pass to {@link #finish(Cancellable)} once the call completes.
+     */
+    @NonNull
+    public Cancellable track(int requestGeneration, @NonNull Call<?> call) {
+        return track(requestGeneration, call::cancel);
+    }
+
+    /**
+     * Forgets a request that completed, so it is not counted as cancelled later.
+     */
+    public synchronized void finish(@NonNull Cancellable request) {
+        pending.remove(request);
+    }
+
+    /**
+     * Checks whether a response still belongs to the current generation, and counts it as dropped otherwise.
+     * @return True if the response should be applied.
+     */
+    public boolean accept(int responseGeneration) {
+        synchronized (this) {
+            if (responseGeneration == generation) {
+                return true;
+            }
+        }
+        droppedCount.incrementAndGet();
+        return false;
+    }
+
+    public synchronized int generation() {
+        return generation;
+    }
+
+    /**
+     * @return The number of requests cancelled before they completed, across all handles.
+     */
+    public static long getCancelledCount() {
+        return cancelledCount.get();
+    }
+
+    /**
+     * @return The number of responses that arrived after their generation was over, across all handles.
+     */
+    public static long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private List<Cancellable> drainPending() {
+        List<Cancellable> drained = new ArrayList<>(pending);
+        pending.clear();
+        return drained;
+    }
+
+    // Runs outside the lock: cancelling a call may call back into this handle.
+    private static void cancelAll(List<Cancellable> requests) {
+        cancelledCount.addAndGet(requests.size());
+        for (Cancellable request : requests) {
+            request.cancel();
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.usth.githubclient.data.repository;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.data.remote.GithubApiService;
+import com.usth.githubclient.data.remote.dto.RepoDto;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Keeps the set of repositories starred by the signed-in user, so lists can show star state
+ * without asking the network for every row.
+ * The set is loaded once from {@code user/starred}, page by page, and kept in memory and in
+ * shared preferences. Starring and unstarring update it right away and roll back if the request fails.
+ * Loading stops after {@code MAX_PAGES}; the set is then recorded as truncated, and repositories
+ * missing from it are checked one by one as they are shown.
+ */
+public final class StarredRepoStore {
+
+    public static final String PREFS_NAME = "starred_repos";
+
+    /**
+     * Notified on the main thread whenever the starred set changes.
+     */
+    public interface Listener {
+        void onStarredChanged();
+    }
+
+    /**
+     * Receives the outcome of a star or unstar request on the main thread.
+     */
+    public interface ResultCallback {
+        void onResult(boolean success);
+    }
+
+    private static final Handler MAIN_THREAD = new Handler(Looper.getMainLooper());
+
+    private static final String KEY_FULL_NAMES = "full_names";
+    private static final String KEY_SYNCED_AT = "synced_at";
+    private static final String KEY_TRUNCATED = "truncated";
+    private static final long REFRESH_INTERVAL_MILLIS = 30 * 60 * 1000L;
+    private static final int PER_PAGE = 100;
+    // 2,000 stars; the rest are looked up one at a time when shown.
+    private static final int MAX_PAGES = 20;
+
+    private final ApiClient apiClient;
+    private final SharedPreferences prefs;
+    private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
+
+    // Lower-case full names; guarded by this.
+    private Set<String> starred;
+    // Star changes still in flight, applied on top of a refresh that completes before them.
+    private final Map<String, Boolean> pending = new HashMap<>();
+    // Repositories outside a truncated set that were looked up, or are being looked up, since the last refresh.
+    private final Set<String> checked = new HashSet<>();
+    private boolean truncated;
+    private long syncedAt;
+    private boolean refreshing;
+    // Bumped on clear(), so responses from the previous session are dropped.
+    private int generation;
+
+    public StarredRepoStore(@NonNull ApiClient apiClient, @NonNull SharedPreferences prefs) {
+        this.apiClient = Objects.requireNonNull(apiClient, "apiClient == null");
+        this.prefs = Objects.requireNonNull(prefs, "prefs == null");
+    }
+
+    private GithubApiService apiService() {
+        return apiClient.createService(GithubApiService.class);
+    }
+
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @param fullName The {@code owner/name} of the repository.
+     * @return True if the repository is known to be starred. If the loaded set was truncated and does
+     * not contain the repository, it is checked once in the background and listeners are notified
+     * when it turns out to be starred.
+     */
+    public boolean isStarred(@Nullable String fullName) {
+        if (fullName == null) {
+            return false;
+        }
+        String key = key(fullName);
+        int requestGeneration;
+        synchronized (this) {
+            if (starred().contains(key)) {
+                return true;
+            }
+            if (!truncated || pending.containsKey(key) || !checked.add(key) || !ApiClient.hasAuthToken()) {
+                return false;
+            }
+            requestGeneration = generation;
+        }
+        lookUp(key, requestGeneration);
+        return false;
+    }
+
+    /**
+     * Reloads the starred set from the network if it was never loaded or is older than the refresh interval.
+     */
+    public void refreshIfStale() {
+        synchronized (this) {
+            starred();
+            if (refreshing || !ApiClient.hasAuthToken()
+                    || System.currentTimeMillis() - syncedAt < REFRESH_INTERVAL_MILLIS) {
+                return;
+            }
+            refreshing = true;
+        }
+        loadPage(1, new HashSet<>(), currentGeneration());
+    }
+
+    /**
+     * Stars a repository, showing it as starred before the request completes.
+     */
+    public void star(@NonNull String owner, @NonNull String name, @Nullable ResultCallback callback) {
+        update(owner, name, true, callback);
+    }
+
+    /**
+     * Unstars a repository, showing it as unstarred before the request completes.
+     */
+    public void unstar(@NonNull String owner, @NonNull String name, @Nullable ResultCallback callback) {
+        update(owner, name, false, callback);
+    }
+
+    /**
+     * Forgets the starred set, in memory and on disk, for example on sign-out.
+     */
+    public void clear() {
+        synchronized (this) {
+            generation++;
+            starred = new HashSet<>();
+            pending.clear();
+            checked.clear();
+            truncated = false;
+            syncedAt = 0L;
+            refreshing = false;
+        }
+        prefs.edit().clear().apply();
+        notifyListeners();
+    }
+
+    private void update(String owner, String name, boolean star, @Nullable ResultCallback callback) {
+        String fullName = key(owner + "/" + name);
+        int requestGeneration;
+        synchronized (this) {
+            requestGeneration = generation;
+            pending.put(fullName, star);
+            checked.add(fullName);
+            apply(fullName, star);
+        }
+        notifyListeners();
+
+        GithubApiService service = apiService();
+        Call<Void> call = star ? service.starRepo(owner, name) : service.unstarRepo(owner, name);
+        call.enqueue(new Callback<Void>() {
+            @Override
+            public void onResponse(@NonNull Call<Void> c, @NonNull Response<Void> response) {
+                finish(response.isSuccessful());
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<Void> c, @NonNull Throwable t) {
+                finish(false);
+            }
+
+            private void finish(boolean success) {
+                synchronized (StarredRepoStore.this) {
+                    if (requestGeneration != generation) {
+                        return;
+                    }
+                    pending.remove(fullName);
+                    if (!success) {
+                        apply(fullName, !star);
+                    }
+                }
+                persist();
+                if (!success) {
+                    notifyListeners();
+                }
+                if (callback != null) {
+                    callback.onResult(success);
+                }
+            }
+        });
+    }
+
+    private void loadPage(int page, Set<String> collected, int requestGeneration) {
+        apiService().getStarredRepositories(PER_PAGE, page).enqueue(new Callback<List<RepoDto>>() {
+            @Override
+            public void onResponse(@NonNull Call<List<RepoDto>> c, @NonNull Response<List<RepoDto>> response) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    abort(requestGeneration);
+                    return;
+                }
+                for (RepoDto repo : response.body()) {
+                    if (repo != null && repo.getFullName() != null) {
+                        collected.add(key(repo.getFullName()));
+                    }
+                }
+                // GitHub leaves out rel="last" on the last page and on single-page results.
+                int lastPage = EventPageFetcher.parseLastPage(response.headers().get("Link"));
+                if (page < lastPage && page < MAX_PAGES && isCurrent(requestGeneration)) {
+                    loadPage(page + 1, collected, requestGeneration);
+                } else {
+                    complete(collected, page < lastPage, requestGeneration);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<List<RepoDto>> c, @NonNull Throwable t) {
+                abort(requestGeneration);
+            }
+        });
+    }
+
+    private void lookUp(String fullName, int requestGeneration) {
+        int slash = fullName.indexOf('/');
+        apiService().isRepoStarred(fullName.substring(0, slash), fullName.substring(slash + 1))
+                .enqueue(new Callback<Void>() {
+                    @Override
+                    public void onResponse(@NonNull Call<Void> c, @NonNull Response<Void> response) {
+                        // 204 if starred, 404 if not; anything else is asked again the next time it is shown.
+                        if (response.code() == 204) {
+                            found();
+                        } else if (response.code() != 404) {
+                            forget();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(@NonNull Call<Void> c, @NonNull Throwable t) {
+                        forget();
+                    }
+
+                    private void found() {
+                        synchronized (StarredRepoStore.this) {
+                            if (requestGeneration != generation || pending.containsKey(fullName)) {
+                                return;
+                            }
+                            apply(fullName, true);
+                        }
+                        persist();
+                        notifyListeners();
+                    }
+
+                    private void forget() {
+                        synchronized (StarredRepoStore.this) {
+                            if (requestGeneration == generation && !pending.containsKey(fullName)) {
+                                checked.remove(fullName);
+                            }
+                        }
+                    }
+                });
+    }
+
+    private void complete(Set<String> loaded, boolean cutOff, int requestGeneration) {
+        synchronized (this) {
+            if (requestGeneration != generation) {
+                return;
+            }
+            for (Map.Entry<String, Boolean> change : pending.entrySet()) {
+                if (change.getValue()) {
+                    loaded.add(change.getKey());
+                } else {
+                    loaded.remove(change.getKey());
+                }
+            }
+            starred = loaded;
+            truncated = cutOff;
+            checked.clear();
+            syncedAt = System.currentTimeMillis();
+            refreshing = false;
+        }
+        persist();
+        notifyListeners();
+    }
+
+    private synchronized void abort(int requestGeneration) {
+        if (requestGeneration == generation) {
+            refreshing = false;
+        }
+    }
+
+    private synchronized boolean isCurrent(int requestGeneration) {
+        return requestGeneration == generation;
+    }
+
+    private synchronized int currentGeneration() {
+        return generation;
+    }
+
+    private void apply(String fullName, boolean star) {
+        if (star) {
+            starred().add(fullName);
+        } else {
+            starred().remove(fullName);
+        }
+    }
+
+    // Loaded lazily from disk on first use; callers hold the lock.
+    private Set<String> starred() {
+        if (starred == null) {
+            starred = new HashSet<>(prefs.getStringSet(KEY_FULL_NAMES, new HashSet<>()));
+            truncated = prefs.getBoolean(KEY_TRUNCATED, false);
+            syncedAt = prefs.getLong(KEY_SYNCED_AT, 0L);
+        }
+        return starred;
+    }
+
+    private void persist() {
+        Set<String> snapshot;
+        boolean snapshotTruncated;
+        long snapshotSyncedAt;
+        synchronized (this) {
+            snapshot = new HashSet<>(starred());
+            snapshotTruncated = truncated;
+            snapshotSyncedAt = syncedAt;
+        }
+        prefs.edit()
+                .putStringSet(KEY_FULL_NAMES, snapshot)
+                .putBoolean(KEY_TRUNCATED, snapshotTruncated)
+                .putLong(KEY_SYNCED_AT, snapshotSyncedAt)
+                .apply();
+    }
+
+    private void notifyListeners() {
+        MAIN_THREAD.post(() -> {
+            for (Listener listener : listeners) {
+                listener.onStarredChanged();
+            }
+        });
+    }
+
+    // Owner and repository names are case-insensitive on GitHub.
+    private static String key(String fullName) {
+        return fullName.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,203 @@
+package com.usth.githubclient.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.data.remote.GithubApiService;
+import com.usth.githubclient.data.remote.dto.GraphQlRequestDto;
+import com.usth.githubclient.data.remote.dto.GraphQlUserDto;
+import com.usth.githubclient.data.remote.dto.GraphQlUsersResponseDto;
+import com.usth.githubclient.data.remote.dto.UserDto;
+import com.usth.githubclient.domain.mapper.UserMapper;
+import com.usth.githubclient.domain.model.GitHubUserProfileDataEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Loads the details shown in user lists (name, bio, repository and follower counts) for a whole
+ * page of logins with one aliased GraphQL query instead of one REST call per login.
+ * Falls back to REST {@code users/{login}} calls when GraphQL is unavailable for the current token;
+ * a token that was refused keeps using REST until the user signs in with another one.
+ */
+public final class UserDetailsBatchLoader {
+
+    /**
+     * Receives loaded details on the main thread. May be called several times per load.
+     */
+    public interface Callback {
+        void onLoaded(@NonNull List<GitHubUserProfileDataEntry> users);
+    }
+
+    // GitHub allows far more aliases per query, but keeps each response small.
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private static final String USER_FIELDS = "fragment UserDetails on User { "
+            + "databaseId login name bio avatarUrl "
+            + "repositories(privacy: PUBLIC) { totalCount } "
+            + "followers { totalCount } }";
+
+    private final ApiClient apiClient;
+    private final UserMapper userMapper;
+    // Identity of the token GraphQL was refused for; another token or a sign-out tries GraphQL again.
+    @Nullable
+    private volatile String graphQlDeniedFor;
+
+    public UserDetailsBatchLoader(@NonNull ApiClient apiClient, @NonNull UserMapper userMapper) {
+        this.apiClient = Objects.requireNonNull(apiClient, "apiClient == null");
+        this.userMapper = Objects.requireNonNull(userMapper, "userMapper == null");
+    }
+
+    // Enrichment is optional, so it is the first thing shed when the rate limit runs low.
+    private GithubApiService apiService() {
+        return apiClient.createLowPriorityService(GithubApiService.class);
+    }
+
+    /**
+     * Loads the details of the given logins as part of a caller's generation, so several loads
+     * can be cancelled together with {@link RequestHandle#cancel()} or the next {@link RequestHandle#begin()}.
+     * @param logins The logins to load.
+     * @param handle The handle tracking the calls.
+     * @param generation The generation of the handle the calls belong to.
+     * @param callback Receives the loaded users while the generation is current.
+     */
+    public void load(@NonNull List<String> logins, @NonNull RequestHandle handle, int generation,
+                     @NonNull Callback callback) {
+        LinkedHashSet<String> unique = new LinkedHashSet<>();
+        for (String login : logins) {
+            if (login != null && !login.trim().isEmpty()) {
+                unique.add(login);
+            }
+        }
+        List<String> distinct = new ArrayList<>(unique);
+        String identity = ApiClient.getAuthIdentity();
+        // GraphQL always requires a token.
+        boolean useGraphQl = ApiClient.hasAuthToken() && !identity.equals(graphQlDeniedFor);
+        for (int start = 0; start < distinct.size(); start += MAX_BATCH_SIZE) {
+            List<String> batch = distinct.subList(start, Math.min(distinct.size(), start + MAX_BATCH_SIZE));
+            if (useGraphQl) {
+                loadWithGraphQl(new ArrayList<>(batch), identity, callback, handle, generation);
+            } else {
+                loadWithRest(batch, callback, handle, generation);
+            }
+        }
+    }
+
+    private void loadWithGraphQl(List<String> logins, String identity, Callback callback, RequestHandle handle,
+                                 int generation) {
+        Call<GraphQlUsersResponseDto> graphQlCall = apiService().queryUsers(buildQuery(logins));
+        RequestHandle.Cancellable request = handle.track(generation, graphQlCall);
+        graphQlCall.enqueue(new retrofit2.Callback<GraphQlUsersResponseDto>() {
+            @Override
+            public void onResponse(Call<GraphQlUsersResponseDto> call, Response<GraphQlUsersResponseDto> response) {
+                handle.finish(request);
+                if (call.isCanceled() || !handle.accept(generation)) {
+                    return;
+                }
+                GraphQlUsersResponseDto body = response.body();
+                // A 403 with an exhausted budget is a rate limit, not missing access.
+                boolean rateLimited = "0".equals(response.headers().get("X-RateLimit-Remaining"));
+                if (response.code() == 401 || (response.code() == 403 && !rateLimited) || isAccessDenied(body)) {
+                    graphQlDeniedFor = identity;
+                }
+                if (!response.isSuccessful() || body == null || body.getData() == null) {
+                    loadWithRest(logins, callback, handle, generation);
+                    return;
+                }
+
+                List<GitHubUserProfileDataEntry> loaded = new ArrayList<>(logins.size());
+                List<String> missing = new ArrayList<>();
+                for (int i = 0; i < logins.size(); i++) {
+                    GraphQlUserDto user = body.getData().get(alias(i));
+                    if (user != null && user.getLogin() != null) {
+                        loaded.add(userMapper.map(user));
+                    } else {
+                        // Organisations are not users in GraphQL, but REST resolves them.
+                        missing.add(logins.get(i));
+                    }
+                }
+                if (!loaded.isEmpty()) {
+                    callback.onLoaded(loaded);
+                }
+                loadWithRest(missing, callback, handle, generation);
+            }
+
+            @Override
+            public void onFailure(Call<GraphQlUsersResponseDto> call, Throwable t) {
+                handle.finish(request);
+                if (call.isCanceled() || !handle.accept(generation)) {
+                    return;
+                }
+                loadWithRest(logins, callback, handle, generation);
+            }
+        });
+    }
+
+    private void loadWithRest(List<String> logins, Callback callback, RequestHandle handle, int generation) {
+        GithubApiService service = apiService();
+        for (String login : logins) {
+            Call<UserDto> userCall = service.getUser(login);
+            RequestHandle.Cancellable request = handle.track(generation, userCall);
+            userCall.enqueue(new retrofit2.Callback<UserDto>() {
+                @Override
+                public void onResponse(Call<UserDto> call, Response<UserDto> response) {
+                    handle.finish(request);
+                    if (call.isCanceled() || !handle.accept(generation)) {
+                        return;
+                    }
+                    if (response.isSuccessful() && response.body() != null) {
+                        callback.onLoaded(Collections.singletonList(userMapper.map(response.body())));
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<UserDto> call, Throwable t) {
+                    handle.finish(request);
+                }
+            });
+        }
+    }
+
+    private static GraphQlRequestDto buildQuery(List<String> logins) {
+        StringBuilder declarations = new StringBuilder();
+        StringBuilder selections = new StringBuilder();
+        Map<String, Object> variables = new LinkedHashMap<>();
+        for (int i = 0; i < logins.size(); i++) {
+            String variable = "l" + i;
+            if (i > 0) {
+                declarations.append(", ");
+            }
+            declarations.append('$').append(variable).append(": String!");
+            selections.append(alias(i)).append(": user(login: $").append(variable).append(") { ...UserDetails } ");
+            variables.put(variable, logins.get(i));
+        }
+        String query = "query(" + declarations + ") { " + selections + "} " + USER_FIELDS;
+        return new GraphQlRequestDto(query, variables);
+    }
+
+    private static String alias(int index) {
+        return "u" + index;
+    }
+
+    private static boolean isAccessDenied(GraphQlUsersResponseDto body) {
+        if (body == null || body.getData() != null || body.getErrors() == null) {
+            return false;
+        }
+        for (GraphQlUsersResponseDto.Error error : body.getErrors()) {
+            String type = error.getType();
+            if ("FORBIDDEN".equals(type) || "INSUFFICIENT_SCOPES".equals(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,8 @@
 package com.usth.githubclient.data.repository;
 
+import androidx.annotation.Nullable;
+
+import com.usth.githubclient.data.local.CachedEntry;
 import com.usth.githubclient.data.remote.dto.EventDto;
 import com.usth.githubclient.data.remote.dto.UserDto;
 import java.util.List;
@@ -8,6 +11,8 @@ import retrofit2.Call;
 /**
  * Interface for data operations related to Users.
  * This abstracts the data source (network or local) from the rest of the app.
+ * Successful network responses are written to the local cache, and the getCached* methods read
+ * it back without touching the network. They hit the disk, so call them off the main thread.
  */
 public interface UserRepository {
 
@@ -19,4 +24,16 @@ public interface UserRepository {
 
     // Get user events.
     Call<List<EventDto>> getUserEvents(String username, int page, int perPage);
-}
\ No newline at end of file
+
+    // Get the last stored details of a user, or null if none are cached.
+    @Nullable
+    CachedEntry<UserDto> getCachedUser(String username);
+
+    // Get the last stored authenticated user, or null if none is cached.
+    @Nullable
+    CachedEntry<UserDto> getCachedAuthenticatedUser();
+
+    // Get the last stored page of user events, or null if none is cached.
+    @Nullable
+    CachedEntry<List<EventDto>> getCachedUserEvents(String username, int page, int perPage);
+}
@@ -1,46 +1,103 @@
 package com.usth.githubclient.data.repository;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import com.google.gson.reflect.TypeToken;
+import com.usth.githubclient.data.local.CachedEntry;
+import com.usth.githubclient.data.local.LocalCache;
 import com.usth.githubclient.data.remote.ApiClient;
 import com.usth.githubclient.data.remote.GithubApiService;
 import com.usth.githubclient.data.remote.dto.EventDto;
-import com.usth.githubclient.data.remote.dto.SearchUsersResponseDto;
 import com.usth.githubclient.data.remote.dto.UserDto;
 
+import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Locale;
 
 import retrofit2.Call;
 /**
  * Implementation of UserRepository that fetches data from the remote GitHub API.
+ * Identical calls that overlap in time share one network round trip, and successful responses
+ * are written through to the local cache.
  */
 public class UserRepositoryImpl implements UserRepository {
 
+    private static final Type EVENT_LIST = new TypeToken<List<EventDto>>() {}.getType();
+    private static final String AUTHENTICATED_USER_KEY = "user";
+
     private final ApiClient apiClient;
+    private final LocalCache localCache;
+    private final InFlightRequestCoalescer coalescer = new InFlightRequestCoalescer();
 
     // Dependency Injection: The ApiClient is provided via the constructor, which makes testing easier.
-    public UserRepositoryImpl(@NonNull ApiClient apiClient) {
+    public UserRepositoryImpl(@NonNull ApiClient apiClient, @NonNull LocalCache localCache) {
         this.apiClient = apiClient;
+        this.localCache = localCache;
     }
 
     private GithubApiService apiService() {
         return apiClient.createService(GithubApiService.class);
     }
 
+    /**
+     * Gets the coalescer, which also reports how many calls were deduplicated.
+     */
+    public InFlightRequestCoalescer getRequestCoalescer() {
+        return coalescer;
+    }
+
+    // Logins are case-insensitive, so "Octocat" and "octocat" share one call and one cache entry.
+    private static String userKey(String username) {
+        return "users/" + username.toLowerCase(Locale.ROOT);
+    }
+
+    // Another token may see other data, and "user" is another account, so calls never share across tokens.
+    private static String coalescingKey(String key) {
+        return ApiClient.getAuthIdentity() + " " + key;
+    }
+
+    private static String eventsKey(String username, int page, int perPage) {
+        return userKey(username) + "/events?page=" + page + "&per_page=" + perPage;
+    }
+
     @Override
     public Call<UserDto> getUser(String username) {
-        // Delegate the network call to the ApiService instance created from ApiClient.
-        return apiService().getUser(username);
+        String key = userKey(username);
+        // Wrapped inside the coalescer so a shared call is stored once.
+        return coalescer.coalesce(coalescingKey(key), () -> new WriteThroughCall<>(apiService().getUser(username),
+                user -> localCache.put(LocalCache.Kind.USER, key, user)));
     }
 
     @Override
     public Call<UserDto> authenticate() {
-        return apiService().authenticate();
+        return coalescer.coalesce(coalescingKey(AUTHENTICATED_USER_KEY), () -> new WriteThroughCall<>(apiService().authenticate(),
+                user -> localCache.put(LocalCache.Kind.USER, AUTHENTICATED_USER_KEY, user)));
     }
 
 
     @Override
     public Call<List<EventDto>> getUserEvents(String username, int page, int perPage) {
-        return apiService().getUserEvents(username, page, perPage);
+        String key = eventsKey(username, page, perPage);
+        return coalescer.coalesce(coalescingKey(key), () -> new WriteThroughCall<>(apiService().getUserEvents(username, page, perPage),
+                events -> localCache.put(LocalCache.Kind.EVENTS, key, events)));
+    }
+
+    @Nullable
+    @Override
+    public CachedEntry<UserDto> getCachedUser(String username) {
+        return localCache.get(LocalCache.Kind.USER, userKey(username), UserDto.class);
+    }
+
+    @Nullable
+    @Override
+    public CachedEntry<UserDto> getCachedAuthenticatedUser() {
+        return localCache.get(LocalCache.Kind.USER, AUTHENTICATED_USER_KEY, UserDto.class);
+    }
+
+    @Nullable
+    @Override
+    public CachedEntry<List<EventDto>> getCachedUserEvents(String username, int page, int perPage) {
+        return localCache.get(LocalCache.Kind.EVENTS, eventsKey(username, page, perPage), EVENT_LIST);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package com.usth.githubclient.data.repository;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Wraps a call and hands every successful response body to a sink, such as the local cache,
+ * before the caller sees it.
+ * @param <T> The response body type.
+ */
+final class WriteThroughCall<T> implements Call<T> {
+
+    private final Call<T> delegate;
+    private final Consumer<T> sink;
+
+    WriteThroughCall(@NonNull Call<T> delegate, @NonNull Consumer<T> sink) {
+        this.delegate = delegate;
+        this.sink = sink;
+    }
+
+    private void store(Response<T> response) {
+        if (response.isSuccessful() && response.body() != null) {
+            sink.accept(response.body());
+        }
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        Response<T> response = delegate.execute();
+        store(response);
+        return response;
+    }
+
+    @Override
+    public void enqueue(Callback<T> callback) {
+        delegate.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+                store(response);
+                callback.onResponse(WriteThroughCall.this, response);
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+                callback.onFailure(WriteThroughCall.this, t);
+            }
+        });
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return delegate.isExecuted();
+    }
+
+    @Override
+    public void cancel() {
+        delegate.cancel();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return delegate.isCanceled();
+    }
+
+    @NonNull
+    @Override
+    public Call<T> clone() {
+        return new WriteThroughCall<>(delegate.clone(), sink);
+    }
+
+    @NonNull
+    @Override
+    public Request request() {
+        return delegate.request();
+    }
+
+    @NonNull
+    @Override
+    public Timeout timeout() {
+        return delegate.timeout();
+    }
+}
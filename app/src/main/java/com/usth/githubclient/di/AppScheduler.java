@@ -0,0 +1,300 @@
+package com.usth.githubclient.di;
+
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the app's background work on three bounded thread pools: blocking network calls, CPU work
+ * such as mapping, aggregation and diffing, and disk access. Within a pool, higher priority tasks
+ * are taken first and tasks of equal priority run in submission order.
+ * ViewModels submit through a {@link Scope}, so whatever they still have queued or running is
+ * cancelled in {@code onCleared}; code that needs ordering, such as disk writes, uses
+ * {@link #serialExecutor(Pool, Priority)}. The database writes share a single such executor; see
+ * {@code GithubDatabase.writeExecutor()}.
+ */
+public final class AppScheduler {
+
+    private static final String TAG = "AppScheduler";
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+
+    /**
+     * Creates threads that lower their own priority below the UI thread before running.
+     */
+    public static final ThreadFactory BACKGROUND_THREADS = runnable -> new Thread(() -> {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        runnable.run();
+    });
+
+    /**
+     * The kind of work, which decides the pool it runs on.
+     */
+    public enum Pool { NETWORK, CPU, DISK }
+
+    /**
+     * The order in which queued tasks of a pool are started.
+     */
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    private final Map<Pool, ThreadPoolExecutor> pools = new EnumMap<>(Pool.class);
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param networkThreads Threads for blocking network calls.
+     * @param cpuThreads Threads for CPU work.
+     * @param diskThreads Threads for disk access.
+     */
+    public AppScheduler(int networkThreads, int cpuThreads, int diskThreads) {
+        this(networkThreads, cpuThreads, diskThreads, BACKGROUND_THREADS);
+    }
+
+    /**
+     * @param networkThreads Threads for blocking network calls.
+     * @param cpuThreads Threads for CPU work.
+     * @param diskThreads Threads for disk access.
+     * @param threadFactory Creates the pool threads; they are then named after their pool and made daemons.
+     */
+    public AppScheduler(int networkThreads, int cpuThreads, int diskThreads, @NonNull ThreadFactory threadFactory) {
+        pools.put(Pool.NETWORK, newPool(Pool.NETWORK, networkThreads, threadFactory));
+        pools.put(Pool.CPU, newPool(Pool.CPU, cpuThreads, threadFactory));
+        pools.put(Pool.DISK, newPool(Pool.DISK, diskThreads, threadFactory));
+    }
+
+    /**
+     * Sizes the CPU pool after the device, leaving a core for the main thread.
+     * @return A scheduler with four network threads and two disk threads.
+     */
+    @NonNull
+    public static AppScheduler withDefaults() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        return new AppScheduler(4, Math.max(2, Math.min(4, cpus - 1)), 2);
+    }
+
+    /**
+     * Queues a task that is not tied to a screen.
+     * @return The task, which can be cancelled.
+     */
+    @NonNull
+    public Future<?> execute(@NonNull Pool pool, @NonNull Priority priority, @NonNull Runnable task) {
+        Task queued = new Task(priority, task, null);
+        pools.get(pool).execute(queued);
+        return queued;
+    }
+
+    /**
+     * @return An executor queueing every task on the pool with the priority.
+     */
+    @NonNull
+    public Executor executor(@NonNull Pool pool, @NonNull Priority priority) {
+        return task -> execute(pool, priority, task);
+    }
+
+    /**
+     * @return An executor running its tasks one at a time, in submission order, on the pool.
+     */
+    @NonNull
+    public Executor serialExecutor(@NonNull Pool pool, @NonNull Priority priority) {
+        return new SerialExecutor(executor(pool, priority));
+    }
+
+    /**
+     * @return A new scope, typically one per ViewModel.
+     */
+    @NonNull
+    public Scope newScope() {
+        return new Scope();
+    }
+
+    /**
+     * @return The number of tasks waiting for a thread of the pool.
+     */
+    public int getQueueDepth(@NonNull Pool pool) {
+        return pools.get(pool).getQueue().size();
+    }
+
+    /**
+     * @return The number of threads of the pool currently running a task.
+     */
+    public int getActiveCount(@NonNull Pool pool) {
+        return pools.get(pool).getActiveCount();
+    }
+
+    /**
+     * @return The number of tasks the pool has finished, approximately.
+     */
+    public long getCompletedCount(@NonNull Pool pool) {
+        return pools.get(pool).getCompletedTaskCount();
+    }
+
+    /**
+     * Background work owned by one component. Once {@link #cancel()} is called, queued tasks are
+     * dropped, running ones are interrupted and new ones are not started.
+     */
+    public final class Scope {
+        // Guarded by this.
+        private final Set<Task> tasks = new HashSet<>();
+        private boolean cancelled;
+
+        private Scope() {
+        }
+
+        /**
+         * Queues a task on behalf of the scope.
+         * @return The task, already cancelled if the scope is.
+         */
+        @NonNull
+        public Future<?> execute(@NonNull Pool pool, @NonNull Priority priority, @NonNull Runnable task) {
+            Task queued = new Task(priority, task, this);
+            synchronized (this) {
+                if (cancelled) {
+                    queued.cancel(false);
+                    return queued;
+                }
+                tasks.add(queued);
+            }
+            pools.get(pool).execute(queued);
+            return queued;
+        }
+
+        /**
+         * @return An executor running the scope's tasks one at a time, in submission order, on the pool.
+         */
+        @NonNull
+        public Executor serialExecutor(@NonNull Pool pool, @NonNull Priority priority) {
+            return new SerialExecutor(task -> execute(pool, priority, task));
+        }
+
+        /**
+         * Cancels every task of the scope, for example from {@code ViewModel.onCleared()}.
+         */
+        public void cancel() {
+            List<Task> cancelledTasks;
+            synchronized (this) {
+                cancelled = true;
+                cancelledTasks = new ArrayList<>(tasks);
+                tasks.clear();
+            }
+            for (Task task : cancelledTasks) {
+                task.cancel(true);
+            }
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        private synchronized void remove(Task task) {
+            tasks.remove(task);
+        }
+    }
+
+    /**
+     * A queued task, ordered by priority and then by submission.
+     */
+    private final class Task extends FutureTask<Void> implements Comparable<Task> {
+        private final Priority priority;
+        private final long order = sequence.getAndIncrement();
+        private final Scope scope;
+
+        Task(Priority priority, Runnable task, Scope scope) {
+            super(task, null);
+            this.priority = priority;
+            this.scope = scope;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int result = priority.compareTo(other.priority);
+            return result != 0 ? result : Long.compare(order, other.order);
+        }
+
+        @Override
+        protected void done() {
+            if (scope != null) {
+                scope.remove(this);
+            }
+            if (isCancelled()) {
+                return;
+            }
+            try {
+                get();
+            } catch (ExecutionException e) {
+                // A FutureTask would otherwise swallow the failure.
+                Log.e(TAG, "Background task failed", e.getCause());
+            } catch (InterruptedException | CancellationException ignored) {
+                // Not reached once the task is done and was not cancelled.
+            }
+        }
+    }
+
+    /**
+     * Runs tasks one after the other on an underlying executor.
+     */
+    private static final class SerialExecutor implements Executor {
+        private final Executor target;
+        // Guarded by this.
+        private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        private boolean running;
+
+        SerialExecutor(Executor target) {
+            this.target = target;
+        }
+
+        @Override
+        public synchronized void execute(@NonNull Runnable task) {
+            queue.add(() -> {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (!running) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            Runnable next = queue.poll();
+            running = next != null;
+            if (next != null) {
+                target.execute(next);
+            }
+        }
+    }
+
+    private static ThreadPoolExecutor newPool(Pool pool, int threads, ThreadFactory threadFactory) {
+        AtomicInteger count = new AtomicInteger();
+        // Core and maximum sizes match: with an unbounded queue the pool never grows past its core size.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+                    Thread thread = threadFactory.newThread(runnable);
+                    thread.setName("app-" + pool.name().toLowerCase(Locale.ROOT) + "-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -1,16 +1,29 @@
 package com.usth.githubclient.di;
 
+import android.content.Context;
+
+import com.usth.githubclient.data.local.ContributionIndexStore;
+import com.usth.githubclient.data.local.ContributionYearStore;
+import com.usth.githubclient.data.local.GithubDatabase;
+import com.usth.githubclient.data.local.LocalCache;
+import com.usth.githubclient.data.local.OfflineSearchIndex;
+import com.usth.githubclient.data.local.ProfileMemoryCache;
+import com.usth.githubclient.data.local.SearchTermStore;
+import com.usth.githubclient.data.local.SuggestionIndex;
 import com.usth.githubclient.data.remote.ApiClient;
 import com.usth.githubclient.data.repository.AuthRepository;
+import com.usth.githubclient.data.repository.ContributionRepository;
+import com.usth.githubclient.data.repository.EventPageFetcher;
 import com.usth.githubclient.data.repository.RepoRepository;
 import com.usth.githubclient.data.repository.RepoRepositoryImpl;
+import com.usth.githubclient.data.repository.StarredRepoStore;
+import com.usth.githubclient.data.repository.UserDetailsBatchLoader;
 import com.usth.githubclient.data.repository.UserRepository;
 import com.usth.githubclient.data.repository.UserRepositoryImpl;
 import com.usth.githubclient.domain.mapper.RepoMapper;
 import com.usth.githubclient.domain.mapper.UserMapper;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Objects;
 
 /**
  * A simple dependency container to make mapper & repository instances
@@ -19,25 +32,62 @@ import java.util.concurrent.Executors;
 public final class ServiceLocator {
 
     private static volatile ServiceLocator instance;
+    private static Context appContext;
 
     private final ApiClient apiClient;
+    private final LocalCache localCache;
+    private final ProfileMemoryCache profileCache;
     private final UserMapper userMapper;
     private final RepoMapper repoMapper;
     private final UserRepository userRepository;
     private final RepoRepository repoRepository;
     private final AuthRepository authRepository;
-    private final ExecutorService executorService; // Added ExecutorService
-
-    private ServiceLocator() {
+    private final UserDetailsBatchLoader userDetailsBatchLoader;
+    private final EventPageFetcher eventPageFetcher;
+    private final ContributionRepository contributionRepository;
+    private final StarredRepoStore starredRepoStore;
+    private final SuggestionIndex suggestionIndex;
+    private final OfflineSearchIndex offlineSearchIndex;
+    private final AppScheduler scheduler;
+
+    private ServiceLocator(Context context) {
         // Initialize all dependencies.
+        scheduler = AppScheduler.withDefaults();
         apiClient = new ApiClient();
+        // Every writer of the database queues on this one lane, so a write queued before sign-out
+        // cannot land after the clear.
+        GithubDatabase database = new GithubDatabase(context,
+                scheduler.serialExecutor(AppScheduler.Pool.DISK, AppScheduler.Priority.LOW));
+        localCache = new LocalCache(database, ApiClient.getGson(), LocalCache.DEFAULT_MAX_SIZE_BYTES);
+        profileCache = new ProfileMemoryCache(ProfileMemoryCache.DEFAULT_MAX_ENTRIES, ProfileMemoryCache.DEFAULT_TTL_MILLIS);
         userMapper = new UserMapper();
         repoMapper = new RepoMapper(userMapper);
-        executorService = Executors.newSingleThreadExecutor(); // Initialize ExecutorService
 
-        userRepository = new UserRepositoryImpl(apiClient);
-        repoRepository = new RepoRepositoryImpl(apiClient);
-        authRepository = new AuthRepository(apiClient, userRepository, repoRepository, userMapper, repoMapper);
+        userRepository = new UserRepositoryImpl(apiClient, localCache);
+        repoRepository = new RepoRepositoryImpl(apiClient, localCache);
+        userDetailsBatchLoader = new UserDetailsBatchLoader(apiClient, userMapper);
+        eventPageFetcher = new EventPageFetcher(userRepository);
+        contributionRepository = new ContributionRepository(apiClient, eventPageFetcher,
+                new ContributionIndexStore(database), new ContributionYearStore(database));
+        starredRepoStore = new StarredRepoStore(apiClient,
+                context.getSharedPreferences(StarredRepoStore.PREFS_NAME, Context.MODE_PRIVATE));
+        suggestionIndex = new SuggestionIndex(new SearchTermStore(database), SuggestionIndex.DEFAULT_MAX_TERMS);
+        // Cleared with the rest of the database by LocalCache.clear() on sign-out.
+        offlineSearchIndex = new OfflineSearchIndex(database, ApiClient.getGson(), userMapper, repoMapper,
+                OfflineSearchIndex.DEFAULT_MAX_DOCUMENTS);
+        authRepository = new AuthRepository(apiClient, userRepository, repoRepository, userMapper, repoMapper,
+                localCache, profileCache, contributionRepository, starredRepoStore, suggestionIndex);
+    }
+
+    /**
+     * Provides the application context needed by the disk-backed dependencies.
+     * Must be called from {@code Application.onCreate()} before the first {@link #getInstance()}.
+     * @param context Any context; only its application context is kept.
+     */
+    public static void init(Context context) {
+        synchronized (ServiceLocator.class) {
+            appContext = context.getApplicationContext();
+        }
     }
 
     /**
@@ -48,22 +98,29 @@ public final class ServiceLocator {
         if (instance == null) {
             synchronized (ServiceLocator.class) {
                 if (instance == null) {
-                    instance = new ServiceLocator();
+                    instance = new ServiceLocator(Objects.requireNonNull(appContext, "ServiceLocator.init() not called"));
                 }
             }
         }
         return instance;
     }
 
-    // Added getter for ExecutorService
-    public ExecutorService getExecutorService() {
-        return executorService;
+    public AppScheduler scheduler() {
+        return scheduler;
     }
 
     public ApiClient apiClient() {
         return apiClient;
     }
 
+    public LocalCache localCache() {
+        return localCache;
+    }
+
+    public ProfileMemoryCache profileCache() {
+        return profileCache;
+    }
+
     public UserMapper userMapper() {
         return userMapper;
     }
@@ -84,6 +141,30 @@ public final class ServiceLocator {
         return authRepository;
     }
 
+    public UserDetailsBatchLoader userDetailsBatchLoader() {
+        return userDetailsBatchLoader;
+    }
+
+    public EventPageFetcher eventPageFetcher() {
+        return eventPageFetcher;
+    }
+
+    public ContributionRepository contributionRepository() {
+        return contributionRepository;
+    }
+
+    public StarredRepoStore starredRepoStore() {
+        return starredRepoStore;
+    }
+
+    public SuggestionIndex suggestionIndex() {
+        return suggestionIndex;
+    }
+
+    public OfflineSearchIndex offlineSearchIndex() {
+        return offlineSearchIndex;
+    }
+
     /** Clears the singleton instance to make room for a brand new graph (mainly for tests). */
     public static void reset() {
         synchronized (ServiceLocator.class) {
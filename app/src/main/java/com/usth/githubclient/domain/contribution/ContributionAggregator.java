@@ -0,0 +1,186 @@
+package com.usth.githubclient.domain.contribution;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts events per local day over a fixed range of days without allocating per event.
+ * Timestamps are parsed straight from their ISO-8601 characters into epoch seconds, shifted by the
+ * zone offset looked up in transitions precomputed for the range, and bucketed into an {@code int[]}.
+ */
+public final class ContributionAggregator {
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final long firstEpochDay;
+    private final int[] counts;
+    private final int initialOffsetSeconds;
+    // Offset changes inside the range: from transitionEpochSeconds[i] on, the offset is offsetSeconds[i].
+    private final long[] transitionEpochSeconds;
+    private final int[] offsetSeconds;
+
+    /**
+     * @param zone The time zone that defines the days.
+     * @param firstEpochDay The first day counted.
+     * @param days The number of days counted.
+     */
+    public ContributionAggregator(@NonNull ZoneId zone, long firstEpochDay, int days) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("days <= 0");
+        }
+        this.firstEpochDay = firstEpochDay;
+        this.counts = new int[days];
+
+        // One day of slack on both sides covers every offset a local day in range can have.
+        ZoneRules rules = zone.getRules();
+        Instant start = Instant.ofEpochSecond((firstEpochDay - 1) * SECONDS_PER_DAY);
+        long end = (firstEpochDay + days + 1) * SECONDS_PER_DAY;
+        initialOffsetSeconds = rules.getOffset(start).getTotalSeconds();
+        List<ZoneOffsetTransition> transitions = new ArrayList<>();
+        ZoneOffsetTransition next = rules.nextTransition(start);
+        while (next != null && next.toEpochSecond() < end) {
+            transitions.add(next);
+            next = rules.nextTransition(next.getInstant());
+        }
+        transitionEpochSeconds = new long[transitions.size()];
+        offsetSeconds = new int[transitions.size()];
+        for (int i = 0; i < transitions.size(); i++) {
+            transitionEpochSeconds[i] = transitions.get(i).toEpochSecond();
+            offsetSeconds[i] = transitions.get(i).getOffsetAfter().getTotalSeconds();
+        }
+    }
+
+    /**
+     * Counts one event.
+     * @param isoTimestamp The event time, for example {@code 2024-05-01T12:34:56Z}.
+     * @return False if the timestamp is invalid or outside the range.
+     */
+    public boolean add(@Nullable CharSequence isoTimestamp) {
+        return addEpochSecond(parseEpochSecond(isoTimestamp));
+    }
+
+    /**
+     * Counts one event.
+     * @param epochSecond The event time in epoch seconds, or {@link Long#MIN_VALUE} if unknown.
+     * @return False if the time is unknown or outside the range.
+     */
+    public boolean addEpochSecond(long epochSecond) {
+        if (epochSecond == Long.MIN_VALUE) {
+            return false;
+        }
+        long localDay = Math.floorDiv(epochSecond + offsetAt(epochSecond), SECONDS_PER_DAY);
+        long index = localDay - firstEpochDay;
+        if (index < 0 || index >= counts.length) {
+            return false;
+        }
+        counts[(int) index]++;
+        return true;
+    }
+
+    public long getFirstEpochDay() {
+        return firstEpochDay;
+    }
+
+    /**
+     * @return The counts, indexed by day since {@link #getFirstEpochDay()}. The array is live, not a copy.
+     */
+    public int[] getCounts() {
+        return counts;
+    }
+
+    private int offsetAt(long epochSecond) {
+        int offset = initialOffsetSeconds;
+        for (int i = 0; i < transitionEpochSeconds.length && epochSecond >= transitionEpochSeconds[i]; i++) {
+            offset = offsetSeconds[i];
+        }
+        return offset;
+    }
+
+    /**
+     * Parses an ISO-8601 date-time such as {@code 2024-05-01T12:34:56Z},
+     * {@code 2024-05-01T12:34:56.789Z} or {@code 2024-05-01T12:34:56+07:00} without allocating.
+     * @param text The timestamp.
+     * @return The epoch second, or {@link Long#MIN_VALUE} if the text is not such a timestamp.
+     */
+    public static long parseEpochSecond(@Nullable CharSequence text) {
+        if (text == null || text.length() < 20
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+
+        int pos = 19;
+        if (text.charAt(pos) == '.') {
+            pos++;
+            while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+                pos++;
+            }
+        }
+        if (pos >= text.length()) {
+            return Long.MIN_VALUE;
+        }
+        int offset;
+        char zone = text.charAt(pos);
+        if (zone == 'Z' && pos + 1 == text.length()) {
+            offset = 0;
+        } else if ((zone == '+' || zone == '-') && pos + 6 == text.length() && text.charAt(pos + 3) == ':') {
+            int offsetHours = digits(text, pos + 1, 2);
+            int offsetMinutes = digits(text, pos + 4, 2);
+            if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59) {
+                return Long.MIN_VALUE;
+            }
+            offset = (offsetHours * 3600 + offsetMinutes * 60) * (zone == '-' ? -1 : 1);
+        } else {
+            return Long.MIN_VALUE;
+        }
+        return epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second - offset;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    // Days since 1970-01-01 of a proleptic Gregorian date (Howard Hinnant's days_from_civil).
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    // Reads a fixed number of decimal digits, or returns -1 if any character is not a digit.
+    private static int digits(CharSequence text, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
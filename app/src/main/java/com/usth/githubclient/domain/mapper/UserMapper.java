@@ -2,6 +2,7 @@ package com.usth.githubclient.domain.mapper;
 
 import android.annotation.SuppressLint;
 
+import com.usth.githubclient.data.remote.dto.GraphQlUserDto;
 import com.usth.githubclient.data.remote.dto.UserDto;
 import com.usth.githubclient.domain.model.GitHubUserProfileDataEntry;
 import java.time.Instant;
@@ -84,6 +85,39 @@ public final class UserMapper {
         return builder.build();
     }
 
+    /**
+     * Converts a user from the batched GraphQL lookup to the domain representation.
+     * Only the fields shown in user lists are populated.
+     * @param dto Raw payload fetched from the GraphQL endpoint.
+     * @return Domain model describing the same user.
+     */
+    public GitHubUserProfileDataEntry map(GraphQlUserDto dto) {
+        Objects.requireNonNull(dto, "dto == null");
+
+        String username = requireNonEmpty(dto.getLogin(), "login");
+        long id = dto.getDatabaseId() != null ? dto.getDatabaseId() : 0L;
+        GitHubUserProfileDataEntry.Builder builder = GitHubUserProfileDataEntry.builder(id, username);
+
+        String displayName = normalize(dto.getName());
+        if (displayName != null) {
+            builder.displayName(displayName);
+        }
+
+        String avatarUrl = normalize(dto.getAvatarUrl());
+        if (avatarUrl != null) {
+            builder.avatarUrl(avatarUrl);
+        }
+
+        String bio = normalize(dto.getBio());
+        if (bio != null) {
+            builder.bio(bio);
+        }
+
+        builder.publicReposCount(safeCount(dto.getRepositoryCount()));
+        builder.followersCount(safeCount(dto.getFollowerCount()));
+        return builder.build();
+    }
+
     private String requireNonEmpty(String value, String fieldName) {
         String normalized = normalize(value);
         if (normalized == null) {
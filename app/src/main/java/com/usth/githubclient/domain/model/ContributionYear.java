@@ -0,0 +1,134 @@
+package com.usth.githubclient.domain.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Arrays;
+
+/**
+ * Immutable contribution counts of one calendar year, stored as one {@code short} per day so a
+ * whole year fits in under a kilobyte and views can read it without creating per-day objects.
+ */
+public final class ContributionYear {
+
+    private final int year;
+    private final long firstEpochDay;
+    // Index 0 is January 1st.
+    private final short[] counts;
+    private final int maxCount;
+    private final int total;
+
+    /**
+     * @param year The calendar year.
+     * @param counts One count per day of the year; the array is copied.
+     */
+    public ContributionYear(int year, short[] counts) {
+        int length = Year.of(year).length();
+        if (counts.length != length) {
+            throw new IllegalArgumentException("Expected " + length + " days, got " + counts.length);
+        }
+        this.year = year;
+        this.firstEpochDay = LocalDate.of(year, 1, 1).toEpochDay();
+        this.counts = Arrays.copyOf(counts, counts.length);
+        int max = 0;
+        int sum = 0;
+        for (short count : counts) {
+            max = Math.max(max, count);
+            sum += count;
+        }
+        this.maxCount = max;
+        this.total = sum;
+    }
+
+    /**
+     * Creates a year without any contribution.
+     * @param year The calendar year.
+     */
+    public static ContributionYear empty(int year) {
+        return new ContributionYear(year, new short[Year.of(year).length()]);
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * @return 365, or 366 in a leap year.
+     */
+    public int getDayCount() {
+        return counts.length;
+    }
+
+    public long getFirstEpochDay() {
+        return firstEpochDay;
+    }
+
+    /**
+     * @return The column of January 1st in a week that starts on Sunday (0 for Sunday to 6 for Saturday).
+     */
+    public int getFirstDayOfWeekOffset() {
+        return LocalDate.ofEpochDay(firstEpochDay).getDayOfWeek().getValue() % DayOfWeek.values().length;
+    }
+
+    /**
+     * @param dayIndex The day of the year, starting at 0 for January 1st.
+     * @return The number of contributions on that day, or 0 if the index is out of range.
+     */
+    public int getCount(int dayIndex) {
+        return dayIndex >= 0 && dayIndex < counts.length ? counts[dayIndex] : 0;
+    }
+
+    /**
+     * @param epochDay A day as counted by {@link LocalDate#toEpochDay()}.
+     * @return The number of contributions on that day, or 0 if it is not in this year.
+     */
+    public int getCountOnEpochDay(long epochDay) {
+        long index = epochDay - firstEpochDay;
+        return index >= 0 && index < counts.length ? counts[(int) index] : 0;
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return The counts as big-endian shorts, for storage.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[counts.length * 2];
+        for (int i = 0; i < counts.length; i++) {
+            bytes[2 * i] = (byte) (counts[i] >> 8);
+            bytes[2 * i + 1] = (byte) counts[i];
+        }
+        return bytes;
+    }
+
+    /**
+     * Restores a year written by {@link #toBytes()}.
+     * @throws IllegalArgumentException If the bytes do not hold one count per day of the year.
+     */
+    public static ContributionYear fromBytes(int year, byte[] bytes) {
+        short[] counts = new short[bytes.length / 2];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = (short) (((bytes[2 * i] & 0xFF) << 8) | (bytes[2 * i + 1] & 0xFF));
+        }
+        return new ContributionYear(year, counts);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ContributionYear that = (ContributionYear) o;
+        return year == that.year && Arrays.equals(counts, that.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * year + Arrays.hashCode(counts);
+    }
+}
@@ -76,6 +76,26 @@ public final class ReposDataEntry {
         return name;
     }
 
+    public Optional<String> getFullName() {
+        return Optional.ofNullable(fullName);
+    }
+
+    public Optional<String> getDescription() {
+        return Optional.ofNullable(description);
+    }
+
+    public Optional<String> getLanguage() {
+        return Optional.ofNullable(language);
+    }
+
+    public int getStargazersCount() {
+        return stargazersCount;
+    }
+
+    public String getHtmlUrl() {
+        return htmlUrl;
+    }
+
 
     @Override
     public boolean equals(Object o) {
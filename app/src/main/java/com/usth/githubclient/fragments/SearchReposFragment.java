@@ -9,26 +9,21 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.DividerItemDecoration;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import com.usth.githubclient.R;
 import com.usth.githubclient.adapters.SearchReposListAdapter;
-import com.usth.githubclient.data.remote.ApiClient;
-import com.usth.githubclient.data.remote.GithubApiService;
 import com.usth.githubclient.data.remote.dto.RepoDto;
-import com.usth.githubclient.data.remote.dto.SearchRepoResponseDto;
+import com.usth.githubclient.data.repository.StarredRepoStore;
+import com.usth.githubclient.di.ServiceLocator;
 import com.usth.githubclient.viewmodel.SearchReposViewModel;
 
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 /**
  * Fragment for searching and displaying repositories.
  */
 public class SearchReposFragment extends BaseFragment {
     private SearchReposListAdapter adapter;
-    private GithubApiService apiService;
     private SearchReposViewModel viewModel;
     private String lastSearchQuery;
 
@@ -43,7 +38,6 @@ public class SearchReposFragment extends BaseFragment {
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         viewModel = new ViewModelProvider(this).get(SearchReposViewModel.class);
-        apiService = new ApiClient().createService(GithubApiService.class);
     }
 
     @Nullable
@@ -69,12 +63,29 @@ public class SearchReposFragment extends BaseFragment {
             }
         });
 
+        // Observe search results; later pages arrive as the list is scrolled.
+        viewModel.getSearchResults().observe(getViewLifecycleOwner(), repos -> {
+            if (listMode == ListMode.SEARCH) {
+                adapter.submit(repos);
+                if (repos.isEmpty()) {
+                    showEmpty("No repositories match: " + lastSearchQuery);
+                } else {
+                    showList();
+                }
+            }
+        });
+
         // Observe errors from the ViewModel.
         viewModel.getError().observe(getViewLifecycleOwner(), errorMsg -> {
             if (listMode == ListMode.REPOS) {
                 showEmpty(errorMsg);
             }
         });
+        viewModel.getSearchError().observe(getViewLifecycleOwner(), errorMsg -> {
+            if (listMode == ListMode.SEARCH) {
+                showEmpty(errorMsg);
+            }
+        });
 
         if (lastSearchQuery == null || lastSearchQuery.isEmpty()) {
             displayMyRepos();
@@ -96,30 +107,7 @@ public class SearchReposFragment extends BaseFragment {
         listMode = ListMode.SEARCH;
         lastSearchQuery = q;
         showLoading(true);
-
-        apiService.searchRepos(q, 1, 30).enqueue(new Callback<SearchRepoResponseDto>() {
-            @Override
-            public void onResponse(Call<SearchRepoResponseDto> call, Response<SearchRepoResponseDto> response) {
-                if (!isAdded() || listMode != ListMode.SEARCH || !q.equals(lastSearchQuery)) return;
-                showLoading(false);
-                if (response.isSuccessful() && response.body() != null) {
-                    adapter.submit(response.body().getItems());
-                    if (response.body().getItems().isEmpty()) {
-                        showEmpty("No repositories match: " + q);
-                    } else {
-                        showList();
-                    }
-                } else {
-                    showEmpty("Search failed: " + response.code());
-                }
-            }
-            @Override
-            public void onFailure(Call<SearchRepoResponseDto> call, Throwable t) {
-                if (!isAdded() || listMode != ListMode.SEARCH || !q.equals(lastSearchQuery)) return;
-                showLoading(false);
-                showEmpty("Network error: " + t.getMessage());
-            }
-        });
+        viewModel.searchRepos(q);
     }
 
     /**
@@ -173,10 +161,25 @@ public class SearchReposFragment extends BaseFragment {
 
     @Override
     protected void setupRecyclerView() {
-        recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        recyclerView.setLayoutManager(layoutManager);
         recyclerView.addItemDecoration(new DividerItemDecoration(requireContext(), DividerItemDecoration.VERTICAL));
-        // Pass the apiService to the adapter's constructor.
-        adapter = new SearchReposListAdapter(apiService);
+        StarredRepoStore starredRepoStore = ServiceLocator.getInstance().starredRepoStore();
+        starredRepoStore.refreshIfStale();
+        adapter = new SearchReposListAdapter(starredRepoStore);
         recyclerView.setAdapter(adapter);
+        // Let the ViewModel load pages ahead of the visible rows.
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                int first = layoutManager.findFirstVisibleItemPosition();
+                int last = layoutManager.findLastVisibleItemPosition();
+                if (listMode == ListMode.SEARCH) {
+                    viewModel.onSearchResultsScrolled(first, last);
+                } else {
+                    viewModel.onMyReposScrolled(first, last);
+                }
+            }
+        });
     }
 }
\ No newline at end of file
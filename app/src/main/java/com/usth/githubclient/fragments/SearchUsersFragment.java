@@ -11,21 +11,16 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.DividerItemDecoration;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.usth.githubclient.R;
 import com.usth.githubclient.adapters.SearchUsersListAdapter;
-import com.usth.githubclient.data.remote.GithubApiService;
-import com.usth.githubclient.data.remote.ApiClient;
 import com.usth.githubclient.data.remote.dto.UserDto;
 import com.usth.githubclient.viewmodel.SearchUserViewModel;
 
 import java.util.ArrayList;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 /**
  * Fragment for searching and displaying users.
  */
@@ -33,7 +28,6 @@ public class SearchUsersFragment extends BaseFragment {
     private SearchUsersListAdapter adapter;
     private SearchUserViewModel viewModel; // Add ViewModel
     private String lastSearchQuery;
-    private GithubApiService apiService; // Keep for enriching details
 
     private enum ListMode { FOLLOWERS, SEARCH }
     private ListMode listMode = ListMode.FOLLOWERS;
@@ -47,7 +41,6 @@ public class SearchUsersFragment extends BaseFragment {
         super.onCreate(savedInstanceState);
         // Initialize ViewModel
         viewModel = new ViewModelProvider(this).get(SearchUserViewModel.class);
-        apiService = new ApiClient().createService(GithubApiService.class); // Keep for enriching
     }
 
     @Nullable
@@ -99,6 +92,12 @@ public class SearchUsersFragment extends BaseFragment {
             }
         });
 
+        // Observe enrichment details and patch the matching rows in one pass.
+        viewModel.getUserDetails().observe(getViewLifecycleOwner(), details -> {
+            if (details == null) return;
+            adapter.updateDetails(details);
+        });
+
         // Observe errors
         viewModel.getError().observe(getViewLifecycleOwner(), errorMsg -> {
             showEmpty(errorMsg);
@@ -148,48 +147,11 @@ public class SearchUsersFragment extends BaseFragment {
         List<SearchUsersListAdapter.UserRow> uiRows = new ArrayList<>();
         for (UserDto u : users) {
             if (u != null && u.getLogin() != null && u.getAvatarUrl() != null) {
-                uiRows.add(new SearchUsersListAdapter.UserRow(u.getLogin(), u.getAvatarUrl()));
+                uiRows.add(new SearchUsersListAdapter.UserRow(u.getId(), u.getLogin(), u.getAvatarUrl()));
             }
         }
         adapter.submit(uiRows);
         showList();
-        enrichUserDetails(users); // Still call enrich to get more details
-    }
-
-    // Keep the enrichUserDetails method unchanged
-    private void enrichUserDetails(List<UserDto> items) {
-        if (apiService == null || items == null) {
-            return;
-        }
-        int limit = Math.min(items.size(), 100);
-        for (int i = 0; i < limit; i++) {
-            final UserDto dto = items.get(i);
-            if (dto == null) {
-                continue;
-            }
-            final String login = dto.getLogin();
-            if (login == null || login.trim().isEmpty()) {
-                continue;
-            }
-            apiService.getUser(login)
-                    .enqueue(new Callback<UserDto>() {
-                        @Override
-                        public void onResponse(Call<UserDto> call, Response<UserDto> resp) {
-                            if (!isAdded()) return;
-                            if (resp.isSuccessful() && resp.body() != null) {
-                                UserDto detail = resp.body();
-                                adapter.updateDetails(
-                                        login,
-                                        detail.getName(),
-                                        detail.getBio(),
-                                        detail.getPublicRepos(),
-                                        detail.getFollowers());
-                            }
-                        }
-
-                        @Override public void onFailure(Call<UserDto> call, Throwable t) { }
-                    });
-        }
     }
 
     @Nullable
@@ -209,9 +171,23 @@ public class SearchUsersFragment extends BaseFragment {
 
     @Override
     protected void setupRecyclerView() {
-        recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        recyclerView.setLayoutManager(layoutManager);
         recyclerView.addItemDecoration(new DividerItemDecoration(requireContext(), DividerItemDecoration.VERTICAL));
         adapter = new SearchUsersListAdapter();
         recyclerView.setAdapter(adapter);
+        // Let the ViewModel load pages ahead of the visible rows; name, bio and counts follow per page.
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                int first = layoutManager.findFirstVisibleItemPosition();
+                int last = layoutManager.findLastVisibleItemPosition();
+                if (listMode == ListMode.SEARCH) {
+                    viewModel.onSearchResultsScrolled(first, last);
+                } else {
+                    viewModel.onFollowersScrolled(first, last);
+                }
+            }
+        });
     }
 }
\ No newline at end of file
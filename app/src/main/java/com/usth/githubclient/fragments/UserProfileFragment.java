@@ -12,6 +12,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -22,16 +23,24 @@ import androidx.core.content.ContextCompat;
 
 import com.bumptech.glide.Glide;
 import com.usth.githubclient.R;
-import com.usth.githubclient.adapters.ContributionsListAdapter;
 import com.usth.githubclient.databinding.FragmentUserProfileBinding;
+import com.usth.githubclient.databinding.ProfileRepoItemBinding;
+import com.usth.githubclient.domain.model.ContributionYear;
 import com.usth.githubclient.domain.model.GitHubUserProfileDataEntry;
+import com.usth.githubclient.domain.model.ReposDataEntry;
 import com.usth.githubclient.viewmodel.UserViewModel;
 
 import java.text.DateFormat;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.StringJoiner;
 
 /**
  * Fragment to display a user's profile.
@@ -44,9 +53,15 @@ public class UserProfileFragment extends Fragment {
     private FragmentUserProfileBinding binding;
     private UserViewModel viewModel;
     private String currentUsername;
+    // The profile and repositories last bound, so partial updates only redraw what changed.
+    private GitHubUserProfileDataEntry boundProfile;
+    private List<ReposDataEntry> boundRepositories;
     private int lastFetchedMonth = -1;
     private int lastFetchedYear = -1;
     private boolean isDateReceiverRegistered;
+    private boolean yearMode;
+    private int selectedYear = LocalDate.now().getYear();
+    private int firstYear = selectedYear;
 
     private final BroadcastReceiver dateChangeReceiver = new BroadcastReceiver() {
         @Override
@@ -88,18 +103,24 @@ public class UserProfileFragment extends Fragment {
         viewModel = new ViewModelProvider(this).get(UserViewModel.class);
         viewModel.getUiState().observe(getViewLifecycleOwner(), this::renderState);
 
-        // Observer for contributions data
-        viewModel.getContributions().observe(getViewLifecycleOwner(), contributions -> {
-            if (contributions != null) {
-                ContributionsListAdapter adapter = new ContributionsListAdapter(requireContext(), contributions);
-                binding.contributionsGrid.setAdapter(adapter);
+        binding.contributionsGrid.setOnDayClickListener(this::showContributionDetails);
+
+        binding.contributionsMode.addOnButtonCheckedListener((group, checkedId, isChecked) -> {
+            if (isChecked) {
+                setYearMode(checkedId == R.id.contributions_mode_year);
             }
         });
+        binding.contributionsPreviousYear.setOnClickListener(v -> selectYear(selectedYear - 1));
+        binding.contributionsNextYear.setOnClickListener(v -> selectYear(selectedYear + 1));
 
-        updateContributionsTitle(Calendar.getInstance());
+        Calendar calendar = Calendar.getInstance();
+        updateContributionsTitle(calendar);
 
+        // The view model loads the current year alongside the profile, so it is not requested again on resume.
+        lastFetchedMonth = calendar.get(Calendar.MONTH);
+        lastFetchedYear = calendar.get(Calendar.YEAR);
         String username = getArguments() == null ? null : getArguments().getString(ARG_USERNAME);
-        viewModel.loadUserProfile(username);
+        viewModel.loadProfile(username, displayedYear());
     }
 
     @Override
@@ -142,10 +163,16 @@ public class UserProfileFragment extends Fragment {
         GitHubUserProfileDataEntry profile = state.getProfile();
         if (profile != null) {
             binding.contentScroll.setVisibility(View.VISIBLE);
-            bindProfile(profile);
+            if (!profile.equals(boundProfile)) {
+                bindProfile(profile);
+            }
         } else if (state.getErrorMessage() == null) {
             binding.contentScroll.setVisibility(View.GONE);
         }
+
+        // Contributions and repositories load alongside the profile and are drawn as soon as they arrive.
+        renderContributions(state.getContributions());
+        renderRepositories(state.getRepositories());
     }
 
     /**
@@ -157,9 +184,14 @@ public class UserProfileFragment extends Fragment {
         binding.displayName.setText(displayName);
         binding.username.setText(getString(R.string.user_profile_username_format, profile.getUsername()));
 
+        boundProfile = profile;
         currentUsername = profile.getUsername();
-        lastFetchedMonth = -1;
-        lastFetchedYear = -1;
+        int currentYear = LocalDate.now().getYear();
+        firstYear = profile.getCreatedAt()
+                .map(created -> created.atZone(ZoneId.systemDefault()).getYear())
+                .orElse(currentYear);
+        selectedYear = Math.max(firstYear, Math.min(selectedYear, currentYear));
+        updateYearButtons();
 
         updateTextOrHide(binding.bio, profile.getBio().orElse(null));
 
@@ -190,10 +222,31 @@ public class UserProfileFragment extends Fragment {
                     getString(R.string.user_profile_username_format, profile.getUsername()));
         }
 
-        // Load contributions data
+        // Only loads if the date moved on since the profile load started.
         refreshContributionsForCurrentDate();
     }
 
+    private void renderRepositories(@Nullable List<ReposDataEntry> repositories) {
+        if (repositories == null || repositories.equals(boundRepositories)) {
+            return;
+        }
+        boundRepositories = repositories;
+        binding.recentReposList.removeAllViews();
+        binding.recentReposSection.setVisibility(repositories.isEmpty() ? View.GONE : View.VISIBLE);
+        LayoutInflater inflater = getLayoutInflater();
+        for (ReposDataEntry repo : repositories) {
+            ProfileRepoItemBinding row = ProfileRepoItemBinding.inflate(inflater, binding.recentReposList, true);
+            row.repoName.setText(repo.getFullName().orElse(repo.getName()));
+            updateTextOrHide(row.repoDescription, repo.getDescription().orElse(null));
+            StringJoiner meta = new StringJoiner(" • ");
+            repo.getLanguage().ifPresent(meta::add);
+            meta.add(getString(R.string.user_profile_repo_stars_format, repo.getStargazersCount()));
+            row.repoMeta.setText(meta.toString());
+            String url = repo.getHtmlUrl();
+            row.getRoot().setOnClickListener(TextUtils.isEmpty(url) ? null : v -> openLink(url));
+        }
+    }
+
     private void updateTextOrHide(@NonNull TextView view, @Nullable String value) {
         if (TextUtils.isEmpty(value)) {
             view.setVisibility(View.GONE);
@@ -231,6 +284,10 @@ public class UserProfileFragment extends Fragment {
         if (binding == null) {
             return;
         }
+        if (yearMode) {
+            binding.contributionsTitle.setText(getString(R.string.contributions_year_title_format, selectedYear));
+            return;
+        }
         String monthName = calendar.getDisplayName(Calendar.MONTH, Calendar.LONG, Locale.getDefault());
         if (monthName == null) {
             monthName = "";
@@ -257,7 +314,75 @@ public class UserProfileFragment extends Fragment {
         lastFetchedMonth = month;
         lastFetchedYear = year;
 
-        viewModel.loadContributions(currentUsername);
+        viewModel.loadContributions(currentUsername, displayedYear());
+    }
+
+    /**
+     * @return The year shown by the current mode: the selected year, or the current one for the month view.
+     */
+    private int displayedYear() {
+        return yearMode ? selectedYear : LocalDate.now().getYear();
+    }
+
+    private void renderContributions(@Nullable ContributionYear contributions) {
+        if (binding == null || contributions == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        if (contributions.getYear() != displayedYear()) {
+            return;
+        }
+        if (yearMode) {
+            binding.contributionsGrid.setYear(contributions);
+        } else {
+            binding.contributionsGrid.setMonth(contributions, today.getMonthValue(), today);
+        }
+    }
+
+    private void showContributionDetails(@NonNull LocalDate date, int count) {
+        String formatted = date.format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(Locale.getDefault()));
+        String message = count > 0
+                ? String.format(Locale.getDefault(), "%d contributions on %s", count, formatted)
+                : "No contributions on " + formatted;
+        Toast.makeText(requireContext(), message, Toast.LENGTH_SHORT).show();
+    }
+
+    private void setYearMode(boolean enabled) {
+        if (binding == null || yearMode == enabled) {
+            return;
+        }
+        yearMode = enabled;
+        binding.contributionsWeekdays.setVisibility(enabled ? View.GONE : View.VISIBLE);
+        updateYearButtons();
+        updateContributionsTitle(Calendar.getInstance());
+        if (!TextUtils.isEmpty(currentUsername)) {
+            viewModel.loadContributions(currentUsername, displayedYear());
+        }
+    }
+
+    private void selectYear(int year) {
+        int currentYear = LocalDate.now().getYear();
+        if (year < firstYear || year > currentYear || year == selectedYear) {
+            return;
+        }
+        selectedYear = year;
+        updateYearButtons();
+        updateContributionsTitle(Calendar.getInstance());
+        if (!TextUtils.isEmpty(currentUsername)) {
+            // Years already loaded come back from memory without waiting for the network.
+            viewModel.loadContributions(currentUsername, selectedYear);
+        }
+    }
+
+    private void updateYearButtons() {
+        if (binding == null) {
+            return;
+        }
+        int visibility = yearMode ? View.VISIBLE : View.GONE;
+        binding.contributionsPreviousYear.setVisibility(visibility);
+        binding.contributionsNextYear.setVisibility(visibility);
+        binding.contributionsPreviousYear.setEnabled(selectedYear > firstYear);
+        binding.contributionsNextYear.setEnabled(selectedYear < LocalDate.now().getYear());
     }
 
     private void registerDateChangeReceiver() {
@@ -317,5 +442,7 @@ public class UserProfileFragment extends Fragment {
     public void onDestroyView() {
         super.onDestroyView();
         binding = null;
+        boundProfile = null;
+        boundRepositories = null;
     }
 }
\ No newline at end of file
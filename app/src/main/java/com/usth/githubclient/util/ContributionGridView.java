@@ -0,0 +1,415 @@
+package com.usth.githubclient.util;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.accessibility.AccessibilityEvent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import com.usth.githubclient.R;
+import com.usth.githubclient.domain.model.ContributionYear;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.List;
+
+/**
+ * Draws a month calendar or a full-year heatmap of contributions straight from a
+ * {@link ContributionYear} on one canvas.
+ * Paints, day labels and the cell rectangle are created up front, so drawing a frame does not
+ * allocate; taps are mapped back to their day from the touch position.
+ * Each shown day is also a virtual view for accessibility services, found with the same hit test
+ * and described by its date and count.
+ */
+public class ContributionGridView extends View {
+
+    /**
+     * Receives taps on a day of the grid.
+     */
+    public interface OnDayClickListener {
+        void onDayClick(@NonNull LocalDate date, int count);
+    }
+
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int LEVELS = 5;
+
+    private static final int[] DARK_CELL_COLORS = {0xFF161B22, 0xFF0E4429, 0xFF006D32, 0xFF26A641, 0xFF39D353};
+    private static final int[] DARK_TEXT_COLORS = {0xFFC9D1D9, Color.WHITE, Color.WHITE, Color.WHITE, Color.WHITE};
+    private static final int[] LIGHT_CELL_COLORS = {0xFFD8DEE4, 0xFF9CC7FF, 0xFF58A6FF, 0xFF1F6FEB, 0xFF0A3069};
+    private static final int[] LIGHT_TEXT_COLORS = {0xFF57606A, 0xFF0A3069, Color.WHITE, Color.WHITE, Color.WHITE};
+
+    private static final String[] DAY_LABELS = new String[31];
+
+    static {
+        for (int i = 0; i < DAY_LABELS.length; i++) {
+            DAY_LABELS[i] = String.valueOf(i + 1);
+        }
+    }
+
+    private final Paint[] cellPaints = new Paint[LEVELS];
+    private final Paint[] textPaints = new Paint[LEVELS];
+    private final Paint todayPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF cellRect = new RectF();
+    private final float textBaselineOffset;
+    private final float monthGap;
+    private final float monthCellHeight;
+    private final float yearGap;
+    private final int touchSlop;
+    private final DayAccessibilityHelper accessibilityHelper;
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.LONG);
+
+    @Nullable
+    private ContributionYear year;
+    private boolean yearMode;
+    // Grid cells before the first shown day, and the day of the year of that first day.
+    private int leadingCells;
+    private int firstDayIndex;
+    private int dayCount;
+    private int todayIndex = -1;
+    private int columns;
+    private int rows;
+
+    private float gap;
+    private float cellWidth;
+    private float cellHeight;
+
+    @Nullable
+    private OnDayClickListener onDayClickListener;
+    private float downX;
+    private float downY;
+    private boolean tapCandidate;
+
+    public ContributionGridView(Context context) {
+        this(context, null);
+    }
+
+    public ContributionGridView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public ContributionGridView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        int nightModeFlags = context.getResources().getConfiguration().uiMode & Configuration.UI_MODE_NIGHT_MASK;
+        boolean darkMode = nightModeFlags == Configuration.UI_MODE_NIGHT_YES;
+        int[] cellColors = darkMode ? DARK_CELL_COLORS : LIGHT_CELL_COLORS;
+        int[] textColors = darkMode ? DARK_TEXT_COLORS : LIGHT_TEXT_COLORS;
+
+        float textSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 12, getResources().getDisplayMetrics());
+        for (int level = 0; level < LEVELS; level++) {
+            Paint cell = new Paint();
+            cell.setStyle(Paint.Style.FILL);
+            cell.setColor(cellColors[level]);
+            cellPaints[level] = cell;
+
+            Paint text = new Paint(Paint.ANTI_ALIAS_FLAG);
+            text.setColor(textColors[level]);
+            text.setTextSize(textSize);
+            text.setTypeface(Typeface.DEFAULT_BOLD);
+            text.setTextAlign(Paint.Align.CENTER);
+            textPaints[level] = text;
+        }
+        Paint.FontMetrics metrics = textPaints[0].getFontMetrics();
+        textBaselineOffset = -(metrics.ascent + metrics.descent) / 2f;
+
+        todayPaint.setStyle(Paint.Style.STROKE);
+        todayPaint.setStrokeWidth(dp(2));
+        todayPaint.setColor(ContextCompat.getColor(context, R.color.contribution_today_border));
+
+        monthGap = dp(4);
+        monthCellHeight = dp(40);
+        yearGap = dp(1);
+        touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+
+        accessibilityHelper = new DayAccessibilityHelper();
+        ViewCompat.setAccessibilityDelegate(this, accessibilityHelper);
+    }
+
+    /**
+     * Shows one month of a year as a calendar with seven columns, starting on Sunday.
+     * @param year The contributions of the year.
+     * @param month The month, from 1 (January) to 12.
+     * @param currentDate Today's date, used to highlight the current day.
+     */
+    public void setMonth(@NonNull ContributionYear year, int month, @NonNull LocalDate currentDate) {
+        LocalDate first = LocalDate.of(year.getYear(), month, 1);
+        this.year = year;
+        this.yearMode = false;
+        this.firstDayIndex = first.getDayOfYear() - 1;
+        this.dayCount = first.lengthOfMonth();
+        this.leadingCells = first.getDayOfWeek().getValue() % DAYS_PER_WEEK;
+        this.columns = DAYS_PER_WEEK;
+        this.rows = (leadingCells + dayCount + DAYS_PER_WEEK - 1) / DAYS_PER_WEEK;
+        this.todayIndex = currentDate.getYear() == year.getYear() && currentDate.getMonthValue() == month
+                ? currentDate.getDayOfYear() - 1 : -1;
+        requestLayout();
+        invalidate();
+        accessibilityHelper.invalidateRoot();
+    }
+
+    /**
+     * Shows a whole year as a heatmap with one column per week and one row per weekday, starting on Sunday.
+     * @param year The contributions of the year.
+     */
+    public void setYear(@NonNull ContributionYear year) {
+        this.year = year;
+        this.yearMode = true;
+        this.firstDayIndex = 0;
+        this.dayCount = year.getDayCount();
+        this.leadingCells = year.getFirstDayOfWeekOffset();
+        this.columns = (leadingCells + dayCount + DAYS_PER_WEEK - 1) / DAYS_PER_WEEK;
+        this.rows = DAYS_PER_WEEK;
+        this.todayIndex = -1;
+        requestLayout();
+        invalidate();
+        accessibilityHelper.invalidateRoot();
+    }
+
+    public void setOnDayClickListener(@Nullable OnDayClickListener listener) {
+        this.onDayClickListener = listener;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        float contentWidth = width - getPaddingLeft() - getPaddingRight();
+        gap = yearMode ? yearGap : monthGap;
+        cellWidth = columns > 0 ? Math.max(0f, (contentWidth - gap * (columns - 1)) / columns) : 0f;
+        // Heatmap cells are square; calendar cells keep a fixed height so the day label fits.
+        cellHeight = yearMode ? cellWidth : monthCellHeight;
+        int contentHeight = rows > 0 ? (int) Math.ceil(rows * cellHeight + (rows - 1) * gap) : 0;
+        int height = contentHeight + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        ContributionYear current = year;
+        if (current == null) {
+            return;
+        }
+        float inset = todayPaint.getStrokeWidth() / 2f;
+        for (int row = 0; row < rows; row++) {
+            float top = getPaddingTop() + row * (cellHeight + gap);
+            for (int column = 0; column < columns; column++) {
+                int dayIndex = dayIndexAt(row, column);
+                if (dayIndex < 0) {
+                    continue;
+                }
+                int level = level(current.getCount(dayIndex));
+                float left = getPaddingLeft() + column * (cellWidth + gap);
+                cellRect.set(left, top, left + cellWidth, top + cellHeight);
+                canvas.drawRect(cellRect, cellPaints[level]);
+                if (yearMode) {
+                    continue;
+                }
+                canvas.drawText(DAY_LABELS[dayIndex - firstDayIndex], cellRect.centerX(),
+                        cellRect.centerY() + textBaselineOffset, textPaints[level]);
+                if (dayIndex == todayIndex) {
+                    cellRect.inset(inset, inset);
+                    canvas.drawRect(cellRect, todayPaint);
+                }
+            }
+        }
+    }
+
+    @SuppressLint("ClickableViewAccessibility")
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (year == null || !isEnabled()) {
+            return false;
+        }
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                downX = event.getX();
+                downY = event.getY();
+                tapCandidate = dayIndexAt(downX, downY) >= 0;
+                return tapCandidate;
+            case MotionEvent.ACTION_MOVE:
+                if (Math.abs(event.getX() - downX) > touchSlop || Math.abs(event.getY() - downY) > touchSlop) {
+                    tapCandidate = false;
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (tapCandidate) {
+                    tapCandidate = false;
+                    performClick();
+                    clickDay(dayIndexAt(downX, downY));
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                tapCandidate = false;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return accessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return accessibilityHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        accessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    /**
+     * Reports a click on a day to the listener and to accessibility services.
+     * @return False if the index is not a shown day.
+     */
+    private boolean clickDay(int dayIndex) {
+        ContributionYear current = year;
+        if (current == null || dayIndex < firstDayIndex || dayIndex >= firstDayIndex + dayCount) {
+            return false;
+        }
+        if (onDayClickListener != null) {
+            onDayClickListener.onDayClick(
+                    LocalDate.ofEpochDay(current.getFirstEpochDay() + dayIndex), current.getCount(dayIndex));
+        }
+        accessibilityHelper.sendEventForVirtualView(dayIndex, AccessibilityEvent.TYPE_VIEW_CLICKED);
+        return true;
+    }
+
+    /**
+     * @return The day of the year under a point of the view, or -1 for padding, gaps and cells outside the shown days.
+     */
+    private int dayIndexAt(float x, float y) {
+        float left = x - getPaddingLeft();
+        float top = y - getPaddingTop();
+        if (left < 0 || top < 0 || cellWidth <= 0) {
+            return -1;
+        }
+        int column = (int) (left / (cellWidth + gap));
+        int row = (int) (top / (cellHeight + gap));
+        if (column >= columns || row >= rows) {
+            return -1;
+        }
+        return dayIndexAt(row, column);
+    }
+
+    /**
+     * Sets the bounds of the cell that shows a day, the inverse of {@link #dayIndexAt(int, int)}.
+     */
+    private void cellBounds(int dayIndex, Rect out) {
+        int position = dayIndex - firstDayIndex + leadingCells;
+        int row = yearMode ? position % DAYS_PER_WEEK : position / DAYS_PER_WEEK;
+        int column = yearMode ? position / DAYS_PER_WEEK : position % DAYS_PER_WEEK;
+        float left = getPaddingLeft() + column * (cellWidth + gap);
+        float top = getPaddingTop() + row * (cellHeight + gap);
+        out.set((int) left, (int) top, (int) Math.ceil(left + cellWidth), (int) Math.ceil(top + cellHeight));
+    }
+
+    /**
+     * @return The day of the year shown in a cell, or -1 for the padding before and after the shown days.
+     */
+    private int dayIndexAt(int row, int column) {
+        // The calendar fills row by row, the heatmap column by column.
+        int position = yearMode ? column * DAYS_PER_WEEK + row : row * DAYS_PER_WEEK + column;
+        int offset = position - leadingCells;
+        return offset >= 0 && offset < dayCount ? firstDayIndex + offset : -1;
+    }
+
+    // 0, 1-2, 3-5, 6-8 and 9+ contributions.
+    private static int level(int count) {
+        if (count <= 0) {
+            return 0;
+        } else if (count <= 2) {
+            return 1;
+        } else if (count <= 5) {
+            return 2;
+        } else if (count <= 8) {
+            return 3;
+        }
+        return 4;
+    }
+
+    /**
+     * Exposes every shown day as a virtual view whose id is its day of the year.
+     */
+    private final class DayAccessibilityHelper extends ExploreByTouchHelper {
+        private final Rect bounds = new Rect();
+
+        DayAccessibilityHelper() {
+            super(ContributionGridView.this);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int dayIndex = year == null ? -1 : dayIndexAt(x, y);
+            return dayIndex >= 0 ? dayIndex : INVALID_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            if (year == null) {
+                return;
+            }
+            for (int offset = 0; offset < dayCount; offset++) {
+                virtualViewIds.add(firstDayIndex + offset);
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node) {
+            ContributionYear current = year;
+            if (current == null || virtualViewId < firstDayIndex || virtualViewId >= firstDayIndex + dayCount) {
+                // The day is gone since the node was requested; ExploreByTouchHelper still needs bounds.
+                node.setContentDescription("");
+                bounds.setEmpty();
+                node.setBoundsInParent(bounds);
+                return;
+            }
+            int count = current.getCount(virtualViewId);
+            String date = LocalDate.ofEpochDay(current.getFirstEpochDay() + virtualViewId).format(dateFormatter);
+            node.setContentDescription(count > 0
+                    ? getResources().getQuantityString(R.plurals.contributions_day_description, count, count, date)
+                    : getResources().getString(R.string.contributions_day_description_none, date));
+            node.setSelected(virtualViewId == todayIndex);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            cellBounds(virtualViewId, bounds);
+            node.setBoundsInParent(bounds);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+            return action == AccessibilityNodeInfoCompat.ACTION_CLICK && clickDay(virtualViewId);
+        }
+    }
+
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value, getResources().getDisplayMetrics());
+    }
+}
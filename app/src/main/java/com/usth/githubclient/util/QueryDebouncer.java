@@ -0,0 +1,92 @@
+package com.usth.githubclient.util;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Turns search box keystrokes into searches: a query is only sent once typing pauses for the
+ * delay and the query is long enough, and only if it differs from the last one sent.
+ * Must be used from the main thread.
+ */
+public final class QueryDebouncer {
+
+    /**
+     * Receives the debounced queries on the main thread.
+     */
+    public interface Target {
+        void onQuery(@NonNull String query);
+
+        /** Called right away when the search box is emptied. */
+        void onCleared();
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final long delayMillis;
+    private final int minLength;
+    private final Target target;
+    @Nullable
+    private String pending;
+    @Nullable
+    private String lastSent;
+    private final Runnable dispatch = () -> {
+        String query = pending;
+        pending = null;
+        if (query != null) {
+            send(query);
+        }
+    };
+
+    public QueryDebouncer(long delayMillis, int minLength, @NonNull Target target) {
+        this.delayMillis = delayMillis;
+        this.minLength = minLength;
+        this.target = target;
+    }
+
+    /**
+     * Reports the current text of the search box.
+     */
+    public void onTextChanged(@Nullable String text) {
+        String query = text == null ? "" : text.trim();
+        handler.removeCallbacks(dispatch);
+        pending = null;
+        if (query.isEmpty()) {
+            lastSent = null;
+            target.onCleared();
+        } else if (query.length() >= minLength && !query.equals(lastSent)) {
+            pending = query;
+            handler.postDelayed(dispatch, delayMillis);
+        }
+    }
+
+    /**
+     * Sends a query right away, whatever its length and even if it was just sent, for example
+     * when the user presses search to retry.
+     */
+    public void submit(@Nullable String text) {
+        handler.removeCallbacks(dispatch);
+        pending = null;
+        String query = text == null ? "" : text.trim();
+        if (query.isEmpty()) {
+            onTextChanged(query);
+        } else {
+            send(query);
+        }
+    }
+
+    /**
+     * Forgets the last query sent, so the same text is searched again, for example in another tab.
+     */
+    public void reset() {
+        handler.removeCallbacks(dispatch);
+        pending = null;
+        lastSent = null;
+    }
+
+    private void send(String query) {
+        lastSent = query;
+        target.onQuery(query);
+    }
+}
@@ -10,6 +10,8 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.usth.githubclient.auth.TokenStore;
 import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.di.AppScheduler;
+import com.usth.githubclient.di.ServiceLocator;
 import com.usth.githubclient.data.remote.GithubApiService;
 import com.usth.githubclient.data.remote.dto.UserDto;
 import com.usth.githubclient.data.remote.dto.UserEmailDto;
@@ -41,8 +43,12 @@ public class AuthViewModel extends AndroidViewModel {
     private final MutableLiveData<AuthUiState> ui = new MutableLiveData<>(AuthUiState.idle());
     public LiveData<AuthUiState> getUiState() { return ui; }
 
+    // Cancelled in onCleared, so a sign-in still verifying stops with the screen.
+    private final AppScheduler.Scope scope;
+
     public AuthViewModel(@NonNull Application app) {
         super(app);
+        scope = ServiceLocator.getInstance().scheduler().newScope();
     }
 
     // ===== PAT Sign-in =====
@@ -56,7 +62,7 @@ public class AuthViewModel extends AndroidViewModel {
     public void signInWithPat(String pat, @Nullable String identifier) {
         ui.postValue(AuthUiState.loading());
 
-        new Thread(() -> {
+        scope.execute(AppScheduler.Pool.NETWORK, AppScheduler.Priority.HIGH, () -> {
             ApiClient apiClient = new ApiClient();
             try {
                 // The AuthInterceptor will automatically add the header to all requests.
@@ -132,19 +138,24 @@ public class AuthViewModel extends AndroidViewModel {
                 try { TokenStore.clear(getApplication()); } catch (Exception ignored) {}
                 ui.postValue(AuthUiState.error(e.getMessage()));
             }
-        }).start();
+        });
     }
 
     /**
      * Signs out the user.
      */
     public void signOut() {
-        ApiClient apiClient = new ApiClient();
         try { TokenStore.clear(getApplication()); } catch (Exception ignored) {}
-        apiClient.clearAuthToken();
+        ServiceLocator.getInstance().authRepository().signOut();
         ui.postValue(AuthUiState.idle());
     }
 
+    @Override
+    protected void onCleared() {
+        scope.cancel();
+        super.onCleared();
+    }
+
     private void persistTokenAndSignIn(ApiClient apiClient, String pat, String login) {
         try {
             TokenStore.save(getApplication(), pat);
@@ -0,0 +1,381 @@
+package com.usth.githubclient.viewmodel;
+
+import android.os.SystemClock;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.usth.githubclient.data.repository.RequestHandle;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Loads a list page by page while it is scrolled and keeps only a window of pages in memory.
+ * The next page is requested once the last visible row is within the prefetch distance of the
+ * end; when more than {@code maxPages} are held, the page furthest from the visible rows is
+ * dropped and loaded again if the user scrolls back to it.
+ * All methods must be called on the main thread.
+ */
+public final class PagingController<T> {
+
+    // GitHub search only ever returns the first 1,000 matches.
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    // Wait before retrying a page that failed, so every scroll event does not fire a request.
+    private static final long RETRY_DELAY_MILLIS = 2000L;
+
+    /**
+     * Receives the outcome of one page request on the main thread.
+     */
+    public interface PageCallback<T> {
+        void onPage(@NonNull List<T> items, boolean last);
+
+        void onError(int code, @Nullable Throwable error);
+    }
+
+    /**
+     * Starts the request for one page.
+     */
+    public interface PageSource<T> {
+        /**
+         * @return The call loading the page, so it can be cancelled when the list is refreshed.
+         */
+        @NonNull
+        Call<?> load(int page, int pageSize, @NonNull PageCallback<T> callback);
+    }
+
+    /**
+     * Creates the call for one page of an endpoint.
+     */
+    public interface PageCall<R> {
+        @NonNull
+        Call<R> create(int page, int pageSize);
+    }
+
+    /**
+     * Notified on the main thread about loaded pages and failures of the first page.
+     */
+    public interface Listener<T> {
+        /**
+         * @param page The page number, starting at 1.
+         * @param items The rows of the page.
+         */
+        void onPageLoaded(int page, @NonNull List<T> items);
+
+        /**
+         * @param code The HTTP status code, or 0 for a network error.
+         */
+        void onFirstPageFailed(int code, @Nullable Throwable error);
+    }
+
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final int maxPages;
+    private final Listener<T> listener;
+    private final LongSupplier clock;
+    private final MutableLiveData<List<T>> items = new MutableLiveData<>();
+    private final RequestHandle requests = new RequestHandle();
+
+    private final ArrayDeque<List<T>> pages = new ArrayDeque<>();
+    // Page number of the first page held.
+    private int firstPage = 1;
+    private int itemCount;
+    private boolean endReached;
+    // Page being loaded, or 0.
+    private int loadingPage;
+    private long retryAtMillis;
+    private int generation;
+    private int firstVisible;
+    private int lastVisible;
+    @Nullable
+    private PageSource<T> source;
+
+    public PagingController(int pageSize, int prefetchDistance, int maxPages, @NonNull Listener<T> listener) {
+        this(pageSize, prefetchDistance, maxPages, listener, SystemClock::uptimeMillis);
+    }
+
+    /**
+     * @param clock Monotonic time in milliseconds, used to space out retries of a failed page.
+     */
+    public PagingController(int pageSize, int prefetchDistance, int maxPages, @NonNull Listener<T> listener,
+                            @NonNull LongSupplier clock) {
+        if (maxPages < 2) {
+            throw new IllegalArgumentException("maxPages < 2: " + maxPages);
+        }
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.maxPages = maxPages;
+        this.listener = listener;
+        this.clock = clock;
+    }
+
+    /**
+     * Pages a list endpoint. A page shorter than the page size is the last one.
+     */
+    @NonNull
+    public static <T> PageSource<T> fromList(@NonNull PageCall<List<T>> calls) {
+        return of(calls, body -> body, null);
+    }
+
+    /**
+     * Pages a search endpoint, stopping at its total count or at GitHub's 1,000 result limit.
+     */
+    @NonNull
+    public static <R, T> PageSource<T> fromSearch(@NonNull PageCall<R> calls, @NonNull Function<R, List<T>> items,
+                                                  @NonNull ToIntFunction<R> totalCount) {
+        return of(calls, items, totalCount);
+    }
+
+    private static <R, T> PageSource<T> of(PageCall<R> calls, Function<R, List<T>> items,
+                                           @Nullable ToIntFunction<R> totalCount) {
+        return (page, pageSize, callback) -> {
+            Call<R> call = calls.create(page, pageSize);
+            call.enqueue(new Callback<R>() {
+                @Override
+                public void onResponse(@NonNull Call<R> c, @NonNull Response<R> response) {
+                    R body = response.body();
+                    if (!response.isSuccessful() || body == null) {
+                        callback.onError(response.code(), null);
+                        return;
+                    }
+                    List<T> loaded = items.apply(body);
+                    if (loaded == null) {
+                        loaded = Collections.emptyList();
+                    }
+                    boolean last = loaded.size() < pageSize;
+                    if (totalCount != null) {
+                        int available = Math.min(totalCount.applyAsInt(body), MAX_SEARCH_RESULTS);
+                        last |= (long) page * pageSize >= available;
+                    }
+                    callback.onPage(loaded, last);
+                }
+
+                @Override
+                public void onFailure(@NonNull Call<R> c, @NonNull Throwable t) {
+                    if (!c.isCanceled()) {
+                        callback.onError(0, t);
+                    }
+                }
+            });
+            return call;
+        };
+    }
+
+    /**
+     * @return The rows of the pages currently held.
+     */
+    @NonNull
+    public LiveData<List<T>> getItems() {
+        return items;
+    }
+
+    /**
+     * Starts over from the first page, cancelling any page still loading.
+     */
+    @MainThread
+    public void refresh(@NonNull PageSource<T> newSource) {
+        refresh(newSource, null, false);
+    }
+
+    /**
+     * Starts over from the first page, showing a stored copy of it meanwhile.
+     * @param cachedFirstPage The stored first page, or null.
+     * @param fresh True if the stored page is recent enough to be used without asking the network.
+     */
+    @MainThread
+    public void refresh(@NonNull PageSource<T> newSource, @Nullable List<T> cachedFirstPage, boolean fresh) {
+        source = newSource;
+        generation = requests.begin();
+        pages.clear();
+        firstPage = 1;
+        itemCount = 0;
+        endReached = false;
+        loadingPage = 0;
+        retryAtMillis = 0L;
+        firstVisible = 0;
+        lastVisible = 0;
+        if (cachedFirstPage != null && fresh) {
+            pages.addLast(new ArrayList<>(cachedFirstPage));
+            endReached = cachedFirstPage.size() < pageSize;
+            publish();
+            return;
+        }
+        if (cachedFirstPage != null) {
+            // Shown until the network answers; the page itself is not held.
+            items.setValue(new ArrayList<>(cachedFirstPage));
+        }
+        load(1);
+    }
+
+    /**
+     * Tells which rows are on screen, so pages can be loaded ahead and dropped behind.
+     */
+    @MainThread
+    public void onScrolled(int firstVisiblePosition, int lastVisiblePosition) {
+        if (firstVisiblePosition < 0 || lastVisiblePosition < 0) {
+            return;
+        }
+        firstVisible = firstVisiblePosition;
+        lastVisible = lastVisiblePosition;
+        if (trim()) {
+            publish();
+        }
+        if (source == null || pages.isEmpty() || loadingPage != 0 || clock.getAsLong() < retryAtMillis) {
+            return;
+        }
+        if (!endReached && lastVisible >= itemCount - 1 - prefetchDistance) {
+            load(firstPage + pages.size());
+        } else if (firstPage > 1 && firstVisible <= prefetchDistance) {
+            load(firstPage - 1);
+        }
+    }
+
+    /**
+     * Shows rows that did not come from the source, such as offline search results, in place of the
+     * pages. Nothing more is loaded while scrolling until the next refresh.
+     */
+    @MainThread
+    public void showRows(@NonNull List<T> rows) {
+        source = null;
+        generation = requests.begin();
+        pages.clear();
+        pages.addLast(new ArrayList<>(rows));
+        firstPage = 1;
+        endReached = true;
+        loadingPage = 0;
+        firstVisible = 0;
+        lastVisible = 0;
+        publish();
+    }
+
+    /**
+     * Cancels any page still loading, for example when the screen goes away.
+     */
+    @MainThread
+    public void cancel() {
+        requests.cancel();
+        loadingPage = 0;
+    }
+
+    private void load(int page) {
+        PageSource<T> current = source;
+        if (current == null) {
+            return;
+        }
+        loadingPage = page;
+        PageRequest request = new PageRequest(page, generation);
+        request.tracked = requests.track(generation, current.load(page, pageSize, request));
+    }
+
+    /**
+     * One page in flight, tagged with the generation it was requested for.
+     */
+    private final class PageRequest implements PageCallback<T> {
+        final int page;
+        final int requestGeneration;
+        RequestHandle.Cancellable tracked;
+
+        PageRequest(int page, int requestGeneration) {
+            this.page = page;
+            this.requestGeneration = requestGeneration;
+        }
+
+        @Override
+        public void onPage(@NonNull List<T> loaded, boolean last) {
+            if (!complete()) {
+                return;
+            }
+            if (page == firstPage + pages.size()) {
+                pages.addLast(loaded);
+                endReached = last;
+            } else if (page == firstPage - 1) {
+                pages.addFirst(loaded);
+                firstPage--;
+                // The rows on screen moved down by the prepended page.
+                firstVisible += loaded.size();
+                lastVisible += loaded.size();
+            } else {
+                return;
+            }
+            itemCount += loaded.size();
+            trim();
+            publish();
+            listener.onPageLoaded(page, loaded);
+        }
+
+        @Override
+        public void onError(int code, @Nullable Throwable error) {
+            if (!complete()) {
+                return;
+            }
+            retryAtMillis = clock.getAsLong() + RETRY_DELAY_MILLIS;
+            if (pages.isEmpty()) {
+                listener.onFirstPageFailed(code, error);
+            }
+        }
+
+        private boolean complete() {
+            if (tracked != null) {
+                requests.finish(tracked);
+            }
+            if (!requests.accept(requestGeneration)) {
+                return false;
+            }
+            loadingPage = 0;
+            return true;
+        }
+    }
+
+    /**
+     * Drops pages beyond the limit, taking them from whichever end is further from the visible rows,
+     * and only once they are more than the prefetch distance off screen.
+     * @return True if a page was dropped.
+     */
+    private boolean trim() {
+        boolean changed = false;
+        while (pages.size() > maxPages) {
+            int rowsAbove = firstVisible;
+            int rowsBelow = itemCount - 1 - lastVisible;
+            if (rowsAbove >= rowsBelow && firstVisible > pages.peekFirst().size() + prefetchDistance) {
+                int dropped = pages.removeFirst().size();
+                firstPage++;
+                itemCount -= dropped;
+                firstVisible -= dropped;
+                lastVisible -= dropped;
+                changed = true;
+            } else if (rowsBelow > rowsAbove && rowsBelow > pages.peekLast().size() + prefetchDistance) {
+                itemCount -= pages.removeLast().size();
+                endReached = false;
+                changed = true;
+            } else {
+                break;
+            }
+        }
+        return changed;
+    }
+
+    private void publish() {
+        int size = 0;
+        for (List<T> page : pages) {
+            size += page.size();
+        }
+        List<T> rows = new ArrayList<>(size);
+        for (List<T> page : pages) {
+            rows.addAll(page);
+        }
+        itemCount = size;
+        items.setValue(rows);
+    }
+}
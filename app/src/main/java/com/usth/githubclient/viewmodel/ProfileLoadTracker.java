@@ -0,0 +1,162 @@
+package com.usth.githubclient.viewmodel;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.usth.githubclient.BuildConfig;
+
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * The merged state of the profile screen and the load it belongs to. Each opening of the screen
+ * starts a {@link Load}; changes from a load that a newer one has replaced are dropped, and for the
+ * current load it records how long the screen took to show its first content and to finish.
+ */
+final class ProfileLoadTracker {
+
+    private static final String TAG = "ProfileLoadTracker";
+
+    static final int USER = 1;
+    static final int CONTRIBUTIONS = 1 << 1;
+    static final int REPOSITORIES = 1 << 2;
+    private static final int ALL = USER | CONTRIBUTIONS | REPOSITORIES;
+
+    private final LongSupplier clock;
+    private final Consumer<UserViewModel.UserUiState> publisher;
+
+    // Guarded by this.
+    private UserViewModel.UserUiState state = new UserViewModel.UserUiState(true, null, null);
+    @Nullable
+    private Load current;
+    private long timeToFirstContentMillis = -1L;
+    private long timeToCompleteMillis = -1L;
+
+    /**
+     * @param clock Monotonic time in milliseconds, such as {@code SystemClock::elapsedRealtime}.
+     * @param publisher Receives every merged state, in the order the changes were applied.
+     */
+    ProfileLoadTracker(@NonNull LongSupplier clock, @NonNull Consumer<UserViewModel.UserUiState> publisher) {
+        this.clock = clock;
+        this.publisher = publisher;
+    }
+
+    /**
+     * Starts a load, replacing the current one.
+     * @param username The user, or null for the signed-in user.
+     */
+    @NonNull
+    synchronized Load start(@Nullable String username) {
+        current = new Load(username == null ? "Own profile" : "Profile of " + username, clock.getAsLong());
+        timeToFirstContentMillis = -1L;
+        timeToCompleteMillis = -1L;
+        return current;
+    }
+
+    /**
+     * @return The load started last, or null before the first one.
+     */
+    @Nullable
+    synchronized Load current() {
+        return current;
+    }
+
+    /**
+     * Applies a change to the merged state and publishes it, unless a newer load has started since.
+     * The whole state is published each time, while holding the lock, so updates merged on
+     * different threads are never lost or reordered when LiveData coalesces them.
+     */
+    void update(@NonNull Load owner, @NonNull UnaryOperator<UserViewModel.UserUiState> change) {
+        long elapsed;
+        synchronized (this) {
+            if (owner != current) {
+                return;
+            }
+            state = change.apply(state);
+            publisher.accept(state);
+            if (!state.hasContent() || timeToFirstContentMillis >= 0) {
+                return;
+            }
+            elapsed = clock.getAsLong() - owner.startedAt;
+            timeToFirstContentMillis = elapsed;
+        }
+        owner.log("first content", elapsed);
+    }
+
+    /**
+     * @return How long the current load took to show its first content, in milliseconds, or -1
+     * until it has.
+     */
+    synchronized long getTimeToFirstContentMillis() {
+        return timeToFirstContentMillis;
+    }
+
+    /**
+     * @return How long the current load took to finish every part, in milliseconds, or -1 until
+     * it has.
+     */
+    synchronized long getTimeToCompleteMillis() {
+        return timeToCompleteMillis;
+    }
+
+    /**
+     * One opening of the profile screen, tracking which parts are still loading.
+     */
+    final class Load {
+        private final String label;
+        private final long startedAt;
+        // Guarded by this.
+        private int finished;
+        private boolean contributionsClaimed;
+
+        private Load(String label, long startedAt) {
+            this.label = label;
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * @return True for the first caller only, which then loads the contributions.
+         */
+        synchronized boolean claimContributions() {
+            if (contributionsClaimed) {
+                return false;
+            }
+            contributionsClaimed = true;
+            return true;
+        }
+
+        /**
+         * Marks a part as done, whether it loaded or failed.
+         * @param part One of {@link #USER}, {@link #CONTRIBUTIONS} and {@link #REPOSITORIES}.
+         */
+        void finish(int part) {
+            synchronized (this) {
+                if ((finished & part) != 0) {
+                    return;
+                }
+                finished |= part;
+                if (finished != ALL) {
+                    return;
+                }
+            }
+            long elapsed;
+            synchronized (ProfileLoadTracker.this) {
+                if (current != this) {
+                    return;
+                }
+                elapsed = clock.getAsLong() - startedAt;
+                timeToCompleteMillis = elapsed;
+            }
+            log("complete", elapsed);
+        }
+
+        private void log(String milestone, long elapsedMillis) {
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, label + ": " + milestone + " after " + elapsedMillis + " ms");
+            }
+        }
+    }
+}
@@ -1,58 +1,217 @@
 package com.usth.githubclient.viewmodel;
 
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
-import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.data.local.CachedEntry;
+import com.usth.githubclient.data.local.OfflineSearchIndex;
+import com.usth.githubclient.data.local.SuggestionIndex;
 import com.usth.githubclient.data.remote.GithubApiService;
 import com.usth.githubclient.data.remote.dto.RepoDto;
+import com.usth.githubclient.data.remote.dto.SearchRepoResponseDto;
+import com.usth.githubclient.data.repository.RepoRepository;
+import com.usth.githubclient.di.AppScheduler;
+import com.usth.githubclient.di.ServiceLocator;
+
 import java.util.List;
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
 
 /**
  * ViewModel for the SearchReposFragment.
  */
 public class SearchReposViewModel extends ViewModel {
 
-    // LiveData to hold the list of repositories and notify the Fragment of changes.
-    private final MutableLiveData<List<RepoDto>> myRepos = new MutableLiveData<>();
+    private static final int FIRST_PAGE = 1;
+    private static final int PAGE_SIZE = 30;
+    private static final int PREFETCH_DISTANCE = 10;
+    // At most 150 repositories are held per list; pages further away are loaded again when needed.
+    private static final int MAX_PAGES = 5;
+    private static final String MY_REPOS_SORT = "updated";
+    private static final int OFFLINE_RESULTS = 100;
+
+    private static final Handler MAIN_THREAD = new Handler(Looper.getMainLooper());
+
+    private final RepoRepository repoRepository;
+    private final SuggestionIndex suggestionIndex;
+    private final OfflineSearchIndex offlineSearchIndex;
+    private final GithubApiService apiService;
+    // Cancelled in onCleared.
+    private final AppScheduler.Scope scope;
+
+    // Pages of the user's repositories and of repository search results, loaded as the list is scrolled.
+    private final PagingController<RepoDto> myRepos;
+    private final PagingController<RepoDto> searchResults;
     private final MutableLiveData<String> error = new MutableLiveData<>();
-    private boolean hasLoaded = false;
+    private final MutableLiveData<String> searchError = new MutableLiveData<>();
+    private volatile boolean hasLoaded = false;
+    private boolean showingCachedRepos;
+    private boolean cleared;
+    // First pages of recent searches, so retyping or deleting back to a query costs no request.
+    private final SearchResultCache<RepoDto> searchCache =
+            new SearchResultCache<>(SearchResultCache.DEFAULT_MAX_QUERIES, SearchResultCache.DEFAULT_TTL_MILLIS);
+    @Nullable
+    private String searchQuery;
+
+    public SearchReposViewModel() {
+        this.repoRepository = ServiceLocator.getInstance().repoRepository();
+        this.suggestionIndex = ServiceLocator.getInstance().suggestionIndex();
+        this.offlineSearchIndex = ServiceLocator.getInstance().offlineSearchIndex();
+        this.apiService = ServiceLocator.getInstance().apiClient().createService(GithubApiService.class);
+        this.scope = ServiceLocator.getInstance().scheduler().newScope();
+        this.myRepos = new PagingController<>(PAGE_SIZE, PREFETCH_DISTANCE, MAX_PAGES,
+                new PagingController.Listener<RepoDto>() {
+                    @Override
+                    public void onPageLoaded(int page, @NonNull List<RepoDto> items) {
+                        showingCachedRepos = false;
+                        indexRepos(items);
+                    }
+
+                    @Override
+                    public void onFirstPageFailed(int code, @Nullable Throwable t) {
+                        hasLoaded = false;
+                        // Keep showing the offline copy, if any.
+                        if (!showingCachedRepos) {
+                            error.setValue(t != null
+                                    ? "Network error while loading your repositories."
+                                    : "Failed to load your repositories.");
+                        }
+                    }
+                });
+        this.searchResults = new PagingController<>(PAGE_SIZE, PREFETCH_DISTANCE, MAX_PAGES,
+                new PagingController.Listener<RepoDto>() {
+                    @Override
+                    public void onPageLoaded(int page, @NonNull List<RepoDto> items) {
+                        if (page == FIRST_PAGE && searchQuery != null) {
+                            searchCache.put(searchQuery, items);
+                        }
+                        indexRepos(items);
+                    }
+
+                    @Override
+                    public void onFirstPageFailed(int code, @Nullable Throwable t) {
+                        String message = t != null ? "Network error: " + t.getMessage() : "Search failed: " + code;
+                        if (searchQuery != null && OfflineSearchIndex.isUnreachable(code, t)) {
+                            searchOffline(searchQuery, message);
+                        } else {
+                            searchError.setValue(message);
+                        }
+                    }
+                });
+    }
 
     public LiveData<List<RepoDto>> getMyRepos() {
-        return myRepos;
+        return myRepos.getItems();
+    }
+
+    public LiveData<List<RepoDto>> getSearchResults() {
+        return searchResults.getItems();
     }
 
     public LiveData<String> getError() {
         return error;
     }
 
+    public LiveData<String> getSearchError() {
+        return searchError;
+    }
+
     /**
      * Loads the authenticated user's repositories, only once.
+     * The offline copy of the first page is shown first and refreshed from the network when it is stale;
+     * later pages are loaded as the list is scrolled.
      */
     public void loadMyRepos() {
         if (hasLoaded) {
             return; // Don't load again if already loaded.
         }
+        hasLoaded = true;
 
-        GithubApiService apiService = new ApiClient().createService(GithubApiService.class);
-        apiService.getAuthenticatedRepositories(30, 1, "updated").enqueue(new Callback<List<RepoDto>>() {
-            @Override
-            public void onResponse(Call<List<RepoDto>> call, Response<List<RepoDto>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    myRepos.postValue(response.body());
-                    hasLoaded = true;
-                } else {
-                    error.postValue("Failed to load your repositories.");
+        scope.execute(AppScheduler.Pool.DISK, AppScheduler.Priority.HIGH, () -> {
+            CachedEntry<List<RepoDto>> cached =
+                    repoRepository.getCachedAuthenticatedRepositories(FIRST_PAGE, PAGE_SIZE, MY_REPOS_SORT);
+            MAIN_THREAD.post(() -> {
+                if (cleared) {
+                    return;
                 }
-            }
+                showingCachedRepos = cached != null;
+                myRepos.refresh(
+                        PagingController.fromList((page, perPage) ->
+                                repoRepository.getAuthenticatedRepositories(page, perPage, MY_REPOS_SORT)),
+                        cached != null ? cached.getValue() : null,
+                        cached != null && !cached.isStale());
+            });
+        });
+    }
 
-            @Override
-            public void onFailure(Call<List<RepoDto>> call, Throwable t) {
-                error.postValue("Network error while loading your repositories.");
+    /**
+     * Searches repositories, cancelling the previous search if it is still loading; further pages
+     * are loaded as the list is scrolled.
+     * The first page of a query searched in the last few minutes is shown without a request.
+     * @param query The search query.
+     */
+    public void searchRepos(String query) {
+        searchQuery = query;
+        List<RepoDto> cached = searchCache.get(query);
+        searchResults.refresh(PagingController.fromSearch(
+                (page, perPage) -> apiService.searchRepos(query, page, perPage),
+                SearchRepoResponseDto::getItems,
+                SearchRepoResponseDto::getTotalCount), cached, cached != null);
+    }
+
+    /**
+     * Tells which rows of the user's repositories are on screen, so the next pages are loaded ahead.
+     */
+    public void onMyReposScrolled(int firstVisible, int lastVisible) {
+        myRepos.onScrolled(firstVisible, lastVisible);
+    }
+
+    /**
+     * Tells which search result rows are on screen, so the next pages are loaded ahead.
+     */
+    public void onSearchResultsScrolled(int firstVisible, int lastVisible) {
+        searchResults.onScrolled(firstVisible, lastVisible);
+    }
+
+    // Makes the loaded repositories available as search suggestions and to offline search.
+    private void indexRepos(List<RepoDto> repos) {
+        for (RepoDto repo : repos) {
+            if (repo != null) {
+                suggestionIndex.addRepo(repo.getFullName());
             }
+        }
+        offlineSearchIndex.addRepos(repos);
+    }
+
+    /**
+     * Searches the repositories already seen when GitHub cannot be reached or the rate limit is spent.
+     * @param failure The message shown if nothing matches offline either.
+     */
+    private void searchOffline(String query, String failure) {
+        scope.execute(AppScheduler.Pool.DISK, AppScheduler.Priority.NORMAL, () -> {
+            List<RepoDto> found = offlineSearchIndex.searchRepos(query, OFFLINE_RESULTS);
+            MAIN_THREAD.post(() -> {
+                if (cleared || !query.equals(searchQuery)) {
+                    return;
+                }
+                if (found.isEmpty()) {
+                    searchError.setValue(failure);
+                } else {
+                    searchResults.showRows(found);
+                }
+            });
         });
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onCleared() {
+        cleared = true;
+        scope.cancel();
+        myRepos.cancel();
+        searchResults.cancel();
+        super.onCleared();
+    }
+}
@@ -0,0 +1,82 @@
+package com.usth.githubclient.viewmodel;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the first page of the most recent search queries, so going back to a query, for example
+ * by deleting a character, shows its results without a request.
+ * Must be used from the main thread.
+ */
+final class SearchResultCache<T> {
+
+    static final int DEFAULT_MAX_QUERIES = 20;
+    static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000L;
+
+    private static final class Entry<T> {
+        final List<T> firstPage;
+        final long storedAt;
+
+        Entry(List<T> firstPage, long storedAt) {
+            this.firstPage = firstPage;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<String, Entry<T>> entries;
+
+    SearchResultCache(int maxQueries, long ttlMillis) {
+        this(maxQueries, ttlMillis, SystemClock::elapsedRealtime);
+    }
+
+    /**
+     * @param clock Monotonic time in milliseconds, used to expire entries.
+     */
+    SearchResultCache(int maxQueries, long ttlMillis, @NonNull LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<String, Entry<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                return size() > maxQueries;
+            }
+        };
+    }
+
+    /**
+     * @return The first page of results for the query, or null if it is unknown or too old.
+     */
+    @Nullable
+    List<T> get(@NonNull String query) {
+        String key = key(query);
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.storedAt > ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.firstPage;
+    }
+
+    void put(@NonNull String query, @NonNull List<T> firstPage) {
+        entries.put(key(query), new Entry<>(new ArrayList<>(firstPage), clock.getAsLong()));
+    }
+
+    // GitHub search is case-insensitive.
+    private static String key(String query) {
+        return query.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,17 +1,27 @@
 package com.usth.githubclient.viewmodel;
 
 import android.annotation.SuppressLint;
+import android.os.Handler;
+import android.os.Looper;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.usth.githubclient.data.local.OfflineSearchIndex;
+import com.usth.githubclient.data.local.SuggestionIndex;
 import com.usth.githubclient.data.remote.ApiClient;
 import com.usth.githubclient.data.remote.GithubApiService;
 import com.usth.githubclient.data.remote.dto.EventDto;
 import com.usth.githubclient.data.remote.dto.SearchUsersResponseDto;
 import com.usth.githubclient.data.remote.dto.UserDto;
-import com.usth.githubclient.domain.model.ContributionDataEntry;
+import com.usth.githubclient.data.repository.RequestHandle;
+import com.usth.githubclient.data.repository.UserDetailsBatchLoader;
+import com.usth.githubclient.di.AppScheduler;
+import com.usth.githubclient.di.ServiceLocator;
+import com.usth.githubclient.domain.model.GitHubUserProfileDataEntry;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -21,8 +31,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -33,42 +41,179 @@ import retrofit2.Response;
  */
 public class SearchUserViewModel extends ViewModel {
 
-    // LiveData to hold the list of followers and notify the Fragment of changes.
-    private final MutableLiveData<List<UserDto>> followers = new MutableLiveData<>();
-    // LiveData to hold the user search results.
-    private final MutableLiveData<List<UserDto>> searchResults = new MutableLiveData<>();
-    private final MutableLiveData<List<ContributionDataEntry>> contributions = new MutableLiveData<>();
+    private static final int PAGE_SIZE = 30;
+    private static final int PREFETCH_DISTANCE = 10;
+    // At most 150 users are held per list; pages further away are loaded again when needed.
+    private static final int MAX_PAGES = 5;
+    private static final int OFFLINE_RESULTS = 100;
+
+    private static final Handler MAIN_THREAD = new Handler(Looper.getMainLooper());
+
+    // Pages of followers and of user search results, loaded as the list is scrolled.
+    private final PagingController<UserDto> followers;
+    private final PagingController<UserDto> searchResults;
+    // LiveData carrying enrichment details for users already in the list.
+    private final MutableLiveData<List<GitHubUserProfileDataEntry>> userDetails = new MutableLiveData<>();
 
     // LiveData for error reporting.
     private final MutableLiveData<String> error = new MutableLiveData<>();
 
     private final GithubApiService apiService;
-    private final ExecutorService executorService;
+    private final UserDetailsBatchLoader userDetailsLoader;
+    private final SuggestionIndex suggestionIndex;
+    private final OfflineSearchIndex offlineSearchIndex;
+    // Cancelled in onCleared.
+    private final AppScheduler.Scope scope;
     private String authenticatedUsername;
     private boolean hasLoadedFollowers = false;
+    // Enrichment of the loaded pages, one handle per list: a new search cancels the previous search's
+    // details but not those of the followers, which are shown again once the search is cleared.
+    private final RequestHandle followersEnrichment = new RequestHandle();
+    private int followersGeneration;
+    private final RequestHandle searchEnrichment = new RequestHandle();
+    private int searchGeneration;
+    // First pages of recent searches, so retyping or deleting back to a query costs no request.
+    private final SearchResultCache<UserDto> searchCache =
+            new SearchResultCache<>(SearchResultCache.DEFAULT_MAX_QUERIES, SearchResultCache.DEFAULT_TTL_MILLIS);
+    @Nullable
+    private String searchQuery;
+    private boolean cleared;
 
     public SearchUserViewModel() {
         this.apiService = new ApiClient().createService(GithubApiService.class);
-        this.executorService = Executors.newSingleThreadExecutor();
+        this.userDetailsLoader = ServiceLocator.getInstance().userDetailsBatchLoader();
+        this.suggestionIndex = ServiceLocator.getInstance().suggestionIndex();
+        this.offlineSearchIndex = ServiceLocator.getInstance().offlineSearchIndex();
+        this.scope = ServiceLocator.getInstance().scheduler().newScope();
+        this.followers = new PagingController<>(PAGE_SIZE, PREFETCH_DISTANCE, MAX_PAGES,
+                new PagingController.Listener<UserDto>() {
+                    @Override
+                    public void onPageLoaded(int page, @NonNull List<UserDto> items) {
+                        enrichUsers(items, followersEnrichment, followersGeneration);
+                    }
+
+                    @Override
+                    public void onFirstPageFailed(int code, @Nullable Throwable t) {
+                        hasLoadedFollowers = false;
+                        error.setValue(t != null
+                                ? "Network error while loading your followers."
+                                : "Failed to load your followers.");
+                    }
+                });
+        this.searchResults = new PagingController<>(PAGE_SIZE, PREFETCH_DISTANCE, MAX_PAGES,
+                new PagingController.Listener<UserDto>() {
+                    @Override
+                    public void onPageLoaded(int page, @NonNull List<UserDto> items) {
+                        if (page == 1 && searchQuery != null) {
+                            searchCache.put(searchQuery, items);
+                        }
+                        enrichUsers(items, searchEnrichment, searchGeneration);
+                    }
+
+                    @Override
+                    public void onFirstPageFailed(int code, @Nullable Throwable t) {
+                        String message = t != null ? "Network error: " + t.getMessage() : "Search failed: " + code;
+                        if (searchQuery != null && OfflineSearchIndex.isUnreachable(code, t)) {
+                            searchOffline(searchQuery, message);
+                        } else {
+                            error.setValue(message);
+                        }
+                    }
+                });
     }
 
     // Getters for LiveData
     public LiveData<List<UserDto>> getFollowers() {
-        return followers;
+        return followers.getItems();
     }
 
     public LiveData<List<UserDto>> getSearchResults() {
-        return searchResults;
+        return searchResults.getItems();
     }
 
-    public LiveData<List<ContributionDataEntry>> getContributions() {
-        return contributions;
+    public LiveData<List<GitHubUserProfileDataEntry>> getUserDetails() {
+        return userDetails;
     }
 
     public LiveData<String> getError() {
         return error;
     }
 
+    /**
+     * Tells which follower rows are on screen, so the next pages are loaded ahead.
+     */
+    public void onFollowersScrolled(int firstVisible, int lastVisible) {
+        followers.onScrolled(firstVisible, lastVisible);
+    }
+
+    /**
+     * Tells which search result rows are on screen, so the next pages are loaded ahead.
+     */
+    public void onSearchResultsScrolled(int firstVisible, int lastVisible) {
+        searchResults.onScrolled(firstVisible, lastVisible);
+    }
+
+    /**
+     * Loads the list details (name, bio, counts) of a page of users in batches.
+     * Results are delivered through {@link #getUserDetails()}.
+     * @param users The users of the page.
+     * @param handle The enrichment handle of the list the page belongs to.
+     * @param generation The generation of that handle the page was loaded in.
+     */
+    private void enrichUsers(List<UserDto> users, RequestHandle handle, int generation) {
+        if (users == null || users.isEmpty()) {
+            return;
+        }
+        List<String> logins = new ArrayList<>(users.size());
+        for (UserDto user : users) {
+            if (user != null && user.getLogin() != null) {
+                logins.add(user.getLogin());
+                suggestionIndex.addUser(user.getLogin(), user.getName());
+            }
+        }
+        offlineSearchIndex.addUsers(users);
+        // Callbacks arrive on the main thread; setValue keeps every batch instead of coalescing them.
+        userDetailsLoader.load(logins, handle, generation, details -> {
+            // Names only come with the details; index them so they can be searched for too.
+            for (GitHubUserProfileDataEntry entry : details) {
+                entry.getDisplayName().ifPresent(name -> suggestionIndex.addUser(entry.getUsername(), name));
+            }
+            offlineSearchIndex.addUserDetails(details);
+            userDetails.setValue(details);
+        });
+    }
+
+    /**
+     * Searches the users already seen when GitHub cannot be reached or the rate limit is spent.
+     * @param failure The message shown if nothing matches offline either.
+     */
+    private void searchOffline(String query, String failure) {
+        scope.execute(AppScheduler.Pool.DISK, AppScheduler.Priority.NORMAL, () -> {
+            List<UserDto> found = offlineSearchIndex.searchUsers(query, OFFLINE_RESULTS);
+            MAIN_THREAD.post(() -> {
+                if (cleared || !query.equals(searchQuery)) {
+                    return;
+                }
+                if (found.isEmpty()) {
+                    error.setValue(failure);
+                } else {
+                    searchResults.showRows(found);
+                }
+            });
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        cleared = true;
+        scope.cancel();
+        followersEnrichment.cancel();
+        searchEnrichment.cancel();
+        followers.cancel();
+        searchResults.cancel();
+        super.onCleared();
+    }
+
     /**
      * Loads the authenticated user's followers, only once.
      */
@@ -97,46 +242,27 @@ public class SearchUserViewModel extends ViewModel {
     }
 
     private void fetchFollowers(String username) {
-        apiService.getFollowers(username, 30, 1).enqueue(new Callback<List<UserDto>>() {
-            @Override
-            public void onResponse(Call<List<UserDto>> call, Response<List<UserDto>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    followers.postValue(response.body());
-                    hasLoadedFollowers = true;
-                } else {
-                    error.postValue("Failed to load your followers.");
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<UserDto>> call, Throwable t) {
-                error.postValue("Network error while loading your followers.");
-            }
-        });
+        hasLoadedFollowers = true;
+        followersGeneration = followersEnrichment.begin();
+        followers.refresh(PagingController.fromList(
+                (page, perPage) -> apiService.getFollowers(username, perPage, page)));
     }
 
     /**
-     * Performs a user search.
+     * Performs a user search, cancelling the previous one if it is still loading.
+     * The first page of a query searched in the last few minutes is shown without a request.
      * @param query The search query.
      */
     public void searchUsers(String query) {
-        apiService.searchUsers(query, 1, 30).enqueue(new Callback<SearchUsersResponseDto>() {
-            @Override
-
-
-            public void onResponse(Call<SearchUsersResponseDto> call, Response<SearchUsersResponseDto> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    searchResults.postValue(response.body().getItems());
-                } else {
-                    error.postValue("Search failed: " + response.code());
-                }
-            }
-
-            @Override
-            public void onFailure(Call<SearchUsersResponseDto> call, Throwable t) {
-                error.postValue("Network error: " + t.getMessage());
-            }
-        });
+        searchQuery = query;
+        searchGeneration = searchEnrichment.begin();
+        List<UserDto> cached = searchCache.get(query);
+        searchResults.refresh(PagingController.fromSearch(
+                (page, perPage) -> apiService.searchUsers(query, page, perPage),
+                SearchUsersResponseDto::getItems,
+                SearchUsersResponseDto::getTotalCount), cached, cached != null);
+        if (cached != null) {
+            enrichUsers(cached, searchEnrichment, searchGeneration);
+        }
     }
-
-}
\ No newline at end of file
+}
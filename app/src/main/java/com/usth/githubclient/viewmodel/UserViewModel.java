@@ -1,176 +1,334 @@
 package com.usth.githubclient.viewmodel;
 
-import android.annotation.SuppressLint;
+import android.os.SystemClock;
+
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
-import com.usth.githubclient.data.remote.dto.EventDto;
+import com.usth.githubclient.data.local.CachedEntry;
+import com.usth.githubclient.data.local.ProfileMemoryCache;
+import com.usth.githubclient.data.remote.dto.RepoDto;
 import com.usth.githubclient.data.remote.dto.UserDto;
+import com.usth.githubclient.data.repository.ContributionRepository;
+import com.usth.githubclient.data.repository.RepoRepository;
 import com.usth.githubclient.data.repository.UserRepository;
+import com.usth.githubclient.di.AppScheduler;
 import com.usth.githubclient.di.ServiceLocator;
+import com.usth.githubclient.domain.mapper.RepoMapper;
 import com.usth.githubclient.domain.mapper.UserMapper;
-import com.usth.githubclient.domain.model.ContributionDataEntry;
+import com.usth.githubclient.domain.model.ContributionYear;
 import com.usth.githubclient.domain.model.GitHubUserProfileDataEntry;
+import com.usth.githubclient.domain.model.ReposDataEntry;
 
 import java.io.IOException;
-import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.HashMap;
+import java.time.ZoneId;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
 
 import retrofit2.Response;
 
+/**
+ * Loads the profile screen: the user, the contributions of a year and the most recently updated
+ * repositories are fetched at the same time and merged into one {@link UserUiState}, which is
+ * published again as each part arrives.
+ */
 public class UserViewModel extends ViewModel {
 
+    // Repositories shown on the profile, most recently updated first.
+    private static final int RECENT_REPOS = 5;
+    private static final String RECENT_REPOS_SORT = "updated";
+
     private final UserRepository userRepository;
-    private final ExecutorService executorService;
+    private final RepoRepository repoRepository;
+    private final ContributionRepository contributionRepository;
+    // Cancelled in onCleared, so a closed profile stops loading.
+    private final AppScheduler.Scope scope;
+    // Contribution loads run one at a time, so two loads never sync the same event index at once.
+    private final Executor contributionLoads;
     private final UserMapper userMapper;
+    private final RepoMapper repoMapper;
+    private final ProfileMemoryCache profileCache;
     private final MutableLiveData<UserUiState> uiState = new MutableLiveData<>();
-    private final MutableLiveData<List<ContributionDataEntry>> contributions = new MutableLiveData<>();
+    // The merged state, the load it belongs to and how long that load took.
+    private final ProfileLoadTracker loads = new ProfileLoadTracker(SystemClock::elapsedRealtime, uiState::postValue);
+    // The zone whose midnights separate contribution days.
+    private volatile ZoneId contributionZone = ZoneId.systemDefault();
 
     public UserViewModel() {
         this.userRepository = ServiceLocator.getInstance().userRepository();
-        this.executorService = ServiceLocator.getInstance().getExecutorService();
+        this.repoRepository = ServiceLocator.getInstance().repoRepository();
+        this.scope = ServiceLocator.getInstance().scheduler().newScope();
+        this.contributionLoads = scope.serialExecutor(AppScheduler.Pool.NETWORK, AppScheduler.Priority.NORMAL);
         this.userMapper = ServiceLocator.getInstance().userMapper();
+        this.repoMapper = ServiceLocator.getInstance().repoMapper();
+        this.profileCache = ServiceLocator.getInstance().profileCache();
+        this.contributionRepository = ServiceLocator.getInstance().contributionRepository();
     }
 
+    /**
+     * @return The profile, the contributions of the year last requested and the recent repositories,
+     * each null until it has loaded.
+     */
     public LiveData<UserUiState> getUiState() {
         return uiState;
     }
 
-    public LiveData<List<ContributionDataEntry>> getContributions() {
-        return contributions;
+    /**
+     * Starts loading everything the profile screen shows. The user, the contributions and the
+     * repositories are requested at once instead of one after the other, and whatever is already
+     * in memory is shown before any of them answers.
+     * For the signed-in user the login is taken from memory or disk when known; otherwise the
+     * contributions start as soon as the user fetch reveals it.
+     * @param username The user, or null for the signed-in user.
+     * @param contributionYear The year of contributions shown first.
+     */
+    @MainThread
+    public void loadProfile(@Nullable String username, int contributionYear) {
+        // A recently mapped profile is rendered instantly while the refresh below runs.
+        GitHubUserProfileDataEntry memoryProfile = (username == null)
+                ? profileCache.getAuthenticated()
+                : profileCache.get(username);
+        String login = username != null ? username
+                : memoryProfile != null ? memoryProfile.getUsername() : null;
+        ContributionYear memoryContributions = login == null ? null
+                : contributionRepository.peekYear(login, contributionYear);
+
+        ProfileLoadTracker.Load started = loads.start(username);
+        loads.update(started, ignored -> new UserUiState(true, null, memoryProfile, memoryContributions, null));
+
+        scope.execute(AppScheduler.Pool.NETWORK, AppScheduler.Priority.HIGH,
+                () -> loadUser(started, username, memoryProfile, contributionYear));
+        scope.execute(AppScheduler.Pool.NETWORK, AppScheduler.Priority.NORMAL,
+                () -> loadRepositories(started, username));
+        if (login != null) {
+            startContributions(started, login, contributionYear);
+        }
     }
 
-    public void loadUserProfile(@Nullable String username) {
-        uiState.postValue(new UserUiState(true, null, null));
-        executorService.execute(() -> {
+    @WorkerThread
+    private void loadUser(ProfileLoadTracker.Load current, @Nullable String username,
+                          @Nullable GitHubUserProfileDataEntry memoryProfile, int contributionYear) {
+        GitHubUserProfileDataEntry profile = memoryProfile;
+        try {
+            // Render the offline copy first; only go to the network when it is missing or stale.
+            CachedEntry<UserDto> cached = (username == null)
+                    ? userRepository.getCachedAuthenticatedUser()
+                    : userRepository.getCachedUser(username);
+            if (cached != null) {
+                if (profile == null) {
+                    profile = userMapper.map(cached.getValue());
+                    remember(username, profile);
+                }
+                publishProfile(current, cached.isStale(), null, profile, contributionYear);
+                if (!cached.isStale()) {
+                    return;
+                }
+            }
             try {
-                // Correctly fetch UserDto first
                 Response<UserDto> response = (username == null)
                         ? userRepository.authenticate().execute()
                         : userRepository.getUser(username).execute();
 
                 if (response.isSuccessful() && response.body() != null) {
-                    // Map UserDto to GitHubUserProfileDataEntry
-                    GitHubUserProfileDataEntry profile = userMapper.map(response.body());
-                    uiState.postValue(new UserUiState(false, null, profile));
+                    profile = userMapper.map(response.body());
+                    remember(username, profile);
+                    publishProfile(current, false, null, profile, contributionYear);
+                } else if (profile != null) {
+                    // Keep showing the offline copy rather than replacing it with an error.
+                    publishProfile(current, false, null, profile, contributionYear);
                 } else {
                     String error = "Error: " + response.code() + " " + response.message();
-                    uiState.postValue(new UserUiState(false, error, null));
+                    publishProfile(current, false, error, null, contributionYear);
                 }
             } catch (IOException e) {
-                uiState.postValue(new UserUiState(false, "Network error", null));
+                publishProfile(current, false, profile != null ? null : "Network error", profile, contributionYear);
             }
-        });
+        } finally {
+            current.finish(ProfileLoadTracker.USER);
+            // Without a login there is nothing to load contributions for.
+            if (current.claimContributions()) {
+                current.finish(ProfileLoadTracker.CONTRIBUTIONS);
+            }
+        }
     }
 
-    public void loadContributions(String username) {
-        executorService.execute(() -> {
-            try {
-                List<EventDto> allEventsInMonth = new ArrayList<>();
-                int currentPage = 1;
-                boolean keepFetching = true;
-                int currentMonth = Calendar.getInstance().get(Calendar.MONTH);
-
-                while (keepFetching && currentPage <= 10) {
-                    Response<List<EventDto>> response = userRepository.getUserEvents(username, currentPage, 100).execute();
-
-                    if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
-                        for (EventDto event : response.body()) {
-                            if (event.getCreatedAt() == null) continue;
-
-                            Instant instant = Instant.parse(event.getCreatedAt());
-                            Calendar eventCal = Calendar.getInstance();
-                            eventCal.setTime(Date.from(instant));
-
-                            if (eventCal.get(Calendar.MONTH) == currentMonth) {
-                                allEventsInMonth.add(event);
-                            } else {
-                                keepFetching = false;
-                                break;
-                            }
-                        }
-                        currentPage++;
-                    } else {
-                        keepFetching = false;
-                    }
-                }
+    private void publishProfile(ProfileLoadTracker.Load current, boolean loading, @Nullable String error,
+                                @Nullable GitHubUserProfileDataEntry profile, int contributionYear) {
+        loads.update(current, s -> s.withProfile(loading, error, profile));
+        if (profile != null) {
+            startContributions(current, profile.getUsername(), contributionYear);
+        }
+    }
 
-                List<ContributionDataEntry> processedContributions = processEvents(allEventsInMonth);
-                contributions.postValue(processedContributions);
-            } catch (IOException e) {
-                contributions.postValue(processEvents(new ArrayList<>()));
+    private void startContributions(ProfileLoadTracker.Load current, String login, int year) {
+        if (!current.claimContributions()) {
+            return;
+        }
+        contributionLoads.execute(() -> {
+            try {
+                ContributionYear loaded = loadYear(login, year);
+                loads.update(current, s -> s.withContributions(loaded));
+            } finally {
+                current.finish(ProfileLoadTracker.CONTRIBUTIONS);
             }
+            prefetchYear(login, year - 1);
         });
     }
-    @SuppressLint("NewApi")
-    private List<ContributionDataEntry> processEvents(List<EventDto> events) {
-        if (events == null) {
-            events = new ArrayList<>();
-        }
-        Calendar calendar = Calendar.getInstance();
-        int currentMonth = calendar.get(Calendar.MONTH);
-        int currentYear = calendar.get(Calendar.YEAR);
-        int daysInMonth = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
-
-        Map<Integer, ContributionDataEntry> contributionsByDay = new HashMap<>();
-        List<ContributionDataEntry> contributionsForMonth = new ArrayList<>(daysInMonth);
-
-        for (int day = 1; day <= daysInMonth; day++) {
-            Calendar dayCal = Calendar.getInstance();
-            dayCal.set(Calendar.YEAR, currentYear);
-            dayCal.set(Calendar.MONTH, currentMonth);
-            dayCal.set(Calendar.DAY_OF_MONTH, day);
-            dayCal.set(Calendar.HOUR_OF_DAY, 0);
-            dayCal.set(Calendar.MINUTE, 0);
-            dayCal.set(Calendar.SECOND, 0);
-            dayCal.set(Calendar.MILLISECOND, 0);
-
-            ContributionDataEntry emptyEntry = new ContributionDataEntry(dayCal, 0);
-            contributionsByDay.put(day, emptyEntry);
-            contributionsForMonth.add(emptyEntry);
-        }
-        for (EventDto event : events) {
-            if (event.getCreatedAt() == null) {
-                continue;
+
+    @WorkerThread
+    private void loadRepositories(ProfileLoadTracker.Load current, @Nullable String username) {
+        try {
+            CachedEntry<List<RepoDto>> cached = (username == null)
+                    ? repoRepository.getCachedAuthenticatedRepositories(1, RECENT_REPOS, RECENT_REPOS_SORT)
+                    : repoRepository.getCachedUserRepositories(username, 1, RECENT_REPOS, RECENT_REPOS_SORT);
+            if (cached != null) {
+                List<ReposDataEntry> repos = repoMapper.mapList(cached.getValue());
+                loads.update(current, s -> s.withRepositories(repos));
+                if (!cached.isStale()) {
+                    return;
+                }
+            }
+            try {
+                Response<List<RepoDto>> response = (username == null)
+                        ? repoRepository.getAuthenticatedRepositories(1, RECENT_REPOS, RECENT_REPOS_SORT).execute()
+                        : repoRepository.getUserRepositories(username, 1, RECENT_REPOS, RECENT_REPOS_SORT).execute();
+                if (response.isSuccessful() && response.body() != null) {
+                    List<ReposDataEntry> repos = repoMapper.mapList(response.body());
+                    loads.update(current, s -> s.withRepositories(repos));
+                }
+            } catch (IOException ignored) {
+                // The section stays hidden, or keeps the offline copy.
             }
-            Instant instant = Instant.parse(event.getCreatedAt());
-            Date date = Date.from(instant);
+        } finally {
+            current.finish(ProfileLoadTracker.REPOSITORIES);
+        }
+    }
 
-            Calendar eventCal = Calendar.getInstance();
-            eventCal.setTime(date);
+    /**
+     * @return How long the profile last requested took to show its first content, in milliseconds,
+     * or -1 until it has.
+     */
+    public long getTimeToFirstContentMillis() {
+        return loads.getTimeToFirstContentMillis();
+    }
 
-            if (eventCal.get(Calendar.MONTH) != currentMonth || eventCal.get(Calendar.YEAR) != currentYear) {
-                continue;
-            }
+    /**
+     * @return How long the profile last requested took to load the user, the contributions and the
+     * repositories, in milliseconds, or -1 until it has.
+     */
+    public long getTimeToCompleteMillis() {
+        return loads.getTimeToCompleteMillis();
+    }
 
-            int dayOfMonth = eventCal.get(Calendar.DAY_OF_MONTH);
-            ContributionDataEntry entry = contributionsByDay.get(dayOfMonth);
-            if (entry != null) {
-                entry.incrementCount();
-            }
+    private void remember(@Nullable String username, GitHubUserProfileDataEntry profile) {
+        if (username == null) {
+            profileCache.putAuthenticated(profile);
+        } else {
+            profileCache.put(profile);
+        }
+    }
+
+    /**
+     * Sets the time zone used to bucket events into days. Defaults to the device zone.
+     * @param zone The time zone.
+     */
+    public void setContributionZone(@NonNull ZoneId zone) {
+        contributionZone = Objects.requireNonNull(zone, "zone == null");
+    }
+
+    /**
+     * Loads one year of contributions. A year already in memory is shown at once, then refreshed
+     * if it is stale; the year before is prefetched so switching back is instant too.
+     * @param username The user.
+     * @param year The calendar year.
+     */
+    @MainThread
+    public void loadContributions(String username, int year) {
+        ProfileLoadTracker.Load current = loads.current();
+        if (current == null) {
+            return;
+        }
+        ContributionYear inMemory = contributionRepository.peekYear(username, year);
+        if (inMemory != null) {
+            loads.update(current, s -> s.withContributions(inMemory));
+        }
+        contributionLoads.execute(() -> {
+            ContributionYear loaded = loadYear(username, year);
+            // Published even when unchanged, since another year may have been merged in meanwhile.
+            loads.update(current, s -> s.withContributions(loaded));
+            prefetchYear(username, year - 1);
+        });
+    }
+
+    @WorkerThread
+    @NonNull
+    private ContributionYear loadYear(String username, int year) {
+        try {
+            return contributionRepository.loadYear(username, year, contributionZone);
+        } catch (IOException e) {
+            return ContributionYear.empty(year);
         }
-        return contributionsForMonth;
+    }
+
+    @WorkerThread
+    private void prefetchYear(String username, int year) {
+        try {
+            contributionRepository.loadYear(username, year, contributionZone);
+        } catch (IOException ignored) {
+            // Only a prefetch; the year is loaded again when it is selected.
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        scope.cancel();
+        super.onCleared();
     }
 
     public static class UserUiState {
         private final boolean isLoading;
         private final String errorMessage;
         private final GitHubUserProfileDataEntry profile;
+        private final ContributionYear contributions;
+        private final List<ReposDataEntry> repositories;
 
         public UserUiState(boolean isLoading, @Nullable String errorMessage, @Nullable GitHubUserProfileDataEntry profile) {
+            this(isLoading, errorMessage, profile, null, null);
+        }
+
+        public UserUiState(boolean isLoading, @Nullable String errorMessage, @Nullable GitHubUserProfileDataEntry profile,
+                           @Nullable ContributionYear contributions, @Nullable List<ReposDataEntry> repositories) {
             this.isLoading = isLoading;
             this.errorMessage = errorMessage;
             this.profile = profile;
+            this.contributions = contributions;
+            this.repositories = repositories == null ? null : Collections.unmodifiableList(repositories);
+        }
+
+        @NonNull
+        UserUiState withProfile(boolean loading, @Nullable String error, @Nullable GitHubUserProfileDataEntry newProfile) {
+            return new UserUiState(loading, error, newProfile, contributions, repositories);
+        }
+
+        @NonNull
+        UserUiState withContributions(@NonNull ContributionYear newContributions) {
+            return new UserUiState(isLoading, errorMessage, profile, newContributions, repositories);
+        }
+
+        @NonNull
+        UserUiState withRepositories(@NonNull List<ReposDataEntry> newRepositories) {
+            return new UserUiState(isLoading, errorMessage, profile, contributions, newRepositories);
+        }
+
+        boolean hasContent() {
+            return profile != null || contributions != null || repositories != null;
         }
 
         public boolean isLoading() {
@@ -187,6 +345,22 @@ public class UserViewModel extends ViewModel {
             return profile;
         }
 
+        /**
+         * @return The contributions of the year last loaded, or null until the first year arrives.
+         */
+        @Nullable
+        public ContributionYear getContributions() {
+            return contributions;
+        }
+
+        /**
+         * @return The most recently updated repositories, or null until they arrive.
+         */
+        @Nullable
+        public List<ReposDataEntry> getRepositories() {
+            return repositories;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -194,12 +368,14 @@ public class UserViewModel extends ViewModel {
             UserUiState that = (UserUiState) o;
             return isLoading == that.isLoading &&
                     Objects.equals(errorMessage, that.errorMessage) &&
-                    Objects.equals(profile, that.profile);
+                    Objects.equals(profile, that.profile) &&
+                    Objects.equals(contributions, that.contributions) &&
+                    Objects.equals(repositories, that.repositories);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(isLoading, errorMessage, profile);
+            return Objects.hash(isLoading, errorMessage, profile, contributions, repositories);
         }
 
         @NonNull
@@ -209,7 +385,9 @@ public class UserViewModel extends ViewModel {
                     "isLoading=" + isLoading +
                     ", errorMessage='" + errorMessage + '\'' +
                     ", profile=" + profile +
+                    ", contributions=" + contributions +
+                    ", repositories=" + repositories +
                     '}';
         }
     }
-}
\ No newline at end of file
+}
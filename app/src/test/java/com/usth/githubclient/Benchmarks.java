@@ -0,0 +1,46 @@
+package com.usth.githubclient;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Gate for the benchmarks kept next to the unit tests. They only run with
+ * {@code ./gradlew testDebugUnitTest -Pbenchmarks}, and report their numbers instead of asserting on
+ * them, so a slow or busy machine never fails the build.
+ */
+public final class Benchmarks {
+
+    private static final String PROPERTY = "benchmarks";
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Skips the calling test unless benchmarks were requested.
+     */
+    public static void assumeEnabled() {
+        Assume.assumeTrue("Run with -Pbenchmarks", Boolean.getBoolean(PROPERTY));
+    }
+
+    /**
+     * @return The bytes allocated so far by the calling thread, or -1 if the JVM does not track them.
+     */
+    public static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1L;
+    }
+
+    /**
+     * Prints one result line of a benchmark.
+     * @param name The benchmark.
+     * @param result What was measured, with its units.
+     */
+    public static void report(String name, String result) {
+        System.out.println("[benchmark] " + name + ": " + result);
+    }
+}
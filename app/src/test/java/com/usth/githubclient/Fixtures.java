@@ -0,0 +1,28 @@
+package com.usth.githubclient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the recorded API responses under {@code src/test/resources/fixtures}.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param name The file name, such as {@code search_repositories.json}.
+     * @return The content of the fixture.
+     * @throws IOException If the fixture is missing.
+     */
+    public static String read(String name) throws IOException {
+        try (InputStream in = Fixtures.class.getClassLoader().getResourceAsStream("fixtures/" + name)) {
+            if (in == null) {
+                throw new IOException("Missing fixture " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.usth.githubclient.adapters;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.usth.githubclient.Fixtures;
+import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.data.remote.dto.RepoDto;
+import com.usth.githubclient.data.remote.dto.UserDto;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SearchReposListAdapterTest {
+
+    private final Gson gson = ApiClient.getGson();
+
+    @Test
+    public void unchangedRefreshDispatchesNothing() throws IOException {
+        List<RepoDto> before = page(Fixtures.read("search_repositories.json"));
+        List<RepoDto> after = page(Fixtures.read("search_repositories.json"));
+
+        assertTrue(Diffs.updates(SearchReposListAdapter.DIFF_CALLBACK, before, after).isEmpty());
+    }
+
+    @Test
+    public void changedStarCountRebindsOneRow() throws IOException {
+        JsonObject response = new JsonParser().parse(Fixtures.read("search_repositories.json")).getAsJsonObject();
+        List<RepoDto> before = page(response.toString());
+        response.getAsJsonArray("items").get(1).getAsJsonObject().addProperty("stargazers_count", 45_094);
+        List<RepoDto> after = page(response.toString());
+
+        assertEquals(List.of("change 1+1"), Diffs.updates(SearchReposListAdapter.DIFF_CALLBACK, before, after));
+    }
+
+    @Test
+    public void reorderedRowsMoveWithoutRebinding() throws IOException {
+        List<RepoDto> before = page(Fixtures.read("search_repositories.json"));
+        List<RepoDto> after = page(Fixtures.read("search_repositories.json"));
+        Collections.reverse(after);
+
+        List<String> updates = Diffs.updates(SearchReposListAdapter.DIFF_CALLBACK, before, after);
+        assertFalse(updates.isEmpty());
+        for (String update : updates) {
+            assertTrue(update, update.startsWith("move "));
+        }
+    }
+
+    @Test
+    public void everyFieldTakesPartInTheContentComparison() throws Exception {
+        String json = new JsonParser().parse(Fixtures.read("search_repositories.json")).getAsJsonObject()
+                .getAsJsonArray("items").get(0).toString();
+        RepoDto original = gson.fromJson(json, RepoDto.class);
+
+        for (Field field : RepoDto.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            RepoDto changed = gson.fromJson(json, RepoDto.class);
+            field.setAccessible(true);
+            field.set(changed, otherValue(field, field.get(changed)));
+            assertFalse(field.getName(), SearchReposListAdapter.DIFF_CALLBACK.areContentsTheSame(original, changed));
+        }
+    }
+
+    private List<RepoDto> page(String json) {
+        JsonObject response = new JsonParser().parse(json).getAsJsonObject();
+        return new ArrayList<>(gson.fromJson(response.getAsJsonArray("items"),
+                new TypeToken<List<RepoDto>>() {}.getType()));
+    }
+
+    private Object otherValue(Field field, Object value) {
+        Class<?> type = field.getType();
+        if (type == long.class) {
+            return (Long) value + 1;
+        } else if (type == int.class) {
+            return (Integer) value + 1;
+        } else if (type == boolean.class) {
+            return !(Boolean) value;
+        } else if (type == String.class) {
+            return value + " (changed)";
+        } else if (type == UserDto.class) {
+            return gson.fromJson("{\"id\":1,\"login\":\"someone-else\"}", UserDto.class);
+        }
+        throw new AssertionError("No other value for " + field.getName() + " of type " + type);
+    }
+}
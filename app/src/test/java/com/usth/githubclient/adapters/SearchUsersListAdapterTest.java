@@ -0,0 +1,123 @@
+package com.usth.githubclient.adapters;
+
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.usth.githubclient.domain.model.GitHubUserProfileDataEntry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static android.os.Looper.getMainLooper;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class SearchUsersListAdapterTest {
+
+    private final List<String> changes = new ArrayList<>();
+    private SearchUsersListAdapter adapter;
+
+    @Before
+    public void setUp() {
+        // Diffs run inline; the differ still commits them on the main looper.
+        adapter = new SearchUsersListAdapter(Runnable::run);
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                changes.add("change " + positionStart + "+" + itemCount);
+            }
+        });
+    }
+
+    @Test
+    public void unchangedRefreshDispatchesNothing() {
+        assertTrue(Diffs.updates(SearchUsersListAdapter.DIFF_CALLBACK, rows(5), rows(5)).isEmpty());
+    }
+
+    @Test
+    public void changedAvatarRebindsOneRow() {
+        List<SearchUsersListAdapter.UserRow> after = rows(5);
+        after.set(3, new SearchUsersListAdapter.UserRow(4, "user4", "https://avatars.githubusercontent.com/u/4?v=5"));
+
+        assertEquals(List.of("change 3+1"), Diffs.updates(SearchUsersListAdapter.DIFF_CALLBACK, rows(5), after));
+    }
+
+    @Test
+    public void anotherPageOnlyInsertsTheNewRows() {
+        assertEquals(List.of("insert 5+3"), Diffs.updates(SearchUsersListAdapter.DIFF_CALLBACK, rows(5), rows(8)));
+    }
+
+    @Test
+    public void batchRedrawsOneRangePerRunOfAdjacentRows() {
+        adapter.submit(rows(8));
+        shadowOf(getMainLooper()).idle();
+
+        // Logins differ in case from the rows, and user9 is not shown at all.
+        adapter.updateDetails(List.of(details(6, "USER6"), details(2, "user2"), details(9, "user9"),
+                details(3, "User3"), details(8, "user8")));
+        assertEquals(List.of("change 1+2", "change 5+1", "change 7+1"), changes);
+
+        changes.clear();
+        adapter.updateDetails(List.of(details(2, "user2"), details(3, "user3"), details(6, "user6"),
+                details(8, "user8")));
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void detailsArrivingBeforeTheListIsCommittedAreBound() {
+        adapter.submit(rows(3));
+        shadowOf(getMainLooper()).idle();
+
+        adapter.submit(rows(5));
+        // The diff is done, but the list it belongs to is still waiting on the main looper.
+        adapter.updateDetails(List.of(details(5, "user5")));
+        assertEquals(3, adapter.getItemCount());
+        assertTrue(changes.isEmpty());
+
+        shadowOf(getMainLooper()).idle();
+        assertEquals(5, adapter.getItemCount());
+        SearchUsersListAdapter.VH holder =
+                adapter.onCreateViewHolder(new FrameLayout(ApplicationProvider.getApplicationContext()), 0);
+        adapter.onBindViewHolder(holder, 4);
+
+        assertEquals("User 5", holder.displayName.getText().toString());
+        assertEquals("@user5", holder.username.getText().toString());
+        assertEquals(View.VISIBLE, holder.bio.getVisibility());
+        assertEquals("Bio of user5", holder.bio.getText().toString());
+        assertEquals(View.VISIBLE, holder.stats.getVisibility());
+        assertEquals("15 repositories · 50 followers", holder.stats.getText().toString());
+
+        // A row without details still shows its login alone.
+        adapter.onBindViewHolder(holder, 0);
+        assertEquals("user1", holder.displayName.getText().toString());
+        assertEquals(View.GONE, holder.bio.getVisibility());
+        assertEquals(View.GONE, holder.stats.getVisibility());
+    }
+
+    private static List<SearchUsersListAdapter.UserRow> rows(int count) {
+        List<SearchUsersListAdapter.UserRow> rows = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            rows.add(new SearchUsersListAdapter.UserRow(i, "user" + i, "https://avatars.githubusercontent.com/u/" + i));
+        }
+        return rows;
+    }
+
+    private static GitHubUserProfileDataEntry details(long id, String login) {
+        return GitHubUserProfileDataEntry.builder(id, login)
+                .displayName("User " + id)
+                .bio("Bio of " + login)
+                .publicReposCount((int) id * 3)
+                .followersCount((int) id * 10)
+                .build();
+    }
+}
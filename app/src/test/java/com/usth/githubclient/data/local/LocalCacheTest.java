@@ -0,0 +1,130 @@
+package com.usth.githubclient.data.local;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class LocalCacheTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(20_000));
+    private final AtomicInteger writes = new AtomicInteger();
+    // Runs the writes inline, so every put has landed by the time the test reads.
+    private final Executor inline = command -> {
+        writes.incrementAndGet();
+        command.run();
+    };
+    private GithubDatabase database;
+
+    @Before
+    public void setUp() {
+        database = new GithubDatabase(ApplicationProvider.getApplicationContext(), inline);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void entryTurnsStaleAfterTtlButIsStillServed() {
+        LocalCache cache = newCache(LocalCache.DEFAULT_MAX_SIZE_BYTES);
+        cache.put(LocalCache.Kind.EVENTS, "octocat", "payload");
+
+        CachedEntry<String> fresh = cache.get(LocalCache.Kind.EVENTS, "octocat", String.class);
+        assertNotNull(fresh);
+        assertFalse(fresh.isStale());
+
+        now.addAndGet(TimeUnit.MINUTES.toMillis(10) + 1);
+        CachedEntry<String> stale = cache.get(LocalCache.Kind.EVENTS, "octocat", String.class);
+        assertNotNull(stale);
+        assertTrue(stale.isStale());
+        assertEquals("payload", stale.getValue());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenOverSize() {
+        String value = repeat('a', 98);
+        // Each entry is 100 bytes of JSON, so only two fit.
+        LocalCache cache = newCache(250);
+        cache.put(LocalCache.Kind.USER, "first", value);
+        now.addAndGet(LocalCache.ACCESS_RESOLUTION_MILLIS);
+        cache.put(LocalCache.Kind.USER, "second", value);
+        now.addAndGet(LocalCache.ACCESS_RESOLUTION_MILLIS);
+        assertNotNull(cache.get(LocalCache.Kind.USER, "first", String.class));
+
+        now.addAndGet(LocalCache.ACCESS_RESOLUTION_MILLIS);
+        cache.put(LocalCache.Kind.USER, "third", value);
+
+        assertNotNull(cache.get(LocalCache.Kind.USER, "first", String.class));
+        assertNull(cache.get(LocalCache.Kind.USER, "second", String.class));
+        assertNotNull(cache.get(LocalCache.Kind.USER, "third", String.class));
+    }
+
+    @Test
+    public void sizeCountsUtf8BytesRatherThanChars() {
+        String value = repeat('é', 10);
+        // 12 chars of JSON but 22 bytes, so the second entry pushes the first out.
+        LocalCache cache = newCache(30);
+        cache.put(LocalCache.Kind.USER, "first", value);
+        now.addAndGet(1);
+        cache.put(LocalCache.Kind.USER, "second", value);
+
+        assertNull(cache.get(LocalCache.Kind.USER, "first", String.class));
+        assertEquals(value, cache.get(LocalCache.Kind.USER, "second", String.class).getValue());
+    }
+
+    @Test
+    public void readsTouchTheEntryAtMostOncePerResolution() {
+        LocalCache cache = newCache(LocalCache.DEFAULT_MAX_SIZE_BYTES);
+        cache.put(LocalCache.Kind.REPOS, "octocat", "payload");
+        int afterPut = writes.get();
+
+        for (int i = 0; i < 10; i++) {
+            cache.get(LocalCache.Kind.REPOS, "octocat", String.class);
+        }
+        assertEquals(afterPut, writes.get());
+
+        now.addAndGet(LocalCache.ACCESS_RESOLUTION_MILLIS);
+        cache.get(LocalCache.Kind.REPOS, "octocat", String.class);
+        cache.get(LocalCache.Kind.REPOS, "octocat", String.class);
+        assertEquals(afterPut + 1, writes.get());
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        LocalCache cache = newCache(LocalCache.DEFAULT_MAX_SIZE_BYTES);
+        cache.put(LocalCache.Kind.USER, "octocat", "payload");
+        cache.clear();
+        assertNull(cache.get(LocalCache.Kind.USER, "octocat", String.class));
+    }
+
+    private LocalCache newCache(long maxSizeBytes) {
+        return new LocalCache(database, new Gson(), maxSizeBytes, now::get);
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
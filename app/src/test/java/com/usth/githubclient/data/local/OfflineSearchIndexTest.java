@@ -0,0 +1,167 @@
+package com.usth.githubclient.data.local;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.google.gson.Gson;
+import com.usth.githubclient.Benchmarks;
+import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.data.remote.dto.RepoDto;
+import com.usth.githubclient.data.remote.dto.UserDto;
+import com.usth.githubclient.domain.mapper.RepoMapper;
+import com.usth.githubclient.domain.mapper.UserMapper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class OfflineSearchIndexTest {
+
+    private static final String[] LANGUAGES = {"Java", "Kotlin", "Go", "Rust", "C"};
+
+    private final Gson gson = ApiClient.getGson();
+    // The database's write lane, drained by the test.
+    private final Queue<Runnable> queued = new ArrayDeque<>();
+    private final Executor writes = queued::add;
+    private GithubDatabase database;
+    private OfflineSearchIndex index;
+
+    @Before
+    public void setUp() {
+        database = new GithubDatabase(ApplicationProvider.getApplicationContext(), writes);
+        UserMapper userMapper = new UserMapper();
+        index = new OfflineSearchIndex(database, gson, userMapper, new RepoMapper(userMapper),
+                OfflineSearchIndex.DEFAULT_MAX_DOCUMENTS);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void titleMatchesRankAboveDescriptionMatches() {
+        List<RepoDto> repos = new ArrayList<>();
+        repos.add(repo(1, "square", "okhttp", "An HTTP client for retrofit users", "Kotlin", 40_000));
+        repos.add(repo(2, "square", "retrofit", "A type-safe HTTP client", "Java", 40_000));
+        index.addRepos(repos);
+        drain();
+
+        List<RepoDto> found = index.searchRepos("retro", 10);
+        assertEquals(2, found.size());
+        assertEquals("square/retrofit", found.get(0).getFullName());
+        assertEquals("square/okhttp", found.get(1).getFullName());
+    }
+
+    @Test
+    public void theBestMatchIsFoundAmongManyWeakerOnes() {
+        List<RepoDto> repos = new ArrayList<>();
+        for (int i = 1; i <= 800; i++) {
+            repos.add(repo(i, "owner" + i, "project" + i, "A client for retrofit", "Java", 100_000));
+        }
+        // Indexed last and unpopular, but the only one named after the query.
+        repos.add(repo(801, "square", "retrofit", "A type-safe HTTP client", "Java", 0));
+        index.addRepos(repos);
+        drain();
+
+        List<RepoDto> found = index.searchRepos("retrofit", 30);
+        assertEquals(30, found.size());
+        assertEquals("square/retrofit", found.get(0).getFullName());
+        assertEquals(801, index.searchRepos("retrofit", 1_000).size());
+    }
+
+    @Test
+    public void writesQueuedBeforeSignOutDoNotOutliveTheClear() {
+        LocalCache cache = new LocalCache(database, gson, LocalCache.DEFAULT_MAX_SIZE_BYTES);
+        List<RepoDto> repos = new ArrayList<>();
+        repos.add(repo(1, "octocat", "hello-world", "My first repository", "Java", 10));
+        index.addRepos(repos);
+        List<UserDto> users = new ArrayList<>();
+        users.add(user(1, "octocat"));
+        index.addUsers(users);
+        cache.clear();
+        drain();
+
+        assertTrue(index.searchRepos("hello", 10).isEmpty());
+        assertTrue(index.searchUsers("octocat", 10).isEmpty());
+
+        // What is indexed after the clear belongs to the next session and stays.
+        index.addUsers(users);
+        drain();
+        assertEquals(1, index.searchUsers("octocat", 10).size());
+    }
+
+    @Test
+    public void benchmarkIndexingThroughputAndSearchLatency() {
+        Benchmarks.assumeEnabled();
+        int pages = 100;
+        int perPage = 30;
+        List<List<RepoDto>> batches = new ArrayList<>(pages);
+        for (int page = 0; page < pages; page++) {
+            List<RepoDto> batch = new ArrayList<>(perPage);
+            for (int i = 0; i < perPage; i++) {
+                int id = page * perPage + i;
+                batch.add(repo(id, "owner" + id % 97, "project" + id,
+                        "A library for topic" + id % 50 + " and topic" + id % 7, LANGUAGES[id % LANGUAGES.length],
+                        id % 1_000));
+            }
+            batches.add(batch);
+        }
+
+        long start = System.nanoTime();
+        for (List<RepoDto> batch : batches) {
+            index.addRepos(batch);
+        }
+        drain();
+        long writeNanos = System.nanoTime() - start;
+        double documentsPerSecond = pages * perPage / (writeNanos / (double) TimeUnit.SECONDS.toNanos(1));
+
+        String[] queries = {"project12", "topic3", "kotlin library", "owner5", "topic4 topic6", "nothing"};
+        int searches = 600;
+        long[] latencies = new long[searches];
+        for (int i = 0; i < searches; i++) {
+            long queryStart = System.nanoTime();
+            index.searchRepos(queries[i % queries.length], 30);
+            latencies[i] = System.nanoTime() - queryStart;
+        }
+        Arrays.sort(latencies);
+        long median = latencies[searches / 2];
+        long p95 = latencies[searches * 95 / 100];
+
+        assertEquals(30, index.searchRepos("topic3", 30).size());
+        Benchmarks.report("OfflineSearchIndex over " + pages * perPage + " documents", (long) documentsPerSecond
+                + " documents/s written in pages of " + perPage + ", search median "
+                + TimeUnit.NANOSECONDS.toMicros(median) + " us, p95 " + TimeUnit.NANOSECONDS.toMicros(p95) + " us");
+    }
+
+    private void drain() {
+        for (Runnable command = queued.poll(); command != null; command = queued.poll()) {
+            command.run();
+        }
+    }
+
+    private RepoDto repo(long id, String owner, String name, String description, String language, int stars) {
+        return gson.fromJson("{\"id\":" + id + ",\"name\":\"" + name + "\",\"full_name\":\"" + owner + "/" + name
+                + "\",\"description\":\"" + description + "\",\"language\":\"" + language
+                + "\",\"stargazers_count\":" + stars + ",\"html_url\":\"https://github.com/" + owner + "/" + name
+                + "\",\"owner\":{\"id\":" + id + ",\"login\":\"" + owner + "\"}}", RepoDto.class);
+    }
+
+    private UserDto user(long id, String login) {
+        return gson.fromJson("{\"id\":" + id + ",\"login\":\"" + login + "\",\"html_url\":\"https://github.com/"
+                + login + "\",\"avatar_url\":\"https://avatars.githubusercontent.com/u/" + id + "\"}", UserDto.class);
+    }
+}
@@ -0,0 +1,98 @@
+package com.usth.githubclient.data.local;
+
+import com.usth.githubclient.domain.model.GitHubUserProfileDataEntry;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ProfileMemoryCacheTest {
+
+    private static final long TTL_MILLIS = 1_000L;
+
+    private final AtomicLong now = new AtomicLong(50_000L);
+
+    @Test
+    public void lookupIsCaseInsensitive() {
+        ProfileMemoryCache cache = newCache(4);
+        GitHubUserProfileDataEntry octocat = profile(1, "Octocat");
+        cache.put(octocat);
+
+        assertSame(octocat, cache.get("octocat"));
+        assertSame(octocat, cache.get("OCTOCAT"));
+    }
+
+    @Test
+    public void entryExpiresAfterTtl() {
+        ProfileMemoryCache cache = newCache(4);
+        cache.put(profile(1, "octocat"));
+
+        now.addAndGet(TTL_MILLIS);
+        assertNotNull(cache.get("octocat"));
+
+        now.addAndGet(1);
+        assertNull(cache.get("octocat"));
+        assertEquals(1, cache.getEvictionCount());
+        // The expired entry is gone rather than expired again.
+        assertNull(cache.get("octocat"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenFull() {
+        ProfileMemoryCache cache = newCache(2);
+        cache.put(profile(1, "first"));
+        cache.put(profile(2, "second"));
+        cache.get("first");
+
+        cache.put(profile(3, "third"));
+
+        assertNotNull(cache.get("first"));
+        assertNull(cache.get("second"));
+        assertNotNull(cache.get("third"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void authenticatedProfileIsReachableByLoginToo() {
+        ProfileMemoryCache cache = newCache(4);
+        assertNull(cache.getAuthenticated());
+
+        GitHubUserProfileDataEntry me = profile(1, "Me");
+        cache.putAuthenticated(me);
+        assertSame(me, cache.getAuthenticated());
+        assertSame(me, cache.get("me"));
+
+        cache.clear();
+        assertNull(cache.getAuthenticated());
+        assertNull(cache.get("me"));
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        ProfileMemoryCache cache = newCache(4);
+        cache.put(profile(1, "octocat"));
+
+        cache.get("octocat");
+        cache.get("octocat");
+        cache.get("octocat");
+        cache.get("ghost");
+
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.75d, cache.getHitRatio(), 1e-9);
+    }
+
+    private ProfileMemoryCache newCache(int maxEntries) {
+        return new ProfileMemoryCache(maxEntries, TTL_MILLIS, now::get);
+    }
+
+    private static GitHubUserProfileDataEntry profile(long id, String login) {
+        return GitHubUserProfileDataEntry.builder(id, login).build();
+    }
+}
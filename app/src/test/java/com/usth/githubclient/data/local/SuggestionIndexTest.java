@@ -0,0 +1,192 @@
+package com.usth.githubclient.data.local;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.usth.githubclient.Benchmarks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class SuggestionIndexTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(20_000));
+    // Holds the loads, merges and writes until the test runs them, so several adds share a merge.
+    private final Queue<Runnable> queued = new ArrayDeque<>();
+    private final Executor executor = queued::add;
+    private GithubDatabase database;
+    private SearchTermStore store;
+
+    @Before
+    public void setUp() {
+        database = new GithubDatabase(ApplicationProvider.getApplicationContext(), executor);
+        store = new SearchTermStore(database);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void suggestsExactMatchesThenPrefixesThenMostSeen() {
+        SuggestionIndex index = newIndex(SuggestionIndex.DEFAULT_MAX_TERMS);
+        index.addUser("torvalds", "Linus Torvalds");
+        index.addUser("tor", null);
+        index.addRepo("torvalds/linux");
+        index.addRepo("torvalds/linux");
+        drain();
+
+        assertEquals(List.of("tor", "torvalds", "torvalds/linux"), texts(index.suggest("Tor", null, 8)));
+        assertEquals(List.of("torvalds"), texts(index.suggest("torv", SuggestionIndex.Kind.USER, 8)));
+        // The repository was seen twice, the user name once.
+        assertEquals(List.of("torvalds/linux", "torvalds"), texts(index.suggest("lin", null, 8)));
+    }
+
+    @Test
+    public void pendingTermsAreSuggestedBeforeTheyAreMerged() {
+        SuggestionIndex index = newIndex(SuggestionIndex.DEFAULT_MAX_TERMS);
+        drain();
+        index.addUser("octocat", null);
+
+        assertEquals(0, index.size());
+        assertEquals(List.of("octocat"), texts(index.suggest("octo", null, 8)));
+        drain();
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void mergeKeepsAtMostMaxTermsInMemoryDroppingTheLeastRecentlySeen() {
+        SuggestionIndex index = newIndex(3);
+        index.addUser("alice", null);
+        index.addUser("bob", null);
+        drain();
+        now.addAndGet(1_000);
+        index.addUser("carol", null);
+        index.addUser("dave", null);
+        drain();
+
+        assertEquals(3, index.size());
+        assertEquals(List.of("carol"), texts(index.suggest("carol", null, 8)));
+        assertEquals(List.of("dave"), texts(index.suggest("dave", null, 8)));
+
+        // Seeing a term again makes it recent, so it outlives the ones seen before it.
+        now.addAndGet(1_000);
+        index.addUser("carol", null);
+        index.addUser("erin", null);
+        drain();
+        assertEquals(3, index.size());
+        assertEquals(List.of("carol"), texts(index.suggest("carol", null, 8)));
+        assertEquals(List.of("erin"), texts(index.suggest("erin", null, 8)));
+        assertEquals(List.of("dave"), texts(index.suggest("dave", null, 8)));
+        assertTrue(index.suggest("alice", null, 8).isEmpty());
+        assertTrue(index.suggest("bob", null, 8).isEmpty());
+    }
+
+    @Test
+    public void reloadsWhatWasStoredAndCountsHitsAcrossMerges() {
+        SuggestionIndex index = newIndex(SuggestionIndex.DEFAULT_MAX_TERMS);
+        index.addRepo("square/retrofit");
+        drain();
+        index.addRepo("square/okhttp");
+        drain();
+        index.addRepo("square/okhttp");
+        drain();
+
+        SuggestionIndex reloaded = newIndex(SuggestionIndex.DEFAULT_MAX_TERMS);
+        drain();
+        assertEquals(index.size(), reloaded.size());
+        // Same prefix, so the more often seen one ranks first.
+        assertEquals(List.of("square/okhttp", "square/retrofit"), texts(reloaded.suggest("square/", null, 8)));
+    }
+
+    @Test
+    public void clearForgetsTermsInMemoryAndOnDisk() {
+        SuggestionIndex index = newIndex(SuggestionIndex.DEFAULT_MAX_TERMS);
+        index.addUser("octocat", "The Octocat");
+        drain();
+        index.clear();
+        drain();
+
+        assertEquals(0, index.size());
+        assertTrue(index.suggest("octo", null, 8).isEmpty());
+        assertTrue(store.loadAll().isEmpty());
+    }
+
+    @Test
+    public void benchmarkMergeAndSuggestAt100kTerms() {
+        Benchmarks.assumeEnabled();
+        int maxTerms = SuggestionIndex.DEFAULT_MAX_TERMS;
+        SuggestionIndex index = newIndex(maxTerms);
+        drain();
+        for (int i = 0; i < maxTerms; i++) {
+            index.addRepo("owner" + i + "/repo" + i);
+        }
+        drain();
+        // Two terms per repository: a full index, trimmed to the cap in memory.
+        assertEquals(maxTerms, index.size());
+
+        int batches = 20;
+        int batchSize = 100;
+        long mergeNanos = 0;
+        for (int b = 0; b < batches; b++) {
+            now.addAndGet(1_000);
+            for (int i = 0; i < batchSize; i++) {
+                index.addUser("user" + b + "x" + i, "Name " + i);
+            }
+            long start = System.nanoTime();
+            drain();
+            mergeNanos += System.nanoTime() - start;
+            assertEquals(maxTerms, index.size());
+        }
+
+        String[] prefixes = {"o", "owner1", "owner4242", "repo9", "user1", "name 5", "zzz"};
+        int lookups = 20_000;
+        for (int i = 0; i < lookups; i++) {
+            index.suggest(prefixes[i % prefixes.length], null, SuggestionIndex.DEFAULT_LIMIT);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            index.suggest(prefixes[i % prefixes.length], null, SuggestionIndex.DEFAULT_LIMIT);
+        }
+        long suggestNanos = (System.nanoTime() - start) / lookups;
+
+        assertFalse(index.suggest("user19x99", null, 8).isEmpty());
+        Benchmarks.report("SuggestionIndex at " + maxTerms + " terms", "merge of " + batchSize
+                + " users (with disk write) " + TimeUnit.NANOSECONDS.toMicros(mergeNanos / batches)
+                + " us/batch, suggest " + suggestNanos + " ns/op");
+    }
+
+    private SuggestionIndex newIndex(int maxTerms) {
+        return new SuggestionIndex(store, maxTerms, now::get);
+    }
+
+    private void drain() {
+        for (Runnable command = queued.poll(); command != null; command = queued.poll()) {
+            command.run();
+        }
+    }
+
+    private static List<String> texts(List<SuggestionIndex.Suggestion> suggestions) {
+        List<String> texts = new ArrayList<>(suggestions.size());
+        for (SuggestionIndex.Suggestion suggestion : suggestions) {
+            texts.add(suggestion.getText());
+        }
+        return texts;
+    }
+}
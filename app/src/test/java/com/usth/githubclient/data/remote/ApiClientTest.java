@@ -0,0 +1,112 @@
+package com.usth.githubclient.data.remote;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.usth.githubclient.data.remote.dto.UserDto;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that every service handed out by {@link ApiClient} sends its calls over the shared
+ * connection pool, whatever token or priority it was created for.
+ */
+public class ApiClientTest {
+
+    // The rate limit budget is published through LiveData.
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutor = new InstantTaskExecutorRule();
+
+    private final MockWebServer server = new MockWebServer();
+    private final ApiClient apiClient = new ApiClient();
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        // Starts from a fresh shared client, so connections of other tests are not counted.
+        ApiClient.configure(ApiClient.DEFAULT_MAX_IDLE_CONNECTIONS, ApiClient.DEFAULT_KEEP_ALIVE_MINUTES,
+                ApiClient.DEFAULT_MAX_REQUESTS, ApiClient.DEFAULT_MAX_REQUESTS_PER_HOST);
+        ApiClient.setBaseUrl(server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        apiClient.clearAuthToken();
+        ApiClient.setBaseUrl(null);
+        server.shutdown();
+    }
+
+    @Test
+    public void servicesForDifferentTokensShareOneConnection() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(userResponse("octocat"));
+        }
+        apiClient.setAuthToken("session-token");
+
+        // As the user repository, the sign-in flow and the list enrichment get their services.
+        GithubApiService session = apiClient.createService(GithubApiService.class);
+        GithubApiService signIn = apiClient.createService("sign-in-token", GithubApiService.class);
+        GithubApiService lowPriority = apiClient.createLowPriorityService(GithubApiService.class);
+
+        assertSuccessful(session.getUser("octocat").execute());
+        assertSuccessful(signIn.authenticate().execute());
+        assertSuccessful(lowPriority.getUser("octocat").execute());
+        assertSuccessful(session.getUser("octocat").execute());
+
+        // The sequence number counts the requests sent earlier on the same connection.
+        for (int i = 0; i < 4; i++) {
+            RecordedRequest request = server.takeRequest();
+            assertEquals("request " + i + " opened a new connection", i, request.getSequenceNumber());
+        }
+        assertEquals(1, ApiClient.getBaseClient().connectionPool().connectionCount());
+    }
+
+    @Test
+    public void sessionClientSharesThePoolAndDispatcherOfTheBaseClient() {
+        OkHttpClient session = (OkHttpClient) ApiClient.getClient().callFactory();
+
+        assertSame(ApiClient.getBaseClient().connectionPool(), session.connectionPool());
+        assertSame(ApiClient.getBaseClient().dispatcher(), session.dispatcher());
+    }
+
+    @Test
+    public void servicesAreSentTheTokenTheyWereCreatedFor() throws Exception {
+        server.enqueue(userResponse("octocat"));
+        server.enqueue(userResponse("octocat"));
+        apiClient.setAuthToken("session-token");
+
+        apiClient.createService(GithubApiService.class).authenticate().execute();
+        apiClient.createService("sign-in-token", GithubApiService.class).authenticate().execute();
+
+        List<String> sent = List.of(
+                server.takeRequest().getHeader("Authorization"),
+                server.takeRequest().getHeader("Authorization"));
+        assertEquals(List.of("Bearer session-token", "Bearer sign-in-token"), sent);
+    }
+
+    private static MockResponse userResponse(String login) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"login\":\"" + login + "\",\"id\":1}");
+    }
+
+    private static void assertSuccessful(Response<UserDto> response) {
+        assertTrue("HTTP " + response.code(), response.isSuccessful());
+        assertEquals("octocat", response.body().getLogin());
+    }
+}
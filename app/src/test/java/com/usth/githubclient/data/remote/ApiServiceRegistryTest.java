@@ -0,0 +1,105 @@
+package com.usth.githubclient.data.remote;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ApiServiceRegistryTest {
+
+    private final ApiServiceRegistry registry = new ApiServiceRegistry();
+    private final AtomicInteger created = new AtomicInteger();
+    private final Supplier<Retrofit> retrofit = () -> {
+        created.incrementAndGet();
+        return newRetrofit();
+    };
+
+    @Test
+    public void createsOneServicePerIdentity() {
+        String first = ApiServiceRegistry.fingerprint("token-1");
+        String second = ApiServiceRegistry.fingerprint("token-2");
+
+        GithubApiService service = registry.get(first, GithubApiService.class, retrofit);
+
+        assertSame(service, registry.get(first, GithubApiService.class, retrofit));
+        assertNotSame(service, registry.get(second, GithubApiService.class, retrofit));
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    public void invalidateDropsCachedServices() {
+        String identity = ApiServiceRegistry.fingerprint("token");
+        GithubApiService before = registry.get(identity, GithubApiService.class, retrofit);
+
+        registry.invalidate();
+
+        assertNotSame(before, registry.get(identity, GithubApiService.class, retrofit));
+    }
+
+    @Test
+    public void serviceCreatedDuringInvalidationIsNotHandedOut() {
+        String identity = ApiServiceRegistry.fingerprint("old-token");
+        // The token changes while the first service is being built.
+        Supplier<Retrofit> racing = () -> {
+            if (created.incrementAndGet() == 1) {
+                registry.invalidate();
+            }
+            return newRetrofit();
+        };
+
+        GithubApiService service = registry.get(identity, GithubApiService.class, racing);
+
+        assertEquals(2, created.get());
+        assertSame(service, registry.get(identity, GithubApiService.class, retrofit));
+    }
+
+    @Test
+    public void fingerprintsHideTheTokenAndTellTokensApart() {
+        String fingerprint = ApiServiceRegistry.fingerprint("ghp_secret");
+
+        assertEquals(fingerprint, ApiServiceRegistry.fingerprint("ghp_secret"));
+        assertNotEquals(fingerprint, ApiServiceRegistry.fingerprint("ghp_secreT"));
+        assertFalse(fingerprint.contains("secret"));
+        assertEquals(ApiServiceRegistry.fingerprint(null), ApiServiceRegistry.fingerprint(""));
+    }
+
+    @Test
+    public void repeatedLookupsReuseTheProxyWithoutBuildingRetrofitAgain() {
+        String identity = ApiServiceRegistry.fingerprint("token");
+        GithubApiService first = registry.get(identity, GithubApiService.class, retrofit);
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(first, registry.get(identity, GithubApiService.class, retrofit));
+        }
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void eachGenerationBuildsItsServicesOnce() {
+        String identity = ApiServiceRegistry.fingerprint("token");
+        GithubApiService first = registry.get(identity, GithubApiService.class, retrofit);
+        registry.invalidate();
+        GithubApiService second = registry.get(identity, GithubApiService.class, retrofit);
+
+        assertNotSame(first, second);
+        assertSame(second, registry.get(identity, GithubApiService.class, retrofit));
+        assertEquals(2, created.get());
+    }
+
+    private static Retrofit newRetrofit() {
+        return new Retrofit.Builder()
+                .baseUrl("https://api.github.com/")
+                .validateEagerly(true)
+                .addConverterFactory(GsonConverterFactory.create(ApiClient.getGson()))
+                .build();
+    }
+}
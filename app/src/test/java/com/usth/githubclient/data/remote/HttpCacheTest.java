@@ -0,0 +1,114 @@
+package com.usth.githubclient.data.remote;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.usth.githubclient.data.remote.dto.UserDto;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Serves the same ETagged response twice and checks what {@link CacheStatsInterceptor} counts.
+ */
+public class HttpCacheTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutor = new InstantTaskExecutorRule();
+
+    @Rule
+    public TemporaryFolder cacheDirectory = new TemporaryFolder();
+
+    private final MockWebServer server = new MockWebServer();
+    private GithubApiService service;
+    private long hits;
+    private long misses;
+    private long revalidations;
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        ApiClient.installCache(cacheDirectory.getRoot(), 1024 * 1024);
+        ApiClient.setBaseUrl(server.url("/").toString());
+        service = new ApiClient().createService(GithubApiService.class);
+        CacheStatsInterceptor stats = ApiClient.getCacheStats();
+        hits = stats.getHitCount();
+        misses = stats.getMissCount();
+        revalidations = stats.getRevalidationCount();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        ApiClient.setBaseUrl(null);
+        ApiClient.installCache(null, 0);
+        server.shutdown();
+    }
+
+    @Test
+    public void freshResponseIsServedWithoutTheNetwork() throws Exception {
+        server.enqueue(user("octocat").setHeader("ETag", "\"v1\"").setHeader("Cache-Control", "max-age=60"));
+
+        assertLogin("octocat", service.getUser("octocat").execute());
+        assertLogin("octocat", service.getUser("octocat").execute());
+
+        assertEquals(1, server.getRequestCount());
+        assertCounts(1, 1, 0);
+    }
+
+    @Test
+    public void staleResponseIsRevalidatedWithItsETag() throws Exception {
+        server.enqueue(user("octocat").setHeader("ETag", "\"v2\"").setHeader("Cache-Control", "no-cache"));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v2\""));
+
+        assertLogin("octocat", service.getUser("octocat").execute());
+        // The 304 has no body; the cached one is returned instead.
+        assertLogin("octocat", service.getUser("octocat").execute());
+
+        RecordedRequest first = server.takeRequest();
+        RecordedRequest second = server.takeRequest();
+        assertNull(first.getHeader("If-None-Match"));
+        assertEquals("\"v2\"", second.getHeader("If-None-Match"));
+        assertCounts(0, 1, 1);
+    }
+
+    @Test
+    public void changedResponseIsCountedAsAMiss() throws Exception {
+        server.enqueue(user("octocat").setHeader("ETag", "\"v3\"").setHeader("Cache-Control", "no-cache"));
+        server.enqueue(user("hubot").setHeader("ETag", "\"v4\"").setHeader("Cache-Control", "no-cache"));
+
+        assertLogin("octocat", service.getUser("octocat").execute());
+        assertLogin("hubot", service.getUser("octocat").execute());
+
+        assertCounts(0, 2, 0);
+    }
+
+    private void assertCounts(long expectedHits, long expectedMisses, long expectedRevalidations) {
+        CacheStatsInterceptor stats = ApiClient.getCacheStats();
+        assertEquals("hits", expectedHits, stats.getHitCount() - hits);
+        assertEquals("misses", expectedMisses, stats.getMissCount() - misses);
+        assertEquals("revalidations", expectedRevalidations, stats.getRevalidationCount() - revalidations);
+    }
+
+    private static MockResponse user(String login) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"login\":\"" + login + "\",\"id\":1}");
+    }
+
+    private static void assertLogin(String expected, Response<UserDto> response) {
+        assertEquals(200, response.code());
+        assertEquals(expected, response.body().getLogin());
+    }
+}
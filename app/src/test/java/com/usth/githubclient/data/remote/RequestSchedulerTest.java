@@ -0,0 +1,162 @@
+package com.usth.githubclient.data.remote;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestSchedulerTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutor = new InstantTaskExecutorRule();
+
+    @Rule
+    public TemporaryFolder cacheDirectory = new TemporaryFolder();
+
+    private final MockWebServer server = new MockWebServer();
+    private final RequestScheduler scheduler = new RequestScheduler();
+    private final long resetAtSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 3600;
+    private Cache cache;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        cache = new Cache(cacheDirectory.getRoot(), 1024 * 1024);
+        // Installed as ApiClient does: behind the HTTP cache.
+        client = new OkHttpClient.Builder().cache(cache).addNetworkInterceptor(scheduler).build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void budgetFollowsTheRateLimitHeaders() throws IOException {
+        server.enqueue(rateLimited(60, 42));
+
+        call("/users/octocat", RequestScheduler.Priority.NORMAL).close();
+
+        RequestScheduler.Budget budget = scheduler.getBudget(RequestScheduler.Resource.CORE).getValue();
+        assertEquals(60, budget.limit);
+        assertEquals(42, budget.remaining);
+        assertEquals(TimeUnit.SECONDS.toMillis(resetAtSeconds), budget.resetAtMillis);
+    }
+
+    @Test
+    public void exhaustedBucketFailsFastInsteadOfWaitingForTheReset() throws IOException {
+        // A reset due within the minute used to park the calling thread until then.
+        long soonSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 30;
+        server.enqueue(rateLimited(30, 0).setHeader("X-RateLimit-Reset", soonSeconds));
+        call("/search/users", RequestScheduler.Priority.NORMAL).close();
+
+        long start = System.nanoTime();
+        try {
+            call("/search/users", RequestScheduler.Priority.NORMAL);
+            fail("Expected the empty search bucket to refuse the call");
+        } catch (RateLimitExceededException e) {
+            assertEquals(RequestScheduler.Resource.SEARCH, e.getResource());
+            assertEquals(TimeUnit.SECONDS.toMillis(soonSeconds), e.getResetAtMillis());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void lowPriorityCallsAreShedInsideTheReserve() throws IOException {
+        // 20% of 100 is reserved for normal calls.
+        server.enqueue(rateLimited(100, 20));
+        server.enqueue(rateLimited(100, 19));
+        call("/users/octocat", RequestScheduler.Priority.NORMAL).close();
+
+        try {
+            call("/users/hubot", RequestScheduler.Priority.LOW);
+            fail("Expected the low-priority call to be shed");
+        } catch (RateLimitExceededException expected) {
+            // The reserve is left for normal calls.
+        }
+        call("/users/hubot", RequestScheduler.Priority.NORMAL).close();
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void freshCachedResponseIsServedWhileTheBucketIsEmpty() throws IOException {
+        server.enqueue(rateLimited(60, 0).setHeader("Cache-Control", "max-age=60"));
+        call("/users/octocat", RequestScheduler.Priority.NORMAL).close();
+
+        try (Response cached = call("/users/octocat", RequestScheduler.Priority.LOW)) {
+            assertEquals(200, cached.code());
+            assertNull(cached.networkResponse());
+        }
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, scheduler.getBudget(RequestScheduler.Resource.CORE).getValue().remaining);
+
+        // A request the cache cannot answer still needs a token.
+        try {
+            call("/users/hubot", RequestScheduler.Priority.NORMAL);
+            fail("Expected the empty core bucket to refuse the call");
+        } catch (RateLimitExceededException expected) {
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void notModifiedRevalidationGivesItsTokenBack() throws IOException {
+        server.enqueue(rateLimited(60, 10).setHeader("ETag", "\"v1\"").setHeader("Cache-Control", "no-cache"));
+        server.enqueue(rateLimited(60, 10).setResponseCode(304).setBody("").setHeader("ETag", "\"v1\""));
+        call("/users/octocat", RequestScheduler.Priority.NORMAL).close();
+
+        try (Response revalidated = call("/users/octocat", RequestScheduler.Priority.NORMAL)) {
+            assertEquals(200, revalidated.code());
+            assertEquals(304, revalidated.networkResponse().code());
+        }
+        assertEquals(10, scheduler.getBudget(RequestScheduler.Resource.CORE).getValue().remaining);
+    }
+
+    @Test
+    public void otherBucketsAreNotAffected() throws IOException {
+        server.enqueue(rateLimited(30, 0));
+        server.enqueue(rateLimited(5000, 4999));
+        call("/search/users", RequestScheduler.Priority.NORMAL).close();
+
+        call("/users/octocat", RequestScheduler.Priority.NORMAL).close();
+
+        assertEquals(2, server.getRequestCount());
+    }
+
+    private MockResponse rateLimited(int limit, int remaining) {
+        return new MockResponse()
+                .setHeader("X-RateLimit-Limit", limit)
+                .setHeader("X-RateLimit-Remaining", remaining)
+                .setHeader("X-RateLimit-Reset", resetAtSeconds)
+                .setBody("{}");
+    }
+
+    private Response call(String path, RequestScheduler.Priority priority) throws IOException {
+        Request request = new Request.Builder()
+                .url(server.url(path))
+                .tag(RequestScheduler.Priority.class, priority)
+                .build();
+        return client.newCall(request).execute();
+    }
+}
@@ -0,0 +1,161 @@
+package com.usth.githubclient.data.remote.dto;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.usth.githubclient.Benchmarks;
+import com.usth.githubclient.Fixtures;
+import com.usth.githubclient.data.remote.ApiClient;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class DtoAdaptersTest {
+
+    private static final String USER = "{\"login\":\"octocat\",\"id\":583231,\"node_id\":\"MDQ6VXNlcjU4MzIzMQ==\","
+            + "\"avatar_url\":\"https://avatars.githubusercontent.com/u/583231?v=4\",\"type\":\"User\","
+            + "\"site_admin\":false,\"name\":\"The Octocat\",\"company\":\"@github\",\"blog\":\"https://github.blog\","
+            + "\"location\":\"San Francisco\",\"email\":null,\"hireable\":null,\"bio\":\"Mona's friend\","
+            + "\"public_repos\":8,\"public_gists\":8,\"followers\":17000,\"following\":9,"
+            + "\"html_url\":\"https://github.com/octocat\",\"created_at\":\"2011-01-25T18:44:36Z\","
+            + "\"updated_at\":\"2024-04-22T11:24:08Z\",\"plan\":{\"name\":\"free\",\"space\":976562499}}";
+    private static final String EVENT = "{\"id\":\"37504816221\",\"type\":\"PushEvent\",\"actor\":{\"id\":583231,"
+            + "\"login\":\"octocat\"},\"repo\":{\"id\":1296269,\"name\":\"octocat/Hello-World\"},"
+            + "\"payload\":{\"push_id\":17890318931,\"size\":2,\"commits\":[{\"sha\":\"6dcb09b\",\"message\":\"Fix\"},"
+            + "{\"sha\":\"7638417\",\"message\":\"Merge\"}]},\"public\":true,\"created_at\":\"2024-04-22T11:24:08Z\"}";
+    private static final String EMAIL = "{\"email\":\"octocat@github.com\",\"verified\":true,\"primary\":true,"
+            + "\"visibility\":\"public\"}";
+
+    // Plain reflection, as every DTO was decoded before the streaming adapters.
+    private final Gson reflective = new Gson();
+    private final Gson gson = ApiClient.getGson();
+
+    @Test
+    public void adaptersDecodeWhatReflectionDecodes() throws IOException {
+        assertSameAsReflection(USER, UserDto.class);
+        assertSameAsReflection(EVENT, EventDto.class);
+        assertSameAsReflection(EMAIL, UserEmailDto.class);
+        assertSameAsReflection(firstRepository(), RepoDto.class);
+        assertSameAsReflection("{\"total_count\":2,\"incomplete_results\":false,\"items\":[" + USER + ","
+                + USER.replace("octocat", "monalisa") + "]}", SearchUsersResponseDto.class);
+    }
+
+    @Test
+    public void writtenDtosReadBackUnchanged() throws IOException {
+        assertRoundTrip(USER, UserDto.class);
+        assertRoundTrip(EVENT, EventDto.class);
+        assertRoundTrip(EMAIL, UserEmailDto.class);
+        assertRoundTrip(firstRepository(), RepoDto.class);
+        assertRoundTrip("{\"total_count\":1,\"items\":[" + USER + "]}", SearchUsersResponseDto.class);
+        assertRoundTrip(Fixtures.read("search_repositories.json"), SearchRepoResponseDto.class);
+    }
+
+    @Test
+    public void nullsAndUnknownFieldsAreTolerated() {
+        UserDto user = gson.fromJson("{\"id\":null,\"login\":\"octocat\",\"followers\":null,\"name\":null,"
+                + "\"extra\":{\"nested\":[1,{\"deep\":true}]},\"tags\":[]}", UserDto.class);
+        assertEquals(0L, user.getId());
+        assertEquals("octocat", user.getLogin());
+        assertEquals(0, user.getFollowers());
+        assertNull(user.getName());
+
+        assertNull(gson.fromJson("null", RepoDto.class));
+        SearchRepoResponseDto empty = gson.fromJson("{\"total_count\":0,\"items\":null}", SearchRepoResponseDto.class);
+        assertEquals(0, empty.getTotalCount());
+        assertNull(empty.getItems());
+    }
+
+    @Test
+    public void searchRepositoriesDecodeEveryListField() throws IOException {
+        String json = Fixtures.read("search_repositories.json");
+        SearchRepoResponseDto streamed = gson.fromJson(json, SearchRepoResponseDto.class);
+        SearchRepoResponseDto reflected = reflective.fromJson(json, SearchRepoResponseDto.class);
+
+        assertEquals(reflected.getTotalCount(), streamed.getTotalCount());
+        assertEquals(reflected.getItems().size(), streamed.getItems().size());
+        assertFalse(streamed.getItems().isEmpty());
+        for (int i = 0; i < streamed.getItems().size(); i++) {
+            JsonObject expected = reflective.toJsonTree(reflected.getItems().get(i)).getAsJsonObject();
+            JsonObject actual = reflective.toJsonTree(streamed.getItems().get(i)).getAsJsonObject();
+            for (String field : new String[] {"id", "name", "full_name", "description", "language",
+                    "stargazers_count", "forks_count", "watchers_count", "open_issues_count", "html_url",
+                    "default_branch"}) {
+                assertEquals(field, expected.get(field), actual.get(field));
+            }
+        }
+    }
+
+    @Test
+    public void benchmarkSearchRepositoriesParse() throws IOException {
+        Benchmarks.assumeEnabled();
+        String json = searchPage(100);
+        int iterations = 2_000;
+
+        for (int round = 0; round < 3; round++) {
+            long reflectiveNanos = parse(reflective, json, iterations);
+            long reflectiveBytes = allocatedPerParse(reflective, json);
+            long streamingNanos = parse(gson, json, iterations);
+            long streamingBytes = allocatedPerParse(gson, json);
+            Benchmarks.report("SearchRepoResponseDto, 100 items, " + json.length() + " chars",
+                    "reflective " + reflectiveNanos / iterations / 1_000 + " us and " + reflectiveBytes
+                            + " B per parse, streaming " + streamingNanos / iterations / 1_000 + " us and "
+                            + streamingBytes + " B per parse (round " + (round + 1) + ")");
+        }
+    }
+
+    private void assertSameAsReflection(String json, Class<?> type) {
+        assertEquals(type.getSimpleName(), reflective.toJsonTree(reflective.fromJson(json, type)),
+                reflective.toJsonTree(gson.fromJson(json, type)));
+    }
+
+    private void assertRoundTrip(String json, Class<?> type) {
+        Object decoded = gson.fromJson(json, type);
+        Object again = gson.fromJson(gson.toJson(decoded), type);
+        assertEquals(type.getSimpleName(), reflective.toJsonTree(decoded), reflective.toJsonTree(again));
+    }
+
+    private static long parse(Gson parser, String json, int iterations) {
+        long start = System.nanoTime();
+        int items = 0;
+        for (int i = 0; i < iterations; i++) {
+            items += parser.fromJson(json, SearchRepoResponseDto.class).getItems().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(iterations * 100, items);
+        return elapsed;
+    }
+
+    private static long allocatedPerParse(Gson parser, String json) {
+        long before = Benchmarks.allocatedBytes();
+        parser.fromJson(json, SearchRepoResponseDto.class);
+        long after = Benchmarks.allocatedBytes();
+        return before < 0 ? -1L : after - before;
+    }
+
+    // The fixture's items repeated with distinct ids until the page holds the given count.
+    static String searchPage(int count) throws IOException {
+        JsonObject page = new JsonParser().parse(Fixtures.read("search_repositories.json")).getAsJsonObject();
+        JsonArray templates = page.getAsJsonArray("items");
+        JsonArray items = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            JsonObject item = templates.get(i % templates.size()).deepCopy().getAsJsonObject();
+            item.addProperty("id", 1_000_000L + i);
+            items.add(item);
+        }
+        page.addProperty("total_count", count);
+        page.add("items", items);
+        return page.toString();
+    }
+
+    private static String firstRepository() throws IOException {
+        JsonElement page = new JsonParser().parse(Fixtures.read("search_repositories.json"));
+        return page.getAsJsonObject().getAsJsonArray("items").get(0).toString();
+    }
+}
@@ -0,0 +1,121 @@
+package com.usth.githubclient.data.remote.dto;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.usth.githubclient.Benchmarks;
+import com.usth.githubclient.Fixtures;
+import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.domain.mapper.RepoMapper;
+import com.usth.githubclient.domain.mapper.UserMapper;
+import com.usth.githubclient.domain.model.ReposDataEntry;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class RepoDtoProjectionTest {
+
+    private final Gson gson = ApiClient.getGson();
+    private final RepoMapper mapper = new RepoMapper(new UserMapper());
+
+    @Test
+    public void searchItemsSkipTheOwnerAndTimestamps() throws IOException {
+        SearchRepoResponseDto response = gson.fromJson(Fixtures.read("search_repositories.json"),
+                SearchRepoResponseDto.class);
+
+        assertEquals(3, response.getTotalCount());
+        assertEquals(3, response.getItems().size());
+        for (RepoDto item : response.getItems()) {
+            assertNull(item.getOwner());
+            assertNull(item.getCreatedAt());
+            assertNull(item.getUpdatedAt());
+            assertNull(item.getPushedAt());
+            // Outside the list fields, so left at their defaults even where the payload says otherwise.
+            assertFalse(item.isPrivate());
+            assertFalse(item.isFork());
+        }
+
+        RepoDto retrofit = response.getItems().get(0);
+        assertEquals(892275L, retrofit.getId());
+        assertEquals("square/retrofit", retrofit.getFullName());
+        assertEquals("Java", retrofit.getLanguage());
+        assertEquals(42712, retrofit.getStargazersCount());
+        assertEquals(7306, retrofit.getForksCount());
+        assertEquals(42712, retrofit.getWatchersCount());
+        assertEquals(124, retrofit.getOpenIssuesCount());
+        assertEquals("master", retrofit.getDefaultBranch());
+    }
+
+    @Test
+    public void listItemsStillMapToValidEntries() throws IOException {
+        SearchRepoResponseDto response = gson.fromJson(Fixtures.read("search_repositories.json"),
+                SearchRepoResponseDto.class);
+
+        List<ReposDataEntry> entries = mapper.mapList(response.getItems());
+        assertEquals(3, entries.size());
+        ReposDataEntry retrofit = entries.get(0);
+        assertEquals("retrofit", retrofit.getName());
+        assertEquals("square/retrofit", retrofit.getFullName().orElse(null));
+        assertEquals("https://github.com/square/retrofit", retrofit.getHtmlUrl());
+        assertEquals(42712, retrofit.getStargazersCount());
+
+        // Null description and language in the payload map to empty optionals.
+        ReposDataEntry notes = entries.get(2);
+        assertFalse(notes.getDescription().isPresent());
+        assertFalse(notes.getLanguage().isPresent());
+    }
+
+    @Test
+    public void theFullProjectionKeepsTheOwnerAndTimestamps() throws IOException {
+        String item = new JsonParser().parse(Fixtures.read("search_repositories.json"))
+                .getAsJsonObject().getAsJsonArray("items").get(0).toString();
+
+        RepoDto full = gson.fromJson(item, RepoDto.class);
+        assertNotNull(full.getOwner());
+        assertEquals("square", full.getOwner().getLogin());
+        assertEquals("2010-09-06T21:39:43Z", full.getCreatedAt());
+        assertEquals("2024-05-01T18:40:02Z", full.getPushedAt());
+    }
+
+    @Test
+    public void benchmarkRetainedSizeOfASearchPage() throws IOException {
+        Benchmarks.assumeEnabled();
+        String json = DtoAdaptersTest.searchPage(100);
+        int pages = 200;
+        Gson reflective = new Gson();
+
+        for (int round = 0; round < 3; round++) {
+            long full = retainedBytesPerItem(reflective, json, pages);
+            long list = retainedBytesPerItem(gson, json, pages);
+            Benchmarks.report("Retained size of a search/repositories item",
+                    "full reflective " + full + " B, list projection " + list + " B (round " + (round + 1) + ")");
+        }
+    }
+
+    // Heap still in use once the decoded pages are the only thing left to keep alive.
+    private static long retainedBytesPerItem(Gson parser, String json, int pages) {
+        long before = usedHeapAfterGc();
+        List<SearchRepoResponseDto> kept = new ArrayList<>(pages);
+        for (int i = 0; i < pages; i++) {
+            kept.add(parser.fromJson(json, SearchRepoResponseDto.class));
+        }
+        long after = usedHeapAfterGc();
+        assertEquals(pages, kept.size());
+        return (after - before) / (pages * 100L);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,283 @@
+package com.usth.githubclient.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.google.gson.Gson;
+import com.usth.githubclient.data.local.CachedEntry;
+import com.usth.githubclient.data.local.ContributionIndex;
+import com.usth.githubclient.data.local.ContributionIndexStore;
+import com.usth.githubclient.data.local.ContributionYearStore;
+import com.usth.githubclient.data.local.GithubDatabase;
+import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.data.remote.dto.EventDto;
+import com.usth.githubclient.data.remote.dto.UserDto;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import okhttp3.Headers;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+public class ContributionRepositoryTest {
+
+    private static final String LOGIN = "octocat";
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.HOURS);
+    private final long sinceMillis = now.minus(30, ChronoUnit.DAYS).toEpochMilli();
+    private final FakeEvents events = new FakeEvents();
+    private GithubDatabase database;
+    private ContributionIndexStore store;
+    private ContributionRepository repository;
+    private long nextId = 1_000L;
+
+    @Before
+    public void setUp() {
+        database = new GithubDatabase(ApplicationProvider.getApplicationContext(), Runnable::run);
+        store = new ContributionIndexStore(database);
+        repository = new ContributionRepository(new ApiClient(), new EventPageFetcher(events),
+                store, new ContributionYearStore(database));
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void graphQlRefusalLastsUntilTheTokenChanges() throws IOException {
+        MockWebServer server = new MockWebServer();
+        ApiClient apiClient = new ApiClient();
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(401));
+        }
+        server.start();
+        ApiClient.setBaseUrl(server.url("/").toString());
+        try {
+            apiClient.setAuthToken("token-1");
+            repository.loadYear("first", 2020, ZoneOffset.UTC);
+            repository.loadYear("second", 2020, ZoneOffset.UTC);
+            assertEquals(1, server.getRequestCount());
+
+            apiClient.setAuthToken("token-2");
+            repository.loadYear("third", 2020, ZoneOffset.UTC);
+            assertEquals(2, server.getRequestCount());
+        } finally {
+            apiClient.clearAuthToken();
+            ApiClient.setBaseUrl(null);
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void failedPageKeepsTheIndexUnsavedUntilAFullWalk() throws IOException {
+        addEvents(150);
+        events.failingPages.add(2);
+
+        ContributionIndex partial = repository.sync(LOGIN, sinceMillis, ZoneOffset.UTC);
+        assertEquals(100, total(partial));
+        assertNull("A partial walk must not be saved", store.load(LOGIN));
+
+        events.failingPages.clear();
+        ContributionIndex full = repository.sync(LOGIN, sinceMillis, ZoneOffset.UTC);
+        assertEquals(150, total(full));
+        assertEquals(150, total(store.load(LOGIN)));
+    }
+
+    @Test
+    public void failedIncrementalPageKeepsTheWatermarkUntilTheEventsAreCounted() throws IOException {
+        addEvents(20);
+        repository.sync(LOGIN, sinceMillis, ZoneOffset.UTC);
+        long watermark = store.load(LOGIN).getWatermarkEventId();
+
+        // 120 new events take five incremental pages, and two full pages as well.
+        addEvents(120);
+        events.failingPages.add(2);
+        ContributionIndex unchanged = repository.sync(LOGIN, sinceMillis, ZoneOffset.UTC);
+        assertEquals(20, total(unchanged));
+        assertEquals(watermark, store.load(LOGIN).getWatermarkEventId());
+
+        events.failingPages.clear();
+        ContributionIndex caughtUp = repository.sync(LOGIN, sinceMillis, ZoneOffset.UTC);
+        assertEquals(140, total(caughtUp));
+        assertEquals(140, total(store.load(LOGIN)));
+    }
+
+    @Test
+    public void incrementalSyncCountsOnlyNewEvents() throws IOException {
+        addEvents(20);
+        repository.sync(LOGIN, sinceMillis, ZoneOffset.UTC);
+        addEvents(5);
+        events.requests = 0;
+
+        ContributionIndex index = repository.sync(LOGIN, sinceMillis, ZoneOffset.UTC);
+
+        assertEquals(25, total(index));
+        assertEquals(1, events.requests);
+    }
+
+    /**
+     * Adds events that are newer than every event so far, one hour apart.
+     */
+    private void addEvents(int count) {
+        List<EventDto> added = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = nextId++;
+            Instant createdAt = now.minus(2_000 - id, ChronoUnit.MINUTES);
+            added.add(0, new Gson().fromJson("{\"id\":\"" + id + "\",\"type\":\"PushEvent\",\"created_at\":\""
+                    + createdAt + "\"}", EventDto.class));
+        }
+        events.events.addAll(0, added);
+    }
+
+    private static int total(ContributionIndex index) {
+        assertNotNull(index);
+        int total = 0;
+        for (int count : index.getDayCounts().values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Serves the events newest first, one slice per page, with the Link header GitHub sends.
+     */
+    private static final class FakeEvents implements UserRepository {
+        final List<EventDto> events = new ArrayList<>();
+        final Set<Integer> failingPages = new HashSet<>();
+        int requests;
+
+        @Override
+        public Call<List<EventDto>> getUserEvents(String username, int page, int perPage) {
+            requests++;
+            if (failingPages.contains(page)) {
+                return new ImmediateCall(null);
+            }
+            int from = Math.min(events.size(), (page - 1) * perPage);
+            int to = Math.min(events.size(), page * perPage);
+            int lastPage = Math.max(1, (events.size() + perPage - 1) / perPage);
+            Headers headers = page < lastPage
+                    ? Headers.of("Link", "<https://api.github.com/users/" + username + "/events?page="
+                            + lastPage + ">; rel=\"last\"")
+                    : Headers.of();
+            return new ImmediateCall(Response.success(new ArrayList<>(events.subList(from, to)), headers));
+        }
+
+        @Override
+        public Call<UserDto> getUser(String username) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Call<UserDto> authenticate() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nullable
+        @Override
+        public CachedEntry<UserDto> getCachedUser(String username) {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public CachedEntry<UserDto> getCachedAuthenticatedUser() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public CachedEntry<List<EventDto>> getCachedUserEvents(String username, int page, int perPage) {
+            return null;
+        }
+    }
+
+    /**
+     * A call that answers as soon as it is enqueued, or fails when it has no response.
+     */
+    private static final class ImmediateCall implements Call<List<EventDto>> {
+        private final Response<List<EventDto>> response;
+        private boolean executed;
+        private boolean canceled;
+
+        ImmediateCall(@Nullable Response<List<EventDto>> response) {
+            this.response = response;
+        }
+
+        @Override
+        public Response<List<EventDto>> execute() throws IOException {
+            executed = true;
+            if (response == null) {
+                throw new IOException("Connection reset");
+            }
+            return response;
+        }
+
+        @Override
+        public void enqueue(@NonNull Callback<List<EventDto>> callback) {
+            executed = true;
+            if (response == null) {
+                callback.onFailure(this, new IOException("Connection reset"));
+            } else {
+                callback.onResponse(this, response);
+            }
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @NonNull
+        @Override
+        public Call<List<EventDto>> clone() {
+            return new ImmediateCall(response);
+        }
+
+        @NonNull
+        @Override
+        public Request request() {
+            return new Request.Builder().url("https://api.github.com/users/octocat/events").build();
+        }
+
+        @NonNull
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.usth.githubclient.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.usth.githubclient.Benchmarks;
+import com.usth.githubclient.data.local.CachedEntry;
+import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.data.remote.GithubApiService;
+import com.usth.githubclient.data.remote.dto.EventDto;
+import com.usth.githubclient.data.remote.dto.UserDto;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Call;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Walks event pages served by a {@link MockWebServer} that numbers its events from the newest down,
+ * one hour apart, and names the last page in a {@code Link} header the way GitHub does.
+ */
+public class EventPageFetcherTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutor = new InstantTaskExecutorRule();
+
+    private static final String LOGIN = "octocat";
+    private static final int PER_PAGE = 10;
+    private static final int MAX_PAGES = 10;
+    private static final long TIMEOUT_SECONDS = 5L;
+    private static final long NEWEST_ID = 50_000L;
+
+    private final Instant now = Instant.parse("2024-05-01T12:00:00Z");
+    private final MockWebServer server = new MockWebServer();
+    private final ServerEvents repository = new ServerEvents();
+    private final EventPageFetcher fetcher = new EventPageFetcher(repository);
+    private final List<Integer> requestedPages = Collections.synchronizedList(new ArrayList<>());
+    // Responses for these pages wait until their latch is released.
+    private final Map<Integer, CountDownLatch> heldPages = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> bodyDelayMillis = new ConcurrentHashMap<>();
+    private final CountDownLatch released = new CountDownLatch(1);
+    private volatile int eventCount;
+    private volatile boolean linkHeaders = true;
+    // Taken once: MockWebServer.url() waits on the lock shutdown() holds, so dispatchers must not call it.
+    private String eventsUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) throws InterruptedException {
+                int page = Integer.parseInt(request.getRequestUrl().queryParameter("page"));
+                requestedPages.add(page);
+                CountDownLatch hold = heldPages.get(page);
+                if (hold != null && !hold.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    return new MockResponse().setResponseCode(504);
+                }
+                return page(page);
+            }
+        });
+        server.start();
+        eventsUrl = server.url("/users/" + LOGIN + "/events").toString();
+        ApiClient.setBaseUrl(server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        released.countDown();
+        for (CountDownLatch hold : heldPages.values()) {
+            hold.countDown();
+        }
+        ApiClient.setBaseUrl(null);
+        server.shutdown();
+    }
+
+    @Test
+    public void pagesInTheWindowAreRequestedWhileTheFirstIsInFlight() throws IOException {
+        eventCount = 60;
+        // The first page is only answered once the next two have been requested as well.
+        CountDownLatch prefetched = new CountDownLatch(2);
+        AtomicBoolean firstPageHeld = new AtomicBoolean(true);
+        server.setDispatcher(countingDispatcher(prefetched, firstPageHeld));
+
+        EventPageFetcher.Result result = fetcher.fetchSince(LOGIN, Long.MIN_VALUE, PER_PAGE, MAX_PAGES, 3);
+
+        assertTrue("Pages 2 and 3 were not requested before page 1 was answered", firstPageHeld.get());
+        assertTrue(result.isComplete());
+        assertEquals(60, result.getEvents().size());
+    }
+
+    @Test
+    public void pagesAnsweredOutOfOrderAreReadInOrder() throws IOException {
+        eventCount = 30;
+        bodyDelayMillis.put(1, 300L);
+        bodyDelayMillis.put(2, 150L);
+
+        EventPageFetcher.Result result = fetcher.fetchSince(LOGIN, Long.MIN_VALUE, PER_PAGE, MAX_PAGES, 3);
+
+        assertTrue(result.isComplete());
+        assertEquals(30, result.getEvents().size());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(String.valueOf(NEWEST_ID - i), result.getEvents().get(i).getId());
+        }
+    }
+
+    @Test
+    public void walkStopsOnThePageNamedLastByTheLinkHeader() throws IOException {
+        eventCount = 25;
+
+        EventPageFetcher.Result result = fetcher.fetchSince(LOGIN, Long.MIN_VALUE, PER_PAGE, MAX_PAGES, 2);
+
+        assertTrue(result.isComplete());
+        assertEquals(25, result.getEvents().size());
+        // The first page names page 3 as the last, so nothing past it is ever requested.
+        assertEquals(new TreeSet<>(List.of(1, 2, 3)), new TreeSet<>(requestedPages));
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void aPageWithoutLinksIsTheOnlyPage() throws IOException {
+        eventCount = 7;
+        linkHeaders = false;
+
+        EventPageFetcher.Result result = fetcher.fetchSince(LOGIN, Long.MIN_VALUE, PER_PAGE, MAX_PAGES, 1);
+
+        assertTrue(result.isComplete());
+        assertEquals(7, result.getEvents().size());
+        assertEquals(List.of(1), requestedPages);
+    }
+
+    @Test
+    public void pagesStillLoadingAreCancelledOnceTheCutoffIsCrossed() throws IOException {
+        eventCount = 60;
+        heldPages.put(2, released);
+        heldPages.put(3, released);
+        long cutoff = now.minus(5, ChronoUnit.HOURS).toEpochMilli();
+
+        EventPageFetcher.Result result = fetcher.fetchSince(LOGIN, cutoff, PER_PAGE, MAX_PAGES, 3);
+
+        assertTrue(result.isComplete());
+        // Events 0 to 5 hours old, the cutoff itself included.
+        assertEquals(6, result.getEvents().size());
+        assertTrue(repository.call(2).isCanceled());
+        assertTrue(repository.call(3).isCanceled());
+        assertFalse(repository.call(1).isCanceled());
+    }
+
+    @Test
+    public void benchmarkWindowedFetchOverASlowServer() throws IOException {
+        Benchmarks.assumeEnabled();
+        eventCount = 10 * PER_PAGE;
+        for (int page = 1; page <= 10; page++) {
+            bodyDelayMillis.put(page, 100L);
+        }
+
+        for (int window : new int[] {1, 3, 5, 10}) {
+            long start = System.nanoTime();
+            EventPageFetcher.Result result = fetcher.fetchSince(LOGIN, Long.MIN_VALUE, PER_PAGE, MAX_PAGES, window);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertEquals(eventCount, result.getEvents().size());
+            Benchmarks.report("EventPageFetcher, 10 pages at 100 ms each", "window " + window + ": "
+                    + elapsedMillis + " ms");
+        }
+    }
+
+    // Counts the requests for pages 2 and 3, and records whether they came while page 1 was held.
+    private Dispatcher countingDispatcher(CountDownLatch prefetched, AtomicBoolean firstPageHeld) {
+        return new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) throws InterruptedException {
+                int page = Integer.parseInt(request.getRequestUrl().queryParameter("page"));
+                requestedPages.add(page);
+                if (page == 1) {
+                    firstPageHeld.set(prefetched.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+                } else if (page <= 3) {
+                    prefetched.countDown();
+                }
+                return page(page);
+            }
+        };
+    }
+
+    private MockResponse page(int page) {
+        int lastPage = Math.max(1, (eventCount + PER_PAGE - 1) / PER_PAGE);
+        StringBuilder body = new StringBuilder("[");
+        for (int i = (page - 1) * PER_PAGE; i < Math.min(eventCount, page * PER_PAGE); i++) {
+            if (body.length() > 1) {
+                body.append(',');
+            }
+            body.append("{\"id\":\"").append(NEWEST_ID - i).append("\",\"type\":\"PushEvent\",\"created_at\":\"")
+                    .append(now.minus(i, ChronoUnit.HOURS)).append("\"}");
+        }
+        MockResponse response = new MockResponse().setBody(body.append(']').toString());
+        if (linkHeaders && page < lastPage) {
+            response.setHeader("Link", "<" + eventsUrl + "?page=" + (page + 1) + ">; rel=\"next\", <"
+                    + eventsUrl + "?page=" + lastPage + ">; rel=\"last\"");
+        }
+        Long delay = bodyDelayMillis.get(page);
+        if (delay != null) {
+            response.setBodyDelay(delay, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    /**
+     * Loads events from the test server and keeps the call made for each page.
+     */
+    private static final class ServerEvents implements UserRepository {
+        private final Map<Integer, Call<List<EventDto>>> calls = new ConcurrentHashMap<>();
+
+        Call<List<EventDto>> call(int page) {
+            return calls.get(page);
+        }
+
+        @Override
+        public Call<List<EventDto>> getUserEvents(String username, int page, int perPage) {
+            Call<List<EventDto>> call = new ApiClient().createService(GithubApiService.class)
+                    .getUserEvents(username, page, perPage);
+            calls.put(page, call);
+            return call;
+        }
+
+        @Override
+        public Call<UserDto> getUser(String username) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Call<UserDto> authenticate() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nullable
+        @Override
+        public CachedEntry<UserDto> getCachedUser(String username) {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public CachedEntry<UserDto> getCachedAuthenticatedUser() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public CachedEntry<List<EventDto>> getCachedUserEvents(String username, int page, int perPage) {
+            return null;
+        }
+    }
+}
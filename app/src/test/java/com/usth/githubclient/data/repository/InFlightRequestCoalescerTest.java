@@ -0,0 +1,245 @@
+package com.usth.githubclient.data.repository;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Uses blocking {@link Call#execute()}, since enqueued results are delivered on the main thread.
+ */
+public class InFlightRequestCoalescerTest {
+
+    private final InFlightRequestCoalescer coalescer = new InFlightRequestCoalescer();
+    private final List<PendingCall> started = new ArrayList<>();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @Test
+    public void concurrentCallersShareOneRequest() throws Exception {
+        Future<Response<String>> first = callers.submit(coalescer.coalesce("users/octocat", this::newCall)::execute);
+        awaitStarted(1);
+        Future<Response<String>> second = callers.submit(coalescer.coalesce("users/octocat", this::newCall)::execute);
+        awaitDeduplicated(1);
+
+        started.get(0).complete("octocat");
+
+        assertEquals("octocat", first.get(5, TimeUnit.SECONDS).body());
+        assertEquals("octocat", second.get(5, TimeUnit.SECONDS).body());
+        assertEquals(1, started.size());
+        assertEquals(2, coalescer.getRequestCount());
+    }
+
+    @Test
+    public void callerArrivingBeforeTheSharedCallStartsJoinsIt() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        // The first caller is held after publishing its shared entry but before its call exists.
+        Supplier<Call<String>> slowFactory = () -> {
+            if (created.incrementAndGet() == 1) {
+                creating.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return newCall();
+        };
+        Future<Response<String>> first = callers.submit(coalescer.coalesce("users/octocat", slowFactory)::execute);
+        assertTrue(creating.await(5, TimeUnit.SECONDS));
+        Future<Response<String>> second = callers.submit(coalescer.coalesce("users/octocat", slowFactory)::execute);
+        for (int i = 0; i < 500 && coalescer.getDeduplicatedCount() == 0 && created.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        awaitStarted(1);
+
+        started.get(0).complete("octocat");
+        assertEquals("octocat", first.get(5, TimeUnit.SECONDS).body());
+        assertEquals("octocat", second.get(5, TimeUnit.SECONDS).body());
+        assertEquals(1, created.get());
+        assertEquals(1, coalescer.getDeduplicatedCount());
+    }
+
+    @Test
+    public void simultaneousCallersNeverStartTwoRequests() throws Exception {
+        for (int round = 0; round < 1_000; round++) {
+            String key = "users/octocat?round=" + round;
+            CyclicBarrier together = new CyclicBarrier(2);
+            int before = started.size();
+            List<Future<Response<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                Call<String> call = coalescer.coalesce(key, this::newCall);
+                results.add(callers.submit(() -> {
+                    together.await(5, TimeUnit.SECONDS);
+                    return call.execute();
+                }));
+            }
+            awaitStarted(before + 1);
+            for (int i = 0; i < 500 && coalescer.getRequestCount() < 2L * (round + 1); i++) {
+                Thread.sleep(1);
+            }
+            synchronized (started) {
+                assertEquals("round " + round, before + 1, started.size());
+                started.get(before).complete("octocat");
+            }
+            for (Future<Response<String>> result : results) {
+                assertEquals("octocat", result.get(5, TimeUnit.SECONDS).body());
+            }
+        }
+    }
+
+    @Test
+    public void differentKeysAreNotShared() throws Exception {
+        Future<Response<String>> first = callers.submit(coalescer.coalesce("a users/octocat", this::newCall)::execute);
+        Future<Response<String>> second = callers.submit(coalescer.coalesce("b users/octocat", this::newCall)::execute);
+        awaitStarted(2);
+
+        started.get(0).complete("one");
+        started.get(1).complete("two");
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(0, coalescer.getDeduplicatedCount());
+    }
+
+    @Test
+    public void sharedRequestIsCancelledOnceEveryCallerLeft() throws Exception {
+        Call<String> first = coalescer.coalesce("users/octocat", this::newCall);
+        Call<String> second = coalescer.coalesce("users/octocat", this::newCall);
+        callers.submit(first::execute);
+        awaitStarted(1);
+        callers.submit(second::execute);
+        awaitDeduplicated(1);
+
+        first.cancel();
+        assertFalse(started.get(0).isCanceled());
+        second.cancel();
+        assertTrue(started.get(0).isCanceled());
+    }
+
+    @Test
+    public void callCancelledBeforeItRunsDoesNotJoin() throws Exception {
+        Call<String> cancelled = coalescer.coalesce("users/octocat", this::newCall);
+        cancelled.cancel();
+        try {
+            cancelled.execute();
+            fail("Expected a cancelled call to fail");
+        } catch (IOException expected) {
+            // Like an OkHttp call cancelled before execute().
+        }
+        assertEquals(0, started.size());
+
+        // The next caller owns the shared request alone, so cancelling it stops the request.
+        Call<String> next = coalescer.coalesce("users/octocat", this::newCall);
+        callers.submit(next::execute);
+        awaitStarted(1);
+        next.cancel();
+        assertTrue(started.get(0).isCanceled());
+    }
+
+    private Call<String> newCall() {
+        PendingCall call = new PendingCall();
+        synchronized (started) {
+            started.add(call);
+        }
+        return call;
+    }
+
+    private void awaitStarted(int count) throws InterruptedException {
+        for (int i = 0; i < 5_000; i++) {
+            synchronized (started) {
+                if (started.size() >= count && started.get(count - 1).callback != null) {
+                    return;
+                }
+            }
+            Thread.sleep(1);
+        }
+        fail("Only " + started.size() + " calls started");
+    }
+
+    private void awaitDeduplicated(long count) throws InterruptedException {
+        for (int i = 0; i < 500 && coalescer.getDeduplicatedCount() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, coalescer.getDeduplicatedCount());
+    }
+
+    /**
+     * A call that completes when the test says so.
+     */
+    private static final class PendingCall implements Call<String> {
+        volatile Callback<String> callback;
+        private volatile boolean canceled;
+
+        void complete(String body) {
+            callback.onResponse(this, Response.success(body));
+        }
+
+        @Override
+        public Response<String> execute() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueue(@NonNull Callback<String> callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return callback != null;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @NonNull
+        @Override
+        public Call<String> clone() {
+            return new PendingCall();
+        }
+
+        @NonNull
+        @Override
+        public Request request() {
+            return new Request.Builder().url("https://api.github.com/users/octocat").build();
+        }
+
+        @NonNull
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+    }
+}
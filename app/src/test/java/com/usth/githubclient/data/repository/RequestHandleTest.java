@@ -0,0 +1,92 @@
+package com.usth.githubclient.data.repository;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The counters are shared by every handle, so each test compares them with their value before it ran.
+ */
+public class RequestHandleTest {
+
+    private final RequestHandle handle = new RequestHandle();
+    private final List<String> cancelled = new ArrayList<>();
+    private long cancelledBefore;
+    private long droppedBefore;
+
+    @Before
+    public void setUp() {
+        cancelledBefore = RequestHandle.getCancelledCount();
+        droppedBefore = RequestHandle.getDroppedCount();
+    }
+
+    @Test
+    public void responsesOfAnEarlierGenerationAreDropped() {
+        int first = handle.begin();
+        assertTrue(handle.accept(first));
+
+        int second = handle.begin();
+        assertFalse(handle.accept(first));
+        assertTrue(handle.accept(second));
+        assertEquals(second, handle.generation());
+
+        handle.cancel();
+        assertFalse(handle.accept(second));
+        assertEquals(2, RequestHandle.getDroppedCount() - droppedBefore);
+    }
+
+    @Test
+    public void beginCancelsWhatThePreviousGenerationLeftInFlight() {
+        int first = handle.begin();
+        handle.track(first, request("a"));
+        RequestHandle.Cancellable done = handle.track(first, request("b"));
+        handle.track(first, request("c"));
+        handle.finish(done);
+
+        int second = handle.begin();
+        assertEquals(List.of("a", "c"), cancelled);
+
+        handle.track(second, request("d"));
+        handle.cancel();
+        assertEquals(List.of("a", "c", "d"), cancelled);
+        assertEquals(3, RequestHandle.getCancelledCount() - cancelledBefore);
+    }
+
+    @Test
+    public void requestsTrackedAfterTheirGenerationEndedAreCancelledRightAway() {
+        int first = handle.begin();
+        handle.cancel();
+
+        RequestHandle.Cancellable late = request("late");
+        assertSame(late, handle.track(first, late));
+        assertEquals(List.of("late"), cancelled);
+
+        // Not kept either, so the next generation does not cancel it a second time.
+        handle.begin();
+        assertEquals(List.of("late"), cancelled);
+        assertEquals(1, RequestHandle.getCancelledCount() - cancelledBefore);
+    }
+
+    @Test
+    public void finishedRequestsAreNotCounted() {
+        int generation = handle.begin();
+        handle.finish(handle.track(generation, request("a")));
+        assertTrue(handle.accept(generation));
+
+        handle.cancel();
+        assertTrue(cancelled.isEmpty());
+        assertEquals(0, RequestHandle.getCancelledCount() - cancelledBefore);
+        assertEquals(0, RequestHandle.getDroppedCount() - droppedBefore);
+    }
+
+    private RequestHandle.Cancellable request(String name) {
+        return () -> cancelled.add(name);
+    }
+}
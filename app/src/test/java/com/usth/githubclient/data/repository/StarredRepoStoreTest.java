@@ -0,0 +1,158 @@
+package com.usth.githubclient.data.repository;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.usth.githubclient.data.remote.ApiClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static android.os.Looper.getMainLooper;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Loads the starred set from a stub server that has more stars than the store pages through.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StarredRepoStoreTest {
+
+    private final MockWebServer server = new MockWebServer();
+    private final ApiClient apiClient = new ApiClient();
+    private final Map<String, AtomicInteger> lookups = new ConcurrentHashMap<>();
+    private volatile int starredPages;
+    // Taken once: MockWebServer.url() waits on the lock shutdown() holds, so the dispatcher must not call it.
+    private String starredUrl;
+    private StarredRepoStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                HttpUrl url = request.getRequestUrl();
+                if (url.encodedPath().equals("/user/starred")) {
+                    return starredPage(Integer.parseInt(url.queryParameter("page")));
+                }
+                String repo = url.encodedPath().substring("/user/starred/".length());
+                lookups.computeIfAbsent(repo, r -> new AtomicInteger()).incrementAndGet();
+                return new MockResponse().setResponseCode(repo.equals("owner/extra") ? 204 : 404);
+            }
+        });
+        server.start();
+        starredUrl = server.url("/user/starred").toString();
+        ApiClient.setBaseUrl(server.url("/").toString());
+        apiClient.setAuthToken("token-1");
+        Context context = ApplicationProvider.getApplicationContext();
+        store = new StarredRepoStore(apiClient,
+                context.getSharedPreferences(StarredRepoStore.PREFS_NAME, Context.MODE_PRIVATE));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.clear();
+        apiClient.clearAuthToken();
+        ApiClient.setBaseUrl(null);
+        server.shutdown();
+    }
+
+    @Test
+    public void reposMissingFromATruncatedSetAreLookedUp() throws InterruptedException {
+        starredPages = 25;
+        load();
+
+        assertFalse(store.isStarred("owner/extra"));
+        await(() -> store.isStarred("owner/extra"));
+
+        assertFalse(store.isStarred("owner/other"));
+        await(() -> lookupsOf("owner/other") == 1);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(store.isStarred("owner/other"));
+        }
+        awaitIdleNetwork();
+        assertEquals(1, lookupsOf("owner/other"));
+        // The 20 pages of the capped set, then one lookup for each repository.
+        assertEquals(22, server.getRequestCount());
+    }
+
+    @Test
+    public void completeSetIsNeverLookedUp() throws InterruptedException {
+        starredPages = 2;
+        load();
+
+        assertFalse(store.isStarred("owner/extra"));
+        awaitIdleNetwork();
+        assertEquals(0, lookupsOf("owner/extra"));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    private void load() throws InterruptedException {
+        store.refreshIfStale();
+        // The last page of a truncated set is the cap, page 20.
+        int lastLoaded = Math.min(starredPages, 20);
+        await(() -> store.isStarred("owner/repo" + lastLoaded + "_99"));
+    }
+
+    private int lookupsOf(String repo) {
+        AtomicInteger count = lookups.get(repo);
+        return count == null ? 0 : count.get();
+    }
+
+    private MockResponse starredPage(int page) {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"id\":").append(page * 1000 + i)
+                    .append(",\"full_name\":\"owner/repo").append(page).append('_').append(i).append("\"}");
+        }
+        MockResponse response = new MockResponse().setBody(body.append(']').toString());
+        if (page < starredPages) {
+            response.setHeader("Link", "<" + starredUrl + "?per_page=100&page=" + starredPages + ">; rel=\"last\"");
+        }
+        return response;
+    }
+
+    // Waits for every call the store enqueued to finish, then for the listeners they posted.
+    private static void awaitIdleNetwork() throws InterruptedException {
+        okhttp3.Dispatcher dispatcher = ApiClient.getBaseClient().dispatcher();
+        CountDownLatch idle = new CountDownLatch(1);
+        dispatcher.setIdleCallback(idle::countDown);
+        try {
+            if (dispatcher.runningCallsCount() + dispatcher.queuedCallsCount() > 0) {
+                assertTrue("Calls still running", idle.await(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            dispatcher.setIdleCallback(null);
+        }
+        shadowOf(getMainLooper()).idle();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
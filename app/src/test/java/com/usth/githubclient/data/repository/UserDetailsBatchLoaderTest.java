@@ -0,0 +1,179 @@
+package com.usth.githubclient.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.usth.githubclient.data.remote.ApiClient;
+import com.usth.githubclient.domain.mapper.UserMapper;
+import com.usth.githubclient.domain.model.GitHubUserProfileDataEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Loads pages of logins against a stub server that answers both GraphQL and REST, counting the
+ * round trips each load takes.
+ */
+public class UserDetailsBatchLoaderTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutor = new InstantTaskExecutorRule();
+
+    private final MockWebServer server = new MockWebServer();
+    private final ApiClient apiClient = new ApiClient();
+    private final UserDetailsBatchLoader loader = new UserDetailsBatchLoader(apiClient, new UserMapper());
+    private final AtomicInteger graphQlRoundTrips = new AtomicInteger();
+    private final AtomicInteger restRoundTrips = new AtomicInteger();
+    private volatile boolean graphQlRefused;
+
+    @Before
+    public void setUp() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                if (request.getPath().startsWith("/graphql")) {
+                    graphQlRoundTrips.incrementAndGet();
+                    return graphQlRefused ? new MockResponse().setResponseCode(401) : graphQl(request);
+                }
+                restRoundTrips.incrementAndGet();
+                String login = request.getPath().substring("/users/".length());
+                return json("{\"login\":\"" + login + "\",\"id\":1}");
+            }
+        });
+        server.start();
+        ApiClient.setBaseUrl(server.url("/").toString());
+        apiClient.setAuthToken("token-1");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        apiClient.clearAuthToken();
+        ApiClient.setBaseUrl(null);
+        server.shutdown();
+    }
+
+    @Test
+    public void onePageTakesOneRoundTrip() throws InterruptedException {
+        assertEquals(new HashSet<>(logins(30)), load(logins(30)));
+
+        assertEquals(1, graphQlRoundTrips.get());
+        assertEquals(0, restRoundTrips.get());
+    }
+
+    @Test
+    public void largeListsAreSplitIntoBatchesOfAHundred() throws InterruptedException {
+        assertEquals(new HashSet<>(logins(150)), load(logins(150)));
+
+        assertEquals(2, graphQlRoundTrips.get());
+        assertEquals(0, restRoundTrips.get());
+    }
+
+    @Test
+    public void duplicateLoginsAreLoadedOnce() throws InterruptedException {
+        List<String> logins = new ArrayList<>(logins(10));
+        logins.addAll(logins(10));
+
+        assertEquals(new HashSet<>(logins(10)), load(logins));
+        assertEquals(1, graphQlRoundTrips.get());
+    }
+
+    @Test
+    public void refusedTokenFallsBackToRestUntilTheTokenChanges() throws InterruptedException {
+        graphQlRefused = true;
+        assertEquals(new HashSet<>(logins(5)), load(logins(5)));
+        assertEquals(1, graphQlRoundTrips.get());
+        assertEquals(5, restRoundTrips.get());
+
+        // The same token is not asked again.
+        assertEquals(new HashSet<>(logins(5)), load(logins(5)));
+        assertEquals(1, graphQlRoundTrips.get());
+        assertEquals(10, restRoundTrips.get());
+
+        // A new sign-in gets GraphQL back.
+        graphQlRefused = false;
+        apiClient.setAuthToken("token-2");
+        assertEquals(new HashSet<>(logins(5)), load(logins(5)));
+        assertEquals(2, graphQlRoundTrips.get());
+        assertEquals(10, restRoundTrips.get());
+    }
+
+    @Test
+    public void withoutATokenEveryLoginIsARestCall() throws InterruptedException {
+        apiClient.clearAuthToken();
+
+        assertEquals(new HashSet<>(logins(4)), load(logins(4)));
+
+        assertEquals(0, graphQlRoundTrips.get());
+        assertEquals(4, restRoundTrips.get());
+    }
+
+    private Set<String> load(List<String> logins) throws InterruptedException {
+        int expected = new HashSet<>(logins).size();
+        Set<String> loaded = new HashSet<>();
+        CountDownLatch done = new CountDownLatch(expected);
+        RequestHandle handle = new RequestHandle();
+        loader.load(logins, handle, handle.begin(), users -> {
+            synchronized (loaded) {
+                for (GitHubUserProfileDataEntry user : users) {
+                    if (loaded.add(user.getUsername())) {
+                        done.countDown();
+                    }
+                }
+            }
+        });
+        assertTrue("Timed out loading " + logins, done.await(10, TimeUnit.SECONDS));
+        synchronized (loaded) {
+            return new HashSet<>(loaded);
+        }
+    }
+
+    private static List<String> logins(int count) {
+        List<String> logins = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            logins.add("user" + i);
+        }
+        return logins;
+    }
+
+    // Answers every alias of the query with the login passed in its variable.
+    private static MockResponse graphQl(RecordedRequest request) {
+        JsonObject variables = new JsonParser().parse(request.getBody().readUtf8())
+                .getAsJsonObject().getAsJsonObject("variables");
+        StringBuilder data = new StringBuilder("{\"data\":{");
+        for (int i = 0; i < variables.size(); i++) {
+            if (i > 0) {
+                data.append(',');
+            }
+            data.append("\"u").append(i).append("\":{\"databaseId\":").append(i)
+                    .append(",\"login\":\"").append(variables.get("l" + i).getAsString())
+                    .append("\",\"repositories\":{\"totalCount\":1},\"followers\":{\"totalCount\":2}}");
+        }
+        return json(data.append("}}").toString());
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
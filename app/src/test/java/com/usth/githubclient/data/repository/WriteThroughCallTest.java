@@ -0,0 +1,152 @@
+package com.usth.githubclient.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.google.gson.Gson;
+import com.usth.githubclient.data.local.CachedEntry;
+import com.usth.githubclient.data.local.GithubDatabase;
+import com.usth.githubclient.data.local.LocalCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+public class WriteThroughCallTest {
+
+    private GithubDatabase database;
+    private LocalCache cache;
+
+    @Before
+    public void setUp() {
+        database = new GithubDatabase(ApplicationProvider.getApplicationContext(), Runnable::run);
+        cache = new LocalCache(database, new Gson(), LocalCache.DEFAULT_MAX_SIZE_BYTES);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void executeStoresSuccessfulBody() throws Exception {
+        Call<String> call = writeThrough(new FixedCall(Response.success("octocat")), "octocat");
+
+        assertEquals("octocat", call.execute().body());
+
+        CachedEntry<String> entry = cache.get(LocalCache.Kind.USER, "octocat", String.class);
+        assertNotNull(entry);
+        assertEquals("octocat", entry.getValue());
+    }
+
+    @Test
+    public void enqueueStoresBeforeTheCallbackRuns() {
+        Call<String> call = writeThrough(new FixedCall(Response.success("octocat")), "octocat");
+        AtomicReference<CachedEntry<String>> seenByCallback = new AtomicReference<>();
+
+        call.enqueue(new Callback<String>() {
+            @Override
+            public void onResponse(@NonNull Call<String> c, @NonNull Response<String> response) {
+                assertSame(call, c);
+                seenByCallback.set(cache.get(LocalCache.Kind.USER, "octocat", String.class));
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<String> c, @NonNull Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertNotNull(seenByCallback.get());
+    }
+
+    @Test
+    public void errorResponsesAreNotStored() throws Exception {
+        Response<String> notFound = Response.error(404,
+                ResponseBody.create("{}", MediaType.get("application/json")));
+        Call<String> call = writeThrough(new FixedCall(notFound), "ghost");
+
+        assertEquals(404, call.execute().code());
+        assertNull(cache.get(LocalCache.Kind.USER, "ghost", String.class));
+    }
+
+    private Call<String> writeThrough(Call<String> delegate, String key) {
+        return new WriteThroughCall<>(delegate, body -> cache.put(LocalCache.Kind.USER, key, body));
+    }
+
+    /**
+     * A call that always answers with the same response.
+     */
+    private static final class FixedCall implements Call<String> {
+        private final Response<String> response;
+        private boolean executed;
+        private boolean canceled;
+
+        FixedCall(Response<String> response) {
+            this.response = response;
+        }
+
+        @Override
+        public Response<String> execute() {
+            executed = true;
+            return response;
+        }
+
+        @Override
+        public void enqueue(@NonNull Callback<String> callback) {
+            executed = true;
+            callback.onResponse(this, response);
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @NonNull
+        @Override
+        public Call<String> clone() {
+            return new FixedCall(response);
+        }
+
+        @NonNull
+        @Override
+        public Request request() {
+            return new Request.Builder().url("https://api.github.com/users/octocat").build();
+        }
+
+        @NonNull
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+    }
+}
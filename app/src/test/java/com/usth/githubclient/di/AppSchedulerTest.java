@@ -0,0 +1,170 @@
+package com.usth.githubclient.di;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AppSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 5L;
+
+    // Plain threads: Process.setThreadPriority is not available off the device.
+    private final AppScheduler scheduler = new AppScheduler(1, 1, 4, Thread::new);
+
+    @Test
+    public void queuedTasksStartByPriorityThenInSubmissionOrder() throws Exception {
+        CountDownLatch release = block(AppScheduler.Pool.CPU);
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(5);
+        submit(AppScheduler.Priority.LOW, "low", started, done);
+        submit(AppScheduler.Priority.NORMAL, "normal 1", started, done);
+        submit(AppScheduler.Priority.HIGH, "high 1", started, done);
+        submit(AppScheduler.Priority.NORMAL, "normal 2", started, done);
+        submit(AppScheduler.Priority.HIGH, "high 2", started, done);
+        assertEquals(5, scheduler.getQueueDepth(AppScheduler.Pool.CPU));
+
+        release.countDown();
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("high 1", "high 2", "normal 1", "normal 2", "low"), started);
+    }
+
+    @Test
+    public void serialExecutorRunsOneTaskAtATimeInSubmissionOrder() throws Exception {
+        Executor serial = scheduler.serialExecutor(AppScheduler.Pool.DISK, AppScheduler.Priority.LOW);
+        int tasks = 200;
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            serial.execute(() -> {
+                if (running.incrementAndGet() > 1) {
+                    overlapped.set(true);
+                }
+                // Give another disk thread the chance to overlap, if the executor let it.
+                Thread.yield();
+                order.add(index);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(overlapped.get());
+        for (int i = 0; i < tasks; i++) {
+            assertEquals(Integer.valueOf(i), order.get(i));
+        }
+    }
+
+    @Test
+    public void serialExecutorKeepsGoingAfterAFailingTask() throws Exception {
+        Executor serial = scheduler.serialExecutor(AppScheduler.Pool.DISK, AppScheduler.Priority.LOW);
+        CountDownLatch done = new CountDownLatch(1);
+        serial.execute(() -> {
+            throw new IllegalStateException("write failed");
+        });
+        serial.execute(done::countDown);
+
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancelledScopeDropsQueuedTasksAndInterruptsRunningOnes() throws Exception {
+        AppScheduler.Scope scope = scheduler.newScope();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        scope.execute(AppScheduler.Pool.NETWORK, AppScheduler.Priority.NORMAL, () -> {
+            running.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS * 2));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        AtomicBoolean ran = new AtomicBoolean();
+        Future<?> queued = scope.execute(AppScheduler.Pool.NETWORK, AppScheduler.Priority.HIGH, () -> ran.set(true));
+        assertTrue(running.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        scope.cancel();
+        assertTrue(interrupted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(scope.isCancelled());
+        assertTrue(queued.isCancelled());
+
+        Future<?> late = scope.execute(AppScheduler.Pool.NETWORK, AppScheduler.Priority.HIGH, () -> ran.set(true));
+        assertTrue(late.isCancelled());
+        // Anything still runnable would start on the now idle thread; a task behind it proves it did not.
+        CountDownLatch after = new CountDownLatch(1);
+        scheduler.execute(AppScheduler.Pool.NETWORK, AppScheduler.Priority.LOW, after::countDown);
+        assertTrue(after.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(ran.get());
+    }
+
+    @Test
+    public void otherScopesAreNotCancelled() throws Exception {
+        AppScheduler.Scope cancelled = scheduler.newScope();
+        AppScheduler.Scope alive = scheduler.newScope();
+        cancelled.cancel();
+
+        CountDownLatch done = new CountDownLatch(1);
+        alive.execute(AppScheduler.Pool.CPU, AppScheduler.Priority.NORMAL, done::countDown);
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(alive.isCancelled());
+    }
+
+    @Test
+    public void poolThreadsComeFromTheFactoryAndAreNamedAfterThePool() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        AppScheduler counting = new AppScheduler(1, 1, 1, runnable -> {
+            created.incrementAndGet();
+            return new Thread(runnable);
+        });
+        List<String> names = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        counting.execute(AppScheduler.Pool.DISK, AppScheduler.Priority.NORMAL, () -> {
+            names.add(Thread.currentThread().getName());
+            names.add(String.valueOf(Thread.currentThread().isDaemon()));
+            done.countDown();
+        });
+
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, created.get());
+        assertEquals(Arrays.asList("app-disk-1", "true"), names);
+    }
+
+    // Occupies the only thread of the pool until the returned latch is released.
+    private CountDownLatch block(AppScheduler.Pool pool) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.execute(pool, AppScheduler.Priority.HIGH, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private void submit(AppScheduler.Priority priority, String name, List<String> started, CountDownLatch done) {
+        scheduler.execute(AppScheduler.Pool.CPU, priority, () -> {
+            started.add(name);
+            done.countDown();
+        });
+    }
+}
@@ -0,0 +1,227 @@
+package com.usth.githubclient.domain.contribution;
+
+import com.usth.githubclient.Benchmarks;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContributionAggregatorTest {
+
+    private static final String[] OFFSETS = {"Z", "+00:00", "-00:30", "+05:45", "-03:30", "+09:00", "-12:00", "+14:00"};
+    private static final String[] ZONES = {"UTC", "America/New_York", "Europe/London", "Australia/Lord_Howe",
+            "Asia/Kathmandu", "Pacific/Apia", "America/Sao_Paulo"};
+
+    @Test
+    public void parsesLikeJavaTime() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            String text = randomTimestamp(random, -2_208_988_800L, 4_102_444_800L);
+            assertEquals(text, OffsetDateTime.parse(text).toEpochSecond(), ContributionAggregator.parseEpochSecond(text));
+        }
+    }
+
+    @Test
+    public void handlesLeapYears() {
+        assertEquals(epochSecond("2000-02-29T00:00:00Z"), ContributionAggregator.parseEpochSecond("2000-02-29T00:00:00Z"));
+        assertEquals(epochSecond("2024-02-29T23:59:59Z"), ContributionAggregator.parseEpochSecond("2024-02-29T23:59:59Z"));
+        assertEquals(epochSecond("2100-03-01T00:00:00Z"), ContributionAggregator.parseEpochSecond("2100-03-01T00:00:00Z"));
+        assertEquals(epochSecond("2024-12-31T12:00:00Z"), ContributionAggregator.parseEpochSecond("2024-12-31T12:00:00Z"));
+        assertEquals(Long.MIN_VALUE, ContributionAggregator.parseEpochSecond("2023-02-29T00:00:00Z"));
+        assertEquals(Long.MIN_VALUE, ContributionAggregator.parseEpochSecond("1900-02-29T00:00:00Z"));
+        assertEquals(Long.MIN_VALUE, ContributionAggregator.parseEpochSecond("2100-02-29T00:00:00Z"));
+    }
+
+    @Test
+    public void rejectsMalformedTimestamps() {
+        String[] malformed = {
+                null, "", "2024-05-01", "2024-05-01T12:34:56", "2024-05-01 12:34:56Z", "2024/05/01T12:34:56Z",
+                "2024-5-01T12:34:56Z", "2024-13-01T12:34:56Z", "2024-00-01T12:34:56Z", "2024-04-31T12:34:56Z",
+                "2024-05-00T12:34:56Z", "2024-05-01T24:00:00Z", "2024-05-01T12:60:00Z", "2024-05-01T12:34:60Z",
+                "2024-05-01T12:34:56+0700", "2024-05-01T12:34:56+19:00",
+                "2024-05-01T12:34:56+07:60", "2024-05-01T12:34:56Zjunk", "2024-05-01T1a:34:56Z",
+        };
+        for (String text : malformed) {
+            assertEquals(text, Long.MIN_VALUE, ContributionAggregator.parseEpochSecond(text));
+            if (text != null) {
+                assertRejectedByJavaTime(text);
+            }
+        }
+        // java.time also takes these, but GitHub always sends an upper-case Z or a full offset.
+        assertEquals(Long.MIN_VALUE, ContributionAggregator.parseEpochSecond("2024-05-01T12:34:56+07"));
+        assertEquals(Long.MIN_VALUE, ContributionAggregator.parseEpochSecond("2024-05-01T12:34:56z"));
+    }
+
+    @Test
+    public void bucketsLikeJavaTimeAcrossZones() {
+        Random random = new Random(7);
+        for (String zoneId : ZONES) {
+            ZoneId zone = ZoneId.of(zoneId);
+            // Covers both DST changes of 2024 in each hemisphere, and Apia's skipped 2011-12-30.
+            int days = 400;
+            for (long firstDay : new long[]{LocalDate.of(2024, 1, 1).toEpochDay(), LocalDate.of(2011, 6, 1).toEpochDay()}) {
+                ContributionAggregator aggregator = new ContributionAggregator(zone, firstDay, days);
+                int[] expected = new int[days];
+                long from = (firstDay - 2) * 86_400L;
+                long to = (firstDay + days + 2) * 86_400L;
+                for (int i = 0; i < 20_000; i++) {
+                    String text = randomTimestamp(random, from, to);
+                    long day = Instant.ofEpochSecond(OffsetDateTime.parse(text).toEpochSecond())
+                            .atZone(zone).toLocalDate().toEpochDay();
+                    boolean inRange = day >= firstDay && day < firstDay + days;
+                    if (inRange) {
+                        expected[(int) (day - firstDay)]++;
+                    }
+                    assertEquals(zoneId + " " + text, inRange, aggregator.add(text));
+                }
+                assertArrayEquals(zoneId, expected, aggregator.getCounts());
+            }
+        }
+    }
+
+    @Test
+    public void bucketsTheSecondsAroundDstChanges() {
+        ZoneId newYork = ZoneId.of("America/New_York");
+        long firstDay = LocalDate.of(2024, 3, 1).toEpochDay();
+        ContributionAggregator aggregator = new ContributionAggregator(newYork, firstDay, 300);
+        // Spring forward at 07:00Z on 2024-03-10, fall back at 06:00Z on 2024-11-03, plus local midnights either side.
+        String[] edges = {"2024-03-10T06:59:59Z", "2024-03-10T07:00:00Z", "2024-03-10T04:59:59Z", "2024-03-10T05:00:00Z",
+                "2024-03-11T03:59:59Z", "2024-03-11T04:00:00Z", "2024-11-03T05:59:59Z", "2024-11-03T06:00:00Z",
+                "2024-11-03T03:59:59Z", "2024-11-03T04:00:00Z", "2024-11-04T04:59:59Z", "2024-11-04T05:00:00Z"};
+        int[] expected = new int[300];
+        for (String edge : edges) {
+            assertTrue(edge, aggregator.add(edge));
+            expected[(int) (Instant.parse(edge).atZone(newYork).toLocalDate().toEpochDay() - firstDay)]++;
+        }
+        assertArrayEquals(expected, aggregator.getCounts());
+        assertEquals(1, aggregator.getCounts()[(int) (LocalDate.of(2024, 3, 9).toEpochDay() - firstDay)]);
+        assertEquals(4, aggregator.getCounts()[(int) (LocalDate.of(2024, 3, 10).toEpochDay() - firstDay)]);
+    }
+
+    @Test
+    public void ignoresEventsOutsideTheRange() {
+        long firstDay = LocalDate.of(2024, 5, 1).toEpochDay();
+        ContributionAggregator aggregator = new ContributionAggregator(ZoneOffset.UTC, firstDay, 31);
+
+        assertFalse(aggregator.add("2024-04-30T23:59:59Z"));
+        assertTrue(aggregator.add("2024-05-01T00:00:00Z"));
+        assertTrue(aggregator.add("2024-05-31T23:59:59Z"));
+        assertFalse(aggregator.add("2024-06-01T00:00:00Z"));
+        assertFalse(aggregator.add("not a timestamp"));
+        assertFalse(aggregator.addEpochSecond(Long.MIN_VALUE));
+        assertEquals(1, aggregator.getCounts()[0]);
+        assertEquals(1, aggregator.getCounts()[30]);
+    }
+
+    @Test
+    public void benchmarkAgainstJavaTime() {
+        Benchmarks.assumeEnabled();
+        ZoneId zone = ZoneId.of("Europe/London");
+        long firstDay = LocalDate.of(2024, 1, 1).toEpochDay();
+        String[] timestamps = new String[100_000];
+        Random random = new Random(1);
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = randomTimestamp(random, firstDay * 86_400L, (firstDay + 366) * 86_400L);
+        }
+
+        // Warm up both paths so the comparison measures compiled code.
+        for (int i = 0; i < 5; i++) {
+            aggregate(timestamps, 10_000, zone, firstDay);
+            aggregateWithJavaTime(timestamps, 10_000, zone);
+        }
+        for (int events : new int[]{1_000, 100_000}) {
+            long allocated = Benchmarks.allocatedBytes();
+            long start = System.nanoTime();
+            int counted = aggregate(timestamps, events, zone, firstDay);
+            long aggregatorNanos = System.nanoTime() - start;
+            long aggregatorBytes = Benchmarks.allocatedBytes() - allocated;
+
+            allocated = Benchmarks.allocatedBytes();
+            start = System.nanoTime();
+            int javaTimeCounted = aggregateWithJavaTime(timestamps, events, zone);
+            long javaTimeNanos = System.nanoTime() - start;
+            long javaTimeBytes = Benchmarks.allocatedBytes() - allocated;
+
+            assertEquals(javaTimeCounted, counted);
+            Benchmarks.report("ContributionAggregator, " + events + " events",
+                    "aggregator " + aggregatorNanos / events + " ns and " + aggregatorBytes / events
+                            + " B per event, java.time " + javaTimeNanos / events + " ns and "
+                            + javaTimeBytes / events + " B per event");
+        }
+    }
+
+    private static int aggregate(String[] timestamps, int events, ZoneId zone, long firstDay) {
+        ContributionAggregator aggregator = new ContributionAggregator(zone, firstDay, 366);
+        int counted = 0;
+        for (int i = 0; i < events; i++) {
+            if (aggregator.add(timestamps[i])) {
+                counted++;
+            }
+        }
+        return counted;
+    }
+
+    // What the code did before: parse through java.time and count into a boxed map.
+    private static int aggregateWithJavaTime(String[] timestamps, int events, ZoneId zone) {
+        Map<LocalDate, Integer> counts = new TreeMap<>();
+        for (int i = 0; i < events; i++) {
+            counts.merge(OffsetDateTime.parse(timestamps[i]).atZoneSameInstant(zone).toLocalDate(), 1, Integer::sum);
+        }
+        int counted = 0;
+        for (int count : counts.values()) {
+            counted += count;
+        }
+        return counted;
+    }
+
+    /**
+     * Formats a random moment between two epoch seconds the way GitHub or another ISO-8601 writer might.
+     */
+    private static String randomTimestamp(Random random, long fromEpochSecond, long toEpochSecond) {
+        long epochSecond = fromEpochSecond + (long) (random.nextDouble() * (toEpochSecond - fromEpochSecond));
+        String offset = OFFSETS[random.nextInt(OFFSETS.length)];
+        ZoneOffset zoneOffset = offset.equals("Z") ? ZoneOffset.UTC : ZoneOffset.of(offset);
+        String local = Instant.ofEpochSecond(epochSecond).atOffset(zoneOffset).toLocalDateTime().toString();
+        // LocalDateTime.toString() leaves out a zero second.
+        if (local.length() == 16) {
+            local += ":00";
+        }
+        switch (random.nextInt(3)) {
+            case 1:
+                local += ".123";
+                break;
+            case 2:
+                local += "." + random.nextInt(1_000_000_000);
+                break;
+            default:
+                break;
+        }
+        return local + offset;
+    }
+
+    private static long epochSecond(String text) {
+        return Instant.parse(text).getEpochSecond();
+    }
+
+    private static void assertRejectedByJavaTime(String text) {
+        try {
+            OffsetDateTime.parse(text);
+        } catch (DateTimeParseException expected) {
+            return;
+        }
+        throw new AssertionError("java.time accepts " + text);
+    }
+}
@@ -0,0 +1,167 @@
+package com.usth.githubclient.util;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.accessibility.AccessibilityNodeProvider;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.usth.githubclient.Benchmarks;
+import com.usth.githubclient.domain.model.ContributionYear;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class ContributionGridViewTest {
+
+    private static final int WIDTH = 720;
+    private static final LocalDate TODAY = LocalDate.of(2024, 5, 3);
+
+    private final List<String> clicks = new ArrayList<>();
+    private ContributionGridView view;
+    private ContributionYear year;
+
+    @Before
+    public void setUp() {
+        short[] counts = new short[366];
+        counts[TODAY.getDayOfYear() - 1] = 4;
+        counts[TODAY.plusDays(1).getDayOfYear() - 1] = 1;
+        year = new ContributionYear(2024, counts);
+        view = new ContributionGridView(ApplicationProvider.getApplicationContext());
+        view.setOnDayClickListener((date, count) -> clicks.add(date + "=" + count));
+    }
+
+    @Test
+    public void everyShownDayIsAVirtualViewDescribedByItsDateAndCount() {
+        view.setMonth(year, 5, TODAY);
+        layout();
+        AccessibilityNodeProvider provider = view.getAccessibilityNodeProvider();
+        assertNotNull(provider);
+
+        assertEquals(31, provider.createAccessibilityNodeInfo(View.NO_ID).getChildCount());
+        AccessibilityNodeInfo today = provider.createAccessibilityNodeInfo(dayIndex(TODAY));
+        assertEquals("4 contributions on " + longDate(TODAY), today.getContentDescription().toString());
+        assertTrue(today.isSelected());
+        AccessibilityNodeInfo tomorrow = provider.createAccessibilityNodeInfo(dayIndex(TODAY.plusDays(1)));
+        assertEquals("1 contribution on " + longDate(TODAY.plusDays(1)), tomorrow.getContentDescription().toString());
+        assertFalse(tomorrow.isSelected());
+        AccessibilityNodeInfo empty = provider.createAccessibilityNodeInfo(dayIndex(TODAY.plusDays(2)));
+        assertEquals("No contributions on " + longDate(TODAY.plusDays(2)), empty.getContentDescription().toString());
+
+        view.setYear(year);
+        layout();
+        assertEquals(366, view.getAccessibilityNodeProvider().createAccessibilityNodeInfo(View.NO_ID).getChildCount());
+    }
+
+    @Test
+    public void virtualViewBoundsAgreeWithTheTouchHitTest() {
+        view.setMonth(year, 5, TODAY);
+        layout();
+        assertEveryDayIsTappedAtTheCenterOfItsNode(LocalDate.of(2024, 5, 1), 31);
+
+        view.setYear(year);
+        layout();
+        assertEveryDayIsTappedAtTheCenterOfItsNode(LocalDate.of(2024, 1, 1), 366);
+    }
+
+    @Test
+    public void clickActionReportsTheDayLikeATap() {
+        view.setMonth(year, 5, TODAY);
+        layout();
+        AccessibilityNodeProvider provider = view.getAccessibilityNodeProvider();
+
+        assertTrue(provider.performAction(dayIndex(TODAY), AccessibilityNodeInfo.ACTION_CLICK, null));
+        // A day of another month is not shown, so it cannot be clicked.
+        assertFalse(provider.performAction(dayIndex(LocalDate.of(2024, 6, 1)), AccessibilityNodeInfo.ACTION_CLICK,
+                null));
+        assertEquals(List.of("2024-05-03=4"), clicks);
+    }
+
+    @Test
+    @GraphicsMode(GraphicsMode.Mode.NATIVE)
+    public void benchmarkFrameTime() {
+        Benchmarks.assumeEnabled();
+        view.setMonth(year, 5, TODAY);
+        reportFrames("month");
+        view.setYear(year);
+        reportFrames("year");
+    }
+
+    private void reportFrames(String mode) {
+        layout();
+        Bitmap bitmap = Bitmap.createBitmap(view.getWidth(), view.getHeight(), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        for (int i = 0; i < 500; i++) {
+            view.draw(canvas);
+        }
+        int frames = 2_000;
+        long allocated = Benchmarks.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            view.draw(canvas);
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = Benchmarks.allocatedBytes() - allocated;
+        Benchmarks.report("ContributionGridView, " + mode + " frame at " + view.getWidth() + "x" + view.getHeight(),
+                TimeUnit.NANOSECONDS.toMicros(elapsed / frames) + " us and " + bytes / frames + " B per frame");
+    }
+
+    private void assertEveryDayIsTappedAtTheCenterOfItsNode(LocalDate first, int days) {
+        AccessibilityNodeProvider provider = view.getAccessibilityNodeProvider();
+        Rect bounds = new Rect();
+        for (int i = 0; i < days; i++) {
+            LocalDate date = first.plusDays(i);
+            provider.createAccessibilityNodeInfo(dayIndex(date)).getBoundsInParent(bounds);
+            assertFalse(date.toString(), bounds.isEmpty());
+
+            clicks.clear();
+            tap(bounds.exactCenterX(), bounds.exactCenterY());
+            assertEquals(List.of(date + "=" + year.getCount(dayIndex(date))), clicks);
+        }
+    }
+
+    private void tap(float x, float y) {
+        long now = SystemClock.uptimeMillis();
+        MotionEvent down = MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, x, y, 0);
+        MotionEvent up = MotionEvent.obtain(now, now + 50, MotionEvent.ACTION_UP, x, y, 0);
+        view.onTouchEvent(down);
+        view.onTouchEvent(up);
+        down.recycle();
+        up.recycle();
+    }
+
+    private void layout() {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+    }
+
+    private static int dayIndex(LocalDate date) {
+        return date.getDayOfYear() - 1;
+    }
+
+    private static String longDate(LocalDate date) {
+        return date.format(DateTimeFormatter.ofLocalizedDate(FormatStyle.LONG));
+    }
+}
@@ -0,0 +1,122 @@
+package com.usth.githubclient.util;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static android.os.Looper.getMainLooper;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Types into the debouncer on the paused main looper, advancing its clock between keystrokes.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class QueryDebouncerTest {
+
+    private static final long DELAY_MILLIS = 300L;
+    private static final long KEYSTROKE_MILLIS = 120L;
+
+    private final List<String> events = new ArrayList<>();
+    private final QueryDebouncer debouncer = new QueryDebouncer(DELAY_MILLIS, 3, new QueryDebouncer.Target() {
+        @Override
+        public void onQuery(@NonNull String query) {
+            events.add("query " + query);
+        }
+
+        @Override
+        public void onCleared() {
+            events.add("cleared");
+        }
+    });
+
+    @Test
+    public void keystrokesInQuickSuccessionSendOneQuery() {
+        type("octocat");
+        assertTrue(events.isEmpty());
+
+        idle(DELAY_MILLIS - 1);
+        assertTrue(events.isEmpty());
+        idle(1);
+        assertEquals(List.of("query octocat"), events);
+
+        idle(10 * DELAY_MILLIS);
+        assertEquals(List.of("query octocat"), events);
+    }
+
+    @Test
+    public void queriesShorterThanTheMinimumAreNotSent() {
+        type("oc");
+        idle(DELAY_MILLIS);
+        assertTrue(events.isEmpty());
+
+        // Deleting back below the minimum also drops the query that was waiting.
+        type("o");
+        debouncer.onTextChanged("oct");
+        idle(KEYSTROKE_MILLIS);
+        debouncer.onTextChanged("oc");
+        idle(DELAY_MILLIS);
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void theLastQuerySentIsNotSentAgain() {
+        type("octo");
+        idle(DELAY_MILLIS);
+
+        // Typing on and deleting back before the delay ends on the query already shown.
+        debouncer.onTextChanged("octoc");
+        idle(KEYSTROKE_MILLIS);
+        debouncer.onTextChanged("octo ");
+        idle(DELAY_MILLIS);
+        assertEquals(List.of("query octo"), events);
+
+        debouncer.onTextChanged("octocat");
+        idle(DELAY_MILLIS);
+        assertEquals(List.of("query octo", "query octocat"), events);
+
+        // Submitting sends it again anyway, without waiting.
+        debouncer.submit("octocat");
+        assertEquals(List.of("query octo", "query octocat", "query octocat"), events);
+    }
+
+    @Test
+    public void clearingIsReportedRightAwayAndDropsThePendingQuery() {
+        type("octocat");
+        idle(DELAY_MILLIS);
+        debouncer.onTextChanged("octocats");
+
+        debouncer.onTextChanged("");
+        assertEquals(List.of("query octocat", "cleared"), events);
+        idle(DELAY_MILLIS);
+        assertEquals(List.of("query octocat", "cleared"), events);
+
+        // The last query is forgotten, so typing it again searches again.
+        type("octocat");
+        idle(DELAY_MILLIS);
+        assertEquals(List.of("query octocat", "cleared", "query octocat"), events);
+    }
+
+    // Types the text one character at a time, each keystroke sooner than the delay.
+    private void type(String text) {
+        for (int i = 1; i <= text.length(); i++) {
+            if (i > 1) {
+                idle(KEYSTROKE_MILLIS);
+            }
+            debouncer.onTextChanged(text.substring(0, i));
+        }
+    }
+
+    private static void idle(long millis) {
+        shadowOf(getMainLooper()).idleFor(millis, TimeUnit.MILLISECONDS);
+    }
+}
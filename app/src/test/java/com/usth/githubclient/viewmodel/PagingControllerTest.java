@@ -0,0 +1,211 @@
+package com.usth.githubclient.viewmodel;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PagingControllerTest {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int PREFETCH_DISTANCE = 3;
+    private static final int MAX_PAGES = 3;
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutor = new InstantTaskExecutorRule();
+
+    private final AtomicLong now = new AtomicLong(10_000L);
+    private final FakeSource source = new FakeSource();
+    private final List<Integer> failedFirstPages = new ArrayList<>();
+    private final PagingController<String> controller = new PagingController<>(PAGE_SIZE, PREFETCH_DISTANCE,
+            MAX_PAGES, new PagingController.Listener<String>() {
+                @Override
+                public void onPageLoaded(int page, @NonNull List<String> items) {
+                }
+
+                @Override
+                public void onFirstPageFailed(int code, @Nullable Throwable error) {
+                    failedFirstPages.add(code);
+                }
+            }, now::get);
+
+    @Test
+    public void loadsTheNextPageWithinThePrefetchDistance() {
+        controller.refresh(source);
+        source.answer(1);
+
+        controller.onScrolled(0, 5);
+        assertEquals(1, source.requested.size());
+
+        controller.onScrolled(0, 6);
+        assertEquals(List.of(1, 2), source.requested);
+    }
+
+    @Test
+    public void dropsFarPagesAndLoadsThemAgainOnTheWayBack() {
+        controller.refresh(source);
+        source.answer(1);
+        controller.onScrolled(0, 6);
+        source.answer(2);
+        controller.onScrolled(10, 16);
+        source.answer(3);
+        controller.onScrolled(25, 29);
+        source.answer(4);
+
+        List<String> rows = controller.getItems().getValue();
+        assertEquals(30, rows.size());
+        assertEquals("2-0", rows.get(0));
+
+        controller.onScrolled(2, 6);
+        assertEquals(1, (int) source.last());
+        source.answer(1);
+
+        rows = controller.getItems().getValue();
+        assertEquals(30, rows.size());
+        assertEquals("1-0", rows.get(0));
+        assertEquals("3-9", rows.get(29));
+    }
+
+    @Test
+    public void failedPageIsRetriedOnlyAfterTheDelay() {
+        controller.refresh(source);
+        source.answer(1);
+        controller.onScrolled(0, 9);
+        source.fail(2);
+
+        controller.onScrolled(0, 9);
+        now.addAndGet(1_999L);
+        controller.onScrolled(0, 9);
+        assertEquals(2, source.requested.size());
+
+        now.addAndGet(1L);
+        controller.onScrolled(0, 9);
+        assertEquals(List.of(1, 2, 2), source.requested);
+        assertTrue(failedFirstPages.isEmpty());
+    }
+
+    @Test
+    public void firstPageFailureIsReported() {
+        controller.refresh(source);
+        source.fail(1);
+
+        assertEquals(List.of(500), failedFirstPages);
+    }
+
+    @Test
+    public void responsesOfAnEarlierRefreshAreDropped() {
+        controller.refresh(source);
+        PagingController.PageCallback<String> stale = source.callbacks.get(0);
+        controller.refresh(source);
+
+        stale.onPage(page(1), false);
+        assertNull(controller.getItems().getValue());
+
+        source.answer(1);
+        assertEquals(PAGE_SIZE, controller.getItems().getValue().size());
+    }
+
+    private static List<String> page(int page) {
+        List<String> rows = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            rows.add(page + "-" + i);
+        }
+        return rows;
+    }
+
+    /**
+     * Records every page request and answers it when the test says so.
+     */
+    private static final class FakeSource implements PagingController.PageSource<String> {
+        final List<Integer> requested = new ArrayList<>();
+        final List<PagingController.PageCallback<String>> callbacks = new ArrayList<>();
+
+        @NonNull
+        @Override
+        public Call<?> load(int page, int pageSize, @NonNull PagingController.PageCallback<String> callback) {
+            requested.add(page);
+            callbacks.add(callback);
+            return new IdleCall();
+        }
+
+        Integer last() {
+            return requested.get(requested.size() - 1);
+        }
+
+        void answer(int page) {
+            assertEquals(page, (int) last());
+            callbacks.get(callbacks.size() - 1).onPage(page(page), false);
+        }
+
+        void fail(int page) {
+            assertEquals(page, (int) last());
+            callbacks.get(callbacks.size() - 1).onError(500, null);
+        }
+    }
+
+    /**
+     * A call that never completes on its own.
+     */
+    private static final class IdleCall implements Call<Void> {
+        private boolean canceled;
+
+        @Override
+        public Response<Void> execute() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueue(@NonNull Callback<Void> callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @NonNull
+        @Override
+        public Call<Void> clone() {
+            return new IdleCall();
+        }
+
+        @NonNull
+        @Override
+        public Request request() {
+            return new Request.Builder().url("https://api.github.com/").build();
+        }
+
+        @NonNull
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.usth.githubclient.viewmodel;
+
+import com.usth.githubclient.domain.model.ContributionYear;
+import com.usth.githubclient.domain.model.ReposDataEntry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ProfileLoadTrackerTest {
+
+    private static final List<ReposDataEntry> NO_REPOS = Collections.emptyList();
+
+    private final AtomicLong now = new AtomicLong(10_000L);
+    private final List<UserViewModel.UserUiState> published = new ArrayList<>();
+    private final ProfileLoadTracker tracker = new ProfileLoadTracker(now::get, published::add);
+
+    @Test
+    public void mergesThePartsOfOneLoadIntoEveryPublishedState() {
+        ProfileLoadTracker.Load load = tracker.start("octocat");
+        ContributionYear year = ContributionYear.empty(2024);
+        tracker.update(load, s -> s.withContributions(year));
+        tracker.update(load, s -> s.withRepositories(NO_REPOS));
+
+        assertEquals(2, published.size());
+        UserViewModel.UserUiState last = published.get(1);
+        assertSame(year, last.getContributions());
+        assertEquals(NO_REPOS, last.getRepositories());
+        assertTrue(last.isLoading());
+        assertNull(last.getProfile());
+    }
+
+    @Test
+    public void updatesFromAReplacedLoadAreDropped() {
+        ProfileLoadTracker.Load old = tracker.start("octocat");
+        ProfileLoadTracker.Load current = tracker.start("torvalds");
+        assertSame(current, tracker.current());
+
+        tracker.update(old, s -> s.withRepositories(NO_REPOS));
+        old.finish(ProfileLoadTracker.USER);
+        old.finish(ProfileLoadTracker.CONTRIBUTIONS);
+        old.finish(ProfileLoadTracker.REPOSITORIES);
+
+        assertTrue(published.isEmpty());
+        assertEquals(-1L, tracker.getTimeToFirstContentMillis());
+        assertEquals(-1L, tracker.getTimeToCompleteMillis());
+    }
+
+    @Test
+    public void measuresTimeToFirstContentAndToCompletion() {
+        ProfileLoadTracker.Load load = tracker.start(null);
+        now.addAndGet(40);
+        // A loading state with nothing to show yet is not content.
+        tracker.update(load, ignored -> new UserViewModel.UserUiState(true, null, null));
+        assertEquals(-1L, tracker.getTimeToFirstContentMillis());
+
+        now.addAndGet(210);
+        tracker.update(load, s -> s.withRepositories(NO_REPOS));
+        now.addAndGet(100);
+        tracker.update(load, s -> s.withContributions(ContributionYear.empty(2024)));
+        assertEquals(250L, tracker.getTimeToFirstContentMillis());
+
+        load.finish(ProfileLoadTracker.USER);
+        load.finish(ProfileLoadTracker.REPOSITORIES);
+        load.finish(ProfileLoadTracker.REPOSITORIES);
+        assertEquals(-1L, tracker.getTimeToCompleteMillis());
+        now.addAndGet(50);
+        load.finish(ProfileLoadTracker.CONTRIBUTIONS);
+        assertEquals(400L, tracker.getTimeToCompleteMillis());
+
+        // Finishing again does not move the measurement.
+        now.addAndGet(1_000);
+        load.finish(ProfileLoadTracker.CONTRIBUTIONS);
+        assertEquals(400L, tracker.getTimeToCompleteMillis());
+    }
+
+    @Test
+    public void aNewLoadStartsItsOwnMeasurements() {
+        ProfileLoadTracker.Load first = tracker.start("octocat");
+        now.addAndGet(30);
+        tracker.update(first, s -> s.withRepositories(NO_REPOS));
+        assertEquals(30L, tracker.getTimeToFirstContentMillis());
+
+        ProfileLoadTracker.Load second = tracker.start("octocat");
+        assertEquals(-1L, tracker.getTimeToFirstContentMillis());
+        now.addAndGet(70);
+        tracker.update(second, s -> s.withRepositories(NO_REPOS));
+        assertEquals(70L, tracker.getTimeToFirstContentMillis());
+        assertNotNull(published.get(published.size() - 1).getRepositories());
+    }
+
+    @Test
+    public void onlyTheFirstCallerClaimsTheContributions() {
+        ProfileLoadTracker.Load load = tracker.start("octocat");
+
+        assertTrue(load.claimContributions());
+        assertFalse(load.claimContributions());
+        assertTrue(tracker.start("octocat").claimContributions());
+    }
+}
@@ -0,0 +1,67 @@
+package com.usth.githubclient.viewmodel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class SearchResultCacheTest {
+
+    private static final long TTL_MILLIS = 1_000L;
+
+    private final AtomicLong now = new AtomicLong(50_000L);
+
+    @Test
+    public void queriesMatchIgnoringCaseAndSurroundingSpaces() {
+        SearchResultCache<String> cache = newCache(4);
+        cache.put("Octo", Arrays.asList("octocat", "octokit"));
+
+        assertEquals(Arrays.asList("octocat", "octokit"), cache.get("  octo "));
+    }
+
+    @Test
+    public void storesACopyOfThePage() {
+        SearchResultCache<String> cache = newCache(4);
+        List<String> page = new ArrayList<>(Arrays.asList("octocat"));
+        cache.put("octo", page);
+        page.add("later");
+
+        assertEquals(Arrays.asList("octocat"), cache.get("octo"));
+    }
+
+    @Test
+    public void entryExpiresAfterTtl() {
+        SearchResultCache<String> cache = newCache(4);
+        cache.put("octo", Arrays.asList("octocat"));
+
+        now.addAndGet(TTL_MILLIS);
+        assertNotNull(cache.get("octo"));
+
+        now.addAndGet(1L);
+        assertNull(cache.get("octo"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedQuery() {
+        SearchResultCache<String> cache = newCache(2);
+        cache.put("first", Arrays.asList("a"));
+        cache.put("second", Arrays.asList("b"));
+        cache.get("first");
+
+        cache.put("third", Arrays.asList("c"));
+
+        assertNotNull(cache.get("first"));
+        assertNull(cache.get("second"));
+        assertNotNull(cache.get("third"));
+    }
+
+    private SearchResultCache<String> newCache(int maxQueries) {
+        return new SearchResultCache<>(maxQueries, TTL_MILLIS, now::get);
+    }
+}